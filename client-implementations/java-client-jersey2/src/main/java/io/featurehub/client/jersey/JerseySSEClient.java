@@ -5,6 +5,7 @@ import io.featurehub.client.FeatureHubConfig;
 import io.featurehub.client.InternalFeatureRepository;
 import io.featurehub.client.Readiness;
 import io.featurehub.client.edge.EdgeConnectionState;
+import io.featurehub.client.edge.EdgeEventQueue;
 import io.featurehub.client.edge.EdgeReconnector;
 import io.featurehub.client.edge.EdgeRetryService;
 import io.featurehub.client.utils.SdkVersion;
@@ -27,9 +28,10 @@ import org.slf4j.LoggerFactory;
 
 import java.net.ConnectException;
 import java.net.SocketException;
-import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Future;
 import java.util.function.Consumer;
 
@@ -41,7 +43,9 @@ public class JerseySSEClient implements EdgeService, EdgeReconnector {
   private final EdgeRetryService retryer;
   private EventInput eventSource;
   private final WebTarget target;
-  private final List<CompletableFuture<Readiness>> waitingClients = new ArrayList<>();
+  // completed from the thread that applies the events
+  private final List<CompletableFuture<Readiness>> waitingClients = new CopyOnWriteArrayList<>();
+  private final EdgeEventQueue events;
   private Consumer<EventInput> notify;
 
   public JerseySSEClient(@Nullable InternalFeatureRepository repository, @NotNull FeatureHubConfig config,
@@ -49,6 +53,7 @@ public class JerseySSEClient implements EdgeService, EdgeReconnector {
     this.repository = repository == null ? config.getInternalRepository() : repository;
     this.config = config;
     this.retryer = retryer;
+    this.events = makeEventQueue(retryer, this.repository);
 
     if (config.isServerEvaluation()) {
       log.warn("Jersey SSE client hangs on Context attribute changes for up to 30 seconds, it is recommending using " +
@@ -103,6 +108,15 @@ public class JerseySSEClient implements EdgeService, EdgeReconnector {
     return retryer.isStopped();
   }
 
+  /**
+   * Override this to change how events are handed over to be applied.
+   */
+  @NotNull
+  protected EdgeEventQueue makeEventQueue(@NotNull EdgeRetryService retryer,
+                                          @NotNull InternalFeatureRepository repository) {
+    return new EdgeEventQueue(retryer, repository);
+  }
+
   @Override
   public void close() {
     if (eventSource != null) {
@@ -155,7 +169,7 @@ public class JerseySSEClient implements EdgeService, EdgeReconnector {
         notify.accept(null);
       }
 
-      @Nullable String data;
+      @Nullable byte[] data;
       InboundEvent event;
 
       try {
@@ -173,7 +187,7 @@ public class JerseySSEClient implements EdgeService, EdgeReconnector {
 
           continue;
         }
-        data = event.readData();
+        data = event.getRawData(); // the bytes as sent, decoded straight into features
       } catch (Exception e) {
         onMakeEventSourceException(e);
         log.error("failed read", e);
@@ -190,6 +204,7 @@ public class JerseySSEClient implements EdgeService, EdgeReconnector {
         close();
       }
 
+      events.flush();
       checkForUnsatisfactoryConversation();
 
       notifyWaitingClients();
@@ -203,12 +218,12 @@ public class JerseySSEClient implements EdgeService, EdgeReconnector {
     }
   }
 
-  private boolean processResult(boolean connectionSaidBye, String data, InboundEvent event) {
+  private boolean processResult(boolean connectionSaidBye, byte[] data, InboundEvent event) {
     try {
       final SSEResultState state = retryer.fromValue(event.getName());
 
       if (log.isTraceEnabled()) {
-        log.trace("[featurehub-sdk] decode packet (state {}) {}:{}", state, event.getName(), data);
+        log.trace("[featurehub-sdk] decode packet (state {}) {}:{}", state, event.getName(), text(data));
       }
 
       if (state == null) { // unknown state
@@ -216,9 +231,10 @@ public class JerseySSEClient implements EdgeService, EdgeReconnector {
       }
 
       if (state == SSEResultState.CONFIG) {
-        retryer.edgeConfigInfo(data);
+        retryer.edgeConfigInfo(text(data));
       } else {
-        retryer.convertSSEState(state, data, repository, config.getEnvironmentId());
+        final CompletableFuture<Void> applied = data == null ? CompletableFuture.completedFuture(null)
+          : events.offer(state, data, config.getEnvironmentId());
 
         // reset the timer
         if (state == SSEResultState.FEATURES) {
@@ -232,19 +248,28 @@ public class JerseySSEClient implements EdgeService, EdgeReconnector {
         if (state == SSEResultState.FAILURE) {
           retryer.edgeResult(EdgeConnectionState.API_KEY_NOT_FOUND, this);
         }
-      }
 
-      // tell any waiting clients we are now ready
-      if (!waitingClients.isEmpty() && (state != SSEResultState.ACK && state != SSEResultState.CONFIG) ) {
-        notifyWaitingClients();
+        // tell any waiting clients we are now ready, once the event has been applied
+        if (state != SSEResultState.ACK) {
+          applied.thenRun(() -> {
+            if (!waitingClients.isEmpty()) {
+              notifyWaitingClients();
+            }
+          });
+        }
       }
     } catch (Exception e) {
-      log.error("[featurehub-sdk] failed to decode packet {}:{}", event.getName(), data, e);
+      log.error("[featurehub-sdk] failed to decode packet {}:{}", event.getName(), text(data), e);
     }
 
     return connectionSaidBye;
   }
 
+  @Nullable
+  private static String text(@Nullable byte[] data) {
+    return data == null ? null : new String(data, StandardCharsets.UTF_8);
+  }
+
   private void notifyWaitingClients() {
     waitingClients.forEach(wc -> wc.complete(repository.getReadiness()));
   }
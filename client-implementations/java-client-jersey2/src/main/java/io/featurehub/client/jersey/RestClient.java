@@ -175,7 +175,7 @@ public class RestClient implements EdgeService {
 
       log.trace("updating feature repository: {}", states);
 
-      repository.updateFeatures(states, "polling");
+      repository.replaceFeatures(states, "polling");
 
       if (response.getStatusCode() == 236) {
         log.info("[featurehubsdk] - your SaaS account has reached the limit of the usage you have allowed yourself. Please increase usage in Billing or stop polling.");
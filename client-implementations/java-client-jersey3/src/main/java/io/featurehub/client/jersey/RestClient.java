@@ -175,7 +175,7 @@ public class RestClient implements EdgeService {
 
       log.trace("updating feature repository: {}", states);
 
-      repository.updateFeatures(states, "polling");
+      repository.replaceFeatures(states, "polling");
 
       if (response.getStatusCode() == 236) {
         this.stopped = true; // prevent any further requests
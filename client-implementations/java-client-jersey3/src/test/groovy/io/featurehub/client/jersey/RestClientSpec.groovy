@@ -54,7 +54,7 @@ class RestClientSpec extends Specification {
     then:
       1 * config.apiKeys() >> apiKeys
       1 * featureService.getFeatureStates(apiKeys, '0', [:]) >> response
-      1 * repo.updateFeatures([], "polling")
+      1 * repo.replaceFeatures([], "polling")
       1 * repo.readiness >> Readiness.Ready
       0 * _
       result == Readiness.Ready
@@ -68,7 +68,7 @@ class RestClientSpec extends Specification {
     then:
       1 * config.apiKeys() >> apiKeys
       1 * featureService.getFeatureStates(apiKeys, '0', [:]) >> response
-      1 * repo.updateFeatures([], "polling")
+      1 * repo.replaceFeatures([], "polling")
       1 * repo.readiness >> Readiness.Ready
       0 * _
       client.stopped
@@ -133,7 +133,7 @@ class RestClientSpec extends Specification {
       1 * featureService.getFeatureStates(apiKeys, '0', [:]) >> { throw re }
       1 * repo.readiness >> Readiness.Ready
       0 * repo.notify(_, _)
-      0 * repo.updateFeatures(_, _)
+      0 * repo.replaceFeatures(_, _)
       result == Readiness.Ready
   }
 
@@ -163,14 +163,14 @@ class RestClientSpec extends Specification {
     then:
       1 * config.apiKeys() >> apiKeys
       1 * featureService.getFeatureStates(apiKeys, '0', [:]) >> firstResponse
-      1 * repo.updateFeatures([], "polling")
+      1 * repo.replaceFeatures([], "polling")
       1 * repo.readiness >> Readiness.Ready
     when:
       client.poll().get()
     then:
       1 * config.apiKeys() >> apiKeys
       1 * featureService.getFeatureStates(apiKeys, '0', ['if-none-match': 'abc123']) >> secondResponse
-      1 * repo.updateFeatures([], "polling")
+      1 * repo.replaceFeatures([], "polling")
       1 * repo.readiness >> Readiness.Ready
   }
 
@@ -186,7 +186,7 @@ class RestClientSpec extends Specification {
     then:
       1 * config.apiKeys() >> apiKeys
       1 * featureService.getFeatureStates(apiKeys, '0', [:]) >> response
-      1 * repo.updateFeatures([], "polling")
+      1 * repo.replaceFeatures([], "polling")
       1 * repo.readiness >> Readiness.Ready
       0 * _
       client.pollingInterval == 300
@@ -201,7 +201,7 @@ class RestClientSpec extends Specification {
     then:
       1 * config.apiKeys() >> apiKeys
       1 * featureService.getFeatureStates(apiKeys, '0', [:]) >> response
-      1 * repo.updateFeatures([], "polling")
+      1 * repo.replaceFeatures([], "polling")
       1 * repo.readiness >> Readiness.Ready
       0 * _
       client.pollingInterval == 60
@@ -219,7 +219,7 @@ class RestClientSpec extends Specification {
     then:
       1 * config.apiKeys() >> apiKeys
       1 * featureService.getFeatureStates(apiKeys, 'sha123', ['x-featurehub': 'user-context']) >> response
-      1 * repo.updateFeatures([], "polling")
+      1 * repo.replaceFeatures([], "polling")
       1 * repo.readiness >> Readiness.Ready
       0 * _
       result == Readiness.Ready
@@ -233,7 +233,7 @@ class RestClientSpec extends Specification {
     then:
       1 * config.apiKeys() >> apiKeys
       1 * featureService.getFeatureStates(apiKeys, 'sha123', [:]) >> response
-      1 * repo.updateFeatures([], "polling")
+      1 * repo.replaceFeatures([], "polling")
       1 * repo.readiness >> Readiness.Ready
       0 * _
   }
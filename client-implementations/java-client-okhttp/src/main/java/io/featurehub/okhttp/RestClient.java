@@ -167,7 +167,8 @@ public class RestClient implements EdgeService {
         List<FeatureEnvironmentCollection> environments;
 
         try {
-          environments = mapper.readFeatureCollection(new String(body.bytes()));
+          // decoded as it arrives, rather than reading the whole body into memory (twice) first
+          environments = mapper.readFeatureCollection(body.byteStream());
         } catch (Exception e) {
           log.error("Failed to process successful response from FH Edge server", e);
           processFailure(new IOException(e), change);
@@ -184,7 +185,7 @@ public class RestClient implements EdgeService {
 
         log.trace("updating feature repository: {}", states);
 
-        repository.updateFeatures(states, "polling");
+        repository.replaceFeatures(states, "polling");
 
         if (response.code() == 236) {
           log.info("[featurehubsdk] - your SaaS account has reached the limit of the usage you have allowed yourself. Please increase usage in Billing or stop polling.");
@@ -5,6 +5,7 @@ import io.featurehub.client.FeatureHubConfig;
 import io.featurehub.client.InternalFeatureRepository;
 import io.featurehub.client.Readiness;
 import io.featurehub.client.edge.EdgeConnectionState;
+import io.featurehub.client.edge.EdgeEventQueue;
 import io.featurehub.client.edge.EdgeReconnector;
 import io.featurehub.client.edge.EdgeRetryService;
 import io.featurehub.client.utils.SdkVersion;
@@ -22,9 +23,9 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.Proxy;
 import java.net.SocketTimeoutException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Future;
 
 public class SSEClient implements EdgeService, EdgeReconnector {
@@ -36,7 +37,10 @@ public class SSEClient implements EdgeService, EdgeReconnector {
   private OkHttpClient client;
   private String xFeaturehubHeader;
   private final EdgeRetryService retryer;
-  private final List<CompletableFuture<Readiness>> waitingClients = new ArrayList<>();
+  // completed from the thread that applies the events
+  private final List<CompletableFuture<Readiness>> waitingClients = new CopyOnWriteArrayList<>();
+  // features are applied off the okhttp reader thread
+  private final EdgeEventQueue events;
 
   public SSEClient(
       @Nullable InternalFeatureRepository repository,
@@ -46,6 +50,16 @@ public class SSEClient implements EdgeService, EdgeReconnector {
         repository == null ? (InternalFeatureRepository) config.getRepository() : repository;
     this.config = config;
     this.retryer = retryer;
+    this.events = makeEventQueue(retryer, this.repository);
+  }
+
+  /**
+   * Override this to change how events are handed over to be applied.
+   */
+  @NotNull
+  protected EdgeEventQueue makeEventQueue(@NotNull EdgeRetryService retryer,
+                                          @NotNull InternalFeatureRepository repository) {
+    return new EdgeEventQueue(retryer, repository);
   }
 
   public SSEClient(@NotNull FeatureHubConfig config, @NotNull EdgeRetryService retryer) {
@@ -93,6 +107,9 @@ public class SSEClient implements EdgeService, EdgeReconnector {
                 public void onClosed(@NotNull EventSource eventSource) {
                   log.trace("[featurehub-sdk] closed");
 
+                  // whatever it sent has to be in the repository before we can tell if it was any use
+                  events.flush();
+
                   if (repository.getReadiness() == Readiness.NotReady) {
                     repository.notify(SSEResultState.FAILURE);
                   }
@@ -120,10 +137,12 @@ public class SSEClient implements EdgeService, EdgeReconnector {
 
                     log.trace("[featurehub-sdk] decode packet {}:{}", type, data);
 
+                    CompletableFuture<Void> applied = null;
+
                     if (state == SSEResultState.CONFIG) {
                       retryer.edgeConfigInfo(data);
                     } else if (data != null) {
-                      retryer.convertSSEState(state, data, repository, config.getEnvironmentId());
+                      applied = events.offer(state, data, config.getEnvironmentId());
                     }
 
                     // reset the timer
@@ -139,10 +158,14 @@ public class SSEClient implements EdgeService, EdgeReconnector {
                       retryer.edgeResult(EdgeConnectionState.API_KEY_NOT_FOUND, connector);
                     }
 
-                    // tell any waiting clients we are now ready
+                    // tell any waiting clients we are now ready, once the repository has what we got
                     if (!waitingClients.isEmpty()
                         && (state != SSEResultState.ACK && state != SSEResultState.CONFIG)) {
-                      waitingClients.forEach(wc -> wc.complete(repository.getReadiness()));
+                      if (applied == null) {
+                        notifyWaitingClients();
+                      } else {
+                        applied.thenRun(SSEClient.this::notifyWaitingClients);
+                      }
                     }
                   } catch (Exception e) {
                     log.error("[featurehub-sdk] failed to decode packet {}:{}", type, data, e);
@@ -154,6 +177,8 @@ public class SSEClient implements EdgeService, EdgeReconnector {
                     @NotNull EventSource eventSource,
                     @Nullable Throwable t,
                     @Nullable Response response) {
+                  events.flush();
+
                   if (repository.getReadiness() == Readiness.NotReady) {
                     log.trace(
                       "[featurehub-sdk] failed to connect to {} - {}",
@@ -243,6 +268,10 @@ public class SSEClient implements EdgeService, EdgeReconnector {
     return new OkHttpClient.Builder();
   }
 
+  private void notifyWaitingClients() {
+    waitingClients.forEach(wc -> wc.complete(repository.getReadiness()));
+  }
+
   @Override
   public @NotNull Future<Readiness> contextChange(String newHeader, String contextSha) {
     final CompletableFuture<Readiness> change = new CompletableFuture<>();
@@ -287,6 +316,7 @@ public class SSEClient implements EdgeService, EdgeReconnector {
   public void close() {
     // don't let it try connecting again
     retryer.close();
+    events.close();
 
     // shut down the pool of okhttp connections
     if (client != null) {
@@ -5,6 +5,7 @@ import io.featurehub.client.FeatureHubConfig
 import io.featurehub.client.InternalFeatureRepository
 import io.featurehub.client.Readiness
 import io.featurehub.client.edge.EdgeConnectionState
+import io.featurehub.client.edge.EdgeEventQueue
 import io.featurehub.client.edge.EdgeRetryService
 import io.featurehub.sse.model.SSEResultState
 import okhttp3.Request
@@ -38,6 +39,11 @@ class SSEClientSpec extends Specification {
         request = req
         return mockEventSource
       }
+
+      @Override
+      protected EdgeEventQueue makeEventQueue(EdgeRetryService retryer, InternalFeatureRepository repo) {
+        return new EdgeEventQueue(retryer, repo, 0) // apply them as they arrive, so we can count the calls
+      }
     }
   }
 
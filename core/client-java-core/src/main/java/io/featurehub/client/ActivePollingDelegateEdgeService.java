@@ -1,16 +1,27 @@
 package io.featurehub.client;
 
-import java.util.Timer;
-import java.util.TimerTask;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Polls again every currentInterval() seconds (give or take the scheduler's jitter). If
+ * featurehub.edge.poll-max-interval-seconds is set above the interval, polls that bring nothing new stretch the
+ * wait by half as much again each time up to that maximum, and the first poll that brings a change goes straight
+ * back to the interval.
+ */
 public class ActivePollingDelegateEdgeService extends BasePollingDelegateEdgeService{
-  private Timer timer;
   private static final Logger log = LoggerFactory.getLogger(ActivePollingDelegateEdgeService.class);
+  private static final double STRETCH = 1.5;
+
+  @NotNull private final PollScheduler scheduler;
+  private final long maxIntervalMs; // 0 if the interval never stretches
+  @Nullable private ScheduledFuture<?> nextPoll;
+  private double stretch = 1;
+  private long lastChangeCount = -1;
 
   /**
    * This class has to get the timeout delay from the underlying client because the server can override the timeout delay.
@@ -20,12 +31,23 @@ public class ActivePollingDelegateEdgeService extends BasePollingDelegateEdgeSer
    */
 
   public ActivePollingDelegateEdgeService(@NotNull EdgeService edgeService, @NotNull InternalFeatureRepository repo) {
+    this(edgeService, repo, PollScheduler.shared(), maxIntervalMs());
+  }
+
+  ActivePollingDelegateEdgeService(@NotNull EdgeService edgeService, @NotNull InternalFeatureRepository repo,
+                                   @NotNull PollScheduler scheduler, long maxIntervalMs) {
     super(edgeService, repo);
-    timer = newTimer();
+    this.scheduler = scheduler;
+    this.maxIntervalMs = maxIntervalMs;
   }
 
-  protected Timer newTimer() {
-    return new Timer(true);
+  private static long maxIntervalMs() {
+    try {
+      return Long.parseLong(FeatureHubConfig.getConfig("featurehub.edge.poll-max-interval-seconds", "0")) * 1000;
+    } catch (NumberFormatException e) {
+      log.warn("[featurehubsdk] featurehub.edge.poll-max-interval-seconds is not a number, ignoring it");
+      return 0;
+    }
   }
 
   @Override
@@ -33,28 +55,45 @@ public class ActivePollingDelegateEdgeService extends BasePollingDelegateEdgeSer
     super.postPollActivity();
 
     if (!edgeService.isStopped()) {
-      timer = newTimer(); // once its canceled, you can't reuse it
-
-      try {
-        timer.schedule(new TimerTask() {
-          @Override
-          public void run() {
-            poll();
-          }
-        }, edgeService.currentInterval() * 1000);
-      } catch (IllegalStateException e) {
-        // timer was canceled concurrently (e.g. during close() or contextChange()) - not an error
-        log.debug("Polling timer cancelled before scheduling, client is likely shutting down");
+      synchronized (this) {
+        cancelNextPoll(); // there is only ever one poll waiting
+
+        try {
+          nextPoll = scheduler.schedule(this::poll, nextInterval());
+        } catch (RejectedExecutionException e) {
+          log.debug("Polling scheduler has shut down, the JVM is likely shutting down");
+        }
       }
     }
   }
 
+  /**
+   * How long to wait before polling again, stretched while polls bring nothing new.
+   */
+  synchronized long nextInterval() {
+    final long intervalMs = edgeService.currentInterval() * 1000;
+    final long changeCount = repo.getChangeCount();
+
+    if (maxIntervalMs > intervalMs && intervalMs > 0) {
+      stretch = changeCount != lastChangeCount ? 1 : Math.min(stretch * STRETCH, (double) maxIntervalMs / intervalMs);
+    }
+
+    lastChangeCount = changeCount;
+
+    return (long) (intervalMs * stretch);
+  }
+
+  private void cancelNextPoll() {
+    if (nextPoll != null) {
+      nextPoll.cancel(false);
+      nextPoll = null;
+    }
+  }
+
   // clean up
   @Override
-  protected void prePollActivity() {
-    if (timer != null) {
-      timer.cancel();
-    }
+  protected synchronized void prePollActivity() {
+    cancelNextPoll();
   }
 
   @Override
@@ -1,14 +1,24 @@
 package io.featurehub.client;
 
 public class Applied {
+  // nothing matched, shared as it carries no value
+  public static final Applied NOT_APPLIED = new Applied(false, null, null);
+
   private final boolean matched;
   private final Object value;
   private final String strategyId;
+  // value converted to the feature's type when the strategy was compiled, null if that wasn't possible
+  final Object typedValue;
 
   public Applied(boolean matched, Object value, String strategyId) {
+    this(matched, value, strategyId, null);
+  }
+
+  Applied(boolean matched, Object value, String strategyId, Object typedValue) {
     this.matched = matched;
     this.value = value;
     this.strategyId = strategyId;
+    this.typedValue = typedValue;
   }
 
   public boolean isMatched() {
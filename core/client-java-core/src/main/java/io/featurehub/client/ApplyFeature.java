@@ -2,12 +2,12 @@ package io.featurehub.client;
 
 import io.featurehub.sse.model.FeatureRolloutStrategy;
 import io.featurehub.sse.model.FeatureRolloutStrategyAttribute;
-import io.featurehub.sse.model.RolloutStrategyAttributeConditional;
-import io.featurehub.sse.model.RolloutStrategyFieldType;
+import io.featurehub.sse.model.FeatureValueType;
 import io.featurehub.strategies.matchers.MatcherRepository;
+import io.featurehub.strategies.matchers.PreparedMatcher;
 import io.featurehub.strategies.percentage.PercentageCalculator;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -15,6 +15,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,81 +30,183 @@ public class ApplyFeature {
     this.matcherRepository = matcherRepository;
   }
 
+  /**
+   * Turns the strategies for a feature into a form that can be evaluated repeatedly without
+   * re-examining the model. This should be done once per version of a feature.
+   */
+  @NotNull
+  public CompiledStrategies compile(@Nullable List<FeatureRolloutStrategy> strategies) {
+    return compile(strategies, null);
+  }
+
+  /**
+   * As above, also converting each strategy's value to the feature's type so it isn't converted on every read.
+   */
+  @NotNull
+  public CompiledStrategies compile(@Nullable List<FeatureRolloutStrategy> strategies,
+                                    @Nullable FeatureValueType type) {
+    if (strategies == null || strategies.isEmpty()) {
+      return CompiledStrategies.EMPTY;
+    }
+
+    final CompiledStrategies.Strategy[] compiled = new CompiledStrategies.Strategy[strategies.size()];
+    int pos = 0;
+    for (FeatureRolloutStrategy rsi : strategies) {
+      CompiledStrategies.Attribute[] attributes = null;
+
+      if (rsi.getAttributes() != null && !rsi.getAttributes().isEmpty()) {
+        attributes = new CompiledStrategies.Attribute[rsi.getAttributes().size()];
+        int attrPos = 0;
+        for (FeatureRolloutStrategyAttribute attr : rsi.getAttributes()) {
+          attributes[attrPos++] = new CompiledStrategies.Attribute(attr, matcherRepository.prepare(attr));
+        }
+      }
+
+      compiled[pos++] = new CompiledStrategies.Strategy(rsi, attributes, type);
+    }
+
+    return new CompiledStrategies(compiled);
+  }
+
   public Applied applyFeature(List<FeatureRolloutStrategy> strategies, String key, String featureValueId,
                               ClientContext cac) {
-    if (cac != null & strategies != null && !strategies.isEmpty()) {
-      Integer percentage = null;
-      String percentageKey = null;
-      Map<String, Integer> basePercentage = new HashMap<>();
-      String defaultPercentageKey = cac.defaultPercentageKey();
-
-      for(FeatureRolloutStrategy rsi : strategies ) {
-        if (rsi.getPercentage() != null && (defaultPercentageKey != null || (rsi.getPercentageAttributes() != null && !rsi.getPercentageAttributes().isEmpty()))) {
-          // determine what the percentage key is
-          String newPercentageKey = determinePercentageKey(cac, rsi.getPercentageAttributes());
-
-          int basePercentageVal = basePercentage.computeIfAbsent(newPercentageKey, (k) -> 0);
-          // if we have changed the key or we have never calculated it, calculate it and set the
-          // base percentage to null
-          if (percentage == null || !newPercentageKey.equals(percentageKey)) {
-            percentageKey = newPercentageKey;
-
-            percentage = percentageCalculator.determineClientPercentage(percentageKey,
-              featureValueId);
+    return applyFeature(compile(strategies), key, featureValueId, cac);
+  }
+
+  public Applied applyFeature(@NotNull CompiledStrategies strategies, String key, String featureValueId,
+                              ClientContext cac) {
+    if (cac == null || strategies.isEmpty()) {
+      return Applied.NOT_APPLIED;
+    }
+
+    final String defaultPercentageKey = cac.defaultPercentageKey();
+
+    if (strategies.defaultPercentageKeyOnly) {
+      return applyDefaultPercentageKey(strategies.strategies, key, featureValueId, cac, defaultPercentageKey);
+    }
+
+    return applyPercentageAttributes(strategies.strategies, key, featureValueId, cac, defaultPercentageKey);
+  }
+
+  // all percentage strategies share the default percentage key, so there is only ever one percentage
+  // and one running base percentage to track
+  private Applied applyDefaultPercentageKey(CompiledStrategies.Strategy[] strategies, String key,
+                                            String featureValueId, ClientContext cac,
+                                            @Nullable String defaultPercentageKey) {
+    boolean calculated = false;
+    int percentage = 0;
+    int basePercentage = 0;
+
+    for (CompiledStrategies.Strategy rsi : strategies) {
+      if (rsi.hasPercentage && defaultPercentageKey != null) {
+        if (!calculated) {
+          calculated = true;
+          percentage = determineClientPercentage(cac, defaultPercentageKey, featureValueId);
+          if (log.isTraceEnabled()) {
             log.trace("percentage for {} on {} calculated at {}", defaultPercentageKey, key, percentage);
           }
+        }
 
-          log.trace("comparing actual {} vs required: {}", percentage, rsi.getPercentage());
-          int useBasePercentage = rsi.getAttributes() == null || rsi.getAttributes().isEmpty() ? basePercentageVal : 0;
-          // if the percentage is lower than the user's key +
-          // id of feature value then apply it
-          if (percentage <= (useBasePercentage + rsi.getPercentage())) {
-            if (rsi.getAttributes() != null && !rsi.getAttributes().isEmpty()) {
-              if (matchAttributes(cac, rsi)) {
-                return new Applied(true, rsi.getValue(), rsi.getId());
-              }
-            } else {
-              return new Applied(true, rsi.getValue(), rsi.getId());
-            }
-          }
+        if (matchPercentage(cac, rsi, percentage, basePercentage)) {
+          return rsi.applied;
+        }
 
-          // this was only a percentage and had no other attributes
-          if (rsi.getAttributes() == null || rsi.getAttributes().isEmpty()) {
-            basePercentage.put(percentageKey, basePercentage.get(percentageKey) + rsi.getPercentage());
-          }
+        // this was only a percentage and had no other attributes
+        if (!rsi.hasAttributes()) {
+          basePercentage += rsi.percentage;
         }
+      }
 
-        if ((rsi.getPercentage() == null || rsi.getPercentage() == 0) &&
-          rsi.getAttributes() != null && !rsi.getAttributes().isEmpty()) {
-          if (matchAttributes(cac, rsi)) {
-            return new Applied(true, rsi.getValue(), rsi.getId());
-          }
+      if (rsi.attributesOnly && matchAttributes(cac, rsi.attributes)) {
+        return rsi.applied;
+      }
+    }
+
+    return Applied.NOT_APPLIED;
+  }
+
+  // some strategies calculate their percentage from their own attributes, so track the base percentage
+  // of each distinct percentage key
+  private Applied applyPercentageAttributes(CompiledStrategies.Strategy[] strategies, String key,
+                                            String featureValueId, ClientContext cac,
+                                            @Nullable String defaultPercentageKey) {
+    Integer percentage = null;
+    String percentageKey = null;
+    Map<String, Integer> basePercentage = new HashMap<>();
+
+    for (CompiledStrategies.Strategy rsi : strategies) {
+      if (rsi.hasPercentage && (defaultPercentageKey != null || rsi.percentageAttributes != null)) {
+        // determine what the percentage key is
+        String newPercentageKey = determinePercentageKey(cac, rsi.percentageAttributes);
+
+        int basePercentageVal = basePercentage.computeIfAbsent(newPercentageKey, (k) -> 0);
+        // if we have changed the key or we have never calculated it, calculate it and set the
+        // base percentage to null
+        if (percentage == null || !newPercentageKey.equals(percentageKey)) {
+          percentageKey = newPercentageKey;
+
+          percentage = determineClientPercentage(cac, percentageKey, featureValueId);
+          log.trace("percentage for {} on {} calculated at {}", defaultPercentageKey, key, percentage);
+        }
+
+        if (matchPercentage(cac, rsi, percentage, basePercentageVal)) {
+          return rsi.applied;
+        }
+
+        // this was only a percentage and had no other attributes
+        if (!rsi.hasAttributes()) {
+          basePercentage.put(percentageKey, basePercentage.get(percentageKey) + rsi.percentage);
         }
       }
+
+      if (rsi.attributesOnly && matchAttributes(cac, rsi.attributes)) {
+        return rsi.applied;
+      }
     }
 
-    return new Applied(false, null, null);
+    return Applied.NOT_APPLIED;
+  }
+
+  private int determineClientPercentage(ClientContext cac, String percentageKey, String featureValueId) {
+    if (cac instanceof InternalContext) {
+      final PercentageCache cache = ((InternalContext) cac).percentageCache();
+
+      if (cache != null) {
+        return cache.percentage(percentageKey, featureValueId, percentageCalculator);
+      }
+    }
+
+    return percentageCalculator.determineClientPercentage(percentageKey, featureValueId);
+  }
+
+  private boolean matchPercentage(ClientContext cac, CompiledStrategies.Strategy rsi, int percentage,
+                                  int basePercentage) {
+    if (log.isTraceEnabled()) {
+      log.trace("comparing actual {} vs required: {}", percentage, rsi.percentage);
+    }
+
+    // if the percentage is lower than the user's key +
+    // id of feature value then apply it
+    if (!rsi.hasAttributes()) {
+      return percentage <= (basePercentage + rsi.percentage);
+    }
+
+    return percentage <= rsi.percentage && matchAttributes(cac, rsi.attributes);
   }
 
   // This applies the rules as an AND. If at any point it fails it jumps out.
-  private boolean matchAttributes(ClientContext cac, FeatureRolloutStrategy rsi) {
-    for(FeatureRolloutStrategyAttribute attr : rsi.getAttributes()) {
-      List<String> suppliedValues = cac.getAttrs(attr.getFieldName());
+  private boolean matchAttributes(ClientContext cac, CompiledStrategies.Attribute[] attributes) {
+    for(CompiledStrategies.Attribute attr : attributes) {
+      List<String> suppliedValues = cac.getAttrs(attr.fieldName);
 
       // "now" for dates and date-times are not passed by the client, so we create them in-situ
-      if (suppliedValues == null && "now".equalsIgnoreCase(attr.getFieldName())) {
-        if (attr.getType() == RolloutStrategyFieldType.DATE) {
-          suppliedValues = Collections.singletonList(DateTimeFormatter.ISO_DATE.format(LocalDateTime.now()));
-        } else if (attr.getType() == RolloutStrategyFieldType.DATETIME) {
-          suppliedValues = Collections.singletonList(DateTimeFormatter.ISO_DATE_TIME.format(LocalDateTime.now()));
-        }
+      if (suppliedValues == null && attr.nowFormatter != null) {
+        suppliedValues = Collections.singletonList(attr.nowFormatter.format(LocalDateTime.now()));
       }
 
-      Object val = attr.getValues();
-
       // both are null, just check against equals
-      if (val == null && suppliedValues == null) {
-        if (attr.getConditional() != RolloutStrategyAttributeConditional.EQUALS) {
+      if (attr.valuesMissing && suppliedValues == null) {
+        if (!attr.equalsConditional) {
           return false;
         }
 
@@ -111,24 +214,35 @@ public class ApplyFeature {
       }
 
       // either of them are null, check against not equals as we can't do anything else
-      if (val == null || suppliedValues == null) {
+      if (attr.valuesMissing || suppliedValues == null) {
         return false;
       }
 
       // if none of the supplied values match against the associated matcher,
-      if (suppliedValues.stream().noneMatch(sv -> matcherRepository.findMatcher(attr).match(sv, attr) )) {
+      if (!anyMatch(suppliedValues, attr.matcher)) {
         return false;
       }
     }
     return true;
   }
 
-  private String determinePercentageKey(ClientContext cac, @Nullable List<String> percentageAttributes) {
-    if (percentageAttributes == null || percentageAttributes.isEmpty()) {
+  private boolean anyMatch(List<String> suppliedValues, PreparedMatcher matcher) {
+    final int size = suppliedValues.size();
+    for (int i = 0; i < size; i++) {
+      if (matcher.match(suppliedValues.get(i))) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private String determinePercentageKey(ClientContext cac, @Nullable String[] percentageAttributes) {
+    if (percentageAttributes == null) {
       return cac.defaultPercentageKey();
     }
 
-    return percentageAttributes.stream().map(pa -> cac.getAttrs(pa, "<none>"))
+    return Arrays.stream(percentageAttributes).map(pa -> cac.getAttrs(pa, "<none>"))
       .flatMap(Collection::stream)
       .collect(Collectors.joining("$"));
   }
@@ -5,6 +5,7 @@ import io.featurehub.client.usage.UsageEvent;
 import java.math.BigDecimal;
 import io.featurehub.client.usage.UsageFeaturesCollection;
 import io.featurehub.client.usage.UsageFeaturesCollectionContext;
+import io.featurehub.sse.model.FeatureValueType;
 import io.featurehub.sse.model.StrategyAttributeCountryName;
 import io.featurehub.sse.model.StrategyAttributeDeviceName;
 import io.featurehub.sse.model.StrategyAttributePlatformName;
@@ -29,7 +30,12 @@ class BaseClientContext implements InternalContext {
   public static final String PLATFORM_KEY = "platform";
   public static final String VERSION_KEY = "version";
   protected final Map<String, List<String>> attributes = new ConcurrentHashMap<>();
-  protected final InternalFeatureRepository repository;
+  // only changed by a pooled server evaluated context, which moves to the repository of its attributes on build()
+  protected InternalFeatureRepository repository;
+  @Nullable private final PercentageCache percentageCache = PercentageCache.create();
+  // feature key -> the repository's holder bound to this context, so feature(name) hands back the same one. Only
+  // keys the repository holds, visible for testing
+  final Map<String, FeatureStateBase<?>> handles = new ConcurrentHashMap<>();
 
   public BaseClientContext(InternalFeatureRepository repository, EdgeService edgeService) {
     this.repository = repository;
@@ -122,13 +128,18 @@ class BaseClientContext implements InternalContext {
 
   @Override
   public void used(@NotNull EvaluatedFeature value) {
-    final HashMap<String, List<String>> attrCopy = new HashMap<>(attributes);
     final String userKey = usageUserKey();
 
     log.trace("recording usage for value {}, userKey: {}, attributes: {}",
-      value, userKey, attrCopy);
+      value, userKey, attributes);
 
-    repository.used(value, attrCopy, userKey);
+    // the repository copies the attributes if it needs to keep them
+    repository.used(value, attributes, userKey);
+  }
+
+  @Override
+  public @Nullable PercentageCache percentageCache() {
+    return percentageCache;
   }
 
   /**
@@ -144,7 +155,7 @@ class BaseClientContext implements InternalContext {
   protected void recordFeatureChangedForUser(FeatureStateBase<?> feature) {
     feature.getValue(Object.class);
 
-    final EvaluatedFeature result = feature.withContext(this).internalGetValue(null, false);
+    final EvaluatedFeature result = feature.evaluate(this, null, false);
 
     if (result != null) { // we can't record the usage for a phantom flag
       repository.recordUsageEvent(repository.getUsageProvider().createUsageEventWithFeature(
@@ -163,7 +174,7 @@ class BaseClientContext implements InternalContext {
     if (event instanceof UsageFeaturesCollection) {
       ((UsageFeaturesCollection)event).setFeatureValues(
         repository.getFeatureKeys().stream().map((k) -> {
-          final EvaluatedFeature result = repository.getFeat(k).withContext(this).internalGetValue(null, false);
+          final EvaluatedFeature result = repository.getFeat(k).evaluate(this, null, false);
           return result == null ? null : new FeatureHubUsageValue(result);
         }).filter(Objects::nonNull).collect(Collectors.toList()));
     }
@@ -226,13 +237,30 @@ class BaseClientContext implements InternalContext {
 
   @Override
   public @NotNull FeatureState<?> feature(String name) {
-    return repository.getFeat(name).withContext(this);
+    final FeatureStateBase<?> holder = repository.getFeat(name);
+
+    // an application can ask for any name at all, so only remember the ones that are there (and forget deleted ones)
+    if (!holder.exists()) {
+      handles.remove(name);
+      return holder.withContext(this);
+    }
+
+    final FeatureStateBase<?> handle = handles.get(name);
+
+    // the repository replaces its holder if the feature is deleted and comes back, so check we still match
+    if (handle != null && handle.top == holder) {
+      return handle;
+    }
+
+    final FeatureStateBase<?> bound = holder.withContext(this);
+    handles.put(name, bound);
+    return bound;
   }
 
   @Override
   public @NotNull List<FeatureState<?>> allFeatures() {
     return repository.getFeatureKeys().stream()
-      .map(f -> repository.getFeat(f).withContext(this))
+      .map(this::feature)
       .collect(Collectors.toList());
   }
 
@@ -248,8 +276,8 @@ class BaseClientContext implements InternalContext {
 
   @Override
   public boolean isEnabled(String name) {
-    // we use this mechanism as it will return the state within the context (vs repository which might be different)
-    return feature(name).isEnabled();
+    // we evaluate within the context (vs repository which might be different), straight off the repository's holder
+    return repository.getFeat(name).flag(this) == Boolean.TRUE;
   }
 
   @Override
@@ -259,7 +287,8 @@ class BaseClientContext implements InternalContext {
 
   @Override
   public boolean isEnabled(String name, boolean defaultValue) {
-    return feature(name).isEnabled(defaultValue);
+    final Boolean val = repository.getFeat(name).flag(this);
+    return val == null ? defaultValue : val;
   }
 
   @Override
@@ -269,7 +298,8 @@ class BaseClientContext implements InternalContext {
 
   @Override
   public boolean getFlag(String name, boolean defaultValue) {
-    return feature(name).getFlag(defaultValue);
+    final Boolean val = repository.getFeat(name).flag(this);
+    return val == null ? defaultValue : val;
   }
 
   @Override
@@ -279,7 +309,8 @@ class BaseClientContext implements InternalContext {
 
   @Override
   public @Nullable String getString(String name, @Nullable String defaultValue) {
-    return feature(name).getString(defaultValue);
+    final String val = repository.getFeat(name).string(this, FeatureValueType.STRING);
+    return val == null ? defaultValue : val;
   }
 
   @Override
@@ -289,7 +320,8 @@ class BaseClientContext implements InternalContext {
 
   @Override
   public @Nullable BigDecimal getNumber(String name, @Nullable BigDecimal defaultValue) {
-    return feature(name).getNumber(defaultValue);
+    final BigDecimal val = repository.getFeat(name).number(this);
+    return val == null ? defaultValue : val;
   }
 
   @Override
@@ -299,7 +331,8 @@ class BaseClientContext implements InternalContext {
 
   @Override
   public @Nullable String getRawJson(String name, @Nullable String defaultValue) {
-    return feature(name).getRawJson(defaultValue);
+    final String val = repository.getFeat(name).string(this, FeatureValueType.JSON);
+    return val == null ? defaultValue : val;
   }
 
   @Override
@@ -308,9 +341,10 @@ class BaseClientContext implements InternalContext {
   }
 
   @Override
-  @SuppressWarnings("unchecked")
   public @Nullable <K> K getValue(String name, Class<K> clazz, @Nullable K defaultValue) {
-    return ((FeatureState<K>) feature(name)).getValue(clazz, defaultValue);
+    final EvaluatedFeature result = repository.getFeat(name).evaluate(this, null, true);
+    final K val = result == null ? null : clazz.cast(result.getValue());
+    return val == null ? defaultValue : val;
   }
 
   @Override
@@ -320,8 +354,8 @@ class BaseClientContext implements InternalContext {
 
   @Override
   public boolean isSet(String name) {
-    // we use this mechanism as it will return the state within the context (vs repository which might be different)
-    return feature(name).isSet();
+    // we evaluate within the context (vs repository which might be different), straight off the repository's holder
+    return repository.getFeat(name).set(this);
   }
 
   @Override
@@ -336,7 +370,8 @@ class BaseClientContext implements InternalContext {
 
   @Override
   public boolean exists(String key) {
-    return feature(key).exists();
+    // existence doesn't depend on the context
+    return repository.getFeat(key).exists();
   }
 
   @Override
@@ -6,9 +6,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 abstract public class BasePollingDelegateEdgeService implements EdgeService {
   private static final Logger log = LoggerFactory.getLogger(BasePollingDelegateEdgeService.class);
@@ -17,10 +19,27 @@ abstract public class BasePollingDelegateEdgeService implements EdgeService {
   @NotNull
   protected final EdgeService edgeService;
   @NotNull protected final InternalFeatureRepository repo;
+  @NotNull private final EdgeRequests requests;
+  // the context the next poll is for, so it can share a request already on its way for the same one
+  @Nullable private volatile String currentHeader;
+  @Nullable private volatile String currentSha;
 
   public BasePollingDelegateEdgeService(@NotNull EdgeService edgeService, @NotNull InternalFeatureRepository repo) {
+    this(edgeService, repo, EdgeRequests.shared());
+  }
+
+  BasePollingDelegateEdgeService(@NotNull EdgeService edgeService, @NotNull InternalFeatureRepository repo,
+                                 @NotNull EdgeRequests requests) {
     this.edgeService = edgeService;
     this.repo = repo;
+    this.requests = requests;
+  }
+
+  private EdgeRequests.Key key(@Nullable String header, @Nullable String contextSha) {
+    final FeatureHubConfig config = edgeService.getConfig();
+    //noinspection ConstantConditions
+    return new EdgeRequests.Key(repo, config == null ? Collections.emptyList() : config.apiKeys(), header,
+      contextSha);
   }
 
   @Override
@@ -32,15 +51,18 @@ abstract public class BasePollingDelegateEdgeService implements EdgeService {
     // busyness does not matter here, we HAVE to poll with the next context change header
     log.trace("[featurehubsdk] poll requires a context header change");
 
-    return repo.getExecutor()
-      .submit(
+    currentHeader = newHeader;
+    currentSha = contextSha;
+
+    // other contexts asking for the same context at the same time share the one request
+    return requests.coalesce(key(newHeader, contextSha), () -> CompletableFuture.supplyAsync(
         () -> {
           synchronized (edgeService) {
             busy = true;
             postPollActivity();
           }
           try {
-            return edgeService.contextChange(newHeader, contextSha).get();
+            return requests.limit(() -> edgeService.contextChange(newHeader, contextSha).get());
           } catch (Exception e) {
             log.error("failed to context change", e);
             return repo.getReadiness();
@@ -51,7 +73,7 @@ abstract public class BasePollingDelegateEdgeService implements EdgeService {
 
             postPollActivity();
           }
-        });
+        }, repo.getExecutor()));
   }
 
   protected void prePollActivity() {
@@ -89,12 +111,15 @@ abstract public class BasePollingDelegateEdgeService implements EdgeService {
       busy = true;
     }
 
-    return repo.getExecutor()
-      .submit(
+    final AtomicBoolean ours = new AtomicBoolean();
+    final CompletableFuture<Readiness> polled = requests.coalesce(key(currentHeader, currentSha), () -> {
+      ours.set(true);
+
+      return CompletableFuture.supplyAsync(
         () -> {
           log.trace("calling poll directly");
           try {
-            return edgeService.poll().get();
+            return requests.limit(() -> edgeService.poll().get());
           } catch (Exception e) {
             log.error("failed to poll", e);
             return repo.getReadiness();
@@ -102,7 +127,15 @@ abstract public class BasePollingDelegateEdgeService implements EdgeService {
             log.trace("finished polling");
             postPollActivity();
           }
-        });
+        }, repo.getExecutor());
+    });
+
+    if (ours.get()) {
+      return polled;
+    }
+
+    // we joined another delegate's poll of the same repository, so we have to finish up our own poll when it is done
+    return polled.whenComplete((readiness, e) -> postPollActivity());
   }
 
   /*
@@ -17,9 +17,16 @@ class ClientEvalFeatureContext extends BaseClientContext {
   // this doesn't matter for client eval
   @Override
   public Future<ClientContext> build() {
+    final Future<Readiness> change = edgeService.contextChange(null, "0");
+
+    if (change instanceof CompletableFuture) {
+      // as for server evaluation, nothing blocks waiting for it
+      return ((CompletableFuture<?>) change).handleAsync((r, e) -> this, repository.getExecutor());
+    }
+
     return CompletableFuture.supplyAsync(() -> {
       try {
-        edgeService.contextChange(null, "0").get();
+        change.get();
       } catch (InterruptedException|ExecutionException ignored) {
       }
 
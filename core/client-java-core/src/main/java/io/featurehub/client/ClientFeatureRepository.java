@@ -1,6 +1,8 @@
 package io.featurehub.client;
 
+import io.featurehub.client.usage.ExposureFilter;
 import io.featurehub.client.usage.FeatureHubUsageValue;
+import io.featurehub.client.usage.UsageAggregator;
 import io.featurehub.client.usage.UsageEvent;
 import io.featurehub.client.usage.UsageFeaturesCollection;
 import io.featurehub.client.usage.UsageProvider;
@@ -11,9 +13,15 @@ import io.featurehub.sse.model.SSEResultState;
 import io.featurehub.strategies.matchers.MatcherRegistry;
 import io.featurehub.strategies.percentage.PercentageMumurCalculator;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.ServiceLoader;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.*;
@@ -42,27 +50,56 @@ public class ClientFeatureRepository implements InternalFeatureRepository {
   }
 
   private static final Logger log = LoggerFactory.getLogger(ClientFeatureRepository.class);
-  // feature-key, feature-state
+  // the state of every feature, replaced as a whole (never modified) by each update
+  private volatile RepositorySnapshot snapshot = RepositorySnapshot.EMPTY;
+  // serialises everything that publishes a snapshot or changes readiness, readers never take it
+  private final Object updateLock = new Object();
+  // feature-key, feature-state. These are the holders handed out to the application, which read their
+  // state from the snapshot.
   private final Map<String, FeatureStateBase<?>> features = new ConcurrentHashMap<>();
   private final Map<UUID, FeatureStateBase<?>> featuresById = new ConcurrentHashMap<>();
   @NotNull private ExecutorService executor;
-  private boolean hasReceivedInitialState = false;
-  private Readiness readiness = Readiness.NotReady;
-  private final List<Callback<Readiness>> readinessListeners = new ArrayList<>();
-  private final List<Callback<FeatureRepository>> newStateAvailableHandlers = new ArrayList<>();
-  private final List<Callback<FeatureState<?>>> featureUpdateHandlers = new ArrayList<>();
-  private final List<FeatureValueInterceptorHolder> featureValueInterceptors = new ArrayList<>();
-  private final List<ExtendedFeatureValueInterceptor> extendedFeatureValueInterceptors =
-      new ArrayList<>();
-  private final List<RawUpdateFeatureListener> rawUpdateFeatureListeners = new ArrayList<>();
-  private final List<Callback<UsageEvent>> usageHandlers = new ArrayList<>();
+  // feature and raw listeners are told about updates through this, in batches and in order. It goes to the executor
+  // directly rather than through execute() so it finds out when the executor has shut down
+  private final ListenerDispatcher dispatcher = new ListenerDispatcher(command -> executor.execute(command));
+  private volatile boolean hasReceivedInitialState = false;
+  private volatile Readiness readiness = Readiness.NotReady;
+  // what readinessFuture hands out, replaced (under updateLock) whenever readiness changes
+  private volatile CompletableFuture<Readiness> settled = new CompletableFuture<>();
+  // bumped (under updateLock) by every update that changes something
+  private volatile long changeCount;
+  // run on every feature read, see setFeatureReadHook
+  @Nullable private volatile Runnable featureReadHook;
+  // listeners are registered now and then and iterated on every update, so these copy on write
+  private final List<Callback<Readiness>> readinessListeners = new CopyOnWriteArrayList<>();
+  private final List<Callback<FeatureRepository>> newStateAvailableHandlers = new CopyOnWriteArrayList<>();
+  private final List<Callback<FeatureState<?>>> featureUpdateHandlers = new CopyOnWriteArrayList<>();
+  // interceptors are consulted on every feature read, so they are kept as arrays that are replaced (never
+  // changed) when one is registered. Empty arrays mean no lookup is needed at all.
+  private volatile FeatureValueInterceptorHolder[] featureValueInterceptors = new FeatureValueInterceptorHolder[0];
+  private volatile ExtendedFeatureValueInterceptor[] extendedFeatureValueInterceptors =
+      new ExtendedFeatureValueInterceptor[0];
+  private final List<RawUpdateFeatureListener> rawUpdateFeatureListeners = new CopyOnWriteArrayList<>();
+  private final List<Callback<UsageEvent>> usageHandlers = new CopyOnWriteArrayList<>();
   private UsageProvider usageProvider = new UsageProvider.DefaultUsageProvider();
+  // when set, usage is counted and summarised every so often rather than an event being sent for each evaluation
+  @Nullable private volatile UsageAggregator usageAggregator;
+  @Nullable private ScheduledExecutorService usageSummariser;
+  // when set, only the first time a user gets each value of a feature is treated as usage
+  @Nullable private volatile ExposureFilter exposureFilter;
+  // whether getJson hands every caller the same parsed object, see shareJsonValues
+  private volatile boolean shareJsonValues =
+      Boolean.parseBoolean(FeatureHubConfig.getConfig("featurehub.json.share-values", "false"));
 
   private JavascriptObjectMapper jsonConfigObjectMapper;
   private final ApplyFeature applyFeature;
+  // set if this only holds the features of one server evaluated context (see ServerEvalContextPool), in which case
+  // interceptors, usage and the executor are all the shared repository's
+  @Nullable private final ClientFeatureRepository shared;
 
   public ClientFeatureRepository(ExecutorService executor, ApplyFeature applyFeature) {
     jsonConfigObjectMapper = JavascriptServiceLoader.load();
+    shared = null;
 
     this.executor = executor;
 
@@ -70,6 +107,112 @@ public class ClientFeatureRepository implements InternalFeatureRepository {
         applyFeature == null
             ? new ApplyFeature(new PercentageMumurCalculator(), new MatcherRegistry())
             : applyFeature;
+
+    final int aggregateSeconds = intConfig("featurehub.usage.aggregate-seconds", 0);
+    if (aggregateSeconds > 0) {
+      aggregateUsage(aggregateSeconds, FeatureHubConfig.getConfig("featurehub.usage.aggregate-attribute"));
+    }
+
+    final int exposureSeconds = intConfig("featurehub.usage.exposure-window-seconds", 0);
+    if (exposureSeconds > 0) {
+      firstExposuresOnly(exposureSeconds, intConfig("featurehub.usage.exposure-expected", 100000));
+    }
+  }
+
+  /**
+   * A repository for the features of a single server evaluated context, sharing everything else with this one.
+   */
+  ClientFeatureRepository(@NotNull ClientFeatureRepository shared) {
+    this.shared = shared;
+    this.executor = shared.executor;
+    this.applyFeature = shared.applyFeature;
+    this.jsonConfigObjectMapper = shared.jsonConfigObjectMapper;
+  }
+
+  private static int intConfig(String name, int defaultVal) {
+    try {
+      return Integer.parseInt(FeatureHubConfig.getConfig(name, Integer.toString(defaultVal)));
+    } catch (NumberFormatException e) {
+      log.warn("[featurehubsdk] {} is not a number, using {}", name, defaultVal);
+      return defaultVal;
+    }
+  }
+
+  /**
+   * Count usage rather than sending an event for every evaluation. Every windowSeconds the usage stream gets a
+   * single UsageFeaturesSummary saying how many times each value of each feature was used. This can also be
+   * turned on with featurehub.usage.aggregate-seconds (and featurehub.usage.aggregate-attribute).
+   *
+   * @param windowSeconds - how often to send a summary
+   * @param attributeName - a context attribute (e.g. "country") to also split the counts by, or null
+   */
+  public synchronized void aggregateUsage(int windowSeconds, @Nullable String attributeName) {
+    stopAggregatingUsage();
+
+    final UsageAggregator aggregator =
+        new UsageAggregator(attributeName, intConfig("featurehub.usage.aggregate-max-counters", 10000));
+
+    usageSummariser = Executors.newSingleThreadScheduledExecutor(r -> {
+      final Thread t = new Thread(r, "featurehub-usage-summary");
+      t.setDaemon(true);
+      return t;
+    });
+    usageSummariser.scheduleAtFixedRate(() -> summariseUsage(aggregator), windowSeconds, windowSeconds,
+        TimeUnit.SECONDS);
+
+    usageAggregator = aggregator;
+  }
+
+  /**
+   * Only treat the first time a user (a context's usage user key) gets a particular value of a feature as usage,
+   * later reads of the same value are ignored before any event is created. Reads with no user key aren't
+   * affected. This can also be turned on with featurehub.usage.exposure-window-seconds (and
+   * featurehub.usage.exposure-expected).
+   *
+   * @param windowSeconds - an exposure that hasn't happened again for between 1 and 2 of these counts as new
+   * @param expectedExposures - roughly how many distinct exposures there are per window, the filter needs a
+   *                          few bytes for each
+   */
+  public void firstExposuresOnly(int windowSeconds, int expectedExposures) {
+    exposureFilter = new ExposureFilter(windowSeconds, expectedExposures);
+  }
+
+  /**
+   * Parse each version of a json feature once and hand every getJson caller the same object. It must then be
+   * treated as read only, as a caller that changes it changes it for everyone, so it is off unless turned on here
+   * or with featurehub.json.share-values.
+   */
+  public void shareJsonValues(boolean share) {
+    shareJsonValues = share;
+  }
+
+  @Override
+  public boolean isSharingJsonValues() {
+    return shared == null ? shareJsonValues : shared.isSharingJsonValues();
+  }
+
+  @Override
+  public synchronized void stopAggregatingUsage() {
+    final UsageAggregator aggregator = usageAggregator;
+
+    if (aggregator != null) {
+      usageAggregator = null;
+      usageSummariser.shutdownNow();
+      usageSummariser = null;
+      summariseUsage(aggregator);
+    }
+  }
+
+  private void summariseUsage(UsageAggregator aggregator) {
+    try {
+      final UsageEvent summary = aggregator.summarise(usageProvider);
+
+      if (summary != null) {
+        recordUsageEvent(summary);
+      }
+    } catch (Exception e) {
+      log.error("[featurehubsdk] failed to send usage summary", e);
+    }
   }
 
   public ClientFeatureRepository(int threadPoolSize) {
@@ -84,7 +227,16 @@ public class ClientFeatureRepository implements InternalFeatureRepository {
     this(executor == null ? getExecutor(1) : executor, null);
   }
 
+  /**
+   * The executor from the first FeatureHubExecutorProviderService on the classpath, if there is one.
+   */
   protected static ExecutorService getExecutor(int threadPoolSize) {
+    return ServiceLoader.load(FeatureHubExecutorProviderService.class).findFirst()
+      .map(provider -> provider.get(threadPoolSize))
+      .orElseGet(() -> defaultExecutor(threadPoolSize));
+  }
+
+  static ExecutorService defaultExecutor(int threadPoolSize) {
     int maxThreads = Math.max(threadPoolSize, 10);
     return new ThreadPoolExecutor(
         3,
@@ -108,11 +260,24 @@ public class ClientFeatureRepository implements InternalFeatureRepository {
     return readiness;
   }
 
+  @Override
+  public @NotNull CompletableFuture<Readiness> readinessFuture() {
+    // a copy, so no-one else can complete ours
+    return settled.copy();
+  }
+
+  @NotNull
+  RepositorySnapshot snapshot() {
+    return snapshot;
+  }
+
   @Override
   public @NotNull FeatureRepository registerValueInterceptor(
       boolean allowFeatureOverride, @NotNull FeatureValueInterceptor interceptor) {
-    featureValueInterceptors.add(
-        new FeatureValueInterceptorHolder(allowFeatureOverride, interceptor));
+    synchronized (updateLock) {
+      featureValueInterceptors = append(featureValueInterceptors,
+          new FeatureValueInterceptorHolder(allowFeatureOverride, interceptor));
+    }
 
     return this;
   }
@@ -120,10 +285,19 @@ public class ClientFeatureRepository implements InternalFeatureRepository {
   @Override
   public @NotNull FeatureRepository registerValueInterceptor(
       @NotNull ExtendedFeatureValueInterceptor interceptor) {
-    extendedFeatureValueInterceptors.add(interceptor);
+    synchronized (updateLock) {
+      extendedFeatureValueInterceptors = append(extendedFeatureValueInterceptors, interceptor);
+    }
+
     return this;
   }
 
+  private static <T> T[] append(T[] existing, T item) {
+    final T[] copy = Arrays.copyOf(existing, existing.length + 1);
+    copy[existing.length] = item;
+    return copy;
+  }
+
   @Override
   public @NotNull FeatureRepository registerRawUpdateFeatureListener(
       @NotNull RawUpdateFeatureListener listener) {
@@ -166,8 +340,7 @@ public class ClientFeatureRepository implements InternalFeatureRepository {
         case FEATURES:
           break;
         case FAILURE:
-          readiness = Readiness.Failed;
-          broadcastReadyness();
+          changeReadiness(Readiness.Failed);
           break;
       }
     } catch (Exception e) {
@@ -184,18 +357,40 @@ public class ClientFeatureRepository implements InternalFeatureRepository {
   @Override
   public void updateFeatures(
       List<io.featurehub.sse.model.FeatureState> states, boolean force, @NotNull String source) {
-    log.trace("received {} features from {}", features.size(), source);
-    states.forEach(s -> updateFeatureInternal(s, force, source));
-    rawUpdateFeatureListeners.forEach(l -> execute(() -> l.updateFeatures(states, source)));
-
-    if (!hasReceivedInitialState) {
-      hasReceivedInitialState = true;
-      readiness = Readiness.Ready;
-      broadcastInitialStateToUsage(states);
-      broadcastReadyness();
-    } else if (readiness != Readiness.Ready) {
-      readiness = Readiness.Ready;
-      broadcastReadyness();
+    applyFeatures(states, force, false, source);
+  }
+
+  @Override
+  public void replaceFeatures(
+      @NotNull List<io.featurehub.sse.model.FeatureState> states, @NotNull String source) {
+    applyFeatures(states, false, true, source);
+  }
+
+  private void applyFeatures(
+      List<io.featurehub.sse.model.FeatureState> states, boolean force, boolean complete, @NotNull String source) {
+    log.trace("received {} features from {}", states.size(), source);
+
+    synchronized (updateLock) {
+      dispatcher.hold();
+
+      try {
+        final FeatureChanges changes = publish(states, force, complete, source);
+        if (!changes.isEmpty()) {
+          log.trace("features from {} changed: {}", source, changes);
+          rawUpdateFeatureListeners.forEach(l -> dispatcher.dispatch(l, () -> l.featuresChanged(changes)));
+        }
+      } finally {
+        dispatcher.release();
+      }
+
+      if (!hasReceivedInitialState) {
+        hasReceivedInitialState = true;
+        readiness = Readiness.Ready;
+        broadcastInitialStateToUsage(states);
+        broadcastReadyness();
+      } else if (readiness != Readiness.Ready) {
+        changeReadiness(Readiness.Ready);
+      }
     }
   }
 
@@ -225,6 +420,15 @@ public class ClientFeatureRepository implements InternalFeatureRepository {
     return applyFeature.applyFeature(strategies, key, featureValueId, cac);
   }
 
+  @Override
+  public @NotNull Applied applyFeature(
+      @NotNull CompiledStrategies strategies,
+      @NotNull String key,
+      @NotNull String featureValueId,
+      @NotNull ClientContext cac) {
+    return applyFeature.applyFeature(strategies, key, featureValueId, cac);
+  }
+
   @Override
   public void execute(@NotNull Runnable command) {
     if (!executor.isShutdown()) {
@@ -232,6 +436,16 @@ public class ClientFeatureRepository implements InternalFeatureRepository {
     }
   }
 
+  @Override
+  public long getChangeCount() {
+    return changeCount;
+  }
+
+  @Override
+  public void setFeatureReadHook(@Nullable Runnable hook) {
+    featureReadHook = hook;
+  }
+
   @Override
   public ExecutorService getExecutor() {
     return executor;
@@ -239,27 +453,35 @@ public class ClientFeatureRepository implements InternalFeatureRepository {
 
   @Override
   public @NotNull JavascriptObjectMapper getJsonObjectMapper() {
-    return jsonConfigObjectMapper;
+    return shared == null ? jsonConfigObjectMapper : shared.getJsonObjectMapper();
   }
 
   @Override
   public void repositoryNotReady() {
-    readiness = Readiness.NotReady;
-    broadcastReadyness();
+    changeReadiness(Readiness.NotReady);
   }
 
   @Override
   public void close() {
     log.info("featurehub repository closing");
-    extendedFeatureValueInterceptors.forEach(ExtendedFeatureValueInterceptor::close);
+    stopAggregatingUsage();
+    for (ExtendedFeatureValueInterceptor interceptor : extendedFeatureValueInterceptors) {
+      interceptor.close();
+    }
     rawUpdateFeatureListeners.forEach(RawUpdateFeatureListener::close);
     features.clear();
 
-    readiness = Readiness.NotReady;
-    readinessListeners.forEach(rl -> rl.callback.accept(readiness));
-    readinessListeners.clear();
+    synchronized (updateLock) {
+      readiness = Readiness.NotReady;
+      readinessListeners.forEach(rl -> rl.callback.accept(readiness));
+      readinessListeners.clear();
+      // anyone still waiting for us to be ready gives up
+      settled.complete(Readiness.NotReady);
+    }
 
-    executor.shutdownNow();
+    if (shared == null) {
+      executor.shutdownNow();
+    }
 
     log.info("featurehub repository closed");
   }
@@ -276,27 +498,123 @@ public class ClientFeatureRepository implements InternalFeatureRepository {
     return callback;
   }
 
+  private void changeReadiness(@NotNull Readiness newReadiness) {
+    synchronized (updateLock) {
+      readiness = newReadiness;
+      broadcastReadyness();
+    }
+  }
+
   private void broadcastReadyness() {
-    log.trace("broadcasting readiness {} listener count {}", readiness, readinessListeners.size());
+    // read once, so every listener is told the same thing even if it changes while they are queued
+    final Readiness current = readiness;
+    final CompletableFuture<Readiness> waiting = settle(current);
+    log.trace("broadcasting readiness {} listener count {}", current, readinessListeners.size());
     if (!executor.isShutdown()) {
-      readinessListeners.forEach((rl) -> executor.execute(() -> rl.callback.accept(readiness)));
+      if (waiting != null) {
+        // like the listeners, not on our thread so nothing chained onto it runs while we hold the update lock
+        executor.execute(() -> waiting.complete(current));
+      }
+      readinessListeners.forEach((rl) -> executor.execute(() -> rl.callback.accept(current)));
+    } else if (waiting != null) {
+      waiting.complete(current);
     }
   }
 
+  /**
+   * Moves readinessFuture on to the new readiness, called under updateLock. Ready stays until readiness changes,
+   * but a Failed is only told to those already waiting, as the next attempt may well fix it.
+   *
+   * @return the future people have been waiting on if it should now complete
+   */
+  @Nullable
+  private CompletableFuture<Readiness> settle(@NotNull Readiness current) {
+    final CompletableFuture<Readiness> waiting = settled;
+
+    if (current == Readiness.Ready) {
+      settled = CompletableFuture.completedFuture(current);
+      return waiting.isDone() ? null : waiting;
+    }
+
+    final boolean failing = current == Readiness.Failed && !waiting.isDone();
+
+    // back to waiting, unless we already are
+    if (failing || waiting.isDone()) {
+      settled = new CompletableFuture<>();
+    }
+
+    return failing ? waiting : null;
+  }
+
   @Override
   public void deleteFeature(
       @NotNull io.featurehub.sse.model.FeatureState readValue, @NotNull String source) {
     log.trace("received delete feature {} from {}", readValue.getKey(), source);
 
-    final FeatureStateBase<?> holder = features.remove(readValue.getKey());
-    if (readValue.getId() != null) {
-      featuresById.remove(readValue.getId());
+    synchronized (updateLock) {
+      dispatcher.hold();
+
+      try {
+        final RepositorySnapshot.Builder next = snapshot.next();
+        final CompiledFeature previous = next.remove(readValue.getKey());
+        snapshot = next.build();
+        if (previous != null) {
+          changeCount++;
+        }
+
+        final FeatureStateBase<?> holder = features.remove(readValue.getKey());
+        if (readValue.getId() != null) {
+          featuresById.remove(readValue.getId());
+        }
+        if (holder != null) {
+          holder.changed(previous, null);
+          broadcastFeatureUpdatedListeners(holder);
+        }
+        rawUpdateFeatureListeners.forEach(l -> dispatcher.dispatch(l, () -> l.deleteFeature(readValue, source)));
+      } finally {
+        dispatcher.release();
+      }
     }
-    if (holder != null) {
-      holder.setFeatureState(null);
-      broadcastFeatureUpdatedListeners(holder);
+  }
+
+  /**
+   * A holder has had its state set directly (FeatureState.setFeatureState). That only changes this repository,
+   * so unlike an update from Edge the raw listeners aren't told, and a cleared feature keeps its holder.
+   */
+  void replaceFeature(@NotNull String key, @Nullable io.featurehub.sse.model.FeatureState featureState) {
+    log.trace("feature {} state set directly", key);
+
+    synchronized (updateLock) {
+      dispatcher.hold();
+
+      try {
+        if (featureState != null) {
+          publish(Collections.singletonList(featureState), true, false, "setFeatureState");
+          return;
+        }
+
+        final RepositorySnapshot.Builder next = snapshot.next();
+        final CompiledFeature previous = next.remove(key);
+        if (previous == null) {
+          return; // nothing held
+        }
+
+        snapshot = next.build();
+        changeCount++;
+
+        if (previous.fs.getId() != null) {
+          featuresById.remove(previous.fs.getId());
+        }
+
+        final FeatureStateBase<?> holder = features.get(key);
+        if (holder != null) {
+          holder.changed(previous, null);
+          broadcastFeatureUpdatedListeners(holder);
+        }
+      } finally {
+        dispatcher.release();
+      }
     }
-    rawUpdateFeatureListeners.forEach(l -> execute(() -> l.deleteFeature(readValue, source)));
   }
 
   @Override
@@ -322,9 +640,7 @@ public class ClientFeatureRepository implements InternalFeatureRepository {
   @Override
   public boolean updateFeature(
       @NotNull io.featurehub.sse.model.FeatureState featureState, @NotNull String source) {
-    boolean changed = updateFeatureInternal(featureState, false, source);
-    rawUpdateFeatureListeners.forEach(l -> execute(() -> l.updateFeature(featureState, source)));
-    return changed;
+    return updateFeature(featureState, false, source);
   }
 
   @Override
@@ -333,43 +649,122 @@ public class ClientFeatureRepository implements InternalFeatureRepository {
       boolean force,
       @NotNull String source) {
     log.trace("received update feature {} from {}", featureState.getKey(), source);
-    boolean changed = updateFeatureInternal(featureState, force, source);
-    rawUpdateFeatureListeners.forEach(l -> execute(() -> l.updateFeature(featureState, source)));
-    return changed;
+
+    synchronized (updateLock) {
+      dispatcher.hold();
+
+      try {
+        final FeatureChanges changes = publish(Collections.singletonList(featureState), force, false, source);
+        if (changes.isEmpty()) {
+          return false;
+        }
+
+        rawUpdateFeatureListeners.forEach(l -> dispatcher.dispatch(l, () -> l.updateFeature(featureState, source)));
+        return true;
+      } finally {
+        dispatcher.release();
+      }
+    }
   }
 
-  private boolean updateFeatureInternal(
-      @NotNull io.featurehub.sse.model.FeatureState featureState,
-      boolean force,
-      @NotNull String source) {
-    FeatureStateBase<?> holder = features.get(featureState.getKey());
-    if (holder == null) {
-      holder = new FeatureStateBase<>(this, featureState.getKey());
-
-      features.put(featureState.getKey(), holder);
-    } else if (holder.feature.fs != null && !force) {
-      long existingVersion =
-          holder.feature.fs.getVersion() == null ? -1 : holder.feature.fs.getVersion();
-      long newVersion = featureState.getVersion() == null ? -1 : featureState.getVersion();
-      if (existingVersion > newVersion
-          || (newVersion == existingVersion
-              && !FeatureStateUtils.changed(
-                  holder.feature.fs.getValue(), featureState.getValue()))) {
-        // if the old existingVersion is newer, or they are the same existingVersion and the value
-        // hasn't changed.
-        // it can change with server side evaluation based on user data
-        return false;
+  /**
+   * Applies the states to a copy of the current snapshot and publishes it with a single write, then lets
+   * the holder of each feature that changed know. If the states are complete, features that aren't in them are
+   * removed. Callers must hold updateLock.
+   *
+   * @return what changed, features that were already up to date aren't in it
+   */
+  private FeatureChanges publish(@NotNull List<io.featurehub.sse.model.FeatureState> states, boolean force,
+                                 boolean complete, @NotNull String source) {
+    final RepositorySnapshot current = snapshot;
+    final RepositorySnapshot.Builder next = current.next();
+    // the version of each changed feature before this batch, a batch can contain the same key more than once
+    final Map<String, CompiledFeature> previous = new LinkedHashMap<>();
+    final Set<String> received = complete ? new HashSet<>() : null;
+    int receivedNew = 0; // how many of the received keys we didn't have
+
+    for (io.featurehub.sse.model.FeatureState featureState : states) {
+      if (received != null && received.add(featureState.getKey()) && current.get(featureState.getKey()) == null) {
+        receivedNew++;
+      }
+
+      final CompiledFeature existing = next.get(featureState.getKey());
+
+      if (existing != null && !force) {
+        long existingVersion = existing.version();
+        long newVersion = featureState.getVersion() == null ? -1 : featureState.getVersion();
+        if (existingVersion > newVersion
+            || (newVersion == existingVersion
+                && !FeatureStateUtils.changed(existing.fs.getValue(), featureState.getValue()))) {
+          // if the old existingVersion is newer, or they are the same existingVersion and the value
+          // hasn't changed.
+          // it can change with server side evaluation based on user data
+          continue;
+        }
+      }
+
+      // strategies only change with the feature version, so we compile them once here rather than on each evaluation
+      next.put(featureState.getKey(), new CompiledFeature(featureState,
+          applyFeature.compile(featureState.getStrategies(), featureState.getType())));
+
+      if (!previous.containsKey(featureState.getKey())) {
+        previous.put(featureState.getKey(), existing);
       }
     }
 
-    holder.setFeatureState(featureState);
-    featuresById.put(featureState.getId(), holder);
+    if (received != null && received.size() - receivedNew < current.size()) {
+      // something we had wasn't sent, so it has gone
+      for (String key : current.keys()) {
+        if (!received.contains(key)) {
+          previous.put(key, next.remove(key));
+        }
+      }
+    }
 
-    if (hasReceivedInitialState) {
-      broadcastFeatureUpdatedListeners(holder);
+    if (previous.isEmpty()) {
+      return new FeatureChanges(Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), source);
     }
 
-    return true;
+    final RepositorySnapshot published = next.build();
+    snapshot = published;
+    changeCount++;
+
+    final List<io.featurehub.sse.model.FeatureState> added = new ArrayList<>();
+    final List<io.featurehub.sse.model.FeatureState> changed = new ArrayList<>();
+    final List<io.featurehub.sse.model.FeatureState> removed = new ArrayList<>();
+
+    previous.forEach((key, was) -> {
+      final CompiledFeature now = published.get(key);
+
+      if (now == null) {
+        // the same as if it had been deleted
+        final FeatureStateBase<?> holder = features.remove(key);
+        if (was.fs.getId() != null) {
+          featuresById.remove(was.fs.getId());
+        }
+        if (holder != null) {
+          holder.changed(was, null);
+          broadcastFeatureUpdatedListeners(holder);
+        }
+        removed.add(was.fs);
+        return;
+      }
+
+      final FeatureStateBase<?> holder = features.computeIfAbsent(key, k -> FeatureStateBase.managed(this, k));
+
+      holder.changed(was, now);
+      (was == null ? added : changed).add(now.fs);
+
+      if (now.fs.getId() != null) {
+        featuresById.put(now.fs.getId(), holder);
+      }
+
+      if (hasReceivedInitialState) {
+        broadcastFeatureUpdatedListeners(holder);
+      }
+    });
+
+    return new FeatureChanges(added, changed, removed, source);
   }
 
   @NotNull
@@ -397,23 +792,34 @@ public class ClientFeatureRepository implements InternalFeatureRepository {
                     key1);
               }
 
-              return new FeatureStateBase<K>(this, key);
+              return FeatureStateBase.<K>managed(this, key1);
             });
   }
 
   private void broadcastFeatureUpdatedListeners(@NotNull FeatureState<?> fs) {
-    featureUpdateHandlers.forEach((handler) -> execute(() -> handler.callback.accept(fs)));
+    featureUpdateHandlers.forEach((handler) -> dispatch(handler, fs.getKey(), () -> handler.callback.accept(fs)));
+  }
+
+  /**
+   * Tells a listener about a change to a feature, replacing anything it hasn't yet been told about that feature.
+   */
+  void dispatch(@NotNull Object listener, @NotNull String featureKey, @NotNull Runnable notification) {
+    dispatcher.dispatch(listener, featureKey, notification);
   }
 
   @Override
   public void recordUsageEvent(@NotNull UsageEvent event) {
+    if (shared != null) {
+      shared.recordUsageEvent(event);
+      return;
+    }
+
     usageHandlers.forEach(handler -> handler.callback.accept(event));
   }
 
   @Override
   public void repositoryEmpty() {
-    readiness = Readiness.Ready;
-    broadcastReadyness();
+    changeReadiness(Readiness.Ready);
   }
 
   @Override
@@ -421,28 +827,62 @@ public class ClientFeatureRepository implements InternalFeatureRepository {
       EvaluatedFeature value,
       @Nullable Map<String, List<String>> attributes,
       String usageUserKey) {
+    final Runnable readHook = featureReadHook;
+
+    if (readHook != null) {
+      readHook.run();
+    }
+
+    if (shared != null) {
+      shared.used(value, attributes, usageUserKey);
+      return;
+    }
+
+    final ExposureFilter exposures = exposureFilter;
+
+    if (exposures != null && usageUserKey != null && !exposures.firstExposure(usageUserKey, value)) {
+      return;
+    }
+
+    final UsageAggregator aggregator = usageAggregator;
 
+    if (aggregator != null) {
+      aggregator.record(value, attributes);
+      return;
+    }
+
+    // the attributes are the context's own, so the event gets a copy of them as they are now
     recordUsageEvent(
         usageProvider.createUsageFeature(
-            new FeatureHubUsageValue(value), attributes, usageUserKey));
+            new FeatureHubUsageValue(value), attributes == null ? null : new HashMap<>(attributes),
+            usageUserKey));
   }
 
   @Override
   public @Nullable ExtendedFeatureValueInterceptor.ValueMatch findIntercept(
       @NotNull String key, io.featurehub.sse.model.@Nullable FeatureState featureState) {
-    final ExtendedFeatureValueInterceptor.ValueMatch matched =
-        extendedFeatureValueInterceptors.stream()
-            .map(
-                fv -> {
-                  return fv.getValue(key, this, featureState);
-                })
-            .filter(Objects::nonNull)
-            .filter(r -> r.matched)
-            .findFirst()
-            .orElse(new ExtendedFeatureValueInterceptor.ValueMatch(false, null));
+    if (shared != null) {
+      return shared.findIntercept(key, featureState);
+    }
+
+    final ExtendedFeatureValueInterceptor[] extended = extendedFeatureValueInterceptors;
+
+    for (ExtendedFeatureValueInterceptor interceptor : extended) {
+      final Set<String> keys = interceptor.keys();
+
+      // it has told us which keys it knows about, so don't bother asking about any other
+      if (keys != null && !keys.contains(key)) {
+        continue;
+      }
 
-    if (matched.matched) {
-      return matched;
+      final ExtendedFeatureValueInterceptor.ValueMatch matched = interceptor.getValue(key, this, featureState);
+      if (matched != null && matched.matched) {
+        return matched;
+      }
+    }
+
+    if (featureValueInterceptors.length == 0) {
+      return ExtendedFeatureValueInterceptor.ValueMatch.NO_MATCH;
     }
 
     return ExtendedFeatureValueInterceptor.ValueMatch.fromOld(
@@ -451,24 +891,24 @@ public class ClientFeatureRepository implements InternalFeatureRepository {
 
   @Override
   public FeatureValueInterceptor.ValueMatch findIntercept(boolean locked, @NotNull String key) {
-    return featureValueInterceptors.stream()
-        .filter(vi -> !locked || vi.allowLockOverride)
-        .map(
-            vi -> {
-              FeatureValueInterceptor.ValueMatch vm = vi.interceptor.getValue(key);
-              if (vm != null && vm.matched) {
-                return vm;
-              } else {
-                return null;
-              }
-            })
-        .filter(Objects::nonNull)
-        .findFirst()
-        .orElse(null);
+    if (shared != null) {
+      return shared.findIntercept(locked, key);
+    }
+
+    for (FeatureValueInterceptorHolder vi : featureValueInterceptors) {
+      if (!locked || vi.allowLockOverride) {
+        FeatureValueInterceptor.ValueMatch vm = vi.interceptor.getValue(key);
+        if (vm != null && vm.matched) {
+          return vm;
+        }
+      }
+    }
+
+    return null;
   }
 
   @Override
   public @NotNull UsageProvider getUsageProvider() {
-    return usageProvider;
+    return shared == null ? usageProvider : shared.getUsageProvider();
   }
 }
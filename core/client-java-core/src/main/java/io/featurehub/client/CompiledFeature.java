@@ -0,0 +1,90 @@
+package io.featurehub.client;
+
+import io.featurehub.sse.model.FeatureState;
+import io.featurehub.sse.model.FeatureValueType;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * One version of a feature as it was received, along with everything evaluation needs that only changes
+ * when the version does. Other than the getJson results it remembers it is immutable, so a reader that has one
+ * sees a consistent feature no matter what updates arrive meanwhile.
+ */
+final class CompiledFeature {
+  @NotNull final FeatureState fs;
+  // the strategies of fs compiled for evaluation, null if they were not compiled by the repository
+  @Nullable final CompiledStrategies strategies;
+  @Nullable final String id; // fs.id as a string, so evaluation doesn't keep converting it
+  // fs.value as a Boolean, BigDecimal or String depending on the type, null if it is null or won't convert
+  @Nullable final Object value;
+  // class -> raw json -> what getJson parsed it into, only created if getJson shares its values
+  @Nullable private volatile Map<Class<?>, Map<String, Object>> json;
+
+  CompiledFeature(@NotNull FeatureState fs, @Nullable CompiledStrategies strategies) {
+    this.fs = fs;
+    this.strategies = strategies;
+    this.id = fs.getId() == null ? null : fs.getId().toString();
+    this.value = typed(fs.getType(), fs.getValue());
+  }
+
+  @Nullable
+  static Object typed(@Nullable FeatureValueType type, @Nullable Object value) {
+    if (value == null || type == null) {
+      return null;
+    }
+
+    try {
+      switch (type) {
+        case BOOLEAN:
+          return value instanceof Boolean ? value : Boolean.parseBoolean(value.toString());
+        case STRING:
+        case JSON:
+          return value.toString();
+        case NUMBER:
+          return value instanceof BigDecimal ? value : new BigDecimal(value.toString());
+      }
+    } catch (Exception ignored) {
+    }
+
+    return null;
+  }
+
+  /**
+   * @return what getJson previously parsed this json (which must be a value of this version) into for this
+   * class, or null if it hasn't
+   */
+  @Nullable
+  Object json(@NotNull Class<?> type, @NotNull String rawJson) {
+    final Map<Class<?>, Map<String, Object>> parsed = json;
+    if (parsed == null) {
+      return null;
+    }
+
+    final Map<String, Object> forType = parsed.get(type);
+    return forType == null ? null : forType.get(rawJson);
+  }
+
+  void json(@NotNull Class<?> type, @NotNull String rawJson, @NotNull Object value) {
+    Map<Class<?>, Map<String, Object>> parsed = json;
+
+    if (parsed == null) {
+      synchronized (this) {
+        parsed = json;
+        if (parsed == null) {
+          parsed = new ConcurrentHashMap<>();
+          json = parsed;
+        }
+      }
+    }
+
+    // a version only has a handful of json values (its own and one per strategy), so this stays small
+    parsed.computeIfAbsent(type, t -> new ConcurrentHashMap<>()).putIfAbsent(rawJson, value);
+  }
+
+  long version() {
+    return fs.getVersion() == null ? -1 : fs.getVersion();
+  }
+}
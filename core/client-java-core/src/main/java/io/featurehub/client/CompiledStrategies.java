@@ -0,0 +1,103 @@
+package io.featurehub.client;
+
+import io.featurehub.sse.model.FeatureRolloutStrategy;
+import io.featurehub.sse.model.FeatureRolloutStrategyAttribute;
+import io.featurehub.sse.model.FeatureValueType;
+import io.featurehub.sse.model.RolloutStrategyAttributeConditional;
+import io.featurehub.sse.model.RolloutStrategyFieldType;
+import io.featurehub.strategies.matchers.PreparedMatcher;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The rollout strategies of a single version of a feature, flattened into arrays so they can be evaluated
+ * repeatedly without walking the model objects. These are created by ApplyFeature.compile when a feature
+ * is updated and are immutable after that.
+ */
+public final class CompiledStrategies {
+  static final CompiledStrategies EMPTY = new CompiledStrategies(new Strategy[0]);
+
+  final Strategy[] strategies;
+  // true if no strategy uses percentage attributes, so the percentage key is always the default one
+  final boolean defaultPercentageKeyOnly;
+
+  CompiledStrategies(Strategy[] strategies) {
+    this.strategies = strategies;
+
+    boolean defaultKeyOnly = true;
+    for (Strategy strategy : strategies) {
+      if (strategy.percentageAttributes != null) {
+        defaultKeyOnly = false;
+        break;
+      }
+    }
+
+    this.defaultPercentageKeyOnly = defaultKeyOnly;
+  }
+
+  public boolean isEmpty() {
+    return strategies.length == 0;
+  }
+
+  public int size() {
+    return strategies.length;
+  }
+
+  static final class Strategy {
+    final boolean hasPercentage;
+    final int percentage;
+    @Nullable final String[] percentageAttributes;
+    @Nullable final Attribute[] attributes;
+    // a strategy with no percentage (or a zero one) that only matches on attributes
+    final boolean attributesOnly;
+    @NotNull final Applied applied;
+
+    Strategy(@NotNull FeatureRolloutStrategy rsi, @Nullable Attribute[] attributes, @Nullable FeatureValueType type) {
+      this.hasPercentage = rsi.getPercentage() != null;
+      this.percentage = hasPercentage ? rsi.getPercentage() : 0;
+      this.percentageAttributes = toArray(rsi.getPercentageAttributes());
+      this.attributes = attributes;
+      this.attributesOnly = percentage == 0 && attributes != null;
+      this.applied = new Applied(true, rsi.getValue(), rsi.getId(), CompiledFeature.typed(type, rsi.getValue()));
+    }
+
+    boolean hasAttributes() {
+      return attributes != null;
+    }
+
+    @Nullable
+    private static String[] toArray(@Nullable List<String> list) {
+      return list == null || list.isEmpty() ? null : list.toArray(new String[0]);
+    }
+  }
+
+  static final class Attribute {
+    @NotNull final PreparedMatcher matcher;
+    final String fieldName;
+    final boolean valuesMissing;
+    final boolean equalsConditional;
+    // "now" is never passed by the client for dates and date-times, so we know up front how to generate it
+    @Nullable final DateTimeFormatter nowFormatter;
+
+    Attribute(@NotNull FeatureRolloutStrategyAttribute attr, @NotNull PreparedMatcher matcher) {
+      this.matcher = matcher;
+      this.fieldName = attr.getFieldName();
+      this.valuesMissing = attr.getValues() == null;
+      this.equalsConditional = attr.getConditional() == RolloutStrategyAttributeConditional.EQUALS;
+
+      if ("now".equalsIgnoreCase(fieldName)) {
+        if (attr.getType() == RolloutStrategyFieldType.DATE) {
+          nowFormatter = DateTimeFormatter.ISO_DATE;
+        } else if (attr.getType() == RolloutStrategyFieldType.DATETIME) {
+          nowFormatter = DateTimeFormatter.ISO_DATE_TIME;
+        } else {
+          nowFormatter = null;
+        }
+      } else {
+        nowFormatter = null;
+      }
+    }
+  }
+}
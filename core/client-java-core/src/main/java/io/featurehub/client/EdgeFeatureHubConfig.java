@@ -2,16 +2,18 @@ package io.featurehub.client;
 
 import io.featurehub.client.usage.UsageAdapter;
 import io.featurehub.client.usage.UsageEvent;
-import io.featurehub.client.usage.UsageEventWithFeature;
 import io.featurehub.client.usage.UsagePlugin;
 import io.featurehub.javascript.JavascriptObjectMapper;
 import java.util.Collections;
 import java.util.List;
 import java.util.ServiceLoader;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -38,6 +40,11 @@ public class EdgeFeatureHubConfig implements FeatureHubConfig {
   private Supplier<EdgeService> edgeServiceSupplier;
 
   @Nullable private ServerEvalFeatureContext serverEvalFeatureContext;
+  // when more than 0, server evaluated contexts each get the features for their own attributes from a pool this big
+  private int serverEvalContexts = contextPoolSize();
+  @Nullable private ServerEvalContextPool serverEvalContextPool;
+  // creates a REST connection to Edge for a repository, if we know how to
+  @Nullable private Function<InternalFeatureRepository, EdgeService> restEdgeFactory;
 
   @Nullable FeatureHubClientFactory edgeFactory;
 
@@ -99,18 +106,10 @@ public class EdgeFeatureHubConfig implements FeatureHubConfig {
 
     realtimeUrl = String.format("%s/features/%s", edgeUrl, apiKeys.get(0));
 
+    // the passive edge service checks whether it needs to poll on each feature read itself, see
+    // PassivePollingDelegateEdgeService
     usageAdapter = new UsageAdapter(repository);
 
-    // when a usage event comes in of the right type, we should tell the passive edge service to poll (check its cache)
-    usageAdapter.registerPlugin(new UsagePlugin() {
-      @Override
-      public void send(UsageEvent event) {
-        if (event instanceof UsageEventWithFeature && edgeType == EdgeType.REST_PASSIVE && edgeService != null && !closed) {
-          edgeService.poll();
-        }
-      }
-    });
-
     String apiKey = apiKeys.get(0);
     String[] parts = apiKey.split("/");
     // as we only use it in streaming, and streaming only supports 1 API key...
@@ -175,8 +174,10 @@ public class EdgeFeatureHubConfig implements FeatureHubConfig {
   public void init(long timeout, TimeUnit unit) {
     checkClosed();
     try {
-      final Future<ClientContext> futureContext = newContext().build();
-      futureContext.get(timeout, unit);
+      // the context is of no use until the features have landed, and that is what the repository tells us
+      if (!awaitReady(() -> newContext().build(), timeout, unit)) {
+        log.warn("[featurehubsdk] Failed to initialize FeatureHub client, the repository is {}", getReadiness());
+      }
     } catch (ConfigurationClosedException e) {
       throw e;
     } catch (Exception e) {
@@ -198,6 +199,11 @@ public class EdgeFeatureHubConfig implements FeatureHubConfig {
     }
 
     if (isServerEvaluation()) {
+      final ServerEvalContextPool pool = serverEvalContextPool();
+      if (pool != null) {
+        return new PooledServerEvalContext(pool, repository, edgeService);
+      }
+
       if (serverEvalFeatureContext == null) {
         serverEvalFeatureContext = new ServerEvalFeatureContext(repository, edgeService);
       }
@@ -208,6 +214,46 @@ public class EdgeFeatureHubConfig implements FeatureHubConfig {
     return new ClientEvalFeatureContext(this, repository, edgeService);
   }
 
+  private static int contextPoolSize() {
+    try {
+      return Integer.parseInt(FeatureHubConfig.getConfig("featurehub.server-eval.context-pool-size", "0"));
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+
+  /**
+   * Give each server evaluated context the features for its own attributes, rather than every context sharing one
+   * set that is refetched whenever a context with different attributes is built. The features for the most
+   * recently used maxContexts sets of attributes are kept, each with its own REST connection to Edge, and are
+   * refreshed in the background once they are older than the polling interval. This can also be turned on with
+   * featurehub.server-eval.context-pool-size.
+   *
+   * @param maxContexts - how many different sets of attributes to keep the features of, 0 turns this off
+   */
+  public FeatureHubConfig serverEvalContextPool(int maxContexts) {
+    if (closed) return this;
+    serverEvalContexts = maxContexts;
+    return this;
+  }
+
+  @Nullable
+  private synchronized ServerEvalContextPool serverEvalContextPool() {
+    if (serverEvalContextPool == null && serverEvalContexts > 0) {
+      if (!(repository instanceof ClientFeatureRepository) || restEdgeFactory == null) {
+        log.warn("[featurehubsdk] server evaluated contexts can only be pooled with the standard repository and edge " +
+          "clients, they will share one set of features");
+        serverEvalContexts = 0;
+        return null;
+      }
+
+      serverEvalContextPool =
+        new ServerEvalContextPool((ClientFeatureRepository) repository, restEdgeFactory, serverEvalContexts);
+    }
+
+    return serverEvalContextPool;
+  }
+
   /**
    * dynamically load an edge service implementation
    */
@@ -237,6 +283,8 @@ public class EdgeFeatureHubConfig implements FeatureHubConfig {
   }
 
   private void setEdge(FeatureHubClientFactory f) {
+    restEdgeFactory = repo -> f.createRestEdge(this, repo, timeout, false).get();
+
     if (edgeType == EdgeType.STREAMING) {
       edgeServiceSupplier = f.createSSEEdge(this, repository);
     } else if (edgeType == EdgeType.REST_PASSIVE) {
@@ -337,23 +385,45 @@ public class EdgeFeatureHubConfig implements FeatureHubConfig {
       edgeService = loadEdgeService(repository).get();
     }
 
-    edgeService.poll();
+    try {
+      return awaitReady(edgeService::poll, timeout, unit);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    } catch (TimeoutException | ExecutionException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Starts something off and waits for the repository to become Ready because of it. A Failed along the way only
+   * ends the wait if the edge has given up, otherwise the edge will try again and we keep waiting for that.
+   */
+  private boolean awaitReady(@NotNull Runnable start, long timeout, TimeUnit unit)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    final long deadline = System.nanoTime() + unit.toNanos(timeout);
 
-    long deadlineMs = System.currentTimeMillis() + unit.toMillis(timeout);
+    Future<Readiness> next = repository.readinessFuture();
+    start.run();
 
-    while (getReadiness() != Readiness.Ready) {
-      if (System.currentTimeMillis() >= deadlineMs) {
+    while (true) {
+      if (repository.getReadiness() == Readiness.Failed && edgeGivenUp()) {
         return false;
       }
-      try {
-        Thread.sleep(200);
-      } catch (InterruptedException e) {
-        Thread.currentThread().interrupt();
-        return false;
+
+      final Readiness readiness = next.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+
+      if (readiness != Readiness.Failed) {
+        return readiness == Readiness.Ready; // NotReady means the repository was closed
       }
+
+      next = repository.readinessFuture();
     }
+  }
 
-    return true;
+  private boolean edgeGivenUp() {
+    final EdgeService edge = edgeService;
+    return edge == null || edge.isStopped();
   }
 
   @Override
@@ -368,11 +438,21 @@ public class EdgeFeatureHubConfig implements FeatureHubConfig {
       testApi.close();
       testApi = null;
     }
+    // the last window of counted usage has to go before the adapter closes
+    repository.stopAggregatingUsage();
+
     if (usageAdapter != null) {
       usageAdapter.close();
       usageAdapter = null;
     }
 
+    synchronized (this) {
+      if (serverEvalContextPool != null) {
+        serverEvalContextPool.close();
+        serverEvalContextPool = null;
+      }
+    }
+
     edgeServiceSupplier = null;
     serverEvalFeatureContext = null;
     repository = null;
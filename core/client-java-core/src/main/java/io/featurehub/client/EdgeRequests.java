@@ -0,0 +1,128 @@
+package io.featurehub.client;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps track of the polling requests that are on their way to Edge, so that everyone asking for the same thing
+ * at the same time (the same repository, API keys and context) shares the one request rather than each making
+ * their own, and caps how many requests can be on their way at once across the whole JVM
+ * (featurehub.edge.max-requests-in-flight, default 32).
+ */
+final class EdgeRequests {
+  private static final Logger log = LoggerFactory.getLogger(EdgeRequests.class);
+  private static final EdgeRequests shared = new EdgeRequests(maxInFlight());
+
+  private final ConcurrentMap<Key, CompletableFuture<Readiness>> inFlight = new ConcurrentHashMap<>();
+  private final Semaphore permits;
+
+  EdgeRequests(int maxInFlight) {
+    permits = new Semaphore(Math.max(1, maxInFlight));
+  }
+
+  static EdgeRequests shared() {
+    return shared;
+  }
+
+  private static int maxInFlight() {
+    final String max = FeatureHubConfig.getConfig("featurehub.edge.max-requests-in-flight", "32");
+
+    try {
+      return Integer.parseInt(max);
+    } catch (NumberFormatException e) {
+      log.warn("[featurehubsdk] featurehub.edge.max-requests-in-flight is not a number, using 32");
+      return 32;
+    }
+  }
+
+  static final class Key {
+    private final InternalFeatureRepository repository;
+    private final List<String> apiKeys;
+    @Nullable private final String header;
+    @Nullable private final String contextSha;
+
+    Key(@NotNull InternalFeatureRepository repository, @NotNull List<String> apiKeys, @Nullable String header,
+        @Nullable String contextSha) {
+      this.repository = repository;
+      this.apiKeys = apiKeys;
+      this.header = header;
+      this.contextSha = contextSha;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Key)) return false;
+      Key key = (Key) o;
+      // the repository is what the response gets put into, so it is only the same request if it is the same one
+      return repository == key.repository && apiKeys.equals(key.apiKeys) && Objects.equals(header, key.header)
+        && Objects.equals(contextSha, key.contextSha);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(System.identityHashCode(repository), apiKeys, header, contextSha);
+    }
+  }
+
+  /**
+   * If a request for this key is already on its way, returns its result, otherwise starts one with the supplier
+   * and lets anyone else asking for the same key share it until it finishes.
+   *
+   * @return a future of its own for each caller, so one caller cancelling doesn't affect the rest
+   */
+  @NotNull
+  CompletableFuture<Readiness> coalesce(@NotNull Key key, @NotNull Supplier<CompletableFuture<Readiness>> request) {
+    final CompletableFuture<Readiness> mine = new CompletableFuture<>();
+    final CompletableFuture<Readiness> existing = inFlight.putIfAbsent(key, mine);
+
+    if (existing != null) {
+      log.trace("[featurehubsdk] joining a request already in flight");
+      return existing.copy();
+    }
+
+    try {
+      request.get().whenComplete((readiness, e) -> {
+        inFlight.remove(key, mine);
+
+        if (e != null) {
+          mine.completeExceptionally(e);
+        } else {
+          mine.complete(readiness);
+        }
+      });
+    } catch (RuntimeException e) {
+      inFlight.remove(key, mine);
+      mine.completeExceptionally(e);
+    }
+
+    return mine.copy();
+  }
+
+  /**
+   * Makes the request once there are fewer than the maximum on their way, waiting until there are.
+   */
+  <T> T limit(@NotNull Callable<T> request) throws Exception {
+    permits.acquire();
+
+    try {
+      return request.call();
+    } finally {
+      permits.release();
+    }
+  }
+
+  int inFlight() {
+    return inFlight.size();
+  }
+}
@@ -11,11 +11,25 @@ public class EvaluatedFeature {
   private final String strategyId;
   @Nullable
   private final FeatureState featureState;
+  // the version the value came from and the value already converted to the feature's type. These are only
+  // set when the value came from the feature itself (rather than an interceptor), so the typed getters
+  // don't have to convert it on every read.
+  @Nullable
+  final CompiledFeature compiled;
+  @Nullable
+  final Object typedValue;
 
   private EvaluatedFeature(@Nullable FeatureState fs, @Nullable Object value, @Nullable String strategyId) {
+    this(fs, value, strategyId, null, null);
+  }
+
+  private EvaluatedFeature(@Nullable FeatureState fs, @Nullable Object value, @Nullable String strategyId,
+                           @Nullable CompiledFeature compiled, @Nullable Object typedValue) {
     this.value = value;
     this.strategyId = strategyId;
     this.featureState = fs;
+    this.compiled = compiled;
+    this.typedValue = typedValue;
   }
 
   public boolean isNull() {
@@ -41,6 +55,12 @@ public class EvaluatedFeature {
     return new EvaluatedFeature(fs, fs.getValue(), null);
   }
 
+  // a value of this version of the feature, either its own or one of its strategies'
+  static EvaluatedFeature from(@NotNull CompiledFeature compiled, @Nullable Object value, @Nullable String strategyId,
+                               @Nullable Object typedValue) {
+    return new EvaluatedFeature(compiled.fs, value, strategyId, compiled, typedValue);
+  }
+
   public @Nullable Object getValue() {
     return value;
   }
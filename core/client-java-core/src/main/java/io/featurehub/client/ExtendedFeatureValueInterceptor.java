@@ -1,6 +1,7 @@
 package io.featurehub.client;
 
 import io.featurehub.sse.model.FeatureState;
+import java.util.Set;
 import org.jetbrains.annotations.Nullable;
 
 /*
@@ -9,6 +10,9 @@ import org.jetbrains.annotations.Nullable;
  */
 public interface ExtendedFeatureValueInterceptor {
   class ValueMatch {
+    // nothing matched, shared as it is immutable and by far the most common answer
+    public static final ValueMatch NO_MATCH = new ValueMatch(false, null, true);
+
     public final boolean matched;
     @Nullable
     public final Object value;
@@ -22,7 +26,7 @@ public interface ExtendedFeatureValueInterceptor {
 
     protected static ValueMatch fromOld(@Nullable FeatureValueInterceptor.ValueMatch old) {
       if (old == null) {
-        return new ValueMatch(false, null, true);
+        return NO_MATCH;
       }
 
       return new ValueMatch(old.matched, old.value, false);
@@ -37,5 +41,16 @@ public interface ExtendedFeatureValueInterceptor {
 
   ValueMatch getValue(String key, InternalFeatureRepository repository, @Nullable FeatureState rawFeature);
 
+  /**
+   * An interceptor that can only ever match a known set of keys (e.g. those in a file) can return them here,
+   * and it will not be asked about any other key. This is checked on every lookup, so it must be cheap and
+   * reflect the current set if it can change.
+   *
+   * @return the keys this interceptor could match, or null if it could match any key
+   */
+  default @Nullable Set<String> keys() {
+    return null;
+  }
+
   default void close() {}
 }
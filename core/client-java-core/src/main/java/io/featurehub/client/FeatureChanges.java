@@ -0,0 +1,80 @@
+package io.featurehub.client;
+
+import io.featurehub.sse.model.FeatureState;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * What a batch of feature states actually changed in a repository: the features that are new, the ones that got
+ * a new version or value, and the ones that went away. Features the batch contained that were already up to date
+ * are in none of them.
+ */
+public final class FeatureChanges {
+  @NotNull private final List<FeatureState> added;
+  @NotNull private final List<FeatureState> changed;
+  @NotNull private final List<FeatureState> removed;
+  @NotNull private final String source;
+
+  public FeatureChanges(@NotNull List<FeatureState> added, @NotNull List<FeatureState> changed,
+                        @NotNull List<FeatureState> removed, @NotNull String source) {
+    this.added = Collections.unmodifiableList(added);
+    this.changed = Collections.unmodifiableList(changed);
+    this.removed = Collections.unmodifiableList(removed);
+    this.source = source;
+  }
+
+  /**
+   * @return the features the repository didn't have before
+   */
+  public @NotNull List<FeatureState> getAdded() {
+    return added;
+  }
+
+  /**
+   * @return the new state of features the repository already had
+   */
+  public @NotNull List<FeatureState> getChanged() {
+    return changed;
+  }
+
+  /**
+   * @return the last state of the features that are no longer in the repository
+   */
+  public @NotNull List<FeatureState> getRemoved() {
+    return removed;
+  }
+
+  /**
+   * @return the added and changed features together
+   */
+  public @NotNull List<FeatureState> getUpdated() {
+    if (added.isEmpty()) {
+      return changed;
+    }
+
+    if (changed.isEmpty()) {
+      return added;
+    }
+
+    final List<FeatureState> updated = new ArrayList<>(added.size() + changed.size());
+    updated.addAll(added);
+    updated.addAll(changed);
+    return updated;
+  }
+
+  public @NotNull String getSource() {
+    return source;
+  }
+
+  public boolean isEmpty() {
+    return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return "FeatureChanges{added=" + added.size() + ", changed=" + changed.size() + ", removed=" + removed.size()
+      + ", source='" + source + "'}";
+  }
+}
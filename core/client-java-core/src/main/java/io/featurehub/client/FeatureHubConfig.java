@@ -132,11 +132,12 @@ public interface FeatureHubConfig {
   /**
    * Blocks until the repository reaches the Ready state or the timeout elapses.
    * Calls poll() on the edge service to trigger an initial data fetch, then
-   * rechecks readiness every 200 ms.
+   * returns as soon as the repository says it is ready.
    *
    * @param timeout maximum time to wait
    * @param unit    time unit for the timeout
-   * @return true if ready within the timeout, false if the timeout elapsed or the thread was interrupted
+   * @return true if ready within the timeout, false if the timeout elapsed, Edge turned us away and stopped trying
+   * (the repository is Failed) or the thread was interrupted. A failure that Edge will retry keeps us waiting.
    */
   boolean waitForReady(long timeout, TimeUnit unit);
 
@@ -0,0 +1,15 @@
+package io.featurehub.client;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Supplies the executor a repository notifies listeners, broadcasts readiness and makes context changes on. The
+ * first one found with ServiceLoader is used instead of the default pool, e.g. java-client-virtual-threads gives
+ * each task a virtual thread of its own on Java 21+.
+ */
+public interface FeatureHubExecutorProviderService {
+  /**
+   * @param threadPoolSize - the size asked for, if the executor has a pool of threads at all
+   */
+  ExecutorService get(int threadPoolSize);
+}
@@ -4,6 +4,7 @@ import io.featurehub.sse.model.FeatureValueType;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
@@ -23,12 +24,21 @@ public class FeatureStateBase<K> implements FeatureState<K> {
   protected final InternalFeatureRepository repository;
 
   // any levels of the hierarchy always point to this object
-  class TopFeatureState {
-    public io.featurehub.sse.model.FeatureState fs;
-    public String key;  // we always keep this in case the state gets reset to null
+  static class TopFeatureState {
+    final String key;  // we always keep this in case the state gets reset to null
+    // the repository whose snapshot holds this feature, null if the state is held here instead
+    @Nullable final ClientFeatureRepository owner;
+    @Nullable volatile CompiledFeature state;
 
-    public TopFeatureState(String key) {
+    TopFeatureState(String key, @Nullable ClientFeatureRepository owner) {
       this.key = key;
+      this.owner = owner;
+    }
+
+    // the version of the feature to use right now, null if it is a phantom. Callers should read this once
+    // and use the result throughout, that way they never mix two versions.
+    @Nullable CompiledFeature current() {
+      return owner == null ? state : owner.snapshot().get(key);
     }
   }
 
@@ -40,27 +50,33 @@ public class FeatureStateBase<K> implements FeatureState<K> {
     this.parentHolder = parentHolder;
     feature = parentHolder.feature;
 
-    top = top();
+    top = parentHolder.top;
     listeners = top.listeners;
   }
 
   // this is exclusively for internal analytic copying
   protected FeatureStateBase(@NotNull InternalFeatureRepository repository, @NotNull String key,
                              @Nullable io.featurehub.sse.model.FeatureState featureState) {
-    this.repository = repository;
-    this.parentHolder = null;
-    this.feature = new TopFeatureState(key);
-    this.feature.fs = featureState;
-    top = this;
-    this.listeners = new ArrayList<>();
+    this(repository, new TopFeatureState(key, null));
+    this.feature.state = featureState == null ? null : new CompiledFeature(featureState, null);
   }
 
   // this is for a new FeatureStateBase
   public FeatureStateBase(@NotNull InternalFeatureRepository repository, String key) {
+    this(repository, new TopFeatureState(key, null));
+  }
+
+  private FeatureStateBase(@NotNull InternalFeatureRepository repository, @NotNull TopFeatureState feature) {
     this.repository = repository;
-    this.feature = new TopFeatureState(key);
+    this.parentHolder = null;
+    this.feature = feature;
     top = this;
-    this.listeners = new ArrayList<>();
+    this.listeners = new CopyOnWriteArrayList<>();
+  }
+
+  // a feature whose state lives in the repository's snapshot
+  static <K> FeatureStateBase<K> managed(@NotNull ClientFeatureRepository repository, @NotNull String key) {
+    return new FeatureStateBase<>(repository, new TopFeatureState(key, repository));
   }
 
   public FeatureStateBase<K> withContext(InternalContext context) {
@@ -79,24 +95,37 @@ public class FeatureStateBase<K> implements FeatureState<K> {
   }
 
   protected void notifyListeners() {
-    listeners.forEach((sl) -> repository.execute(() -> sl.notify(this)));
+    final ClientFeatureRepository owner = feature.owner;
+
+    if (owner == null) {
+      listeners.forEach((sl) -> repository.execute(() -> sl.notify(this)));
+    } else {
+      // batched with the rest of the update, and in order, see ListenerDispatcher
+      listeners.forEach((sl) -> owner.dispatch(sl, feature.key, () -> sl.notify(this)));
+    }
   }
 
   public String getId() {
-    return (feature.fs == null) ? "" : feature.fs.getId().toString();
+    final CompiledFeature current = feature.current();
+    return (current == null) ? "" : current.fs.getId().toString();
   }
 
   @Nullable
-  public UUID getEnvironmentId() { return feature.fs == null ? null : feature.fs.getEnvironmentId(); }
+  public UUID getEnvironmentId() {
+    final CompiledFeature current = feature.current();
+    return current == null ? null : current.fs.getEnvironmentId();
+  }
 
   @Override
   public @NotNull String getKey() {
-    return feature.fs == null ? feature.key : feature.fs.getKey();
+    final CompiledFeature current = feature.current();
+    return current == null ? feature.key : current.fs.getKey();
   }
 
   @Override
   public boolean isLocked() {
-    return feature.fs != null && feature.fs.getL() == Boolean.TRUE;
+    final CompiledFeature current = feature.current();
+    return current != null && current.fs.getL() == Boolean.TRUE;
   }
 
   @Override
@@ -112,12 +141,23 @@ public class FeatureStateBase<K> implements FeatureState<K> {
 
   @Override
   public Boolean getFlag() {
-    EvaluatedFeature val = internalGetValue(FeatureValueType.BOOLEAN, true);
+    return flag(context);
+  }
+
+  // the typed accessors take the context explicitly so a ClientContext can evaluate a feature directly
+  // against the repository's holder, rather than creating a copy of it bound to the context on every call
+
+  @Nullable Boolean flag(@Nullable InternalContext context) {
+    EvaluatedFeature val = evaluate(context, FeatureValueType.BOOLEAN, true);
 
     if (val == null || val.getValue() == null) {
       return null;
     }
 
+    if (val.typedValue instanceof Boolean) {
+      return (Boolean) val.typedValue;
+    }
+
     if (val.getValue() instanceof String) {
       return "true".equalsIgnoreCase(val.getValue().toString());
     }
@@ -127,16 +167,16 @@ public class FeatureStateBase<K> implements FeatureState<K> {
 
   @Override
   @Nullable public FeatureValueType getType() {
-    return (feature.fs == null) ? null : feature.fs.getType();
+    return type();
   }
 
   @Override
   public @NotNull Map<String, String> featureProperties() {
-    final TopFeatureState topFeature = top().feature;
+    final CompiledFeature current = feature.current();
 
-    if (topFeature == null || topFeature.fs == null) return new LinkedHashMap<>();
+    if (current == null) return new LinkedHashMap<>();
 
-    return (topFeature.fs.getFeatureProperties() == null) ? new LinkedHashMap<>() : topFeature.fs.getFeatureProperties();
+    return (current.fs.getFeatureProperties() == null) ? new LinkedHashMap<>() : current.fs.getFeatureProperties();
   }
 
   public EvaluatedFeature getUsageFreeValue() {
@@ -158,11 +198,19 @@ public class FeatureStateBase<K> implements FeatureState<K> {
 
   @Nullable
   public EvaluatedFeature internalGetValue(@Nullable FeatureValueType passedType, boolean triggerUsage) {
-    // we try and use interceptors first, as they accept phantom features
-    io.featurehub.sse.model.FeatureState fs = feature.fs;
+    return evaluate(context, passedType, triggerUsage);
+  }
+
+  @Nullable
+  EvaluatedFeature evaluate(@Nullable InternalContext context, @Nullable FeatureValueType passedType,
+                            boolean triggerUsage) {
+    // one read of the current version, everything below uses it so it can't see half of an update
+    final CompiledFeature current = feature.current();
+    final io.featurehub.sse.model.FeatureState fs = current == null ? null : current.fs;
 
+    // we try and use interceptors first, as they accept phantom features
     // the interceptor can trigger even on invalid feature keys, so we need to be able to track it
-    ExtendedFeatureValueInterceptor.ValueMatch vm = repository.findIntercept(feature.key, feature.fs);
+    ExtendedFeatureValueInterceptor.ValueMatch vm = repository.findIntercept(feature.key, fs);
 
     // was there an overridden value?
     if (vm.matched) {
@@ -170,7 +218,7 @@ public class FeatureStateBase<K> implements FeatureState<K> {
 
       // did we want to trigger usage and is this a real feature? We never trigger usage for intercepted features that have
       // no actual feature
-      return (triggerUsage && fs != null) ? used(result) : result;
+      return (triggerUsage && fs != null) ? used(context, result) : result;
     }
 
     // are we a phantom feature? if so we don't know how to do anything with this, so we return
@@ -179,25 +227,34 @@ public class FeatureStateBase<K> implements FeatureState<K> {
       return null;
     }
 
-    if (context != null && fs.getStrategies() != null && !fs.getStrategies().isEmpty()) {
-      final Applied applied =
-        repository.applyFeature(
-          fs.getStrategies(), feature.key, fs.getId().toString(), context);
+    final CompiledStrategies strategies = current.strategies;
+    Applied applied = null;
+    if (context != null) {
+      if (strategies != null) {
+        if (!strategies.isEmpty()) {
+          applied = repository.applyFeature(strategies, feature.key, current.id, context);
+        }
+      } else if (fs.getStrategies() != null && !fs.getStrategies().isEmpty()) {
+        applied = repository.applyFeature(fs.getStrategies(), feature.key, current.id, context);
+      }
+    }
 
+    if (applied != null) {
       log.trace("feature is {}", applied);
       if (applied.isMatched()) {
-        final EvaluatedFeature result = EvaluatedFeature.from(fs, applied.getValue(), applied.getStrategyId());
+        final EvaluatedFeature result =
+          EvaluatedFeature.from(current, applied.getValue(), applied.getStrategyId(), applied.typedValue);
 
-        return triggerUsage ? used(result) : result;
+        return triggerUsage ? used(context, result) : result;
       }
     }
 
-    final EvaluatedFeature result = EvaluatedFeature.from(fs);
+    final EvaluatedFeature result = EvaluatedFeature.from(current, fs.getValue(), null, current.value);
 
-    return triggerUsage ? used(result) : result;
+    return triggerUsage ? used(context, result) : result;
   }
 
-  EvaluatedFeature used(@NotNull EvaluatedFeature value) {
+  private EvaluatedFeature used(@Nullable InternalContext context, @NotNull EvaluatedFeature value) {
     if (context != null) {
       context.used(value);
     } else {
@@ -209,13 +266,29 @@ public class FeatureStateBase<K> implements FeatureState<K> {
   }
 
   private String getAsString(FeatureValueType type) {
-    EvaluatedFeature value = internalGetValue(type, true);
-    return value == null || value.isNull() ? null : value.getValue().toString();
+    return string(context, type);
+  }
+
+  @Nullable String string(@Nullable InternalContext context, @NotNull FeatureValueType type) {
+    EvaluatedFeature value = evaluate(context, type, true);
+    if (value == null || value.isNull()) {
+      return null;
+    }
+
+    return value.typedValue instanceof String ? (String) value.typedValue : value.getValue().toString();
   }
 
   @Override
   public BigDecimal getNumber() {
-    EvaluatedFeature value = internalGetValue(FeatureValueType.NUMBER, true);
+    return number(context);
+  }
+
+  @Nullable BigDecimal number(@Nullable InternalContext context) {
+    EvaluatedFeature value = evaluate(context, FeatureValueType.NUMBER, true);
+
+    if (value != null && value.typedValue instanceof BigDecimal) {
+      return (BigDecimal) value.typedValue;
+    }
 
     try {
       return (value == null) || value.isNull() ? null : (value.getValue() instanceof BigDecimal ? ((BigDecimal)value.getValue())
@@ -231,12 +304,37 @@ public class FeatureStateBase<K> implements FeatureState<K> {
     return getAsString(FeatureValueType.JSON);
   }
 
+  /**
+   * Each call parses the json into a new object. If the repository shares json values (see
+   * ClientFeatureRepository.shareJsonValues), values that come from the feature itself (rather than an interceptor)
+   * are only parsed once for each version and class, and every caller after that gets the same object, so it must
+   * be treated as read only.
+   */
   @Override
   public <T> T getJson(Class<T> type) {
-    String rawJson = getRawJson();
+    final EvaluatedFeature value = evaluate(context, FeatureValueType.JSON, true);
+    if (value == null || value.isNull()) {
+      return null;
+    }
+
+    final String rawJson = value.getValue().toString();
+    final CompiledFeature compiled = repository.isSharingJsonValues() ? value.compiled : null;
+
+    if (compiled != null) {
+      final Object parsed = compiled.json(type, rawJson);
+      if (parsed != null) {
+        return type.cast(parsed);
+      }
+    }
 
     try {
-      return rawJson == null ? null : repository.getJsonObjectMapper().readValue(rawJson, type);
+      final T parsed = repository.getJsonObjectMapper().readValue(rawJson, type);
+
+      if (compiled != null && parsed != null) {
+        compiled.json(type, rawJson, parsed);
+      }
+
+      return parsed;
     } catch (IOException e) {
       log.warn("Failed to parse JSON", e);
       return null;
@@ -250,7 +348,11 @@ public class FeatureStateBase<K> implements FeatureState<K> {
 
   @Override
   public boolean isSet() {
-    EvaluatedFeature value = internalGetValue(null, true);
+    return set(context);
+  }
+
+  boolean set(@Nullable InternalContext context) {
+    EvaluatedFeature value = evaluate(context, null, true);
     return value != null && !value.isNull();
   }
 
@@ -270,49 +372,37 @@ public class FeatureStateBase<K> implements FeatureState<K> {
     };
   }
 
-  // stores the feature state and triggers notifyListeners if anything changed
-  // should notify actually be inside the listener code? given contexts?
+  // stores the feature state and triggers notifyListeners if anything changed. If the feature belongs to a
+  // repository its state lives in the repository's snapshot, so the change is made there.
   public FeatureState<K> setFeatureState(io.featurehub.sse.model.FeatureState featureState) {
-    if (featureState == null) {
-      boolean changed = feature.fs != null;
-      feature.fs = featureState;
-      if (changed) {
-        notifyListeners();
-      }
+    final ClientFeatureRepository owner = feature.owner;
+
+    if (owner != null) {
+      owner.replaceFeature(feature.key, featureState);
       return this;
     }
 
-    feature.key = featureState.getKey();
-
-    Object oldValue = feature.fs == null ? null : feature.fs.getValue();
-    feature.fs = featureState;
-    Object value = convertToRespectiveType(featureState);
-    if (FeatureStateUtils.changed(oldValue, value)) {
-      notifyListeners();
-    }
+    final CompiledFeature previous = feature.state;
+    final CompiledFeature next = featureState == null ? null : new CompiledFeature(featureState, null);
+    feature.state = next;
+    changed(previous, next);
     return this;
   }
 
-  @Nullable
-  private Object convertToRespectiveType(io.featurehub.sse.model.FeatureState featureState) {
-    if (featureState.getValue() == null || featureState.getType() == null) {
-      return null;
-    }
+  // triggers notifyListeners if the value differs between these two versions of the feature
+  // should notify actually be inside the listener code? given contexts?
+  void changed(@Nullable CompiledFeature previous, @Nullable CompiledFeature next) {
+    final boolean changed = next == null ? previous != null
+      : FeatureStateUtils.changed(previous == null ? null : comparable(previous), comparable(next));
 
-    try {
-      switch (featureState.getType()) {
-        case BOOLEAN:
-          return Boolean.parseBoolean(featureState.getValue().toString());
-        case STRING:
-        case JSON:
-          return featureState.getValue().toString();
-        case NUMBER:
-          return new BigDecimal(featureState.getValue().toString());
-      }
-    } catch (Exception ignored) {
+    if (changed) {
+      notifyListeners();
     }
+  }
 
-    return null;
+  // compare typed values, so the same number parsed as an Integer one time and a BigDecimal the next isn't a change
+  private static Object comparable(@NotNull CompiledFeature compiled) {
+    return compiled.value == null ? compiled.fs.getValue() : compiled.value;
   }
 
   protected FeatureState<K> copy() {
@@ -320,7 +410,10 @@ public class FeatureStateBase<K> implements FeatureState<K> {
   }
 
   protected FeatureState<K> usageCopy() {
-    return new FeatureStateBase<K>(repository, feature.key, feature.fs);
+    // holds on to the version current right now, whatever the repository receives afterwards
+    final TopFeatureState frozen = new TopFeatureState(feature.key, null);
+    frozen.state = feature.current();
+    return new FeatureStateBase<>(repository, frozen);
   }
 
   protected FeatureStateBase<K> _copy() {
@@ -328,16 +421,19 @@ public class FeatureStateBase<K> implements FeatureState<K> {
   }
 
   public boolean exists() {
-    return feature.fs != null && feature.fs.getVersion() != null && feature.fs.getVersion() != -1;
+    final CompiledFeature current = feature.current();
+    return current != null && current.version() != -1;
   }
 
   protected FeatureValueType type() {
-    return feature.fs == null ? null : feature.fs.getType();
+    final CompiledFeature current = feature.current();
+    return current == null ? null : current.fs.getType();
   }
 
   @Override
   public String toString() {
-    Object value = feature.fs == null ? null : feature.fs.getValue();
+    final CompiledFeature current = feature.current();
+    Object value = current == null ? null : current.fs.getValue();
     return value == null ? null : value.toString();
   }
 }
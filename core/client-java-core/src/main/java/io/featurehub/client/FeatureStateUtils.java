@@ -2,9 +2,13 @@ package io.featurehub.client;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public class FeatureStateUtils {
 
@@ -21,4 +25,33 @@ public class FeatureStateUtils {
     return attributes.entrySet().stream().map(e -> String.format("%s=%s", e.getKey(),
      URLEncoder.encode(String.join(",", e.getValue()), StandardCharsets.UTF_8))).sorted().collect(Collectors.joining(","));
   }
+
+  /**
+   * @return the sha256 (in hex) Edge is sent alongside a context's header to tell contexts apart, "0" for none
+   */
+  @NotNull
+  static String contextSha(@Nullable String header) {
+    if (header == null) {
+      return "0";
+    }
+
+    try {
+      return bytesToHex(MessageDigest.getInstance("SHA-256").digest(header.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  // from https://www.baeldung.com/sha-256-hashing-java as we don't have any libs consistently to do this for us
+  private static String bytesToHex(byte[] hash) {
+    StringBuilder hexString = new StringBuilder(2 * hash.length);
+    for (int i = 0; i < hash.length; i++) {
+      String hex = Integer.toHexString(0xff & hash[i]);
+      if(hex.length() == 1) {
+        hexString.append('0');
+      }
+      hexString.append(hex);
+    }
+    return hexString.toString();
+  }
 }
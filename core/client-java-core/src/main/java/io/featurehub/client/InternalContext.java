@@ -1,7 +1,13 @@
 package io.featurehub.client;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 interface InternalContext extends ClientContext {
   void used(@NotNull EvaluatedFeature value);
+
+  // null if this context doesn't cache percentages
+  default @Nullable PercentageCache percentageCache() {
+    return null;
+  }
 }
@@ -8,7 +8,9 @@ import io.featurehub.sse.model.FeatureState;
 import io.featurehub.sse.model.SSEResultState;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -38,6 +40,15 @@ public interface InternalFeatureRepository extends FeatureRepository {
    */
   default void updateFeatures(@NotNull List<FeatureState> features, boolean force) { updateFeatures(features, force, "unknown"); }
   void updateFeatures(@NotNull List<FeatureState> features, boolean force, @NotNull String source);
+  /**
+   * The features are everything there is (e.g. everything Edge has for the API keys), so as well as updating
+   * the features as above, any the repository has that aren't in the list are removed.
+   *
+   * @param features - all the feature states
+   */
+  default void replaceFeatures(@NotNull List<FeatureState> features, @NotNull String source) {
+    updateFeatures(features, source);
+  }
   default boolean updateFeature(@NotNull FeatureState feature) { return updateFeature(feature, "unknown"); }
   boolean updateFeature(@NotNull FeatureState feature, @NotNull String source);
   default boolean updateFeature(@NotNull FeatureState feature, boolean force) { return updateFeature(feature, force, "unknown"); }
@@ -52,10 +63,30 @@ public interface InternalFeatureRepository extends FeatureRepository {
 
   @NotNull Applied applyFeature(@NotNull List<FeatureRolloutStrategy> strategies, @NotNull String key, @NotNull String featureValueId,
                                 @NotNull ClientContext cac);
+  @NotNull Applied applyFeature(@NotNull CompiledStrategies strategies, @NotNull String key, @NotNull String featureValueId,
+                                @NotNull ClientContext cac);
 
   void execute(@NotNull Runnable command);
   ExecutorService getExecutor();
 
+  /**
+   * @return a count that goes up whenever an update changes the features held, so a poller can tell whether
+   * anything it received was new. Repositories that don't keep one always return 0.
+   */
+  default long getChangeCount() { return 0; }
+
+  /**
+   * @return whether getJson can hand every caller the same object for a version of a feature. Repositories that
+   * don't keep parsed values always return false.
+   */
+  default boolean isSharingJsonValues() { return false; }
+
+  /**
+   * @param hook - run every time a feature value is used, so it must be cheap. A passively polling client uses it to
+   *             notice its features have gone stale. Null removes it. Repositories that can't run one ignore it.
+   */
+  default void setFeatureReadHook(@Nullable Runnable hook) {}
+
   @NotNull JavascriptObjectMapper getJsonObjectMapper();
 
   /**
@@ -67,17 +98,46 @@ public interface InternalFeatureRepository extends FeatureRepository {
 
   @NotNull Readiness getReadiness();
 
+  /**
+   * @return a future that completes as soon as the repository is Ready, or Failed the next time Edge turns us away.
+   * If the repository is Ready already it is complete already, but a Failed from before it was asked for doesn't
+   * count. It completes with NotReady if the repository is closed first.
+   */
+  default @NotNull CompletableFuture<Readiness> readinessFuture() {
+    final CompletableFuture<Readiness> future = new CompletableFuture<>();
+    // the listener is told the current readiness first
+    final AtomicBoolean current = new AtomicBoolean(true);
+    final RepositoryEventHandler listener = addReadinessListener(readiness -> {
+      final boolean before = current.getAndSet(false);
+      if (readiness == Readiness.Ready || (readiness == Readiness.Failed && !before)) {
+        future.complete(readiness);
+      }
+    });
+
+    future.whenComplete((readiness, e) -> listener.cancel());
+    return future;
+  }
+
   @NotNull FeatureStateBase<?> getFeat(@NotNull String key);
   @NotNull FeatureStateBase<?> getFeat(@NotNull Feature key);
   @NotNull <K> FeatureStateBase<K> getFeat(@NotNull String key, @NotNull Class<K> clazz);
 
   void recordUsageEvent(@NotNull UsageEvent event);
 
+  /**
+   * If usage is being counted into summaries, stop and send a summary of what was counted since the last one, so
+   * it gets out before the usage stream is closed. Repositories that don't summarise usage ignore it.
+   */
+  default void stopAggregatingUsage() {}
+
   /**
    * Repository is empty, there are no features but repository is ready.
    */
   void repositoryEmpty();
 
+  /**
+   * A feature value was used. The attributes can be the context's own, so must be copied if they are kept.
+   */
   void used(EvaluatedFeature value,
             @Nullable Map<String, @Nullable List<String>> attributes,
             @Nullable String usageUserKey);
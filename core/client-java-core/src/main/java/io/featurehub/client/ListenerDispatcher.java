@@ -0,0 +1,133 @@
+package io.featurehub.client;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Delivers the notifications a repository update produces to its listeners. Rather than a task per listener per
+ * feature, each listener gets one task that works through everything waiting for it, so a listener is never told
+ * about two things at once and is told about them in the order they happened. While an update is being made
+ * (between hold and release) the notifications are only collected, so a whole update goes to each listener as a
+ * single batch. A notification about a feature that is still waiting when the same feature changes again is
+ * dropped, the listener only needs to hear about the latest one.
+ */
+final class ListenerDispatcher {
+  private static final Logger log = LoggerFactory.getLogger(ListenerDispatcher.class);
+
+  private final Executor executor;
+  // listener -> what it is still to be told, by what it is about
+  private final Map<Object, Map<Object, Runnable>> waiting = new HashMap<>();
+  // listeners with a task delivering to them, which will pick up anything added while it runs
+  private final Set<Object> delivering = new HashSet<>();
+  // listeners with something waiting for the current update to finish
+  private final Set<Object> held = new LinkedHashSet<>();
+  private int holds;
+
+  ListenerDispatcher(@NotNull Executor executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * Collects notifications rather than delivering them until release is called as many times.
+   */
+  synchronized void hold() {
+    holds++;
+  }
+
+  void release() {
+    final List<Object> listeners;
+
+    synchronized (this) {
+      if (--holds > 0 || held.isEmpty()) {
+        return;
+      }
+
+      listeners = new ArrayList<>(held);
+      held.clear();
+      delivering.addAll(listeners);
+    }
+
+    listeners.forEach(this::start);
+  }
+
+  /**
+   * A notification that is never replaced, e.g. one saying what a whole update changed.
+   */
+  void dispatch(@NotNull Object listener, @NotNull Runnable notification) {
+    dispatch(listener, new Object(), notification);
+  }
+
+  /**
+   * @param listener - who is being notified, anything passed for the same listener is delivered in order
+   * @param about - what the notification is about, a later one about the same thing replaces it if it is still
+   *              waiting
+   */
+  void dispatch(@NotNull Object listener, @NotNull Object about, @NotNull Runnable notification) {
+    synchronized (this) {
+      final Map<Object, Runnable> pending = waiting.computeIfAbsent(listener, l -> new LinkedHashMap<>());
+      // it now goes after everything else waiting
+      pending.remove(about);
+      pending.put(about, notification);
+
+      if (delivering.contains(listener)) {
+        return;
+      }
+
+      if (holds > 0) {
+        held.add(listener);
+        return;
+      }
+
+      delivering.add(listener);
+    }
+
+    start(listener);
+  }
+
+  private void start(Object listener) {
+    try {
+      executor.execute(() -> deliver(listener));
+    } catch (RuntimeException e) {
+      // e.g. the executor has been shut down, nothing is ever going to deliver these so let them go
+      log.warn("[featurehubsdk] unable to notify listener, dropping its notifications: {}", e.getMessage());
+
+      synchronized (this) {
+        delivering.remove(listener);
+        waiting.remove(listener);
+      }
+    }
+  }
+
+  private void deliver(Object listener) {
+    while (true) {
+      final Map<Object, Runnable> batch;
+
+      synchronized (this) {
+        batch = waiting.remove(listener);
+
+        if (batch == null) {
+          delivering.remove(listener);
+          return;
+        }
+      }
+
+      for (Runnable notification : batch.values()) {
+        try {
+          notification.run();
+        } catch (Exception e) {
+          log.error("[featurehubsdk] listener failed", e);
+        }
+      }
+    }
+  }
+}
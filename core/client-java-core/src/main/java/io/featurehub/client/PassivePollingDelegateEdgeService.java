@@ -1,40 +1,77 @@
 package io.featurehub.client;
 
-import java.time.LocalDateTime;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Only polls when the features are being used. Every feature read checks whether currentInterval() seconds have
+ * passed since the last poll, and the first read after they have starts a refresh in the background. Reads never
+ * wait for it, they are given whatever the repository holds until the refresh lands (stale-while-revalidate).
+ */
 public class PassivePollingDelegateEdgeService extends BasePollingDelegateEdgeService {
   private static final Logger log =
       LoggerFactory.getLogger(PassivePollingDelegateEdgeService.class);
-  private LocalDateTime whenLastPolled;
+  // the System.nanoTime() the features go stale at, they start out stale so the first read polls
+  private volatile long staleAt = System.nanoTime();
+  // set by the read that starts a refresh, so only one does until the next poll is finished
+  private final AtomicBoolean refreshing = new AtomicBoolean();
 
   public PassivePollingDelegateEdgeService(
       @NotNull EdgeService edgeService, @NotNull InternalFeatureRepository repo) {
     super(edgeService, repo);
 
-    // this ensures we trigger as soon as requested
-    whenLastPolled = LocalDateTime.now().minusMinutes(1);
+    repo.setFeatureReadHook(this::refreshIfStale);
   }
 
   // this ensures we have something to investigate
   @Override
   public void postPollActivity() {
     // do this first to ensure no-one tries to poll again
-    whenLastPolled = LocalDateTime.now();
+    staleAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(edgeService.currentInterval());
+    refreshing.set(false);
     // now clean up all the clients
     super.postPollActivity();
   }
 
+  /**
+   * Called on every feature read, so it is a clock read and a volatile read unless the features are stale.
+   */
+  void refreshIfStale() {
+    if (System.nanoTime() - staleAt < 0 || edgeService.isStopped() || !refreshing.compareAndSet(false, true)) {
+      return;
+    }
+
+    // a poll may have finished between us finding them stale and getting here
+    if (System.nanoTime() - staleAt < 0) {
+      refreshing.set(false);
+      return;
+    }
+
+    log.trace("[featurehubsdk] features are stale, refreshing");
+
+    try {
+      super.poll();
+    } catch (RuntimeException e) {
+      refreshing.set(false);
+      log.error("[featurehubsdk] unable to refresh features", e);
+    }
+  }
+
   @Override
   public Future<Readiness> poll() {
-    if (whenLastPolled.plusSeconds(edgeService.currentInterval()).isBefore(LocalDateTime.now())) {
-      return super.poll();
-    }
+    refreshIfStale();
 
     return CompletableFuture.completedFuture(repo.getReadiness());
   }
+
+  @Override
+  public void close() {
+    repo.setFeatureReadHook(null);
+    super.close();
+  }
 }
@@ -0,0 +1,65 @@
+package io.featurehub.client;
+
+import io.featurehub.strategies.percentage.PercentageCalculator;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A small, fixed size cache of the percentage a context's percentage key falls into for each feature value.
+ * It is direct mapped on the feature value id, so it never grows and a changed percentage key (e.g. a new
+ * userkey) simply misses. Entries are immutable so the cache is safe to share between threads without locks.
+ * <p>
+ * It is off by default, set featurehub.context.percentage-cache-size to a size (rounded up to a power of 2) to
+ * turn it on.
+ */
+final class PercentageCache {
+  static final int configuredSize = configuredSize();
+
+  private static class Entry {
+    final String percentageKey;
+    final String featureValueId;
+    final int percentage;
+
+    Entry(String percentageKey, String featureValueId, int percentage) {
+      this.percentageKey = percentageKey;
+      this.featureValueId = featureValueId;
+      this.percentage = percentage;
+    }
+  }
+
+  private final Entry[] entries;
+  private final int mask;
+
+  PercentageCache(int size) {
+    final int capacity = Integer.highestOneBit(Math.max(1, size - 1)) << 1;
+    entries = new Entry[capacity];
+    mask = capacity - 1;
+  }
+
+  @Nullable
+  static PercentageCache create() {
+    return configuredSize > 0 ? new PercentageCache(configuredSize) : null;
+  }
+
+  int percentage(@NotNull String percentageKey, @NotNull String featureValueId,
+                 @NotNull PercentageCalculator calculator) {
+    final int slot = featureValueId.hashCode() & mask;
+    final Entry entry = entries[slot];
+
+    if (entry != null && entry.featureValueId.equals(featureValueId) && entry.percentageKey.equals(percentageKey)) {
+      return entry.percentage;
+    }
+
+    final int percentage = calculator.determineClientPercentage(percentageKey, featureValueId);
+    entries[slot] = new Entry(percentageKey, featureValueId, percentage);
+    return percentage;
+  }
+
+  private static int configuredSize() {
+    try {
+      return Integer.parseInt(FeatureHubConfig.getConfig("featurehub.context.percentage-cache-size", "0"));
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package io.featurehub.client;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The one thread every actively polling client in the JVM waits for its next poll on. It only starts the poll,
+ * which is made on the repository's executor, so one thread is plenty however many clients there are.
+ * <p>
+ * Each wait is moved by up to featurehub.edge.poll-jitter-percent (default 10) of the interval either way, so a
+ * fleet of servers started at the same time doesn't keep polling Edge at the same moment.
+ */
+final class PollScheduler {
+  private static final Logger log = LoggerFactory.getLogger(PollScheduler.class);
+  private static final PollScheduler shared = new PollScheduler(makeScheduler(), jitterPercent());
+
+  private final ScheduledExecutorService scheduler;
+  private final int jitterPercent;
+
+  PollScheduler(@NotNull ScheduledExecutorService scheduler, int jitterPercent) {
+    this.scheduler = scheduler;
+    this.jitterPercent = Math.max(0, Math.min(jitterPercent, 100));
+  }
+
+  static PollScheduler shared() {
+    return shared;
+  }
+
+  private static ScheduledExecutorService makeScheduler() {
+    final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+      final Thread t = new Thread(r, "featurehub-poll-scheduler");
+      t.setDaemon(true);
+      return t;
+    });
+
+    // a cancelled poll shouldn't hang around until it would have run
+    scheduler.setRemoveOnCancelPolicy(true);
+    return scheduler;
+  }
+
+  private static int jitterPercent() {
+    try {
+      return Integer.parseInt(FeatureHubConfig.getConfig("featurehub.edge.poll-jitter-percent", "10"));
+    } catch (NumberFormatException e) {
+      log.warn("[featurehubsdk] featurehub.edge.poll-jitter-percent is not a number, using 10");
+      return 10;
+    }
+  }
+
+  /**
+   * Runs the poll once roughly intervalMs has passed.
+   */
+  @NotNull
+  ScheduledFuture<?> schedule(@NotNull Runnable poll, long intervalMs) {
+    return scheduler.schedule(poll, jittered(intervalMs), TimeUnit.MILLISECONDS);
+  }
+
+  long jittered(long intervalMs) {
+    final long spread = intervalMs * jitterPercent / 100;
+
+    if (spread <= 0) {
+      return Math.max(0, intervalMs);
+    }
+
+    return intervalMs - spread + ThreadLocalRandom.current().nextLong(spread * 2 + 1);
+  }
+}
@@ -0,0 +1,58 @@
+package io.featurehub.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A server evaluated context that gets its features from a ServerEvalContextPool, so it evaluates against the
+ * features for its own attributes rather than sharing (and refetching) the config's. A context with no
+ * attributes uses the config's repository.
+ */
+class PooledServerEvalContext extends BaseClientContext {
+  private static final Logger log = LoggerFactory.getLogger(PooledServerEvalContext.class);
+  private final ServerEvalContextPool pool;
+  private final InternalFeatureRepository configRepository;
+
+  PooledServerEvalContext(ServerEvalContextPool pool, InternalFeatureRepository repository,
+                          EdgeService edgeService) {
+    super(repository, edgeService);
+    this.pool = pool;
+    this.configRepository = repository;
+  }
+
+  @Override
+  public Future<ClientContext> build() {
+    final String header = FeatureStateUtils.generateXFeatureHubHeaderFromMap(attributes);
+
+    if (header != null) {
+      final ServerEvalContextPool.Entry entry = pool.get(header);
+      repository = entry.repository;
+      return entry.loaded.thenApply(readiness -> this);
+    }
+
+    repository = configRepository;
+
+    final Future<Readiness> change = edgeService.contextChange(null, "0");
+    final CompletableFuture<ClientContext> future = new CompletableFuture<>();
+
+    repository.execute(() -> {
+      try {
+        change.get();
+
+        future.complete(this);
+      } catch (Exception e) {
+        log.error("Failed to update", e);
+        future.completeExceptionally(e);
+      }
+    });
+
+    return future;
+  }
+
+  @Override
+  public void close() {
+    // the connections to Edge belong to the pool and the config, not to the context
+  }
+}
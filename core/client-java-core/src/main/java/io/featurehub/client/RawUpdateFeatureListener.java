@@ -7,6 +7,21 @@ import java.util.List;
 
 public interface RawUpdateFeatureListener {
   void updateFeatures(@NotNull List<FeatureState> features, @NotNull String source);
+
+  /**
+   * Called once for each batch of features (from polling, the "features" event of a stream and so on) that changed
+   * anything, with just what it changed. By default the added and changed features go to updateFeatures and each
+   * removed one to deleteFeature.
+   */
+  default void featuresChanged(@NotNull FeatureChanges changes) {
+    final List<FeatureState> updated = changes.getUpdated();
+    if (!updated.isEmpty()) {
+      updateFeatures(updated, changes.getSource());
+    }
+
+    changes.getRemoved().forEach(fs -> deleteFeature(fs, changes.getSource()));
+  }
+
   void updateFeature(@NotNull FeatureState feature, @NotNull String source);
   void deleteFeature(@NotNull FeatureState feature, @NotNull String source);
   void close();
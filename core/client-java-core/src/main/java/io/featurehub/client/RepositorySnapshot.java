@@ -0,0 +1,86 @@
+package io.featurehub.client;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Every feature a repository holds at one point in time. A snapshot is never changed once built: the
+ * repository copies it, applies a whole update batch to the copy and publishes the result with a single
+ * volatile write, so readers see either all of a batch or none of it and never need a lock.
+ */
+final class RepositorySnapshot {
+  static final RepositorySnapshot EMPTY = new RepositorySnapshot(0, Collections.emptyMap());
+
+  // incremented once for each batch that changed anything
+  final long version;
+  private final Map<String, CompiledFeature> features;
+
+  private RepositorySnapshot(long version, Map<String, CompiledFeature> features) {
+    this.version = version;
+    this.features = features;
+  }
+
+  @Nullable
+  CompiledFeature get(@NotNull String key) {
+    return features.get(key);
+  }
+
+  int size() {
+    return features.size();
+  }
+
+  @NotNull
+  Set<String> keys() {
+    return features.keySet();
+  }
+
+  @NotNull
+  Builder next() {
+    return new Builder(this);
+  }
+
+  /**
+   * Builds the snapshot that follows another one, copying its features only once something actually changes.
+   */
+  static class Builder {
+    private final RepositorySnapshot from;
+    private Map<String, CompiledFeature> features;
+
+    private Builder(RepositorySnapshot from) {
+      this.from = from;
+      this.features = from.features;
+    }
+
+    @Nullable
+    CompiledFeature get(@NotNull String key) {
+      return features.get(key);
+    }
+
+    void put(@NotNull String key, @NotNull CompiledFeature feature) {
+      writable().put(key, feature);
+    }
+
+    @Nullable
+    CompiledFeature remove(@NotNull String key) {
+      return features.containsKey(key) ? writable().remove(key) : null;
+    }
+
+    private Map<String, CompiledFeature> writable() {
+      if (features == from.features) {
+        features = new HashMap<>(from.features);
+      }
+
+      return features;
+    }
+
+    @NotNull
+    RepositorySnapshot build() {
+      return features == from.features ? from
+        : new RepositorySnapshot(from.version + 1, Collections.unmodifiableMap(features));
+    }
+  }
+}
@@ -0,0 +1,164 @@
+package io.featurehub.client;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The features of the most recently used server evaluated contexts. Each distinct set of attributes gets its own
+ * repository and connection to Edge (and so its own etag), so contexts for different users no longer take turns
+ * with a single repository. A context whose attributes were seen recently uses the features already fetched for
+ * them straight away, and if those are older than the polling interval they are refreshed in the background
+ * while it carries on using them.
+ */
+class ServerEvalContextPool {
+  private static final Logger log = LoggerFactory.getLogger(ServerEvalContextPool.class);
+
+  @NotNull private final ClientFeatureRepository repository;
+  @NotNull private final Function<InternalFeatureRepository, EdgeService> edgeFactory;
+  private final int maxContexts;
+  // x-featurehub header -> its features, least recently used first
+  private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private boolean closed;
+
+  static class Entry {
+    @NotNull final ClientFeatureRepository repository;
+    @NotNull final EdgeService edge;
+    // completed once the first fetch has finished
+    final CompletableFuture<Readiness> loaded = new CompletableFuture<>();
+    private final AtomicBoolean fetching = new AtomicBoolean(true);
+    private volatile long fetchedAt;
+
+    Entry(@NotNull ClientFeatureRepository repository, @NotNull EdgeService edge) {
+      this.repository = repository;
+      this.edge = edge;
+    }
+
+    private void fetched(@Nullable Readiness readiness) {
+      fetchedAt = System.nanoTime();
+      fetching.set(false);
+      loaded.complete(readiness == null ? repository.getReadiness() : readiness);
+    }
+
+    private boolean stale() {
+      final long interval = edge.currentInterval();
+      return interval > 0 && System.nanoTime() - fetchedAt > TimeUnit.SECONDS.toNanos(interval);
+    }
+  }
+
+  /**
+   * @param repository - the config's repository, which every context's repository shares interceptors and usage with
+   * @param edgeFactory - creates a REST connection to Edge that fills the repository it is given
+   * @param maxContexts - how many contexts to keep, the least recently used is dropped after that
+   */
+  ServerEvalContextPool(@NotNull ClientFeatureRepository repository,
+                        @NotNull Function<InternalFeatureRepository, EdgeService> edgeFactory, int maxContexts) {
+    this.repository = repository;
+    this.edgeFactory = edgeFactory;
+    this.maxContexts = Math.max(1, maxContexts);
+  }
+
+  /**
+   * @return the features for the context with this header, which may still be loading (see Entry.loaded)
+   */
+  @NotNull
+  Entry get(@NotNull String header) {
+    Entry entry;
+    Entry evicted = null;
+    boolean created = false;
+
+    synchronized (this) {
+      if (closed) {
+        throw new ConfigurationClosedException();
+      }
+
+      entry = entries.get(header);
+
+      if (entry == null) {
+        final ClientFeatureRepository contextRepository = new ClientFeatureRepository(repository);
+        entry = new Entry(contextRepository, edgeFactory.apply(contextRepository));
+        entries.put(header, entry);
+        created = true;
+
+        if (entries.size() > maxContexts) {
+          final Iterator<Entry> oldest = entries.values().iterator();
+          evicted = oldest.next();
+          oldest.remove();
+        }
+      }
+    }
+
+    if (evicted != null) {
+      evicted.edge.close();
+    }
+
+    if (created) {
+      final Entry loading = entry;
+      fetch(loading, () -> loading.edge.contextChange(header, FeatureStateUtils.contextSha(header)));
+    } else if (entry.loaded.isDone() && entry.stale() && entry.fetching.compareAndSet(false, true)) {
+      // stale while revalidate, whoever asked gets what we have now
+      final Entry refreshing = entry;
+      fetch(refreshing, refreshing.edge::poll);
+    }
+
+    return entry;
+  }
+
+  private void fetch(@NotNull Entry entry, @NotNull Supplier<Future<Readiness>> request) {
+    final Future<Readiness> response;
+
+    try {
+      response = request.get();
+    } catch (Exception e) {
+      log.error("[featurehubsdk] failed to request features for context", e);
+      entry.fetched(Readiness.Failed);
+      return;
+    }
+
+    if (response instanceof CompletableFuture) {
+      ((CompletableFuture<Readiness>) response).whenComplete((readiness, e) -> entry.fetched(readiness));
+    } else {
+      repository.execute(() -> {
+        Readiness readiness = null;
+
+        try {
+          readiness = response.get();
+        } catch (Exception e) {
+          log.error("[featurehubsdk] failed to get features for context", e);
+        } finally {
+          entry.fetched(readiness);
+        }
+      });
+    }
+  }
+
+  int size() {
+    synchronized (this) {
+      return entries.size();
+    }
+  }
+
+  void close() {
+    final List<Entry> closing;
+
+    synchronized (this) {
+      closed = true;
+      closing = new ArrayList<>(entries.values());
+      entries.clear();
+    }
+
+    closing.forEach(e -> e.edge.close());
+  }
+}
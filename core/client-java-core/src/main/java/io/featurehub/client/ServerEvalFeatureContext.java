@@ -1,8 +1,5 @@
 package io.featurehub.client;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 import org.slf4j.Logger;
@@ -13,19 +10,12 @@ public class ServerEvalFeatureContext extends BaseClientContext {
   private String xHeader;
   private final RepositoryEventHandler newFeatureStateHandler;
   private final RepositoryEventHandler featureUpdatedHandler;
-  private final MessageDigest shaDigester;
 
 
   public ServerEvalFeatureContext(InternalFeatureRepository repository,
                                   EdgeService edgeService) {
     super(repository, edgeService);
 
-    try {
-      shaDigester = MessageDigest.getInstance("SHA-256");
-    } catch (NoSuchAlgorithmException e) {
-      throw new RuntimeException(e);
-    }
-
     newFeatureStateHandler = repository.registerNewFeatureStateAvailable((fr) -> {
       recordRelativeValuesForUser();
     });
@@ -55,11 +45,19 @@ public class ServerEvalFeatureContext extends BaseClientContext {
       }
     }
 
-    Future<?> change = edgeService.contextChange(newHeader,
-      newHeader == null ? "0" : bytesToHex(shaDigester.digest(newHeader.getBytes(StandardCharsets.UTF_8))));
+    Future<?> change = edgeService.contextChange(newHeader, FeatureStateUtils.contextSha(newHeader));
 
     xHeader = newHeader;
 
+    if (change instanceof CompletableFuture) {
+      // no thread has to sit waiting for Edge, we carry on on the repository's executor once it has answered
+      return ((CompletableFuture<?>) change).whenComplete((r, e) -> {
+        if (e != null) {
+          log.error("Failed to update", e);
+        }
+      }).thenApplyAsync(r -> this, repository::execute);
+    }
+
     CompletableFuture<ClientContext> future = new CompletableFuture<>();
 
     repository.execute(() -> {
@@ -76,17 +74,4 @@ public class ServerEvalFeatureContext extends BaseClientContext {
 
     return future;
   }
-
-  // from https://www.baeldung.com/sha-256-hashing-java as we don't have any libs consistently to do this for us
-  private static String bytesToHex(byte[] hash) {
-    StringBuilder hexString = new StringBuilder(2 * hash.length);
-    for (int i = 0; i < hash.length; i++) {
-      String hex = Integer.toHexString(0xff & hash[i]);
-      if(hex.length() == 1) {
-        hexString.append('0');
-      }
-      hexString.append(hex);
-    }
-    return hexString.toString();
-  }
 }
@@ -0,0 +1,255 @@
+package io.featurehub.client.edge;
+
+import io.featurehub.client.FeatureHubConfig;
+import io.featurehub.client.InternalFeatureRepository;
+import io.featurehub.javascript.JavascriptObjectMapper;
+import io.featurehub.sse.model.FeatureState;
+import io.featurehub.sse.model.SSEResultState;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sits between the thread reading a stream from Edge and the repository, so the reader only has to hand each
+ * event over and can go straight back to the socket. The events are decoded and applied on a thread of their own
+ * in the order they arrived, and when a burst has built up while the last lot were being applied, the burst is
+ * coalesced first: a "features" event (which is everything) makes any feature events before it pointless, and of
+ * several "feature"/"delete feature" events for the same key only the last is applied.
+ * <p>
+ * It holds at most featurehub.edge.sse-queue-size (default 1024) events, once it is full the reader waits. A size
+ * of 0 applies each event on the reader thread as it arrives, as before.
+ */
+public class EdgeEventQueue {
+  private static final Logger log = LoggerFactory.getLogger(EdgeEventQueue.class);
+  private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+
+  @NotNull private final EdgeRetryService retryer;
+  @NotNull private final InternalFeatureRepository repository;
+  @Nullable private final BlockingQueue<Event> events; // null if we apply them as they arrive
+  @Nullable private final ExecutorService worker;
+  private final AtomicBoolean draining = new AtomicBoolean();
+  private volatile CompletableFuture<Void> lastOffered = DONE;
+
+  private static final class Event {
+    final SSEResultState state;
+    final Object data; // a String or the byte[] it was sent as
+    final UUID environmentId;
+    final CompletableFuture<Void> applied = new CompletableFuture<>();
+
+    Event(SSEResultState state, Object data, UUID environmentId) {
+      this.state = state;
+      this.data = data;
+      this.environmentId = environmentId;
+    }
+
+    boolean isFeature() {
+      return state == SSEResultState.FEATURE || state == SSEResultState.DELETE_FEATURE;
+    }
+  }
+
+  public EdgeEventQueue(@NotNull EdgeRetryService retryer, @NotNull InternalFeatureRepository repository) {
+    this(retryer, repository, queueSize());
+  }
+
+  public EdgeEventQueue(@NotNull EdgeRetryService retryer, @NotNull InternalFeatureRepository repository,
+                        int size) {
+    this.retryer = retryer;
+    this.repository = repository;
+
+    if (size > 0) {
+      events = new ArrayBlockingQueue<>(size);
+      // the thread only hangs around while there is something to do
+      worker = new ThreadPoolExecutor(0, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+        final Thread t = new Thread(r, "featurehub-sse-events");
+        t.setDaemon(true);
+        return t;
+      });
+    } else {
+      events = null;
+      worker = null;
+    }
+  }
+
+  private static int queueSize() {
+    try {
+      return Integer.parseInt(FeatureHubConfig.getConfig("featurehub.edge.sse-queue-size", "1024"));
+    } catch (NumberFormatException e) {
+      log.warn("[featurehubsdk] featurehub.edge.sse-queue-size is not a number, using 1024");
+      return 1024;
+    }
+  }
+
+  /**
+   * Hands over an event to be applied, waiting if the queue is full.
+   *
+   * @return completes once the event has been applied (or made pointless by a later one)
+   */
+  public @NotNull CompletableFuture<Void> offer(@NotNull SSEResultState state, @NotNull String data,
+                                                UUID environmentId) {
+    return enqueue(new Event(state, data, environmentId));
+  }
+
+  public @NotNull CompletableFuture<Void> offer(@NotNull SSEResultState state, @NotNull byte[] data,
+                                                UUID environmentId) {
+    return enqueue(new Event(state, data, environmentId));
+  }
+
+  private CompletableFuture<Void> enqueue(Event event) {
+    if (events == null || worker == null || worker.isShutdown()) {
+      apply(Collections.singletonList(event));
+      return event.applied;
+    }
+
+    try {
+      events.put(event);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      event.applied.complete(null);
+      return event.applied;
+    }
+
+    lastOffered = event.applied;
+
+    if (draining.compareAndSet(false, true)) {
+      try {
+        worker.execute(this::drain);
+      } catch (RejectedExecutionException e) {
+        draining.set(false); // closed, anything left is dropped
+      }
+    }
+
+    return event.applied;
+  }
+
+  /**
+   * Waits (a little while at most) for everything offered so far to be applied, e.g. before deciding whether the
+   * stream left us with any features.
+   */
+  public void flush() {
+    try {
+      lastOffered.get(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      log.debug("[featurehubsdk] stream events still waiting to be applied", e);
+    }
+  }
+
+  public void close() {
+    if (worker != null) {
+      worker.shutdown();
+    }
+  }
+
+  private void drain() {
+    draining.set(false);
+
+    final List<Event> batch = new ArrayList<>();
+    //noinspection ConstantConditions
+    events.drainTo(batch);
+
+    if (!batch.isEmpty()) {
+      apply(batch);
+    }
+  }
+
+  private void apply(List<Event> batch) {
+    int lastFeatures = -1;
+    for (int i = 0; i < batch.size(); i++) {
+      if (batch.get(i).state == SSEResultState.FEATURES) {
+        lastFeatures = i;
+      }
+    }
+
+    final List<Event> run = new ArrayList<>();
+
+    for (int i = 0; i < batch.size(); i++) {
+      final Event event = batch.get(i);
+
+      if (i < lastFeatures && (event.isFeature() || event.state == SSEResultState.FEATURES)) {
+        continue; // the features that follow are everything, so this doesn't matter any more
+      }
+
+      if (event.isFeature()) {
+        run.add(event);
+      } else {
+        applyRun(run);
+        convert(event);
+      }
+    }
+
+    applyRun(run);
+
+    batch.forEach(e -> e.applied.complete(null));
+  }
+
+  private void convert(Event event) {
+    try {
+      if (event.data instanceof byte[]) {
+        retryer.convertSSEState(event.state, (byte[]) event.data, repository, event.environmentId);
+      } else {
+        retryer.convertSSEState(event.state, (String) event.data, repository, event.environmentId);
+      }
+    } catch (Exception e) {
+      log.error("[featurehubsdk] failed to apply {} event", event.state, e);
+    }
+  }
+
+  /**
+   * A run of feature updates and deletes with nothing else in between, only the last for each key matters.
+   */
+  private void applyRun(List<Event> run) {
+    if (run.size() == 1) {
+      convert(run.get(0));
+    } else if (!run.isEmpty()) {
+      final JavascriptObjectMapper mapper = repository.getJsonObjectMapper();
+      final Map<String, Event> latest = new LinkedHashMap<>();
+      final Map<String, FeatureState> states = new LinkedHashMap<>();
+
+      for (Event event : run) {
+        try {
+          final FeatureState fs = event.data instanceof byte[]
+            ? mapper.readValue((byte[]) event.data, FeatureState.class)
+            : mapper.readValue((String) event.data, FeatureState.class);
+          fs.setEnvironmentId(event.environmentId);
+          latest.put(fs.getKey(), event);
+          states.put(fs.getKey(), fs);
+        } catch (Exception e) {
+          log.error("[featurehubsdk] failed to decode {} event", event.state, e);
+        }
+      }
+
+      log.trace("[featurehubsdk] applying {} of {} feature events", states.size(), run.size());
+
+      states.forEach((key, fs) -> {
+        try {
+          if (latest.get(key).state == SSEResultState.DELETE_FEATURE) {
+            repository.deleteFeature(fs, "streaming");
+          } else {
+            repository.updateFeature(fs, "streaming");
+          }
+        } catch (Exception e) {
+          log.error("[featurehubsdk] failed to apply feature {}", key, e);
+        }
+      });
+    }
+
+    run.clear();
+  }
+}
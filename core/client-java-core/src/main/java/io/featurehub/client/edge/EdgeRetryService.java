@@ -2,6 +2,7 @@ package io.featurehub.client.edge;
 
 import io.featurehub.client.InternalFeatureRepository;
 import io.featurehub.sse.model.SSEResultState;
+import java.nio.charset.StandardCharsets;
 import java.util.UUID;
 import java.util.concurrent.ExecutorService;
 import org.jetbrains.annotations.NotNull;
@@ -20,6 +21,16 @@ public interface EdgeRetryService {
   void convertSSEState(@NotNull SSEResultState state, String data, @NotNull InternalFeatureRepository
                        repository, UUID environmentId);
 
+  /**
+   * As above, for clients that get the event data as the bytes that were sent, so they don't have to be turned
+   * into a String first.
+   */
+  default void convertSSEState(@NotNull SSEResultState state, byte[] data, @NotNull InternalFeatureRepository
+                               repository, UUID environmentId) {
+    convertSSEState(state, data == null ? null : new String(data, StandardCharsets.UTF_8), repository,
+      environmentId);
+  }
+
   void close();
 
   ExecutorService getExecutorService();
@@ -144,20 +144,42 @@ public class EdgeRetryer implements EdgeRetryService {
   @Override
   public void convertSSEState(@NotNull SSEResultState state, String data,
                               @NotNull InternalFeatureRepository repository, UUID environmentId) {
+    final JavascriptObjectMapper json = repository.getJsonObjectMapper();
+
+    convertSSEState(state, data == null ? null : () -> json.readFeatureStates(data),
+      data == null ? null : () -> json.readValue(data, FeatureState.class), repository, environmentId);
+  }
+
+  @Override
+  public void convertSSEState(@NotNull SSEResultState state, byte[] data,
+                              @NotNull InternalFeatureRepository repository, UUID environmentId) {
+    final JavascriptObjectMapper json = repository.getJsonObjectMapper();
+
+    convertSSEState(state, data == null ? null : () -> json.readFeatureStates(data),
+      data == null ? null : () -> json.readValue(data, FeatureState.class), repository, environmentId);
+  }
+
+  private interface Decoder<T> {
+    T decode() throws IOException;
+  }
+
+  // the decoders are null if the event had no data
+  private void convertSSEState(@NotNull SSEResultState state, @Nullable Decoder<List<FeatureState>> features,
+                               @Nullable Decoder<FeatureState> feature,
+                               @NotNull InternalFeatureRepository repository, UUID environmentId) {
     try {
-      if (data != null) {
+      if (features != null && feature != null) {
         if (state == SSEResultState.FEATURES) {
-          List<FeatureState> features =
-            repository.getJsonObjectMapper().readFeatureStates(data);
-          features.forEach(f -> f.setEnvironmentId(environmentId));
-          repository.updateFeatures(features, "streaming");
+          List<FeatureState> states = features.decode();
+          states.forEach(f -> f.setEnvironmentId(environmentId));
+          repository.replaceFeatures(states, "streaming");
         } else {
           if (state == SSEResultState.FEATURE) {
-            FeatureState fs = repository.getJsonObjectMapper().readValue(data, FeatureState.class);
+            FeatureState fs = feature.decode();
             fs.setEnvironmentId(environmentId);
             repository.updateFeature(fs, "streaming");
           } else if (state == SSEResultState.DELETE_FEATURE) {
-            FeatureState fs = repository.getJsonObjectMapper().readValue(data, FeatureState.class);
+            FeatureState fs = feature.decode();
             fs.setEnvironmentId(environmentId);
             repository.deleteFeature(fs, "streaming");
           }
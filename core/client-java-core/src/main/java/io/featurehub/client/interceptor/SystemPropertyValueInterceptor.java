@@ -27,20 +27,20 @@ public class SystemPropertyValueInterceptor implements ExtendedFeatureValueInter
 
   @Override
   public ValueMatch getValue(String key, InternalFeatureRepository repository, @Nullable FeatureState rawFeature) {
-    String value = null;
-    boolean matched = false;
-
-    if (System.getProperty(FEATURE_TOGGLES_ALLOW_OVERRIDE) != null) {
-      String k = FEATURE_TOGGLES_PREFIX + key;
-      if (System.getProperties().containsKey(k)) {
-        matched = true;
-        value = System.getProperty(k);
-        if (value != null && value.trim().isEmpty()) {
-          value = null;
-        }
-      }
+    if (System.getProperty(FEATURE_TOGGLES_ALLOW_OVERRIDE) == null) {
+      return ValueMatch.NO_MATCH;
     }
 
-    return new ValueMatch(matched, Conversion.toTypedValue(rawFeature == null ? null : rawFeature.getType(), value, key, repository));
+    String k = FEATURE_TOGGLES_PREFIX + key;
+    if (!System.getProperties().containsKey(k)) {
+      return ValueMatch.NO_MATCH;
+    }
+
+    String value = System.getProperty(k);
+    if (value != null && value.trim().isEmpty()) {
+      value = null;
+    }
+
+    return new ValueMatch(true, Conversion.toTypedValue(rawFeature == null ? null : rawFeature.getType(), value, key, repository));
   }
 }
@@ -0,0 +1,70 @@
+package io.featurehub.client.usage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+public class DefaultUsageFeaturesSummary extends DefaultUsageEvent implements UsageFeaturesSummary {
+  @NotNull List<FeatureUsageCount> counts = new ArrayList<>();
+  long windowStart;
+  long windowEnd;
+  @Nullable String attributeName;
+
+  @Override
+  public void setCounts(@NotNull List<FeatureUsageCount> counts) {
+    this.counts = counts;
+  }
+
+  @Override
+  public @NotNull List<FeatureUsageCount> getCounts() {
+    return Collections.unmodifiableList(counts);
+  }
+
+  @Override
+  public void setWindow(long windowStart, long windowEnd) {
+    this.windowStart = windowStart;
+    this.windowEnd = windowEnd;
+  }
+
+  @Override
+  public long getWindowStart() {
+    return windowStart;
+  }
+
+  @Override
+  public long getWindowEnd() {
+    return windowEnd;
+  }
+
+  @Override
+  public void setAttributeName(@Nullable String attributeName) {
+    this.attributeName = attributeName;
+  }
+
+  @Override
+  public @Nullable String getAttributeName() {
+    return attributeName;
+  }
+
+  @Override
+  public @NotNull String getEventName() {
+    return "feature-summary";
+  }
+
+  @Override
+  @NotNull
+  public Map<String, Object> toMap() {
+    Map<String, Object> m = new HashMap<>(super.toMap());
+
+    m.put("window_start", windowStart);
+    m.put("window_end", windowEnd);
+    m.put("counts", counts.stream().map(c -> c.toMap(attributeName)).collect(Collectors.toList()));
+
+    return Collections.unmodifiableMap(m);
+  }
+}
@@ -0,0 +1,158 @@
+package io.featurehub.client.usage;
+
+import io.featurehub.client.EvaluatedFeature;
+import io.featurehub.sse.model.FeatureState;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Remembers which users have already been exposed to which value of a feature (and via which strategy), so
+ * usage can be limited to first exposures. It is a Bloom filter in two generations: exposures are added to the
+ * current one, and every window the current one becomes the previous one and the oldest is thrown away. An
+ * exposure is remembered for as long as it keeps happening at least once a window, memory never grows past the
+ * two bit sets, and nothing is locked.
+ * <p>
+ * Like any Bloom filter it can be wrong in one direction: around 1% of first exposures are taken for repeats
+ * when a window sees the expected number of distinct exposures, more if it sees many more.
+ */
+public class ExposureFilter {
+  private static final int HASHES = 7; // optimal for the ~1% false positive rate the bits are sized for
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private final long windowNanos;
+  private final int mask;
+  private final LongSupplier clock;
+  private volatile Generations generations;
+
+  private static final class Generations {
+    final AtomicLongArray current;
+    @Nullable final AtomicLongArray previous;
+    final long started;
+
+    Generations(AtomicLongArray current, @Nullable AtomicLongArray previous, long started) {
+      this.current = current;
+      this.previous = previous;
+      this.started = started;
+    }
+  }
+
+  /**
+   * @param windowSeconds - how long an exposure is remembered for once it stops happening (between 1 and 2 windows)
+   * @param expectedExposures - roughly how many distinct exposures (user, feature value and strategy) a window has
+   */
+  public ExposureFilter(int windowSeconds, int expectedExposures) {
+    this(TimeUnit.SECONDS.toNanos(windowSeconds), expectedExposures, System::nanoTime);
+  }
+
+  ExposureFilter(long windowNanos, int expectedExposures, @NotNull LongSupplier clock) {
+    // ~9.6 bits per entry gives 1% false positives, rounded up to a power of 2 (and at least a word)
+    final long wanted = Math.max(64, (long) Math.ceil(Math.max(1, expectedExposures) * 9.6));
+    final int bits = (int) Math.min(1L << 30, Long.highestOneBit(wanted - 1) << 1);
+
+    this.windowNanos = Math.max(1, windowNanos);
+    this.mask = bits - 1;
+    this.clock = clock;
+    this.generations = new Generations(new AtomicLongArray(bits >>> 6), null, clock.getAsLong());
+  }
+
+  /**
+   * @return true if this is the first time in the last window or so that this user was given this value of the
+   * feature by this strategy. Anything that isn't a value of a known feature always counts as a first exposure.
+   */
+  public boolean firstExposure(@NotNull String userKey, @NotNull EvaluatedFeature value) {
+    final FeatureState fs = value.getFeatureState();
+    if (fs == null || fs.getId() == null) {
+      return true;
+    }
+
+    final long hash = hash(userKey, fs.getId(), value.getValue(), value.getStrategyId());
+    final Generations gens = current();
+
+    boolean added = false;
+    final int h1 = (int) hash;
+    final int h2 = (int) (hash >>> 32) | 1;
+
+    for (int i = 0; i < HASHES; i++) {
+      if (set(gens.current, (h1 + i * h2) & mask)) {
+        added = true;
+      }
+    }
+
+    // new to this generation, but it may have been seen in the last one
+    return added && (gens.previous == null || !contains(gens.previous, h1, h2));
+  }
+
+  private Generations current() {
+    final Generations gens = generations;
+    final long now = clock.getAsLong();
+
+    if (now - gens.started < windowNanos) {
+      return gens;
+    }
+
+    // only one thread gets to move the generations on, the rest use whatever it put there
+    synchronized (this) {
+      if (generations == gens) {
+        generations = new Generations(new AtomicLongArray(gens.current.length()),
+          now - gens.started < windowNanos * 2 ? gens.current : null, now);
+      }
+
+      return generations;
+    }
+  }
+
+  private static boolean set(AtomicLongArray bits, int bit) {
+    final int index = bit >>> 6;
+    final long word = 1L << bit;
+
+    if ((bits.get(index) & word) != 0) {
+      return false;
+    }
+
+    return (bits.getAndAccumulate(index, word, (a, b) -> a | b) & word) == 0;
+  }
+
+  private boolean contains(AtomicLongArray bits, int h1, int h2) {
+    for (int i = 0; i < HASHES; i++) {
+      final int bit = (h1 + i * h2) & mask;
+      if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  static long hash(@NotNull String userKey, @NotNull UUID featureId, @Nullable Object value,
+                   @Nullable String strategyId) {
+    long h = 0xcbf29ce484222325L;
+    h = hash(h, userKey);
+    h = (h ^ featureId.getMostSignificantBits()) * FNV_PRIME;
+    h = (h ^ featureId.getLeastSignificantBits()) * FNV_PRIME;
+    h = value instanceof String ? hash(h, (String) value) : (h ^ (value == null ? 0 : value.hashCode())) * FNV_PRIME;
+    h = hash(h, strategyId);
+
+    // fmix64 from murmur3, so every bit of the result depends on all of the above
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  private static long hash(long h, @Nullable String s) {
+    if (s != null) {
+      for (int i = 0; i < s.length(); i++) {
+        h = (h ^ s.charAt(i)) * FNV_PRIME;
+      }
+    }
+
+    // a separator, so ("ab", "c") and ("a", "bc") hash differently
+    return (h ^ (s == null ? 0x100 : 0x101)) * FNV_PRIME;
+  }
+}
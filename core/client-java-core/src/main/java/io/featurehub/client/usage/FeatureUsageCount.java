@@ -0,0 +1,58 @@
+package io.featurehub.client.usage;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * How many times one value of a feature was used during a window, part of a {@link UsageFeaturesSummary}.
+ */
+public class FeatureUsageCount {
+  @NotNull final FeatureHubUsageValue feature;
+  @Nullable final String attributeValue;
+  final long count;
+
+  public FeatureUsageCount(@NotNull FeatureHubUsageValue feature, @Nullable String attributeValue, long count) {
+    this.feature = feature;
+    this.attributeValue = attributeValue;
+    this.count = count;
+  }
+
+  /**
+   * @return the feature and value (and strategy, if one was used) that was counted
+   */
+  public @NotNull FeatureHubUsageValue getFeature() {
+    return feature;
+  }
+
+  /**
+   * @return the value of the summary's attribute in the contexts that used it, null if there is no attribute
+   * or they didn't have it
+   */
+  public @Nullable String getAttributeValue() {
+    return attributeValue;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  @NotNull
+  Map<String, Object> toMap(@Nullable String attributeName) {
+    final Map<String, Object> m = new HashMap<>();
+
+    m.put("feature", feature.key);
+    m.put("value", feature.value);
+    m.put("id", feature.id);
+    if (feature.strategyId != null) {
+      m.put("strategyId", feature.strategyId);
+    }
+    if (attributeName != null && attributeValue != null) {
+      m.put(attributeName, attributeValue);
+    }
+    m.put("count", count);
+
+    return m;
+  }
+}
@@ -1,35 +1,200 @@
 package io.featurehub.client.usage;
 
+import io.featurehub.client.FeatureHubConfig;
 import io.featurehub.client.InternalFeatureRepository;
 import io.featurehub.client.RepositoryEventHandler;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Hands the usage events of a repository to the registered plugins. Plugins that don't run async are called
+ * straight away on the thread that caused the event. Events for async plugins go into a fixed size ring buffer
+ * and are handed over in batches on a single background thread, so all the evaluating thread pays is putting
+ * the event in the buffer, and a slow plugin can't make events queue up without limit. This is tuned with:
+ * <ul>
+ *   <li>featurehub.usage.buffer-size (default 8192) - how many events can be waiting</li>
+ *   <li>featurehub.usage.batch-size (default 256) - the most events in one batch, a batch is also sent as
+ *   soon as this many are waiting</li>
+ *   <li>featurehub.usage.flush-interval-ms (default 1000) - how often waiting events are sent regardless</li>
+ *   <li>featurehub.usage.when-full (default drop) - "drop" drops events that arrive while the buffer is full,
+ *   "sample" keeps only one in featurehub.usage.sample-every (default 10) events once it is half full, so a
+ *   busy period is thinned out evenly rather than cut off</li>
+ * </ul>
+ */
 public class UsageAdapter {
-  private final List<UsagePlugin> plugins = new LinkedList<>();
+  private static final Logger log = LoggerFactory.getLogger(UsageAdapter.class);
+  private static final UsagePlugin[] NO_PLUGINS = new UsagePlugin[0];
+
+  private volatile UsagePlugin[] plugins = NO_PLUGINS;
+  private volatile UsagePlugin[] asyncPlugins = NO_PLUGINS;
   final InternalFeatureRepository repository;
   final RepositoryEventHandler usageHandlerSub;
 
+  private final int bufferSize;
+  private final int batchSize;
+  private final long flushIntervalMs;
+  private final int sampleEvery; // 0 if we only drop when full
+  // both only created once an async plugin is registered
+  @Nullable private volatile UsageRingBuffer buffer;
+  @Nullable private ScheduledExecutorService flusher;
+  private final AtomicBoolean flushQueued = new AtomicBoolean();
+  private final AtomicLong sampled = new AtomicLong();
+  private final LongAdder dropped = new LongAdder();
+
   public UsageAdapter(InternalFeatureRepository repo) {
+    this(repo, config("featurehub.usage.buffer-size", 8192), config("featurehub.usage.batch-size", 256),
+      config("featurehub.usage.flush-interval-ms", 1000),
+      "sample".equalsIgnoreCase(FeatureHubConfig.getConfig("featurehub.usage.when-full", "drop"))
+        ? config("featurehub.usage.sample-every", 10) : 0);
+  }
+
+  UsageAdapter(InternalFeatureRepository repo, int bufferSize, int batchSize, long flushIntervalMs,
+               int sampleEvery) {
     this.repository = repo;
+    this.bufferSize = Math.max(2, bufferSize);
+    this.batchSize = Math.max(1, batchSize);
+    this.flushIntervalMs = Math.max(1, flushIntervalMs);
+    this.sampleEvery = Math.max(0, sampleEvery);
     usageHandlerSub = repo.registerUsageStream(this::process);
   }
 
+  private static int config(String name, int defaultVal) {
+    try {
+      return Integer.parseInt(FeatureHubConfig.getConfig(name, Integer.toString(defaultVal)));
+    } catch (NumberFormatException e) {
+      log.warn("[featurehubsdk] {} is not a number, using {}", name, defaultVal);
+      return defaultVal;
+    }
+  }
+
+  /**
+   * Stops listening to the repository and sends any events still waiting for async plugins.
+   */
   public void close() {
     usageHandlerSub.cancel();
+
+    final ScheduledExecutorService running;
+    synchronized (this) {
+      running = flusher;
+    }
+
+    if (running != null) {
+      running.shutdown();
+
+      try {
+        running.awaitTermination(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+
+      flush();
+    }
   }
 
   public void process(UsageEvent event) {
-    plugins.forEach((p) -> {
-      if (p.shouldRunAsync()) {
-        repository.execute(() -> p.send(event));
-      } else {
-        p.send(event);
+    for (UsagePlugin plugin : plugins) {
+      plugin.send(event);
+    }
+
+    final UsageRingBuffer waiting = buffer;
+    if (waiting != null) {
+      enqueue(waiting, event);
+    }
+  }
+
+  private void enqueue(UsageRingBuffer waiting, UsageEvent event) {
+    final int size = waiting.size();
+
+    if (sampleEvery > 1 && size > waiting.capacity() / 2 && sampled.incrementAndGet() % sampleEvery != 0) {
+      dropped.increment();
+      return;
+    }
+
+    if (!waiting.offer(event)) {
+      dropped.increment();
+      return;
+    }
+
+    if (size + 1 >= batchSize && flushQueued.compareAndSet(false, true)) {
+      try {
+        flusher.execute(this::flush);
+      } catch (RejectedExecutionException ignored) {
+        // closing, which flushes anyway
+      }
+    }
+  }
+
+  /**
+   * Sends everything that is waiting to the async plugins. Only one thread can be draining the buffer, hence
+   * synchronized (it is only contended while closing).
+   */
+  private synchronized void flush() {
+    flushQueued.set(false);
+
+    final UsageRingBuffer waiting = buffer;
+    if (waiting == null) {
+      return;
+    }
+
+    List<UsageEvent> batch = new ArrayList<>(Math.min(batchSize, waiting.size()));
+    while (waiting.drain(batch, batchSize) > 0) {
+      // a new list each time, so a plugin can hang on to the one it was given
+      final List<UsageEvent> events = Collections.unmodifiableList(batch);
+
+      for (UsagePlugin plugin : asyncPlugins) {
+        try {
+          plugin.sendBatch(events);
+        } catch (Exception e) {
+          log.error("[featurehubsdk] usage plugin {} failed", plugin.getClass().getName(), e);
+        }
       }
-    });
+
+      batch = new ArrayList<>(Math.min(batchSize, waiting.size()));
+    }
+
+    final long lost = dropped.sumThenReset();
+    if (lost > 0) {
+      log.warn("[featurehubsdk] {} usage events were dropped as async usage plugins could not keep up", lost);
+    }
+  }
+
+  /**
+   * Whether a plugin runs async is decided when it is registered.
+   */
+  public synchronized void registerPlugin(@NotNull UsagePlugin plugin) {
+    if (plugin.shouldRunAsync()) {
+      if (buffer == null) {
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+          final Thread t = new Thread(r, "featurehub-usage");
+          t.setDaemon(true);
+          return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        buffer = new UsageRingBuffer(bufferSize);
+      }
+
+      asyncPlugins = append(asyncPlugins, plugin);
+    } else {
+      plugins = append(plugins, plugin);
+    }
   }
 
-  public void registerPlugin(UsagePlugin plugin) {
-    plugins.add(plugin);
+  private static UsagePlugin[] append(UsagePlugin[] existing, UsagePlugin plugin) {
+    final UsagePlugin[] grown = Arrays.copyOf(existing, existing.length + 1);
+    grown[existing.length] = plugin;
+    return grown;
   }
 }
@@ -0,0 +1,153 @@
+package io.featurehub.client.usage;
+
+import io.featurehub.client.EvaluatedFeature;
+import io.featurehub.sse.model.FeatureState;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Counts usage rather than creating an event for every evaluation. Each version of a feature, value, strategy
+ * and (optionally) value of one context attribute gets its own LongAdder, so all an evaluating thread does is
+ * increment a striped counter. summarise() then turns everything counted since it was last called into a single
+ * {@link UsageFeaturesSummary}.
+ * <p>
+ * The number of counters is capped, so an attribute with a value per user can't make it grow without limit.
+ * Usage that would need a new counter past the cap is dropped (and logged) until the next window.
+ */
+public class UsageAggregator {
+  private static final Logger log = LoggerFactory.getLogger(UsageAggregator.class);
+
+  @Nullable private final String attributeName;
+  private final int maxCounters;
+  private final Map<Key, LongAdder> counters = new ConcurrentHashMap<>();
+  private final LongAdder dropped = new LongAdder();
+  private long windowStart = System.currentTimeMillis();
+
+  private static final class Key {
+    // the feature state is a specific version of the feature, so compared by identity
+    @NotNull final FeatureState fs;
+    @Nullable final Object value;
+    @Nullable final String strategyId;
+    @Nullable final String attributeValue;
+    private final int hash;
+
+    Key(@NotNull FeatureState fs, @Nullable Object value, @Nullable String strategyId,
+        @Nullable String attributeValue) {
+      this.fs = fs;
+      this.value = value;
+      this.strategyId = strategyId;
+      this.attributeValue = attributeValue;
+      this.hash = 31 * (31 * (31 * System.identityHashCode(fs) + Objects.hashCode(value))
+        + Objects.hashCode(strategyId)) + Objects.hashCode(attributeValue);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Key)) return false;
+      final Key key = (Key) o;
+      return fs == key.fs && Objects.equals(value, key.value) && Objects.equals(strategyId, key.strategyId)
+        && Objects.equals(attributeValue, key.attributeValue);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  /**
+   * @param attributeName - if not null, usage is also counted separately for each value of this context attribute
+   * @param maxCounters - the most distinct things that can be counted in one window
+   */
+  public UsageAggregator(@Nullable String attributeName, int maxCounters) {
+    this.attributeName = attributeName;
+    this.maxCounters = maxCounters;
+  }
+
+  public void record(@NotNull EvaluatedFeature value, @Nullable Map<String, List<String>> attributes) {
+    final FeatureState fs = value.getFeatureState();
+
+    // the same features a usage event couldn't be created for
+    if (fs == null || fs.getId() == null || fs.getEnvironmentId() == null || fs.getType() == null) {
+      return;
+    }
+
+    final Key key = new Key(fs, value.getValue(), value.getStrategyId(), attribute(attributes));
+    LongAdder counter = counters.get(key);
+
+    if (counter == null) {
+      if (counters.size() >= maxCounters) {
+        dropped.increment();
+        return;
+      }
+
+      counter = counters.computeIfAbsent(key, k -> new LongAdder());
+    }
+
+    counter.increment();
+  }
+
+  @Nullable
+  private String attribute(@Nullable Map<String, List<String>> attributes) {
+    if (attributeName == null || attributes == null) {
+      return null;
+    }
+
+    final List<String> values = attributes.get(attributeName);
+    if (values == null || values.isEmpty()) {
+      return null;
+    }
+
+    return values.size() == 1 ? values.get(0) : String.join(",", values);
+  }
+
+  /**
+   * @return what was counted since the last call, or null if nothing was
+   */
+  @Nullable
+  public synchronized UsageFeaturesSummary summarise(@NotNull UsageProvider provider) {
+    final long start = windowStart;
+    windowStart = System.currentTimeMillis();
+
+    final List<FeatureUsageCount> counts = new ArrayList<>();
+
+    counters.forEach((key, counter) -> {
+      final long count = counter.sumThenReset();
+
+      if (count > 0) {
+        counts.add(new FeatureUsageCount(
+          new FeatureHubUsageValue(EvaluatedFeature.from(key.fs, key.value, key.strategyId)),
+          key.attributeValue, count));
+      } else {
+        // nothing used it for a whole window (e.g. it is an old version of the feature) so let it go. A thread
+        // that fetched it just before this can still increment it, that one count is lost.
+        counters.remove(key, counter);
+      }
+    });
+
+    final long lost = dropped.sumThenReset();
+    if (lost > 0) {
+      log.warn("[featurehubsdk] {} feature usages were not counted as there were over {} different values to count",
+        lost, maxCounters);
+    }
+
+    if (counts.isEmpty()) {
+      return null;
+    }
+
+    final UsageFeaturesSummary summary = provider.createUsageSummaryEvent();
+    summary.setCounts(counts);
+    summary.setWindow(start, windowStart);
+    summary.setAttributeName(attributeName);
+    return summary;
+  }
+}
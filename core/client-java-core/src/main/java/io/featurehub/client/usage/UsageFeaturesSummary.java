@@ -0,0 +1,28 @@
+package io.featurehub.client.usage;
+
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * When the repository aggregates usage, this is sent at the end of each window in place of a
+ * {@link UsageEventWithFeature} for every evaluation.
+ */
+public interface UsageFeaturesSummary extends UsageEvent, UsageEventName {
+  void setCounts(@NotNull List<FeatureUsageCount> counts);
+  @NotNull List<FeatureUsageCount> getCounts();
+
+  /**
+   * @param windowStart - when the window started, in epoch millis
+   * @param windowEnd - when it ended, in epoch millis
+   */
+  void setWindow(long windowStart, long windowEnd);
+  long getWindowStart();
+  long getWindowEnd();
+
+  /**
+   * @param attributeName - the context attribute the counts were also split by, if any
+   */
+  void setAttributeName(@Nullable String attributeName);
+  @Nullable String getAttributeName();
+}
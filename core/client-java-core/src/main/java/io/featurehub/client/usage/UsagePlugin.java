@@ -1,7 +1,9 @@
 package io.featurehub.client.usage;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import org.jetbrains.annotations.NotNull;
 
 abstract public class UsagePlugin {
   protected final Map<String, Object> defaultEventParams = new HashMap<>();
@@ -15,9 +17,23 @@ abstract public class UsagePlugin {
     return defaultEventParams;
   }
 
+  /**
+   * A plugin that doesn't need to run on the thread that evaluated the feature (e.g. it doesn't read
+   * thread local state like the current span) should return true. Its events are then buffered and handed to
+   * sendBatch in the background, see UsageAdapter for how to size and tune that.
+   */
   public boolean shouldRunAsync() {
     return false;
   }
 
   public abstract void send(UsageEvent event);
+
+  /**
+   * Called on the usage thread with the events buffered since the last batch, in the order they happened. Only
+   * used for plugins that run async. Override it if the destination can take many events at once, by default
+   * each event is sent on its own.
+   */
+  public void sendBatch(@NotNull List<UsageEvent> events) {
+    events.forEach(this::send);
+  }
 }
@@ -21,6 +21,10 @@ public interface UsageProvider {
     return new DefaultUsageFeaturesCollection();
   }
 
+  default UsageFeaturesSummary createUsageSummaryEvent() {
+    return new DefaultUsageFeaturesSummary();
+  }
+
   default UsageFeaturesCollectionContext createUsageContextCollectionEvent() {
     return new DefaultUsageFeaturesCollectionContext();
   }
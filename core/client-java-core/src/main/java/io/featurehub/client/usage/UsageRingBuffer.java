@@ -0,0 +1,97 @@
+package io.featurehub.client.usage;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A fixed size, lock free queue of usage events that any number of threads can offer to but only one thread
+ * drains. Each slot carries a sequence number that says whose turn it is (the producer claiming that position or
+ * the consumer reading it), so a producer only ever does a single compare and set to claim a slot, and a full
+ * buffer refuses the event rather than growing or blocking.
+ */
+final class UsageRingBuffer {
+  private final AtomicReferenceArray<UsageEvent> events;
+  private final AtomicLongArray sequences;
+  private final int mask;
+  private final AtomicLong tail = new AtomicLong(); // next position a producer will claim
+  private final AtomicLong head = new AtomicLong(); // next position the consumer will read, only it writes this
+
+  UsageRingBuffer(int size) {
+    final int capacity = Integer.highestOneBit(Math.max(2, size) - 1) << 1;
+    events = new AtomicReferenceArray<>(capacity);
+    sequences = new AtomicLongArray(capacity);
+    mask = capacity - 1;
+
+    for (int i = 0; i < capacity; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  int capacity() {
+    return mask + 1;
+  }
+
+  /**
+   * @return roughly how many events are waiting, exact when nothing is offering or draining
+   */
+  int size() {
+    return (int) Math.max(0, tail.get() - head.get());
+  }
+
+  /**
+   * @return false if the buffer is full and the event was not added
+   */
+  boolean offer(@NotNull UsageEvent event) {
+    long position = tail.get();
+
+    while (true) {
+      final int slot = (int) position & mask;
+      final long turn = sequences.get(slot) - position;
+
+      if (turn == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          events.set(slot, event);
+          sequences.lazySet(slot, position + 1);
+          return true;
+        }
+
+        position = tail.get();
+      } else if (turn < 0) {
+        return false; // the consumer hasn't read this slot from the last time around
+      } else {
+        position = tail.get(); // another producer claimed it, try again from where they got to
+      }
+    }
+  }
+
+  /**
+   * Moves up to max events into the list. Must only be called from one thread at a time.
+   *
+   * @return how many were moved
+   */
+  int drain(@NotNull List<UsageEvent> into, int max) {
+    long position = head.get();
+    int count = 0;
+
+    while (count < max) {
+      final int slot = (int) position & mask;
+
+      // a claimed slot whose event isn't written yet looks the same as an empty one, we'll get it next time
+      if (sequences.get(slot) != position + 1) {
+        break;
+      }
+
+      into.add(events.get(slot));
+      events.lazySet(slot, null);
+      sequences.lazySet(slot, position + capacity());
+      position++;
+      count++;
+    }
+
+    head.lazySet(position);
+    return count;
+  }
+}
@@ -2,6 +2,7 @@ package io.featurehub.strategies.matchers;
 
 import io.featurehub.sse.model.FeatureRolloutStrategyAttribute;
 import io.featurehub.sse.model.RolloutStrategyAttributeConditional;
+import java.util.Objects;
 
 public class BooleanArrayMatcher implements StrategyMatcher {
   @Override
@@ -18,4 +19,17 @@ public class BooleanArrayMatcher implements StrategyMatcher {
 
     return false;
   }
+
+  static PreparedMatcher prepare(FeatureRolloutStrategyAttribute attr) {
+    final boolean value = (Boolean) attr.getValues().get(0);
+
+    switch (Objects.requireNonNull(attr.getConditional())) {
+      case EQUALS:
+        return (suppliedValue) -> "true".equals(suppliedValue) == value;
+      case NOT_EQUALS:
+        return (suppliedValue) -> "true".equals(suppliedValue) != value;
+    }
+
+    return (suppliedValue) -> false;
+  }
 }
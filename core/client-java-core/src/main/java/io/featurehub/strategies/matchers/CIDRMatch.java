@@ -99,4 +99,3 @@ public class CIDRMatch {
     return false;
   }
 }
-
@@ -0,0 +1,363 @@
+package io.featurehub.strategies.matchers;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A set of IP addresses and CIDR ranges held as a binary prefix trie per address family, so checking
+ * an address is a walk of at most 32 (IPv4) or 128 (IPv6) bits regardless of how many ranges there are.
+ * <p>
+ * Only IP literals are understood, nothing is ever resolved. As with InetAddress, IPv4-mapped IPv6
+ * addresses (::ffff:a.b.c.d) are treated as IPv4.
+ */
+final class CIDRTrie {
+  private static class Node {
+    Node zero;
+    Node one;
+    boolean terminal; // a range ends here, so every address below it matches
+  }
+
+  private static final int NOT_AN_ADDRESS = -1;
+  private static final int NOT_FOUND = 0;
+  private static final int FOUND = 1;
+
+  private final Node v4 = new Node();
+  private final Node v6 = new Node();
+
+  /**
+   * Adds an address or range in the forms cidrMatch accepts (e.g. 192.168.1.0/24, 2001:db8::/32, 10.1.1.1).
+   *
+   * @throws IllegalArgumentException if the address is not an IP literal or the mask is not a number
+   */
+  void add(String ipAddress) {
+    int nMaskBits = -1;
+    int end = ipAddress.length();
+
+    final int slash = ipAddress.indexOf('/');
+    if (slash >= 0) {
+      int maskEnd = ipAddress.indexOf('/', slash + 1);
+      nMaskBits = Integer.parseInt(ipAddress.substring(slash + 1, maskEnd < 0 ? ipAddress.length() : maskEnd));
+      end = slash;
+    }
+
+    final long v4Address = parseIpv4(ipAddress, 0, end);
+    if (v4Address >= 0) {
+      addV4(v4Address, nMaskBits);
+      return;
+    }
+
+    int start = 0;
+    if (end - start > 2 && ipAddress.charAt(start) == '[' && ipAddress.charAt(end - 1) == ']') {
+      start++;
+      end--;
+    }
+
+    end = withoutScope(ipAddress, start, end);
+    final int groups = ipv6Groups(ipAddress, start, end);
+
+    if (groups < 0) {
+      throw new IllegalArgumentException("Not an IP address literal: " + ipAddress);
+    }
+
+    final long hi = ipv6Bits(ipAddress, start, end, groups, 0);
+    final long lo = ipv6Bits(ipAddress, start, end, groups, 4);
+
+    if (isIpv4Mapped(hi, lo)) {
+      addV4(lo & 0xFFFFFFFFL, nMaskBits);
+    } else if (nMaskBits <= 128) {
+      // no mask (or a negative one) means the address must match exactly
+      insert(v6, hi, lo, nMaskBits < 0 ? 128 : nMaskBits);
+    }
+  }
+
+  private void addV4(long address, int nMaskBits) {
+    // a mask longer than the address never matches anything
+    if (nMaskBits <= 32) {
+      insert(v4, address << 32, 0, nMaskBits < 0 ? 32 : nMaskBits);
+    }
+  }
+
+  // inserts the top `bits` bits of the 128 bit value hi:lo
+  private static void insert(Node root, long hi, long lo, int bits) {
+    Node node = root;
+
+    for (int i = 0; i < bits; i++) {
+      if (node.terminal) {
+        return; // a shorter range already covers this one
+      }
+
+      if (bit(hi, lo, i)) {
+        if (node.one == null) {
+          node.one = new Node();
+        }
+        node = node.one;
+      } else {
+        if (node.zero == null) {
+          node.zero = new Node();
+        }
+        node = node.zero;
+      }
+    }
+
+    node.terminal = true;
+    node.zero = null;
+    node.one = null;
+  }
+
+  /**
+   * Is the supplied address inside any of the ranges? Anything that isn't an IP literal is not.
+   */
+  boolean matches(@Nullable String address) {
+    return lookup(address) == FOUND;
+  }
+
+  /**
+   * Is the supplied value an IP literal that is outside all of the ranges?
+   */
+  boolean excludes(@Nullable String address) {
+    return lookup(address) == NOT_FOUND;
+  }
+
+  private int lookup(@Nullable String address) {
+    if (address == null || address.isEmpty()) {
+      return NOT_AN_ADDRESS;
+    }
+
+    final long v4Address = parseIpv4(address, 0, address.length());
+    if (v4Address >= 0) {
+      return walk(v4, v4Address << 32, 0, 32);
+    }
+
+    int start = 0;
+    int end = address.length();
+    if (end - start > 2 && address.charAt(start) == '[' && address.charAt(end - 1) == ']') {
+      start++;
+      end--;
+    }
+
+    end = withoutScope(address, start, end);
+    final int groups = ipv6Groups(address, start, end);
+    if (groups < 0) {
+      return NOT_AN_ADDRESS;
+    }
+
+    final long hi = ipv6Bits(address, start, end, groups, 0);
+    final long lo = ipv6Bits(address, start, end, groups, 4);
+
+    if (isIpv4Mapped(hi, lo)) {
+      return walk(v4, lo << 32, 0, 32);
+    }
+
+    return walk(v6, hi, lo, 128);
+  }
+
+  private static int walk(Node root, long hi, long lo, int bits) {
+    Node node = root;
+
+    for (int i = 0; i < bits; i++) {
+      if (node.terminal) {
+        return FOUND;
+      }
+
+      node = bit(hi, lo, i) ? node.one : node.zero;
+
+      if (node == null) {
+        return NOT_FOUND;
+      }
+    }
+
+    return node.terminal ? FOUND : NOT_FOUND;
+  }
+
+  private static boolean bit(long hi, long lo, int i) {
+    return i < 64 ? (hi & (1L << (63 - i))) != 0 : (lo & (1L << (127 - i))) != 0;
+  }
+
+  private static boolean isIpv4Mapped(long hi, long lo) {
+    return hi == 0 && (lo >>> 32) == 0xFFFFL;
+  }
+
+  private static int withoutScope(String s, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (s.charAt(i) == '%') {
+        return i;
+      }
+    }
+
+    return end;
+  }
+
+  /**
+   * Parses a dotted quad IPv4 address.
+   *
+   * @return the address as an unsigned 32 bit value, or -1 if it isn't one
+   */
+  static long parseIpv4(String s, int start, int end) {
+    long address = 0;
+    int parts = 0;
+    int i = start;
+
+    while (i < end) {
+      int value = 0;
+      int digits = 0;
+
+      while (i < end && s.charAt(i) != '.') {
+        final char c = s.charAt(i);
+        if (c < '0' || c > '9' || ++digits > 3) {
+          return -1;
+        }
+        value = value * 10 + (c - '0');
+        i++;
+      }
+
+      if (digits == 0 || value > 255 || ++parts > 4) {
+        return -1;
+      }
+
+      address = (address << 8) | value;
+
+      if (i < end) {
+        i++; // skip the dot
+
+        if (i == end) {
+          return -1; // trailing dot
+        }
+      }
+    }
+
+    return parts == 4 ? address : -1;
+  }
+
+  /**
+   * Validates an IPv6 literal.
+   *
+   * @return the number of 16 bit groups it explicitly contains (an embedded IPv4 address counts as two), or
+   * -1 if it isn't an IPv6 literal
+   */
+  static int ipv6Groups(String s, int start, int end) {
+    if (end - start < 2) {
+      return -1;
+    }
+
+    int groups = 0;
+    boolean compressed = false;
+    int i = start;
+
+    if (s.charAt(i) == ':') {
+      if (s.charAt(i + 1) != ':') {
+        return -1;
+      }
+      compressed = true;
+      i += 2;
+    }
+
+    while (i < end) {
+      final int groupStart = i;
+      int digits = 0;
+
+      while (i < end && s.charAt(i) != ':' && s.charAt(i) != '.') {
+        if (hexDigit(s.charAt(i)) < 0 || ++digits > 4) {
+          return -1;
+        }
+        i++;
+      }
+
+      if (i < end && s.charAt(i) == '.') {
+        // an embedded IPv4 address has to be the last thing in the address
+        if (parseIpv4(s, groupStart, end) < 0) {
+          return -1;
+        }
+        groups += 2;
+        i = end;
+        break;
+      }
+
+      if (digits == 0) {
+        return -1;
+      }
+
+      groups++;
+
+      if (i < end) {
+        i++; // skip the colon
+
+        if (i < end && s.charAt(i) == ':') {
+          if (compressed) {
+            return -1; // only one :: is allowed
+          }
+          compressed = true;
+          i++;
+        } else if (i == end) {
+          return -1; // a single trailing colon
+        }
+      }
+    }
+
+    if (compressed ? groups > 7 : groups != 8) {
+      return -1;
+    }
+
+    return groups;
+  }
+
+  /**
+   * Extracts 64 bits (groups `fromGroup` to `fromGroup + 3`) of an IPv6 literal that ipv6Groups has accepted.
+   */
+  static long ipv6Bits(String s, int start, int end, int groups, int fromGroup) {
+    long bits = 0;
+    int position = 0;
+    int i = start;
+
+    if (s.charAt(i) == ':') {
+      position = 8 - groups;
+      i += 2;
+    }
+
+    while (i < end) {
+      final int groupStart = i;
+      int value = 0;
+
+      while (i < end && s.charAt(i) != ':' && s.charAt(i) != '.') {
+        value = (value << 4) | hexDigit(s.charAt(i));
+        i++;
+      }
+
+      if (i < end && s.charAt(i) == '.') {
+        final long v4 = parseIpv4(s, groupStart, end);
+        bits = place(bits, position, fromGroup, (int) (v4 >>> 16));
+        bits = place(bits, position + 1, fromGroup, (int) (v4 & 0xFFFF));
+        break;
+      }
+
+      bits = place(bits, position, fromGroup, value);
+      position++;
+
+      if (i < end) {
+        i++;
+
+        if (i < end && s.charAt(i) == ':') {
+          position += 8 - groups;
+          i++;
+        }
+      }
+    }
+
+    return bits;
+  }
+
+  private static long place(long bits, int position, int fromGroup, int value) {
+    final int offset = position - fromGroup;
+
+    if (offset < 0 || offset > 3) {
+      return bits;
+    }
+
+    return bits | ((long) value << (48 - 16 * offset));
+  }
+
+  private static int hexDigit(char c) {
+    if (c >= '0' && c <= '9') return c - '0';
+    if (c >= 'a' && c <= 'f') return c - 'a' + 10;
+    if (c >= 'A' && c <= 'F') return c - 'A' + 10;
+    return -1;
+  }
+}
@@ -1,24 +1,31 @@
 package io.featurehub.strategies.matchers;
 
 import io.featurehub.sse.model.FeatureRolloutStrategyAttribute;
+import io.featurehub.sse.model.RolloutStrategyAttributeConditional;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Objects;
 import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import org.jetbrains.annotations.Nullable;
 
 public class DateArrayMatcher implements StrategyMatcher {
-  private LocalDate supplied;
-
   @Override
   public boolean match(String suppliedValue, FeatureRolloutStrategyAttribute attr) {
     try {
       DateTimeFormatter formatter = DateTimeFormatter.ISO_DATE;
 
-      Supplier<LocalDate> suppliedDate = () -> {
-        if (supplied == null) {
-          supplied = LocalDate.from(formatter.parse(suppliedValue));
-        }
+      Supplier<LocalDate> suppliedDate = new Supplier<LocalDate>() {
+        private LocalDate supplied;
 
-        return supplied;
+        @Override
+        public LocalDate get() {
+          if (supplied == null) {
+            supplied = LocalDate.from(formatter.parse(suppliedValue));
+          }
+          return supplied;
+        }
       };
 
       switch (attr.getConditional()) {
@@ -53,4 +60,82 @@ public class DateArrayMatcher implements StrategyMatcher {
     }
     return false;
   }
+
+  static PreparedMatcher prepare(FeatureRolloutStrategyAttribute attr) {
+    return new Prepared(attr);
+  }
+
+  static class Prepared implements PreparedMatcher {
+    private final RolloutStrategyAttributeConditional conditional;
+    private final String[] rawValues;
+    @Nullable private final Pattern[] patterns;
+    @Nullable private final ParsedValues<LocalDate> values;
+
+    Prepared(FeatureRolloutStrategyAttribute attr) {
+      conditional = Objects.requireNonNull(attr.getConditional());
+      rawValues = attr.getValues().stream().map(Object::toString).toArray(String[]::new);
+      patterns = conditional == RolloutStrategyAttributeConditional.REGEX
+        ? Arrays.stream(rawValues).map(Pattern::compile).toArray(Pattern[]::new) : null;
+      // an unparseable value throws and leaves this attribute to the unprepared matcher
+      values = parses(conditional)
+        ? ParsedValues.parse(attr.getValues(), v -> LocalDate.from(DateTimeFormatter.ISO_DATE.parse(v.toString()))) : null;
+    }
+
+    private static boolean parses(RolloutStrategyAttributeConditional conditional) {
+      return conditional != RolloutStrategyAttributeConditional.ENDS_WITH
+        && conditional != RolloutStrategyAttributeConditional.STARTS_WITH
+        && conditional != RolloutStrategyAttributeConditional.REGEX;
+    }
+
+    @Override
+    public boolean match(String suppliedValue) {
+      try {
+        switch (conditional) {
+          case ENDS_WITH:
+            for (String v : rawValues) {
+              if (suppliedValue.endsWith(v)) return true;
+            }
+            return false;
+          case STARTS_WITH:
+            for (String v : rawValues) {
+              if (suppliedValue.startsWith(v)) return true;
+            }
+            return false;
+          case REGEX:
+            for (Pattern p : patterns) {
+              if (p.matcher(suppliedValue).matches()) return true;
+            }
+            return false;
+        }
+
+        // with no values the supplied value is never parsed
+        if (values.isEmpty()) {
+          return conditional == RolloutStrategyAttributeConditional.NOT_EQUALS
+            || conditional == RolloutStrategyAttributeConditional.EXCLUDES;
+        }
+
+        final LocalDate supplied = LocalDate.from(DateTimeFormatter.ISO_DATE.parse(suppliedValue));
+
+        switch (conditional) {
+          case EQUALS: // all match makes no sense
+          case INCLUDES: // same as equals
+            return values.contains(supplied);
+          case GREATER:
+            return values.greater(supplied);
+          case GREATER_EQUALS:
+            return values.greaterEquals(supplied);
+          case LESS:
+            return values.less(supplied);
+          case LESS_EQUALS:
+            return values.lessEquals(supplied);
+          case NOT_EQUALS:
+          case EXCLUDES: // same as not_equals
+            return !values.contains(supplied);
+        }
+      } catch (Exception ignored) {
+      }
+
+      return false;
+    }
+  }
 }
@@ -1,23 +1,31 @@
 package io.featurehub.strategies.matchers;
 
 import io.featurehub.sse.model.FeatureRolloutStrategyAttribute;
+import io.featurehub.sse.model.RolloutStrategyAttributeConditional;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Objects;
 import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import org.jetbrains.annotations.Nullable;
 
 public class DateTimeArrayMatcher implements StrategyMatcher {
-  private OffsetDateTime supplied = null;
-
   @Override
   public boolean match(String suppliedValue, FeatureRolloutStrategyAttribute attr) {
     DateTimeFormatter formatter = DateTimeFormatter.ISO_DATE_TIME;
 
     try {
-      Supplier<OffsetDateTime> suppliedDate = () -> {
-        if (supplied == null) {
-          supplied = OffsetDateTime.from(formatter.parse(suppliedValue));
+      Supplier<OffsetDateTime> suppliedDate = new Supplier<OffsetDateTime>() {
+        private OffsetDateTime supplied;
+
+        @Override
+        public OffsetDateTime get() {
+          if (supplied == null) {
+            supplied = OffsetDateTime.from(formatter.parse(suppliedValue));
+          }
+          return supplied;
         }
-        return supplied;
       };
 
       switch (attr.getConditional()) {
@@ -53,4 +61,82 @@ public class DateTimeArrayMatcher implements StrategyMatcher {
 
     return false;
   }
+
+  static PreparedMatcher prepare(FeatureRolloutStrategyAttribute attr) {
+    return new Prepared(attr);
+  }
+
+  static class Prepared implements PreparedMatcher {
+    private final RolloutStrategyAttributeConditional conditional;
+    private final String[] rawValues;
+    @Nullable private final Pattern[] patterns;
+    @Nullable private final ParsedValues<OffsetDateTime> values;
+
+    Prepared(FeatureRolloutStrategyAttribute attr) {
+      conditional = Objects.requireNonNull(attr.getConditional());
+      rawValues = attr.getValues().stream().map(Object::toString).toArray(String[]::new);
+      patterns = conditional == RolloutStrategyAttributeConditional.REGEX
+        ? Arrays.stream(rawValues).map(Pattern::compile).toArray(Pattern[]::new) : null;
+      // an unparseable value throws and leaves this attribute to the unprepared matcher
+      values = parses(conditional)
+        ? ParsedValues.parse(attr.getValues(), v -> OffsetDateTime.from(DateTimeFormatter.ISO_DATE_TIME.parse(v.toString()))) : null;
+    }
+
+    private static boolean parses(RolloutStrategyAttributeConditional conditional) {
+      return conditional != RolloutStrategyAttributeConditional.ENDS_WITH
+        && conditional != RolloutStrategyAttributeConditional.STARTS_WITH
+        && conditional != RolloutStrategyAttributeConditional.REGEX;
+    }
+
+    @Override
+    public boolean match(String suppliedValue) {
+      try {
+        switch (conditional) {
+          case ENDS_WITH:
+            for (String v : rawValues) {
+              if (suppliedValue.endsWith(v)) return true;
+            }
+            return false;
+          case STARTS_WITH:
+            for (String v : rawValues) {
+              if (suppliedValue.startsWith(v)) return true;
+            }
+            return false;
+          case REGEX:
+            for (Pattern p : patterns) {
+              if (p.matcher(suppliedValue).matches()) return true;
+            }
+            return false;
+        }
+
+        // with no values the supplied value is never parsed
+        if (values.isEmpty()) {
+          return conditional == RolloutStrategyAttributeConditional.NOT_EQUALS
+            || conditional == RolloutStrategyAttributeConditional.EXCLUDES;
+        }
+
+        final OffsetDateTime supplied = OffsetDateTime.from(DateTimeFormatter.ISO_DATE_TIME.parse(suppliedValue));
+
+        switch (conditional) {
+          case EQUALS: // all match makes no sense
+          case INCLUDES: // same as equals
+            return values.contains(supplied);
+          case GREATER:
+            return values.greater(supplied);
+          case GREATER_EQUALS:
+            return values.greaterEquals(supplied);
+          case LESS:
+            return values.less(supplied);
+          case LESS_EQUALS:
+            return values.lessEquals(supplied);
+          case NOT_EQUALS:
+          case EXCLUDES: // same as not_equals
+            return !values.contains(supplied);
+        }
+      } catch (Exception ignored) {
+      }
+
+      return false;
+    }
+  }
 }
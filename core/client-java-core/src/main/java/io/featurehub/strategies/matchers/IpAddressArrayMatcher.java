@@ -3,6 +3,7 @@ package io.featurehub.strategies.matchers;
 
 import io.featurehub.sse.model.FeatureRolloutStrategyAttribute;
 import java.net.InetAddress;
+import java.util.Objects;
 
 public class IpAddressArrayMatcher implements StrategyMatcher {
   @Override
@@ -37,4 +38,24 @@ public class IpAddressArrayMatcher implements StrategyMatcher {
     }
     return false;
   }
+
+  /**
+   * The ranges are compiled into a trie, and the supplied address is only ever parsed as a literal, so
+   * this never goes near DNS.
+   */
+  static PreparedMatcher prepare(FeatureRolloutStrategyAttribute attr) {
+    final CIDRTrie ranges = new CIDRTrie();
+    attr.getValues().forEach(val -> ranges.add(val.toString()));
+
+    switch (Objects.requireNonNull(attr.getConditional())) {
+      case EQUALS:
+      case INCLUDES:
+        return ranges::matches;
+      case NOT_EQUALS:
+      case EXCLUDES:
+        return ranges::excludes;
+    }
+
+    return (suppliedValue) -> false;
+  }
 }
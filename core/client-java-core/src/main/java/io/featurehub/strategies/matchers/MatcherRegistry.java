@@ -1,28 +1,73 @@
 package io.featurehub.strategies.matchers;
 
 import io.featurehub.sse.model.FeatureRolloutStrategyAttribute;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class MatcherRegistry implements MatcherRepository {
+  private static final Logger log = LoggerFactory.getLogger(MatcherRegistry.class);
+  // matchers hold no state, so they are shared
+  private static final StrategyMatcher stringMatcher = new StringArrayMatcher();
+  private static final StrategyMatcher semanticVersionMatcher = new SemanticVersionArrayMatcher();
+  private static final StrategyMatcher numberMatcher = new NumberArrayMatcher();
+  private static final StrategyMatcher dateMatcher = new DateArrayMatcher();
+  private static final StrategyMatcher dateTimeMatcher = new DateTimeArrayMatcher();
+  private static final StrategyMatcher booleanMatcher = new BooleanArrayMatcher();
+  private static final StrategyMatcher ipAddressMatcher = new IpAddressArrayMatcher();
+  private static final StrategyMatcher fallthroughMatcher = new FallthroughMatcher();
+
   @Override
   public StrategyMatcher findMatcher(FeatureRolloutStrategyAttribute attr) {
     switch (attr.getType()) {
       case STRING:
-        return new StringArrayMatcher();
+        return stringMatcher;
       case SEMANTIC_VERSION:
-        return new SemanticVersionArrayMatcher();
+        return semanticVersionMatcher;
       case NUMBER:
-        return new NumberArrayMatcher();
+        return numberMatcher;
       case DATE:
-        return new DateArrayMatcher();
+        return dateMatcher;
       case DATETIME:
-        return new DateTimeArrayMatcher();
+        return dateTimeMatcher;
       case BOOLEAN: // can't have arrays, that would be silly
-        return new BooleanArrayMatcher();
+        return booleanMatcher;
       case IP_ADDRESS:
-        return new IpAddressArrayMatcher();
+        return ipAddressMatcher;
+    }
+
+    return fallthroughMatcher;
+  }
+
+  /**
+   * Parses the attribute's values once. If they can't be parsed up front (unknown types, bad patterns, etc)
+   * we fall back to the matcher doing it on each call, so the result is always the same.
+   */
+  @Override
+  public PreparedMatcher prepare(FeatureRolloutStrategyAttribute attr) {
+    try {
+      switch (attr.getType()) {
+        case STRING:
+          return StringArrayMatcher.prepare(attr);
+        case SEMANTIC_VERSION:
+          return SemanticVersionArrayMatcher.prepare(attr);
+        case NUMBER:
+          return NumberArrayMatcher.prepare(attr);
+        case DATE:
+          return DateArrayMatcher.prepare(attr);
+        case DATETIME:
+          return DateTimeArrayMatcher.prepare(attr);
+        case BOOLEAN:
+          return BooleanArrayMatcher.prepare(attr);
+        case IP_ADDRESS:
+          return IpAddressArrayMatcher.prepare(attr);
+      }
+
+      return (suppliedValue) -> false;
+    } catch (Exception e) {
+      log.trace("unable to prepare matcher for {}", attr, e);
     }
 
-    return new FallthroughMatcher();
+    return MatcherRepository.super.prepare(attr);
   }
 
   static class FallthroughMatcher implements StrategyMatcher {
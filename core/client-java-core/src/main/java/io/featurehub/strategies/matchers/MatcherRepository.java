@@ -5,4 +5,11 @@ import io.featurehub.sse.model.FeatureRolloutStrategyAttribute;
 
 public interface MatcherRepository {
   StrategyMatcher findMatcher(FeatureRolloutStrategyAttribute attr);
+
+  /**
+   * Binds a matcher to this attribute. By default this just looks up the matcher on each call.
+   */
+  default PreparedMatcher prepare(FeatureRolloutStrategyAttribute attr) {
+    return (suppliedValue) -> findMatcher(attr).match(suppliedValue, attr);
+  }
 }
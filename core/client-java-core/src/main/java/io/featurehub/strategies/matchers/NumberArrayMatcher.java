@@ -1,6 +1,7 @@
 package io.featurehub.strategies.matchers;
 
 import io.featurehub.sse.model.FeatureRolloutStrategyAttribute;
+import io.featurehub.sse.model.RolloutStrategyAttributeConditional;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.List;
@@ -10,16 +11,19 @@ import java.util.stream.Collectors;
 import org.jetbrains.annotations.Nullable;
 
 public class NumberArrayMatcher implements StrategyMatcher {
-  private BigDecimal supplied = null;
-
   @Override
   public boolean match(String suppliedValue, FeatureRolloutStrategyAttribute attr) {
     try {
-      Supplier<BigDecimal> bd = () -> {
-        if (supplied == null) {
-          supplied = new BigDecimal(suppliedValue);
+      Supplier<BigDecimal> bd = new Supplier<BigDecimal>() {
+        private BigDecimal supplied;
+
+        @Override
+        public BigDecimal get() {
+          if (supplied == null) {
+            supplied = new BigDecimal(suppliedValue);
+          }
+          return supplied;
         }
-        return supplied;
       };
 
       Supplier<List<BigDecimal>> vals = () -> attr.getValues().stream()
@@ -54,6 +58,63 @@ public class NumberArrayMatcher implements StrategyMatcher {
     return false;
   }
 
+  static PreparedMatcher prepare(FeatureRolloutStrategyAttribute attr) {
+    return new Prepared(attr);
+  }
+
+  static class Prepared implements PreparedMatcher {
+    private final RolloutStrategyAttributeConditional conditional;
+    private final String[] rawValues;
+    private final ParsedValues<BigDecimal> values;
+
+    Prepared(FeatureRolloutStrategyAttribute attr) {
+      conditional = Objects.requireNonNull(attr.getConditional());
+      rawValues = attr.getValues().stream().map(Object::toString).toArray(String[]::new);
+      values = ParsedValues.parse(attr.getValues(), NumberArrayMatcher::toBigDecimal);
+    }
+
+    @Override
+    public boolean match(String suppliedValue) {
+      try {
+        switch (conditional) {
+          case EQUALS:
+          case INCLUDES:
+            return !values.isEmpty() && values.contains(new BigDecimal(suppliedValue));
+          case ENDS_WITH:
+            for (String v : rawValues) {
+              if (suppliedValue.endsWith(v)) return true;
+            }
+            return false;
+          case STARTS_WITH:
+            for (String v : rawValues) {
+              if (suppliedValue.startsWith(v)) return true;
+            }
+            return false;
+          case GREATER:
+            return !values.isEmpty() && values.greater(new BigDecimal(suppliedValue));
+          case GREATER_EQUALS:
+            return !values.isEmpty() && values.greaterEquals(new BigDecimal(suppliedValue));
+          case LESS:
+            return !values.isEmpty() && values.less(new BigDecimal(suppliedValue));
+          case LESS_EQUALS:
+            return !values.isEmpty() && values.lessEquals(new BigDecimal(suppliedValue));
+          case NOT_EQUALS:
+          case EXCLUDES:
+            return values.isEmpty() || !values.contains(new BigDecimal(suppliedValue));
+          case REGEX:
+            // the supplied value is the pattern here, so there is nothing we can compile ahead of time
+            for (String v : rawValues) {
+              if (v.matches(suppliedValue)) return true;
+            }
+            return false;
+        }
+      } catch (Exception ignored) {
+      }
+
+      return false;
+    }
+  }
+
   @Nullable
   private static BigDecimal toBigDecimal(Object v) {
     if (v instanceof BigDecimal) {
@@ -0,0 +1,73 @@
+package io.featurehub.strategies.matchers;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The values of an attribute parsed into a comparable type. As the matchers match if any value matches, the
+ * ordering comparisons only ever need to look at the smallest or largest value.
+ */
+final class ParsedValues<T extends Comparable<? super T>> {
+  private final Set<T> values;
+  @Nullable private final T min;
+  @Nullable private final T max;
+
+  private ParsedValues(Set<T> values, @Nullable T min, @Nullable T max) {
+    this.values = values;
+    this.min = min;
+    this.max = max;
+  }
+
+  // the parser may return null to skip a value or throw if the value is unusable
+  static <T extends Comparable<? super T>> ParsedValues<T> parse(List<Object> raw, Function<Object, T> parser) {
+    final Set<T> values = new HashSet<>();
+    T min = null;
+    T max = null;
+
+    for (Object v : raw) {
+      final T val = parser.apply(v);
+
+      if (val != null) {
+        values.add(val);
+
+        if (min == null || val.compareTo(min) < 0) {
+          min = val;
+        }
+
+        if (max == null || val.compareTo(max) > 0) {
+          max = val;
+        }
+      }
+    }
+
+    return new ParsedValues<>(values, min, max);
+  }
+
+  boolean isEmpty() {
+    return values.isEmpty();
+  }
+
+  boolean contains(T val) {
+    return values.contains(val);
+  }
+
+  // there is a value the supplied value is greater than
+  boolean greater(T val) {
+    return min != null && val.compareTo(min) > 0;
+  }
+
+  boolean greaterEquals(T val) {
+    return min != null && val.compareTo(min) >= 0;
+  }
+
+  boolean less(T val) {
+    return max != null && val.compareTo(max) < 0;
+  }
+
+  boolean lessEquals(T val) {
+    return max != null && val.compareTo(max) <= 0;
+  }
+}
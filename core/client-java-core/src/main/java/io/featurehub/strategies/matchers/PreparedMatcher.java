@@ -0,0 +1,9 @@
+package io.featurehub.strategies.matchers;
+
+/**
+ * A matcher bound to a single strategy attribute, with the attribute's values already parsed. These are
+ * created once when a feature arrives and must be safe to use from any number of threads.
+ */
+public interface PreparedMatcher {
+  boolean match(String suppliedValue);
+}
@@ -1,6 +1,8 @@
 package io.featurehub.strategies.matchers;
 
 import io.featurehub.sse.model.FeatureRolloutStrategyAttribute;
+import io.featurehub.sse.model.RolloutStrategyAttributeConditional;
+import java.util.Objects;
 
 public class SemanticVersionArrayMatcher implements StrategyMatcher {
   @Override
@@ -32,4 +34,42 @@ public class SemanticVersionArrayMatcher implements StrategyMatcher {
 
     return false;
   }
+
+  static PreparedMatcher prepare(FeatureRolloutStrategyAttribute attr) {
+    return new Prepared(attr);
+  }
+
+  static class Prepared implements PreparedMatcher {
+    private final RolloutStrategyAttributeConditional conditional;
+    private final ParsedValues<SemanticVersionComparable> values;
+
+    Prepared(FeatureRolloutStrategyAttribute attr) {
+      conditional = Objects.requireNonNull(attr.getConditional());
+      values = ParsedValues.parse(attr.getValues(), v -> new SemanticVersionComparable(v.toString()));
+    }
+
+    @Override
+    public boolean match(String suppliedValue) {
+      final SemanticVersionComparable suppliedVersion = new SemanticVersionComparable(suppliedValue);
+
+      switch (conditional) {
+        case EQUALS:
+        case INCLUDES:
+          return values.contains(suppliedVersion);
+        case GREATER:
+          return values.greater(suppliedVersion);
+        case GREATER_EQUALS:
+          return values.greaterEquals(suppliedVersion);
+        case LESS:
+          return values.less(suppliedVersion);
+        case LESS_EQUALS:
+          return values.lessEquals(suppliedVersion);
+        case NOT_EQUALS:
+        case EXCLUDES:
+          return !values.contains(suppliedVersion);
+      }
+
+      return false;
+    }
+  }
 }
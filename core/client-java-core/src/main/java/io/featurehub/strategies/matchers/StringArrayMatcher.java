@@ -1,8 +1,15 @@
 package io.featurehub.strategies.matchers;
 
 import io.featurehub.sse.model.FeatureRolloutStrategyAttribute;
+import io.featurehub.sse.model.RolloutStrategyAttributeConditional;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import org.jetbrains.annotations.Nullable;
 
 public class StringArrayMatcher implements StrategyMatcher {
   @Override
@@ -37,4 +44,85 @@ public class StringArrayMatcher implements StrategyMatcher {
 
     return false;
   }
+
+  static PreparedMatcher prepare(FeatureRolloutStrategyAttribute attr) {
+    return new Prepared(attr);
+  }
+
+  static class Prepared implements PreparedMatcher {
+    private final RolloutStrategyAttributeConditional conditional;
+    private final String[] values;
+    @Nullable private final Set<String> valueSet;
+    @Nullable private final Pattern[] patterns;
+
+    Prepared(FeatureRolloutStrategyAttribute attr) {
+      conditional = Objects.requireNonNull(attr.getConditional());
+      values = attr.getValues().stream().map(Object::toString).toArray(String[]::new);
+      valueSet = conditional == RolloutStrategyAttributeConditional.EQUALS
+        ? new HashSet<>(Arrays.asList(values)) : null;
+      // an invalid pattern throws and leaves this attribute to the unprepared matcher
+      patterns = conditional == RolloutStrategyAttributeConditional.REGEX
+        ? Arrays.stream(values).map(Pattern::compile).toArray(Pattern[]::new) : null;
+    }
+
+    @Override
+    public boolean match(String suppliedValue) {
+      switch(conditional) {
+        case EQUALS:
+          return valueSet.contains(suppliedValue);
+        case ENDS_WITH:
+          for (String v : values) {
+            if (suppliedValue.endsWith(v)) return true;
+          }
+          return false;
+        case STARTS_WITH:
+          for (String v : values) {
+            if (suppliedValue.startsWith(v)) return true;
+          }
+          return false;
+        case GREATER:
+          for (String v : values) {
+            if (suppliedValue.compareTo(v) > 0) return true;
+          }
+          return false;
+        case GREATER_EQUALS:
+          for (String v : values) {
+            if (suppliedValue.compareTo(v) >= 0) return true;
+          }
+          return false;
+        case LESS:
+          for (String v : values) {
+            if (suppliedValue.compareTo(v) < 0) return true;
+          }
+          return false;
+        case LESS_EQUALS:
+          for (String v : values) {
+            if (suppliedValue.compareTo(v) <= 0) return true;
+          }
+          return false;
+        case NOT_EQUALS:
+          for (String v : values) {
+            if (suppliedValue.compareTo(v) != 0) return true;
+          }
+          return false;
+        case INCLUDES:
+          for (String v : values) {
+            if (suppliedValue.contains(v)) return true;
+          }
+          return false;
+        case EXCLUDES:
+          for (String v : values) {
+            if (suppliedValue.contains(v)) return false;
+          }
+          return true;
+        case REGEX:
+          for (Pattern p : patterns) {
+            if (p.matcher(suppliedValue).matches()) return true;
+          }
+          return false;
+      }
+
+      return false;
+    }
+  }
 }
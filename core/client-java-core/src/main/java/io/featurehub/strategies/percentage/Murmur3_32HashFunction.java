@@ -220,6 +220,71 @@ final class Murmur3_32HashFunction implements Serializable {
     }
   }
 
+  /**
+   * Hashes the UTF-8 encoding of {@code first} followed by {@code second}, giving exactly the same result as
+   * {@code hashString(first.toString() + second, UTF_8)} but without building the combined string. Surrogates
+   * (which could pair up across the join) are left to hashString.
+   */
+  public int hashUtf8Pair(CharSequence first, CharSequence second) {
+    int h1 = seed;
+    long buffer = 0;
+    int shift = 0;
+    int len = 0;
+
+    for (int part = 0; part < 2; part++) {
+      final CharSequence input = part == 0 ? first : second;
+      final int utf16Length = input.length();
+      int i = 0;
+
+      // This loop optimizes for pure ASCII, whatever is already buffered
+      while (i + 4 <= utf16Length) {
+        char c0 = input.charAt(i);
+        char c1 = input.charAt(i + 1);
+        char c2 = input.charAt(i + 2);
+        char c3 = input.charAt(i + 3);
+        if (c0 < 0x80 && c1 < 0x80 && c2 < 0x80 && c3 < 0x80) {
+          buffer |= ((long) (c0 | (c1 << 8) | (c2 << 16) | (c3 << 24)) & 0xFFFFFFFFL) << shift;
+          h1 = mixH1(h1, mixK1((int) buffer));
+          buffer = buffer >>> 32;
+          i += 4;
+          len += 4;
+        } else {
+          break;
+        }
+      }
+
+      for (; i < utf16Length; i++) {
+        char c = input.charAt(i);
+        if (c < 0x80) {
+          buffer |= (long) c << shift;
+          shift += 8;
+          len++;
+        } else if (c < 0x800) {
+          buffer |= charToTwoUtf8Bytes(c) << shift;
+          shift += 16;
+          len += 2;
+        } else if (c < Character.MIN_SURROGATE || c > Character.MAX_SURROGATE) {
+          buffer |= charToThreeUtf8Bytes(c) << shift;
+          shift += 24;
+          len += 3;
+        } else {
+          return hashString(first.toString() + second, StandardCharsets.UTF_8);
+        }
+
+        if (shift >= 32) {
+          int k1 = mixK1((int) buffer);
+          h1 = mixH1(h1, k1);
+          buffer = buffer >>> 32;
+          shift -= 32;
+        }
+      }
+    }
+
+    int k1 = mixK1((int) buffer);
+    h1 ^= k1;
+    return fmix(h1, len);
+  }
+
   public int hashBytes(byte[] input, int off, int len) {
     int h1 = seed;
     int i;
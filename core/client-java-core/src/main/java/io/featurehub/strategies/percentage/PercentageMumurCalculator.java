@@ -1,7 +1,5 @@
 package io.featurehub.strategies.percentage;
 
-import java.nio.charset.StandardCharsets;
-
 public class PercentageMumurCalculator implements PercentageCalculator {
   private final io.featurehub.strategies.percentage.Murmur3_32HashFunction hashFunction;
   public static final int MAX_PERCENTAGE = 1000000;
@@ -17,11 +15,17 @@ public class PercentageMumurCalculator implements PercentageCalculator {
   }
 
   public int determineClientPercentage(String userKey, String id) {
-    int hashCode = hashFunction.hashString(
-      (userKey + id), StandardCharsets.UTF_8
-    );
+    // same as hashing (userKey + id), including "null" for either being null
+    int hashCode = hashFunction.hashUtf8Pair(String.valueOf(userKey), String.valueOf(id));
+
+    return bucket(hashCode);
+  }
 
-    double ratio = (double) (hashCode & 0xFFFFFFFFL) / Math.pow(2, 32);
-    return (int) Math.floor(MAX_PERCENTAGE * ratio);
+  /**
+   * Scales the unsigned hash into 0..MAX_PERCENTAGE-1. This is floor(MAX_PERCENTAGE * hash / 2^32), which
+   * is exact in integer arithmetic as the product never exceeds 2^52.
+   */
+  static int bucket(int hashCode) {
+    return (int) (((hashCode & 0xFFFFFFFFL) * MAX_PERCENTAGE) >>> 32);
   }
 }
@@ -6,6 +6,9 @@ import java.util.concurrent.CompletableFuture
 import java.util.concurrent.CountDownLatch
 import java.util.concurrent.ExecutorService
 import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.ScheduledFuture
 import java.util.concurrent.TimeUnit
 import java.util.concurrent.atomic.AtomicInteger
 
@@ -13,6 +16,8 @@ class ActivePollingDelegateEdgeServiceSpec extends Specification {
   EdgeService inner
   InternalFeatureRepository repo
   ExecutorService executor
+  ScheduledExecutorService scheduledExecutor
+  PollScheduler scheduler
 
   def setup() {
     inner = Mock(EdgeService)
@@ -20,54 +25,49 @@ class ActivePollingDelegateEdgeServiceSpec extends Specification {
     executor = Executors.newSingleThreadExecutor()
     repo.getExecutor() >> executor
     repo.getReadiness() >> Readiness.Ready
+    scheduledExecutor = Mock(ScheduledExecutorService)
+    scheduler = new PollScheduler(scheduledExecutor, 0) // no jitter, so we know exactly when
   }
 
   def cleanup() {
     executor.shutdownNow()
   }
 
-  // Returns a PollingDelegateEdgeService whose newTimer() always yields a pre-cancelled timer,
-  // reproducing the race where close()/contextChange() cancels the timer between newTimer() and schedule().
-  private ActivePollingDelegateEdgeService serviceWithPreCancelledTimer() {
-    return new ActivePollingDelegateEdgeService(inner, repo) {
-      @Override
-      protected Timer newTimer() {
-        Timer t = super.newTimer()
-        t.cancel()
-        return t
-      }
-    }
+  private ActivePollingDelegateEdgeService service(long maxIntervalMs = 0) {
+    return new ActivePollingDelegateEdgeService(inner, repo, scheduler, maxIntervalMs)
   }
 
-  def "poll() future completes normally when the timer is cancelled concurrently inside loop()"() {
+  def "poll() future completes normally when the scheduler has already shut down"() {
     given:
       inner.isStopped() >> false
       inner.poll() >> CompletableFuture.completedFuture(Readiness.Ready)
       inner.currentInterval() >> 60
-      def service = serviceWithPreCancelledTimer()
+      scheduledExecutor.schedule(_ as Runnable, _, _) >> { throw new RejectedExecutionException() }
+      def service = service()
 
     when:
       Readiness result = service.poll().get()
 
-    then: "future resolves normally — no ExecutionException wrapping IllegalStateException"
+    then: "future resolves normally — no ExecutionException wrapping RejectedExecutionException"
       result == Readiness.Ready
       result.isReady()
       noExceptionThrown()
       0 * inner.close()
   }
 
-  def "contextChange() future completes normally when the timer is cancelled concurrently inside loop()"() {
+  def "contextChange() future completes normally when the scheduler has already shut down"() {
     given:
       inner.isStopped() >> false
       inner.needsContextChange("userkey=fred", _ as String) >> true
       inner.contextChange("userkey=fred", _ as String) >> CompletableFuture.completedFuture(Readiness.Ready)
       inner.currentInterval() >> 60
-      def service = serviceWithPreCancelledTimer()
+      scheduledExecutor.schedule(_ as Runnable, _, _) >> { throw new RejectedExecutionException() }
+      def service = service()
 
     when:
       Readiness result = service.contextChange("userkey=fred", "abc123").get()
 
-    then: "future resolves normally — no ExecutionException wrapping IllegalStateException"
+    then: "future resolves normally — no ExecutionException wrapping RejectedExecutionException"
       result == Readiness.Ready
       noExceptionThrown()
       0 * inner.close()
@@ -75,51 +75,96 @@ class ActivePollingDelegateEdgeServiceSpec extends Specification {
 
   def "postPollActivity schedules the next poll at currentInterval seconds after a successful poll"() {
     given:
-      def mockTimer = Mock(Timer)
       inner.isStopped() >> false
       inner.poll() >> CompletableFuture.completedFuture(Readiness.Ready)
       inner.currentInterval() >> 60
-      def service = new ActivePollingDelegateEdgeService(inner, repo) {
-        @Override
-        protected Timer newTimer() { return mockTimer }
-      }
+      def service = service()
     when:
       service.poll().get()
     then:
-      1 * mockTimer.schedule(_ as TimerTask, 60_000L)
+      1 * scheduledExecutor.schedule(_ as Runnable, 60_000L, TimeUnit.MILLISECONDS) >> Mock(ScheduledFuture)
   }
 
   def "postPollActivity does not schedule when the inner service is stopped"() {
     given:
-      def mockTimer = Mock(Timer)
       inner.isStopped() >>> [false, true]  // false for the poll gate, true inside postPollActivity
       inner.poll() >> CompletableFuture.completedFuture(Readiness.Ready)
-      def service = new ActivePollingDelegateEdgeService(inner, repo) {
-        @Override
-        protected Timer newTimer() { return mockTimer }
-      }
+      def service = service()
     when:
       service.poll().get()
     then:
-      0 * mockTimer.schedule(_, _)
+      0 * scheduledExecutor.schedule(_, _, _)
   }
 
-  def "close() cancels the active timer to prevent further scheduled polls"() {
+  def "only one poll is ever waiting, scheduling another cancels the last"() {
     given:
-      def mockTimer = Mock(Timer)
+      def first = Mock(ScheduledFuture)
       inner.isStopped() >> false
-      def service = new ActivePollingDelegateEdgeService(inner, repo) {
-        @Override
-        protected Timer newTimer() { return mockTimer }
-      }
+      inner.currentInterval() >> 60
+      scheduledExecutor.schedule(_ as Runnable, _, _) >>> [first, Mock(ScheduledFuture)]
+      def service = service()
+    when:
+      service.postPollActivity()
+      service.postPollActivity()
+    then:
+      1 * first.cancel(false)
+  }
+
+  def "close() cancels the waiting poll to prevent further scheduled polls"() {
+    given:
+      def waiting = Mock(ScheduledFuture)
+      inner.isStopped() >> false
+      inner.currentInterval() >> 60
+      scheduledExecutor.schedule(_ as Runnable, _, _) >> waiting
+      def service = service()
+      service.postPollActivity()
     when:
       service.close()
     then:
-      1 * mockTimer.cancel()
+      1 * waiting.cancel(false)
       1 * inner.close()
   }
 
-  def "the timer fires and causes inner.poll() to be called a second time after the interval"() {
+  def "polls that bring nothing new stretch the interval up to the maximum, a change goes straight back"() {
+    given:
+      def changes = 0L
+      inner.currentInterval() >> 10
+      repo.getChangeCount() >> { changes }
+      def service = service(40_000)
+    expect:
+      service.nextInterval() == 10_000
+      service.nextInterval() == 15_000
+      service.nextInterval() == 22_500
+      service.nextInterval() == 33_750
+      service.nextInterval() == 40_000
+      service.nextInterval() == 40_000
+    when:
+      changes++
+    then:
+      service.nextInterval() == 10_000
+  }
+
+  def "the interval doesn't stretch unless a maximum above it is set"() {
+    given:
+      inner.currentInterval() >> 10
+      repo.getChangeCount() >> 3L
+      def service = service()
+    expect:
+      (1..5).collect { service.nextInterval() } == [10_000L] * 5
+  }
+
+  def "jitter keeps the wait within the percentage either side of the interval, and spreads it out"() {
+    given:
+      def jittered = new PollScheduler(scheduledExecutor, 10)
+    when:
+      def waits = (1..1000).collect { jittered.jittered(60_000) }
+    then:
+      waits.every { it >= 54_000 && it <= 66_000 }
+      waits.toSet().size() > 100
+      jittered.jittered(0) == 0
+  }
+
+  def "the shared scheduler fires and causes inner.poll() to be called a second time after the interval"() {
     given:
       def latch = new CountDownLatch(2)
       def pollCount = new AtomicInteger(0)
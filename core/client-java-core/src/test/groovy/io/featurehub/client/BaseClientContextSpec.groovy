@@ -1,10 +1,14 @@
 package io.featurehub.client
 
+import io.featurehub.sse.model.FeatureState
+import io.featurehub.sse.model.FeatureValueType
 import io.featurehub.sse.model.StrategyAttributeCountryName
 import io.featurehub.sse.model.StrategyAttributeDeviceName
 import io.featurehub.sse.model.StrategyAttributePlatformName
 import spock.lang.Specification
 
+import java.util.concurrent.ExecutorService
+
 class BaseClientContextSpec extends Specification {
   InternalFeatureRepository repo
   EdgeService edgeService
@@ -40,4 +44,69 @@ class BaseClientContextSpec extends Specification {
       FeatureStateUtils.generateXFeatureHubHeaderFromMap(tc.context()) ==
         'city=Istanbul,country=turkey,device=desktop,musical styles=psychedelic%2Cdeep,platform=android,session=anjunadeep,userkey=DJElif,version=2.3.7'
   }
+
+  def "a context evaluates features directly and hands back the same handle for a feature"() {
+    given: "a repository with a feature"
+      def exec = [
+        execute: { Runnable cmd -> cmd.run() },
+        shutdownNow: { -> },
+        isShutdown: { false }
+      ] as ExecutorService
+      def repository = new ClientFeatureRepository(exec)
+      def envId = UUID.randomUUID()
+      repository.updateFeatures([
+        new FeatureState().id(UUID.randomUUID()).environmentId(envId).key('banana').version(1).value(true).type(FeatureValueType.BOOLEAN),
+        new FeatureState().id(UUID.randomUUID()).environmentId(envId).key('peach').version(1).value('orange').type(FeatureValueType.STRING),
+      ])
+    and: "a context on it"
+      def context = new BaseClientContext(repository, edgeService)
+    when: "i ask for the same feature twice"
+      def first = context.feature('banana')
+      def second = context.feature('banana')
+    then:
+      first.is(second)
+      context.isEnabled('banana')
+      context.getString('peach', 'x') == 'orange'
+      context.getString('banana', 'x') == 'x'
+      context.getFlag('missing', true)
+      context.exists('peach')
+      !context.exists('missing')
+    when: "the feature is deleted and comes back"
+      repository.deleteFeature(new FeatureState().key('banana'))
+      repository.updateFeatures([
+        new FeatureState().id(UUID.randomUUID()).environmentId(envId).key('banana').version(2).value(false).type(FeatureValueType.BOOLEAN),
+      ])
+      def third = context.feature('banana')
+    then: "the context binds to the repository's new holder"
+      !third.is(first)
+      !third.enabled
+      !context.isEnabled('banana')
+  }
+
+  def "a context only keeps handles for features the repository holds"() {
+    given: "a repository with a feature"
+      def exec = [
+        execute: { Runnable cmd -> cmd.run() },
+        shutdownNow: { -> },
+        isShutdown: { false }
+      ] as ExecutorService
+      def repository = new ClientFeatureRepository(exec)
+      def envId = UUID.randomUUID()
+      repository.updateFeatures([
+        new FeatureState().id(UUID.randomUUID()).environmentId(envId).key('banana').version(1).value(true).type(FeatureValueType.BOOLEAN),
+      ])
+      def context = new BaseClientContext(repository, edgeService)
+    when: "i ask for lots of names that aren't there"
+      (1..100).each { context.feature("missing-${it}".toString()) }
+      def banana = context.feature('banana')
+    then: "only the feature that exists is kept"
+      context.handles.keySet() == ['banana'] as Set
+      !context.feature('missing-1').exists()
+    when: "the feature is deleted"
+      repository.deleteFeature(new FeatureState().key('banana'))
+      def deleted = context.feature('banana')
+    then: "its handle is dropped"
+      !deleted.exists()
+      context.handles.isEmpty()
+  }
 }
@@ -7,6 +7,7 @@ import java.util.concurrent.CountDownLatch
 import java.util.concurrent.ExecutorService
 import java.util.concurrent.Executors
 import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
 
 class BasePollingDelegateEdgeServiceSpec extends Specification {
   EdgeService inner
@@ -139,6 +140,120 @@ class BasePollingDelegateEdgeServiceSpec extends Specification {
       result == Readiness.Ready
   }
 
+  // ---------------------------------------------------------------------------
+  // Single flight
+  // ---------------------------------------------------------------------------
+
+  def "concurrent contextChange() calls for the same context share one request"() {
+    given:
+      def requests = new EdgeRequests(32)
+      def shared = new BasePollingDelegateEdgeService(inner, repo, requests) {}
+      def started = new CountDownLatch(1)
+      def release = new CountDownLatch(1)
+      def calls = new AtomicInteger()
+      inner.isStopped() >> false
+      inner.needsContextChange(_, _) >> true
+      inner.contextChange('header', 'sha') >> {
+        calls.incrementAndGet()
+        started.countDown()
+        release.await()
+        CompletableFuture.completedFuture(Readiness.Ready)
+      }
+    when:
+      def first = shared.contextChange('header', 'sha')
+      started.await(5, TimeUnit.SECONDS)
+      def second = shared.contextChange('header', 'sha')
+      release.countDown()
+    then:
+      first.get(5, TimeUnit.SECONDS) == Readiness.Ready
+      second.get(5, TimeUnit.SECONDS) == Readiness.Ready
+      calls.get() == 1
+      requests.inFlight() == 0
+  }
+
+  def "contextChange() calls for different contexts each make their own request"() {
+    given:
+      def shared = new BasePollingDelegateEdgeService(inner, repo, new EdgeRequests(32)) {}
+      inner.isStopped() >> false
+      inner.needsContextChange(_, _) >> true
+    when:
+      shared.contextChange('header1', 'sha1').get(5, TimeUnit.SECONDS)
+      shared.contextChange('header2', 'sha2').get(5, TimeUnit.SECONDS)
+    then:
+      1 * inner.contextChange('header1', 'sha1') >> CompletableFuture.completedFuture(Readiness.Ready)
+      1 * inner.contextChange('header2', 'sha2') >> CompletableFuture.completedFuture(Readiness.Ready)
+  }
+
+  def "a poll() from another delegate of the same repository joins the one in flight"() {
+    given:
+      def requests = new EdgeRequests(32)
+      def config = Mock(FeatureHubConfig)
+      config.apiKeys() >> ['key']
+      def otherInner = Mock(EdgeService)
+      def first = new BasePollingDelegateEdgeService(inner, repo, requests) {}
+      def second = new BasePollingDelegateEdgeService(otherInner, repo, requests) {}
+      def started = new CountDownLatch(1)
+      def release = new CountDownLatch(1)
+      inner.getConfig() >> config
+      otherInner.getConfig() >> config
+      inner.isStopped() >> false
+      otherInner.isStopped() >> false
+      inner.poll() >> {
+        started.countDown()
+        release.await()
+        CompletableFuture.completedFuture(Readiness.Ready)
+      }
+    when:
+      def firstPoll = first.poll()
+      started.await(5, TimeUnit.SECONDS)
+      def secondPoll = second.poll()
+      release.countDown()
+    then:
+      firstPoll.get(5, TimeUnit.SECONDS) == Readiness.Ready
+      secondPoll.get(5, TimeUnit.SECONDS) == Readiness.Ready
+      0 * otherInner.poll()
+  }
+
+  def "polls for different repositories are not shared but are limited by the cap on requests in flight"() {
+    given:
+      def requests = new EdgeRequests(1)
+      def otherInner = Mock(EdgeService)
+      def otherRepo = Mock(InternalFeatureRepository)
+      def otherExecutor = Executors.newSingleThreadExecutor()
+      otherRepo.getExecutor() >> otherExecutor
+      otherRepo.getReadiness() >> Readiness.Ready
+      def first = new BasePollingDelegateEdgeService(inner, repo, requests) {}
+      def second = new BasePollingDelegateEdgeService(otherInner, otherRepo, requests) {}
+      def started = new CountDownLatch(1)
+      def release = new CountDownLatch(1)
+      def otherCalls = new AtomicInteger()
+      inner.isStopped() >> false
+      otherInner.isStopped() >> false
+      inner.poll() >> {
+        started.countDown()
+        release.await()
+        CompletableFuture.completedFuture(Readiness.Ready)
+      }
+      otherInner.poll() >> {
+        otherCalls.incrementAndGet()
+        CompletableFuture.completedFuture(Readiness.Ready)
+      }
+    when:
+      def firstPoll = first.poll()
+      started.await(5, TimeUnit.SECONDS)
+      def secondPoll = second.poll()
+      Thread.sleep(200)
+      def callsWhileFull = otherCalls.get()
+      release.countDown()
+    then:
+      callsWhileFull == 0
+      firstPoll.get(5, TimeUnit.SECONDS) == Readiness.Ready
+      secondPoll.get(5, TimeUnit.SECONDS) == Readiness.Ready
+      otherCalls.get() == 1
+    cleanup:
+      otherExecutor.shutdownNow()
+  }
+
   // ---------------------------------------------------------------------------
   // Pure delegates
   // ---------------------------------------------------------------------------
@@ -1,15 +1,19 @@
 package io.featurehub.client
 
 import com.fasterxml.jackson.databind.ObjectMapper
+import io.featurehub.client.usage.UsageEvent
+import io.featurehub.client.usage.UsageFeaturesSummary
+import io.featurehub.client.usage.UsagePlugin
 import io.featurehub.client.usage.UsageProvider
 import io.featurehub.javascript.JavascriptObjectMapper
+import io.featurehub.sse.model.FeatureState
+import io.featurehub.sse.model.FeatureValueType
+import io.featurehub.sse.model.SSEResultState
 import spock.lang.Specification
 
 import java.util.concurrent.CompletableFuture
 import java.util.concurrent.ExecutorService
 import java.util.concurrent.TimeUnit
-import java.util.concurrent.Future
-import java.util.concurrent.TimeoutException
 import java.util.function.Consumer
 
 class EdgeFeatureHubConfigSpec extends Specification {
@@ -131,13 +135,10 @@ class EdgeFeatureHubConfigSpec extends Specification {
       0 * _
   }
 
-  def "init completes successfully if future resolves within the given time"() {
-    given: "A mock future that completes successfully"
-      def futureContext = Mock(Future<ClientContext>)
-      def mockContext = Mock(ClientContext)
-    and: "I mock the context and future"
+  def "init waits for the repository to be ready rather than for the context"() {
+    given: "a context that never finishes building"
       def clientContext = Mock(ClientContext)
-
+      def repo = Mock(InternalFeatureRepository)
     and: "A client eval feature config"
       def config = new EdgeFeatureHubConfig("http://localhost/", "${UUID.randomUUID()}/123*abc") {
         @Override
@@ -145,34 +146,54 @@ class EdgeFeatureHubConfigSpec extends Specification {
           return clientContext
         }
       }
+      config.setRepository(repo)
     when: "init is called with a reasonable timeout"
       config.init(100, TimeUnit.MILLISECONDS)
-    then: "The get method on the future should be called with timeout"
-      1 * futureContext.get(100, TimeUnit.MILLISECONDS) >> mockContext
-      1 * clientContext.build() >> futureContext
+    then: "it returns as soon as the features land"
+      1 * clientContext.build() >> new CompletableFuture<ClientContext>()
+      1 * repo.readinessFuture() >> CompletableFuture.completedFuture(Readiness.Ready)
+      _ * repo.getReadiness() >> Readiness.NotReady
       0 * _
   }
 
-  def "init should timeout if future does not complete within the given time"() {
-    given: "A mock future that completes successfully"
-    def futureContext = Mock(Future<ClientContext>)
-    def mockContext = Mock(ClientContext)
-    and: "I mock the context and future"
-    def clientContext = Mock(ClientContext)
+  def "init waits for the features even if the repository has failed before"() {
+    given: "a repository that an earlier attempt failed"
+      def repo = new ClientFeatureRepository(1)
+      repo.notify(SSEResultState.FAILURE)
+      config.setRepository(repo)
+      edgeClient.isStopped() >> false
+    when:
+      config.init(5, TimeUnit.SECONDS)
+    then:
+      1 * edgeClient.contextChange(_, _) >> {
+        repo.updateFeatures([], 'test')
+        CompletableFuture.completedFuture(Readiness.Ready)
+      }
+      config.readiness == Readiness.Ready
+    cleanup:
+      repo.close()
+  }
 
+  def "init should timeout if the repository does not become ready within the given time"() {
+    given: "I mock the context and repository"
+      def clientContext = Mock(ClientContext)
+      def repo = Mock(InternalFeatureRepository)
     and: "A client eval feature config"
-    def config = new EdgeFeatureHubConfig("http://localhost/", "${UUID.randomUUID()}/123*abc") {
-      @Override
-      ClientContext newContext() {
-        return clientContext
+      def config = new EdgeFeatureHubConfig("http://localhost/", "${UUID.randomUUID()}/123*abc") {
+        @Override
+        ClientContext newContext() {
+          return clientContext
+        }
       }
-    }
+      config.setRepository(repo)
     when: "init is called with a very short timeout"
       config.init(1, TimeUnit.MILLISECONDS)
-    then: "The get method on the future should be called with timeout"
-      1 * futureContext.get(1, TimeUnit.MILLISECONDS) >> { throw new TimeoutException() }
-      1 * clientContext.build() >> futureContext
+    then: "it gives up without an exception"
+      1 * clientContext.build() >> new CompletableFuture<ClientContext>()
+      1 * repo.readinessFuture() >> new CompletableFuture<Readiness>()
+      _ * repo.getReadiness() >> Readiness.NotReady
       0 * _
+      noExceptionThrown()
   }
 
   // --- waitForReady tests ---
@@ -181,7 +202,7 @@ class EdgeFeatureHubConfigSpec extends Specification {
     given:
       def repo = Mock(InternalFeatureRepository)
       config.setRepository(repo)
-      repo.getReadiness() >> Readiness.Ready
+      repo.readinessFuture() >> CompletableFuture.completedFuture(Readiness.Ready)
     when:
       def result = config.waitForReady(1, TimeUnit.SECONDS)
     then:
@@ -193,7 +214,7 @@ class EdgeFeatureHubConfigSpec extends Specification {
     given:
       def repo = Mock(InternalFeatureRepository)
       config.setRepository(repo)
-      repo.getReadiness() >> Readiness.NotReady
+      repo.readinessFuture() >> new CompletableFuture<Readiness>()
     when:
       def result = config.waitForReady(250, TimeUnit.MILLISECONDS)
     then:
@@ -201,17 +222,75 @@ class EdgeFeatureHubConfigSpec extends Specification {
       1 * edgeClient.poll() >> CompletableFuture.completedFuture(Readiness.NotReady)
   }
 
-  def "waitForReady polls edge service and returns true when readiness transitions to Ready"() {
+  def "waitForReady returns false straight away if edge turns us away and gives up"() {
     given:
       def repo = Mock(InternalFeatureRepository)
       config.setRepository(repo)
-      def callCount = 0
-      repo.getReadiness() >> { callCount++ < 2 ? Readiness.NotReady : Readiness.Ready }
+      repo.readinessFuture() >> new CompletableFuture<Readiness>()
+      repo.getReadiness() >> Readiness.Failed
+      edgeClient.isStopped() >> true
     when:
-      def result = config.waitForReady(2, TimeUnit.SECONDS)
+      def start = System.nanoTime()
+      def result = config.waitForReady(10, TimeUnit.SECONDS)
     then:
+      !result
+      TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000
+      1 * edgeClient.poll() >> CompletableFuture.completedFuture(Readiness.Failed)
+  }
+
+  def "waitForReady waits for the next poll when the repository has failed before"() {
+    given: "a repository that an earlier attempt failed"
+      def repo = new ClientFeatureRepository(1)
+      config.setRepository(repo)
+      repo.notify(SSEResultState.FAILURE)
+      edgeClient.isStopped() >> false
+    when:
+      def result = config.waitForReady(5, TimeUnit.SECONDS)
+    then: "the poll it starts makes it ready"
       result
-      1 * edgeClient.poll() >> CompletableFuture.completedFuture(Readiness.NotReady)
+      1 * edgeClient.poll() >> {
+        repo.updateFeatures([], 'test')
+        CompletableFuture.completedFuture(Readiness.NotReady)
+      }
+    cleanup:
+      repo.close()
+  }
+
+  def "waitForReady keeps waiting if edge fails and then tries again"() {
+    given:
+      def repo = new ClientFeatureRepository(1)
+      config.setRepository(repo)
+      edgeClient.isStopped() >> false
+    when:
+      def result = config.waitForReady(5, TimeUnit.SECONDS)
+    then: "a failure on the way doesn't end the wait"
+      result
+      1 * edgeClient.poll() >> {
+        repo.notify(SSEResultState.FAILURE)
+        repo.execute { repo.updateFeatures([], 'test') }
+        CompletableFuture.completedFuture(Readiness.Failed)
+      }
+    cleanup:
+      repo.close()
+  }
+
+  def "waitForReady returns as soon as the features land"() {
+    given:
+      def repo = new ClientFeatureRepository(1)
+      config.setRepository(repo)
+    when:
+      def start = System.nanoTime()
+      def result = config.waitForReady(5, TimeUnit.SECONDS)
+      def waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+    then:
+      result
+      waited < 1000
+      1 * edgeClient.poll() >> {
+        repo.updateFeatures([], 'test')
+        CompletableFuture.completedFuture(Readiness.NotReady)
+      }
+    cleanup:
+      repo.close()
   }
 
   def "waitForReady throws ConfigurationClosedException after close"() {
@@ -227,7 +306,7 @@ class EdgeFeatureHubConfigSpec extends Specification {
     given:
       def repo = Mock(InternalFeatureRepository)
       config.setRepository(repo)
-      repo.getReadiness() >> Readiness.Ready
+      repo.readinessFuture() >> CompletableFuture.completedFuture(Readiness.Ready)
     when: "waitForReady is called without a prior newContext"
       def result = config.waitForReady(1, TimeUnit.SECONDS)
     then:
@@ -237,6 +316,31 @@ class EdgeFeatureHubConfigSpec extends Specification {
 
   // --- closed-state tests ---
 
+  def "closing the config sends the last window of aggregated usage to the plugins"() {
+    given: "the config's repository counts usage into hourly summaries"
+      def repo = config.repository as ClientFeatureRepository
+      repo.updateFeatures([new FeatureState().id(UUID.randomUUID()).environmentId(UUID.randomUUID())
+                             .key('banana').version(1).value(true).type(FeatureValueType.BOOLEAN)])
+      repo.aggregateUsage(3600, null)
+    and: "a plugin collecting what it is sent"
+      List<UsageEvent> sent = []
+      config.registerUsagePlugin(new UsagePlugin() {
+        @Override
+        void send(UsageEvent event) {
+          sent.add(event)
+        }
+      })
+    when:
+      2.times { new BaseClientContext(repo, edgeClient).feature('banana').flag }
+      config.close()
+    then: "the summary arrives and nothing is left counting"
+      sent.size() == 1
+      (sent[0] as UsageFeaturesSummary).counts*.count == [2L]
+      repo.usageSummariser == null
+    cleanup:
+      repo.close()
+  }
+
   def "isClosed is false before close and true after"() {
     expect:
       !config.isClosed()
@@ -175,4 +175,27 @@ class ExtendedInterceptorSpec extends Specification {
     expect:
       config.repository.getFeat('demo').flag
   }
-}
\ No newline at end of file
+
+  def "with no interceptors registered every lookup is the shared no match"() {
+    expect:
+      fr.findIntercept('anything', null).is(ExtendedFeatureValueInterceptor.ValueMatch.NO_MATCH)
+      fr.findIntercept('anything', fs('anything', true, FeatureValueType.BOOLEAN)).is(ExtendedFeatureValueInterceptor.ValueMatch.NO_MATCH)
+  }
+
+  def "an interceptor that declares its keys is only asked about those keys"() {
+    given: "an interceptor that only knows about one key"
+      def interceptor = Mock(ExtendedFeatureValueInterceptor)
+      interceptor.keys() >> (['known'] as Set)
+      fr.registerValueInterceptor(interceptor)
+    and: "both features exist"
+      fr.updateFeatures([fs('known', false, FeatureValueType.BOOLEAN), fs('other', false, FeatureValueType.BOOLEAN)])
+    when:
+      def known = fr.getFeat('known').flag
+      def other = fr.getFeat('other').flag
+    then:
+      1 * interceptor.getValue('known', fr, _) >> new ExtendedFeatureValueInterceptor.ValueMatch(true, Boolean.TRUE)
+      0 * interceptor.getValue('other', _, _)
+      known
+      !other
+  }
+}
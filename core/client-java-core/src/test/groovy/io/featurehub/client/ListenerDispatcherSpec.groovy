@@ -0,0 +1,184 @@
+package io.featurehub.client
+
+import io.featurehub.sse.model.FeatureState
+import io.featurehub.sse.model.FeatureValueType
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class ListenerDispatcherSpec extends Specification {
+  List<Runnable> tasks
+  ListenerDispatcher dispatcher
+
+  def setup() {
+    tasks = []
+    // the tasks are only run when the test says so
+    dispatcher = new ListenerDispatcher({ Runnable task -> tasks.add(task) })
+  }
+
+  void runTasks() {
+    while (!tasks.isEmpty()) {
+      tasks.remove(0).run()
+    }
+  }
+
+  def "everything dispatched while held goes to each listener as one task, in order, latest per feature"() {
+    given:
+      def first = []
+      def second = []
+    when:
+      dispatcher.hold()
+      dispatcher.dispatch('first', 'a', { first.add('a1') })
+      dispatcher.dispatch('first', 'b', { first.add('b1') })
+      dispatcher.dispatch('second', 'a', { second.add('a1') })
+      dispatcher.dispatch('first', 'a', { first.add('a2') })
+      dispatcher.dispatch('first', { first.add('whole update') })
+    then:
+      tasks.isEmpty()
+    when:
+      dispatcher.release()
+    then:
+      tasks.size() == 2
+    when:
+      runTasks()
+    then:
+      first == ['b1', 'a2', 'whole update']
+      second == ['a1']
+  }
+
+  def "notifications that are never replaced are all delivered"() {
+    given:
+      def told = []
+    when:
+      dispatcher.dispatch('raw', { told.add(1) })
+      dispatcher.dispatch('raw', { told.add(2) })
+      runTasks()
+    then:
+      told == [1, 2]
+  }
+
+  def "anything dispatched while a listener is being told is picked up by the same task"() {
+    given:
+      def told = []
+      dispatcher.dispatch('listener', 'a', {
+        told.add('a')
+        dispatcher.dispatch('listener', 'b', { told.add('b') })
+      })
+    when:
+      runTasks()
+    then:
+      told == ['a', 'b']
+  }
+
+  def "a listener that fails doesn't stop the rest of its batch"() {
+    given:
+      def told = []
+    when:
+      dispatcher.hold()
+      dispatcher.dispatch('listener', 'a', { throw new RuntimeException('no') })
+      dispatcher.dispatch('listener', 'b', { told.add('b') })
+      dispatcher.release()
+      runTasks()
+    then:
+      told == ['b']
+  }
+
+  def "a listener is never told about two things at once, however many threads there are"() {
+    given:
+      ExecutorService pool = Executors.newFixedThreadPool(8)
+      def threaded = new ListenerDispatcher(pool)
+      def busy = new AtomicInteger()
+      def overlapped = new AtomicInteger()
+      def done = new CountDownLatch(1000)
+    when:
+      (0..<1000).each { i ->
+        threaded.dispatch('listener', "f${i}".toString(), {
+          if (busy.incrementAndGet() > 1) {
+            overlapped.incrementAndGet()
+          }
+          busy.decrementAndGet()
+          done.countDown()
+        })
+      }
+    then:
+      done.await(5, TimeUnit.SECONDS)
+      overlapped.get() == 0
+    cleanup:
+      pool.shutdownNow()
+  }
+
+  def "a listener whose task the executor rejects isn't left waiting forever"() {
+    given: "an executor that rejects the first task"
+      def rejecting = true
+      dispatcher = new ListenerDispatcher({ Runnable task ->
+        if (rejecting) {
+          throw new RejectedExecutionException('shut down')
+        }
+        tasks.add(task)
+      })
+      def told = []
+    when:
+      dispatcher.dispatch('listener', 'a', { told.add('a1') })
+    then: "what couldn't be delivered is let go"
+      dispatcher.waiting.isEmpty()
+      dispatcher.delivering.isEmpty()
+    when: "the executor takes tasks again"
+      rejecting = false
+      dispatcher.dispatch('listener', 'a', { told.add('a2') })
+      runTasks()
+    then: "the listener gets a new task"
+      told == ['a2']
+  }
+
+  def "a repository that has been closed doesn't keep notifications for its listeners"() {
+    given:
+      def pool = Executors.newSingleThreadExecutor()
+      def repo = new ClientFeatureRepository(pool)
+      repo.registerFeatureUpdateAvailable({ fs -> })
+      repo.close()
+    when:
+      repo.updateFeatures([new FeatureState().id(UUID.randomUUID()).key('f1').version(1)
+                             .type(FeatureValueType.BOOLEAN).value(true)], 'test')
+    then:
+      repo.dispatcher.waiting.isEmpty()
+      repo.dispatcher.delivering.isEmpty()
+  }
+
+  def "a repository update that changes 500 features gives each listener one task, not one per feature"() {
+    given:
+      def repo = new ClientFeatureRepository([
+        execute: { Runnable cmd -> tasks.add(cmd) },
+        shutdownNow: { -> },
+        isShutdown: { false }
+      ] as ExecutorService)
+      def features = { long version -> (0..<500).collect {
+        new FeatureState().id(UUID.randomUUID()).key("f${it}".toString()).version(version)
+          .type(FeatureValueType.BOOLEAN).value(it % 2 == 0)
+      } }
+      repo.updateFeatures(features(1), 'test')
+      runTasks()
+      def updated = []
+      def flipped = []
+      repo.registerFeatureUpdateAvailable({ fs -> updated.add(fs.key) })
+      repo.getFeat('f3').addListener({ fs -> flipped.add(fs.key) })
+      repo.getFeat('f7').addListener({ fs -> flipped.add(fs.key) })
+      def next = features(2)
+      next[3].value(!next[3].value)
+      next[7].value(!next[7].value)
+    when:
+      repo.updateFeatures(next, 'test')
+    then: "one for the update handler and one for each feature listener"
+      tasks.size() == 3
+    when:
+      runTasks()
+    then:
+      updated.size() == 500
+      updated[0..2] == ['f0', 'f1', 'f2']
+      flipped.sort() == ['f3', 'f7']
+  }
+}
@@ -1,16 +1,22 @@
 package io.featurehub.client
 
+import io.featurehub.sse.model.FeatureState
+import io.featurehub.sse.model.FeatureValueType
 import spock.lang.Specification
 
 import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
 import java.util.concurrent.ExecutorService
 import java.util.concurrent.Executors
 import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
 
 class PassivePollingDelegateEdgeServiceSpec extends Specification {
   EdgeService inner
   InternalFeatureRepository repo
   ExecutorService executor
+  AtomicInteger polls
+  CountDownLatch polled
 
   def setup() {
     inner = Mock(EdgeService)
@@ -18,88 +24,146 @@ class PassivePollingDelegateEdgeServiceSpec extends Specification {
     executor = Executors.newSingleThreadExecutor()
     repo.getExecutor() >> executor
     repo.getReadiness() >> Readiness.Ready
+    polls = new AtomicInteger()
+    polled = new CountDownLatch(1)
   }
 
   def cleanup() {
     executor.shutdownNow()
   }
 
-  // ---------------------------------------------------------------------------
-  // First poll always proceeds (constructor sets whenLastPolled = now - 1 minute)
-  // ---------------------------------------------------------------------------
+  private CompletableFuture<Readiness> countPoll() {
+    polls.incrementAndGet()
+    polled.countDown()
+    return CompletableFuture.completedFuture(Readiness.Ready)
+  }
+
+  // waits for the refresh running on the executor to finish
+  private void drain() {
+    executor.submit({}).get(5, TimeUnit.SECONDS)
+  }
 
-  def "first poll always proceeds regardless of currentInterval"() {
+  def "the first poll refreshes the features in the background"() {
     given:
       inner.isStopped() >> false
       inner.currentInterval() >> 30
-      inner.poll() >> CompletableFuture.completedFuture(Readiness.Ready)
+      inner.poll() >> { countPoll() }
       def service = new PassivePollingDelegateEdgeService(inner, repo)
     when:
       def result = service.poll().get(5, TimeUnit.SECONDS)
     then:
       result == Readiness.Ready
-      1 * inner.poll()
+      polled.await(5, TimeUnit.SECONDS)
+      polls.get() == 1
   }
 
-  // ---------------------------------------------------------------------------
-  // Throttling: poll within interval returns readiness without calling inner
-  // ---------------------------------------------------------------------------
+  def "callers are given the current readiness straight away and never wait for the network"() {
+    given:
+      def edge = new CompletableFuture<Readiness>()
+      inner.isStopped() >> false
+      inner.currentInterval() >> 30
+      inner.poll() >> edge
+      def service = new PassivePollingDelegateEdgeService(inner, repo)
+    when:
+      def result = service.poll()
+    then: "the poll to edge is still waiting"
+      result.isDone()
+      result.get() == Readiness.Ready
+    cleanup:
+      edge.complete(Readiness.Ready)
+  }
 
-  def "poll within currentInterval is throttled and returns readiness without delegating"() {
+  def "reads within currentInterval of the last poll don't refresh"() {
     given:
       inner.isStopped() >> false
-      inner.currentInterval() >>> [30, 3600]  // 30s for first poll check, 3600s for second → throttled
-      inner.poll() >> CompletableFuture.completedFuture(Readiness.Ready)
+      inner.currentInterval() >> 3600
+      inner.poll() >> { countPoll() }
       def service = new PassivePollingDelegateEdgeService(inner, repo)
-      service.poll().get(5, TimeUnit.SECONDS)   // first poll — sets whenLastPolled to now
+      service.poll()
+      drain()
     when:
-      def result = service.poll().get(5, TimeUnit.SECONDS)  // second poll — still within interval
+      (1..100).each { service.refreshIfStale() }
+      service.poll().get(5, TimeUnit.SECONDS)
+      drain()
     then:
-      result == Readiness.Ready
-      0 * inner.poll()  // throttled — inner not called during when:
+      polls.get() == 1
   }
 
-  // ---------------------------------------------------------------------------
-  // After interval elapsed: poll delegates to inner again
-  // ---------------------------------------------------------------------------
-
-  def "poll after currentInterval has elapsed delegates to inner again"() {
+  def "the first read after currentInterval has passed refreshes again"() {
     given:
       inner.isStopped() >> false
       inner.currentInterval() >> 1   // 1-second interval so we only need a short sleep
-      inner.poll() >> CompletableFuture.completedFuture(Readiness.Ready)
+      inner.poll() >> { countPoll() }
       def service = new PassivePollingDelegateEdgeService(inner, repo)
-      service.poll().get(5, TimeUnit.SECONDS)   // first poll — sets whenLastPolled to now (given:, not counted)
-      Thread.sleep(1100)                         // wait just over 1 second
+      service.poll()
+      drain()
+      Thread.sleep(1100)
     when:
-      def result = service.poll().get(5, TimeUnit.SECONDS)
+      service.refreshIfStale()
+      service.refreshIfStale()
+      drain()
     then:
-      result == Readiness.Ready
-      1 * inner.poll()  // only the when: poll counts; the given: priming call is not counted
+      polls.get() == 2
   }
 
-  // ---------------------------------------------------------------------------
-  // postPollActivity() updates whenLastPolled so a subsequent immediate poll is throttled
-  // ---------------------------------------------------------------------------
-
-  def "after a successful poll the next immediate poll is throttled by a large interval"() {
-    given: "30s interval lets the first poll through (constructor: now-1min); 3600s throttles the second"
+  def "however many threads find the features stale at once, there is only one refresh"() {
+    given:
+      def release = new CountDownLatch(1)
       inner.isStopped() >> false
-      inner.currentInterval() >>> [30, 3600]
-      inner.poll() >> CompletableFuture.completedFuture(Readiness.Ready)
+      inner.currentInterval() >> 3600
+      inner.poll() >> {
+        polls.incrementAndGet()
+        release.await(5, TimeUnit.SECONDS)
+        CompletableFuture.completedFuture(Readiness.Ready)
+      }
       def service = new PassivePollingDelegateEdgeService(inner, repo)
+      def readers = Executors.newFixedThreadPool(8)
+      def start = new CountDownLatch(1)
+    when:
+      def reads = (1..8).collect {
+        readers.submit({
+          start.await()
+          (1..1000).each { service.refreshIfStale() }
+        })
+      }
+      start.countDown()
+      reads.each { it.get(5, TimeUnit.SECONDS) }
+      release.countDown()
+      drain()
+    then:
+      polls.get() == 1
+    cleanup:
+      readers.shutdownNow()
+  }
+
+  def "reading a feature from the repository is enough to refresh it, no usage plugin is involved"() {
+    given:
+      def repository = new ClientFeatureRepository(executor)
+      repository.updateFeatures([new FeatureState().id(UUID.randomUUID()).key('flag').version(1)
+                                   .environmentId(UUID.randomUUID())
+                                   .type(FeatureValueType.BOOLEAN).value(true)], 'test')
+      inner.isStopped() >> false
+      inner.currentInterval() >> 3600
+      inner.poll() >> { countPoll() }
+      new PassivePollingDelegateEdgeService(inner, repository)
     when:
-      def first  = service.poll().get(5, TimeUnit.SECONDS)   // proceeds — whenLastPolled + 30s < now
-      def second = service.poll().get(5, TimeUnit.SECONDS)   // throttled — whenLastPolled + 3600s > now
+      def value = repository.getFeat('flag').flag
     then:
-      first  == Readiness.Ready
-      second == Readiness.Ready
-      1 * inner.poll()   // only the first call reaches inner
+      value
+      polled.await(5, TimeUnit.SECONDS)
+      polls.get() == 1
   }
 
-  // ---------------------------------------------------------------------------
-  // Stopped guard is inherited from base
-  // ---------------------------------------------------------------------------
+  def "closing stops feature reads checking for staleness"() {
+    given:
+      inner.isStopped() >> false
+      def service = new PassivePollingDelegateEdgeService(inner, repo)
+    when:
+      service.close()
+    then:
+      1 * repo.setFeatureReadHook(null)
+      1 * inner.close()
+  }
 
   def "poll returns current readiness immediately when inner service is stopped"() {
     given:
@@ -28,13 +28,18 @@ class RawUpdateFeatureListenerSpec extends Specification {
       .key(key).value(true).type(FeatureValueType.BOOLEAN)
   }
 
-  def "updateFeatures notifies listener with the list and source"() {
+  FeatureState copy(FeatureState f) {
+    new FeatureState().id(f.id).environmentId(f.environmentId).version(f.version).key(f.key).value(f.value).type(f.type)
+  }
+
+  def "updateFeatures notifies listener with what changed and the source"() {
     given:
       def features = [fs('a'), fs('b')]
     when:
       repo.updateFeatures(features, 'streaming')
     then:
-      1 * listener.updateFeatures(features, 'streaming')
+      1 * listener.featuresChanged({ FeatureChanges c ->
+        c.added == features && c.changed.isEmpty() && c.removed.isEmpty() && c.source == 'streaming' })
   }
 
   def "updateFeatures without source passes 'unknown' to listener"() {
@@ -43,7 +48,7 @@ class RawUpdateFeatureListenerSpec extends Specification {
     when:
       repo.updateFeatures(features)
     then:
-      1 * listener.updateFeatures(features, 'unknown')
+      1 * listener.featuresChanged({ FeatureChanges c -> c.added == features && c.source == 'unknown' })
   }
 
   def "updateFeature notifies listener with the feature and source"() {
@@ -64,6 +69,17 @@ class RawUpdateFeatureListenerSpec extends Specification {
       1 * listener.updateFeature(feature, 'unknown')
   }
 
+  def "updateFeature doesn't pass on a feature that hasn't changed"() {
+    given:
+      def feature = fs('x')
+      repo.updateFeature(feature, 'polling')
+    when:
+      def changed = repo.updateFeature(copy(feature), 'polling')
+    then:
+      !changed
+      0 * listener.updateFeature(_, _)
+  }
+
   def "deleteFeature removes the feature from the repository"() {
     given:
       def featureState = fs('x')
@@ -102,10 +118,98 @@ class RawUpdateFeatureListenerSpec extends Specification {
     when:
       repo.updateFeatures(features, 'streaming')
     then:
-      1 * listener.updateFeatures(features, 'streaming')
+      1 * listener.featuresChanged(_)
       0 * listener.updateFeature(_, _)
   }
 
+  def "a batch that changes nothing is not passed on"() {
+    given:
+      def features = [fs('a'), fs('b')]
+      repo.updateFeatures(features, 'polling')
+    when:
+      repo.updateFeatures(features.collect { copy(it) }, 'polling')
+    then:
+      0 * listener.featuresChanged(_)
+  }
+
+  def "only the features with a new version or value are passed on as changed"() {
+    given:
+      def a = fs('a')
+      def b = fs('b')
+      repo.updateFeatures([a, b], 'polling')
+      def newB = copy(b).version(2).value(false)
+    when:
+      repo.updateFeatures([copy(a), newB], 'polling')
+    then:
+      1 * listener.featuresChanged({ FeatureChanges c -> c.added.isEmpty() && c.changed == [newB] && c.removed.isEmpty() })
+  }
+
+  def "replacing the features removes the ones that are no longer sent"() {
+    given:
+      def a = fs('a')
+      def b = fs('b')
+      repo.updateFeatures([a, b], 'polling')
+      def holder = repo.getFeat('b')
+      def c = fs('c')
+    when:
+      repo.replaceFeatures([copy(a), c], 'polling')
+    then:
+      1 * listener.featuresChanged({ FeatureChanges ch -> ch.added == [c] && ch.changed.isEmpty() && ch.removed == [b] })
+      repo.getFeatureKeys() == ['a', 'c'] as Set
+      !holder.exists()
+      repo.getFeat('a').exists()
+  }
+
+  def "updating the features leaves the ones that are not sent alone"() {
+    given:
+      repo.updateFeatures([fs('a'), fs('b')], 'polling')
+    when:
+      repo.updateFeatures([fs('c')], 'polling')
+    then:
+      1 * listener.featuresChanged({ FeatureChanges ch -> ch.added.key == ['c'] && ch.removed.isEmpty() })
+      repo.getFeatureKeys() == ['a', 'b', 'c'] as Set
+  }
+
+  static class OldListener implements RawUpdateFeatureListener {
+    List<String> calls = []
+
+    void updateFeatures(List<FeatureState> features, String source) { calls << "update ${features.key} ${source}".toString() }
+    void updateFeature(FeatureState feature, String source) { calls << "single ${feature.key}".toString() }
+    void deleteFeature(FeatureState feature, String source) { calls << "delete ${feature.key} ${source}".toString() }
+    void close() {}
+  }
+
+  def "a listener that only knows about lists gets the updated features as a list and each removed one deleted"() {
+    given:
+      def old = new OldListener()
+      repo.updateFeatures([fs('a'), fs('b')], 'polling')
+      repo.registerRawUpdateFeatureListener(old)
+      def changedA = fs('a').version(2)
+    when:
+      repo.replaceFeatures([changedA, fs('c')], 'streaming')
+    then:
+      old.calls == ['update [c, a] streaming', 'delete b streaming']
+  }
+
+  def "setting a feature's state directly only changes this repository, listeners are not told"() {
+    given:
+      def feature = fs('a')
+      repo.updateFeatures([feature], 'streaming')
+      def holder = repo.getFeat('a')
+      def changed = []
+      holder.addListener { changed << it.flag }
+    when: "the state is replaced and then cleared"
+      holder.setFeatureState(copy(feature).version(2).value(false))
+      holder.setFeatureState(null)
+    and: "cleared again with nothing held"
+      holder.setFeatureState(null)
+    then:
+      0 * listener._
+      changed == [false, null]
+      holder.isSet() == false
+      repo.getFeat('a').is(holder)
+  }
+
   def "close() is called on all registered listeners when the repository is closed"() {
     given:
       def listener2 = Mock(RawUpdateFeatureListener)
@@ -125,8 +229,8 @@ class RawUpdateFeatureListenerSpec extends Specification {
     when:
       repo.updateFeatures(features, 'polling')
     then:
-      1 * listener.updateFeatures(features, 'polling')
-      1 * listener2.updateFeatures(features, 'polling')
+      1 * listener.featuresChanged({ FeatureChanges c -> c.added == features })
+      1 * listener2.featuresChanged({ FeatureChanges c -> c.added == features })
   }
 
   def "registerRawUpdateFeatureListener on EdgeFeatureHubConfig delegates to the repository"() {
@@ -1,6 +1,9 @@
 package io.featurehub.client
 
 import com.fasterxml.jackson.databind.ObjectMapper
+import io.featurehub.client.usage.UsageEvent
+import io.featurehub.client.usage.UsageEventWithFeature
+import io.featurehub.client.usage.UsageFeaturesSummary
 import io.featurehub.javascript.Jackson2ObjectMapper
 import io.featurehub.sse.model.FeatureState
 import io.featurehub.sse.model.FeatureValueType
@@ -125,6 +128,27 @@ class RepositorySpec extends Specification {
       !feature4
   }
 
+  def "the change count only goes up when an update changes something"() {
+    given:
+      def banana = fs().key('banana').value(false).type(FeatureValueType.BOOLEAN)
+    when:
+      repo.updateFeatures([banana])
+      def first = repo.changeCount
+      repo.updateFeatures([banana])
+      def same = repo.changeCount
+      repo.updateFeatures([fs().id(banana.id).key('banana').version(2).value(true).type(FeatureValueType.BOOLEAN)])
+      def changed = repo.changeCount
+      repo.deleteFeature(fs().key('peach'))
+      def deletedNothing = repo.changeCount
+      repo.deleteFeature(banana)
+    then:
+      first == 1
+      same == 1
+      changed == 2
+      deletedNothing == 2
+      repo.changeCount == 3
+  }
+
   def "a non existent feature is not set"() {
     when: "we ask for a feature that doesn't exist"
       def feature = repo.getFeat('fred')
@@ -156,6 +180,46 @@ class RepositorySpec extends Specification {
       !repo.getFeat('banana').enabled
   }
 
+  def "each batch of features is published as a single snapshot"() {
+    given: "i hold a feature before the repository knows about it"
+      def peach = repo.getFeat('peach')
+    when: "i send a batch of features"
+      repo.updateFeatures([
+        fs().key('banana').value(true).type(FeatureValueType.BOOLEAN),
+        fs().key('peach').value('orange').type(FeatureValueType.STRING),
+        fs().key('peach_quantity').value(17).type(FeatureValueType.NUMBER),
+      ])
+    then: "they arrive together and the feature i held sees its value"
+      repo.snapshot().version == 1
+      repo.snapshot().size() == 3
+      peach.string == 'orange'
+    when: "the same batch arrives again"
+      repo.updateFeatures([
+        fs().key('banana').value(true).type(FeatureValueType.BOOLEAN),
+        fs().key('peach').value('orange').type(FeatureValueType.STRING),
+      ])
+    then: "nothing changed, so nothing is published"
+      repo.snapshot().version == 1
+    when: "a feature is deleted"
+      repo.deleteFeature(fs().key('peach'))
+    then:
+      repo.snapshot().version == 2
+      repo.snapshot().get('peach') == null
+      peach.string == null
+  }
+
+  def "a usage copy keeps the version it was taken from"() {
+    given: "i have a feature"
+      repo.updateFeatures([fs().key('banana').value(false).type(FeatureValueType.BOOLEAN)])
+    and: "i take a usage copy of it"
+      def copy = repo.getFeat('banana').usageCopy()
+    when: "the feature changes"
+      repo.updateFeatures([fs().key('banana').version(2L).value(true).type(FeatureValueType.BOOLEAN)])
+    then:
+      repo.getFeat('banana').flag
+      !copy.flag
+  }
+
 
   def "a json config will properly deserialize into an object"() {
     given: "i have features"
@@ -173,6 +237,59 @@ class RepositorySpec extends Specification {
       repo.getFeat(Fruit.banana).getJson(BananaSample).sample == 12
   }
 
+  def "by default every getJson call parses a new object"() {
+    given: "i have a json feature"
+      repo.setJsonConfigObjectMapper(new Jackson2ObjectMapper())
+      repo.updateFeatures([fs().key('banana').value('{"sample":12}').type(FeatureValueType.JSON)])
+    when: "one caller changes what it got back"
+      def json1 = repo.getFeat('banana').getJson(BananaSample)
+      json1.sample = 99
+      def json2 = repo.getFeat('banana').getJson(BananaSample)
+    then: "the next caller doesn't see it"
+      !json1.is(json2)
+      json2.sample == 12
+  }
+
+  def "typed values are worked out once per version of a feature"() {
+    given: "getJson shares its values"
+      repo.shareJsonValues(true)
+    and: "i have features"
+      repo.setJsonConfigObjectMapper(new Jackson2ObjectMapper())
+      repo.updateFeatures([
+        fs().key('banana').value('{"sample":12}').type(FeatureValueType.JSON),
+        fs().key('peach_quantity').value(17).type(FeatureValueType.NUMBER),
+      ])
+    when: "i read them twice"
+      def json1 = repo.getFeat('banana').getJson(BananaSample)
+      def json2 = repo.getFeat('banana').getJson(BananaSample)
+      def num1 = repo.getFeat('peach_quantity').number
+      def num2 = repo.getFeat('peach_quantity').number
+    then: "i get the same objects"
+      json1.is(json2)
+      json1.sample == 12
+      num1.is(num2)
+      num1 == 17
+    when: "a new version arrives"
+      repo.updateFeatures([fs().key('banana').version(2L).value('{"sample":14}').type(FeatureValueType.JSON)])
+    then:
+      repo.getFeat('banana').getJson(BananaSample).sample == 14
+  }
+
+  def "sharing json values only applies to the repository it is set on"() {
+    given: "two repositories with the same feature, only one of which shares"
+      def other = new ClientFeatureRepository(exec)
+      [repo, other].each {
+        it.setJsonConfigObjectMapper(new Jackson2ObjectMapper())
+        it.updateFeatures([fs().key('banana').value('{"sample":12}').type(FeatureValueType.JSON)])
+      }
+      repo.shareJsonValues(true)
+    expect:
+      repo.isSharingJsonValues()
+      !other.isSharingJsonValues()
+      repo.getFeat('banana').getJson(BananaSample).is(repo.getFeat('banana').getJson(BananaSample))
+      !other.getFeat('banana').getJson(BananaSample).is(other.getFeat('banana').getJson(BananaSample))
+  }
+
   def "failure changes readiness to failure"() {
     given: "i have features"
       def features = [
@@ -195,6 +312,42 @@ class RepositorySpec extends Specification {
       statuses == [Readiness.NotReady, Readiness.Ready, Readiness.Failed]
   }
 
+  def "the readiness future completes when features land and waits again if they go away"() {
+    given:
+      def waiting = repo.readinessFuture()
+    expect:
+      !waiting.isDone()
+    when:
+      repo.updateFeatures([fs().key('banana').value(false).type(FeatureValueType.BOOLEAN)])
+    then:
+      waiting.getNow(null) == Readiness.Ready
+      repo.readinessFuture().getNow(null) == Readiness.Ready
+    when:
+      repo.repositoryNotReady()
+      def again = repo.readinessFuture()
+    then:
+      !again.isDone()
+    when:
+      repo.notify(SSEResultState.FAILURE)
+    then: "those waiting are told, but the next wait is for whatever comes next"
+      again.getNow(null) == Readiness.Failed
+      !repo.readinessFuture().isDone()
+  }
+
+  def "the readiness future completes for an empty environment and gives up when the repository is closed"() {
+    given:
+      def empty = new ClientFeatureRepository(exec)
+      def closing = new ClientFeatureRepository(exec)
+      def emptyReady = empty.readinessFuture()
+      def closingReady = closing.readinessFuture()
+    when:
+      empty.repositoryEmpty()
+      closing.close()
+    then:
+      emptyReady.getNow(null) == Readiness.Ready
+      closingReady.getNow(null) == Readiness.NotReady
+  }
+
   def "ack and bye are ignored"() {
     given: "i have features"
       def features = [
@@ -322,4 +475,54 @@ class RepositorySpec extends Specification {
 
   }
 
+  def "a usage event gets the context's attributes as they were when the feature was used"() {
+    given:
+      repo.updateFeatures([fs().key('banana').value(true).type(FeatureValueType.BOOLEAN)])
+      List<UsageEvent> events = []
+      repo.registerUsageStream({ events.add(it) })
+      def ctx = new BaseClientContext(repo, Mock(EdgeService)).attr("country", "nz")
+    when:
+      ctx.isEnabled('banana')
+      ctx.attr("country", "au")
+    then:
+      events.size() == 1
+      (events[0] as UsageEventWithFeature).attributes.country == ['nz']
+  }
+
+  def "when usage is aggregated, evaluations are counted and sent as a summary rather than an event each"() {
+    given:
+      repo.updateFeatures([fs().key('banana').value(true).type(FeatureValueType.BOOLEAN)])
+      List<UsageEvent> events = []
+      repo.registerUsageStream({ events.add(it) })
+      repo.aggregateUsage(3600, "country")
+      def nz = new BaseClientContext(repo, Mock(EdgeService)).attr("country", "nz")
+      def au = new BaseClientContext(repo, Mock(EdgeService)).attr("country", "au")
+    when:
+      3.times { nz.isEnabled('banana') }
+      au.feature('banana').flag
+    then: "nothing is sent until the window ends"
+      events.isEmpty()
+    when: "the repository closes, which ends the window"
+      repo.close()
+    then:
+      events.size() == 1
+      events[0] instanceof UsageFeaturesSummary
+      (events[0] as UsageFeaturesSummary).counts.collectEntries { [(it.attributeValue): it.count] } == [nz: 3L, au: 1L]
+  }
+
+  def "when only first exposures are tracked, a user reading the same value again is not usage"() {
+    given:
+      repo.updateFeatures([fs().key('banana').value(true).type(FeatureValueType.BOOLEAN)])
+      List<UsageEvent> events = []
+      repo.registerUsageStream({ events.add(it) })
+      repo.firstExposuresOnly(3600, 1000)
+      def fred = new BaseClientContext(repo, Mock(EdgeService)).userKey("fred")
+      def mary = new BaseClientContext(repo, Mock(EdgeService)).userKey("mary")
+    when:
+      3.times { fred.isEnabled('banana') }
+      2.times { mary.isEnabled('banana') }
+    then:
+      events*.userKey == ['fred', 'mary']
+  }
+
 }
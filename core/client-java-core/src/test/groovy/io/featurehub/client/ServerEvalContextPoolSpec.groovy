@@ -0,0 +1,193 @@
+package io.featurehub.client
+
+import io.featurehub.client.usage.UsageEvent
+import io.featurehub.client.usage.UsageEventWithFeature
+import io.featurehub.sse.model.FeatureState
+import io.featurehub.sse.model.FeatureValueType
+import org.jetbrains.annotations.NotNull
+import org.jetbrains.annotations.Nullable
+import spock.lang.Specification
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.Future
+import java.util.function.Supplier
+
+class ServerEvalContextPoolSpec extends Specification {
+  // an edge that "evaluates" by setting banana to the header it was given
+  static class HeaderEdge implements EdgeService {
+    final InternalFeatureRepository repository
+    final FeatureHubConfig config
+    final UUID id = UUID.randomUUID()
+    String header
+    int fetches = 0
+    long interval = 0
+    boolean closed = false
+
+    HeaderEdge(InternalFeatureRepository repository, FeatureHubConfig config) {
+      this.repository = repository
+      this.config = config
+    }
+
+    @Override
+    Future<Readiness> contextChange(@Nullable String newHeader, String contextSha) {
+      header = newHeader
+      return poll()
+    }
+
+    @Override
+    Future<Readiness> poll() {
+      fetches++
+      repository.updateFeatures([new FeatureState().id(id).key('banana').version(fetches).environmentId(config.environmentId)
+                                   .type(FeatureValueType.STRING).value("${header}-${fetches}".toString())])
+      return CompletableFuture.completedFuture(repository.readiness)
+    }
+
+    @Override
+    boolean isClientEvaluation() { false }
+
+    @Override
+    boolean isStopped() { false }
+
+    @Override
+    void close() { closed = true }
+
+    @Override
+    @NotNull FeatureHubConfig getConfig() { config }
+
+    @Override
+    long currentInterval() { interval }
+  }
+
+  static class HeaderEdgeFactory implements FeatureHubClientFactory {
+    List<HeaderEdge> edges = []
+    long interval = 0
+
+    @Override
+    Supplier<EdgeService> createRestEdge(FeatureHubConfig config, InternalFeatureRepository repository,
+                                         int timeoutInSeconds, boolean amPollingDelegate) {
+      return { ->
+        def edge = new HeaderEdge(repository, config)
+        edge.interval = interval
+        edges.add(edge)
+        edge
+      }
+    }
+
+    @Override
+    Supplier<EdgeService> createRestEdge(FeatureHubConfig config, int timeoutInSeconds, boolean amPollingDelegate) {
+      return createRestEdge(config, null, timeoutInSeconds, amPollingDelegate)
+    }
+
+    @Override
+    Supplier<EdgeService> createSSEEdge(FeatureHubConfig config, InternalFeatureRepository repository) { null }
+
+    @Override
+    Supplier<EdgeService> createSSEEdge(FeatureHubConfig config) { null }
+
+    @Override
+    Supplier<TestApi> createTestApi(FeatureHubConfig config) { null }
+  }
+
+  EdgeFeatureHubConfig config
+  HeaderEdgeFactory factory
+
+  def setup() {
+    factory = new HeaderEdgeFactory()
+    config = new EdgeFeatureHubConfig("http://localhost", "${UUID.randomUUID()}/123")
+    config.setEdgeSupplierFactory(factory)
+    config.serverEvalContextPool(2)
+  }
+
+  def cleanup() {
+    config.close()
+  }
+
+  // the first edge is the config's own (used by contexts with no attributes), then one per pooled context
+  List<HeaderEdge> pooledEdges() {
+    return factory.edges.drop(1)
+  }
+
+  def "contexts with different attributes each keep the features for their own attributes"() {
+    when:
+      def fred = config.newContext().userKey("fred").build().get()
+      def mary = config.newContext().userKey("mary").build().get()
+    then:
+      fred.feature('banana').string == 'userkey=fred-1'
+      mary.feature('banana').string == 'userkey=mary-1'
+      fred.getString('banana', 'none') == 'userkey=fred-1'
+      pooledEdges().size() == 2
+  }
+
+  def "a context with attributes seen before uses the features already fetched for them"() {
+    given:
+      config.newContext().userKey("fred").build().get()
+    when:
+      def again = config.newContext().userKey("fred").build().get()
+    then:
+      again.feature('banana').string == 'userkey=fred-1'
+      pooledEdges().size() == 1
+      pooledEdges()[0].fetches == 1
+  }
+
+  def "a context moves to the features for its new attributes when it is built again"() {
+    given:
+      def ctx = config.newContext().userKey("fred").build().get()
+    when:
+      ctx.userKey("mary").build().get()
+    then:
+      ctx.feature('banana').string == 'userkey=mary-1'
+  }
+
+  def "once there are too many contexts the least recently used one is dropped"() {
+    given:
+      config.newContext().userKey("fred").build().get()
+      config.newContext().userKey("mary").build().get()
+      config.newContext().userKey("fred").build().get()
+    when:
+      config.newContext().userKey("sue").build().get()
+    then: "mary's connection was the least recently used"
+      pooledEdges()*.closed == [false, true, false]
+    when: "mary comes back"
+      def mary = config.newContext().userKey("mary").build().get()
+    then: "her features are fetched again"
+      pooledEdges().size() == 4
+      mary.feature('banana').string == 'userkey=mary-1'
+  }
+
+  def "features older than the polling interval are refreshed in the background while the old ones are used"() {
+    given:
+      factory.interval = 1
+      config.newContext().userKey("fred").build().get()
+    when:
+      Thread.sleep(1100)
+      def ctx = config.newContext().userKey("fred").build().get()
+    then: "the refresh happened (our edge answers immediately) without a second connection"
+      pooledEdges().size() == 1
+      pooledEdges()[0].fetches == 2
+      ctx.feature('banana').string == 'userkey=fred-2'
+  }
+
+  def "usage from a pooled context goes to the config's usage stream"() {
+    given:
+      List<UsageEvent> events = []
+      def ctx = config.newContext().userKey("fred").build().get()
+      // only feature usage, the collection event from fetching the features can turn up late
+      config.repository.registerUsageStream({ if (it instanceof UsageEventWithFeature) events.add(it) })
+    when:
+      ctx.getString('banana', 'none')
+    then:
+      events.size() == 1
+      (events[0] as UsageEventWithFeature).feature.value == 'userkey=fred-1'
+      events[0].userKey == 'fred'
+  }
+
+  def "closing the config closes every pooled connection"() {
+    given:
+      config.newContext().userKey("fred").build().get()
+      config.newContext().userKey("mary").build().get()
+    when:
+      config.close()
+    then:
+      pooledEdges().every { it.closed }
+  }
+}
@@ -35,4 +35,22 @@ class ServerEvalContextSpec extends Specification {
       3 * repo.execute { Runnable cmd -> cmd.run() }
       0 * _
   }
+
+  def "a build waiting on Edge doesn't hold a thread of the repository's executor"() {
+    given: "edge hasn't answered yet"
+      def answer = new CompletableFuture<Readiness>()
+      edge.contextChange("userkey=fred", _) >> answer
+      def scc = new ServerEvalFeatureContext(repo, edge)
+    when: "i build"
+      def built = scc.userKey("fred").build()
+    then: "nothing has been given to the executor"
+      !built.done
+      0 * repo.execute(_)
+    when: "edge answers"
+      answer.complete(Readiness.Ready)
+    then: "the context completes on the executor"
+      1 * repo.execute { Runnable cmd -> cmd.run() }
+      built.done
+      built.get() == scc
+  }
 }
@@ -9,6 +9,8 @@ import io.featurehub.sse.model.StrategyAttributeWellKnownNames
 import io.featurehub.sse.model.FeatureRolloutStrategy
 import io.featurehub.sse.model.FeatureRolloutStrategyAttribute
 import io.featurehub.sse.model.FeatureState
+import io.featurehub.strategies.matchers.MatcherRegistry
+import io.featurehub.strategies.percentage.PercentageCalculator
 import spock.lang.Specification
 
 import java.util.concurrent.ExecutorService
@@ -179,4 +181,33 @@ class StrategySpec extends Specification {
         ccThird.feature("feat1").rawJson == "not-mobile"
         ccEmpty.feature("feat1").rawJson == "feature"
   }
+
+  def "percentage strategies accumulate their base percentage per percentage key"() {
+    given: "a calculator that gives every key a fixed percentage"
+        def calculator = { String userKey, String id -> userKey == 'user1' ? 150000 : 450000 } as PercentageCalculator
+        def apply = new ApplyFeature(calculator, new MatcherRegistry())
+    and: "two percentage strategies on the user key and one on the company"
+        def strategies = [
+          new FeatureRolloutStrategy().id('first').value('first').percentage(100000),
+          new FeatureRolloutStrategy().id('company').value('company').percentage(200000).percentageAttributes(['company']),
+          new FeatureRolloutStrategy().id('second').value('second').percentage(100000),
+        ]
+        def compiled = apply.compile(strategies)
+    when:
+        def user1 = new TestContext(repo, edge).userKey('user1')
+        def user2 = new TestContext(repo, edge).userKey('user2').attr('company', 'user1')
+        def noKey = new TestContext(repo, edge)
+    then: "the second strategy includes the first strategy's percentage"
+        apply.applyFeature(compiled, 'key', 'id', user1).strategyId == 'second'
+        apply.applyFeature(strategies, 'key', 'id', user1).strategyId == 'second'
+    and: "the company percentage is calculated from the company attribute"
+        apply.applyFeature(compiled, 'key', 'id', user2).strategyId == 'company'
+    and: "without a percentage key nothing matches"
+        !apply.applyFeature(compiled, 'key', 'id', noKey).matched
+        apply.applyFeature(compiled, 'key', 'id', noKey).is(Applied.NOT_APPLIED)
+    and: "missing strategies compile to an empty plan"
+        !compiled.isEmpty()
+        apply.compile([]).isEmpty()
+        apply.compile(null).isEmpty()
+  }
 }
@@ -0,0 +1,128 @@
+package io.featurehub.client.edge
+
+import io.featurehub.client.InternalFeatureRepository
+import io.featurehub.javascript.Jackson2ObjectMapper
+import io.featurehub.sse.model.FeatureState
+import io.featurehub.sse.model.FeatureValueType
+import io.featurehub.sse.model.SSEResultState
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class EdgeEventQueueSpec extends Specification {
+  EdgeRetryService retryer
+  InternalFeatureRepository repo
+  Jackson2ObjectMapper mapper
+  UUID envId
+  List<String> applied
+  List<String> threads
+  CountDownLatch started
+  CountDownLatch release
+  EdgeEventQueue queue
+
+  def setup() {
+    retryer = Mock(EdgeRetryService)
+    repo = Mock(InternalFeatureRepository)
+    mapper = new Jackson2ObjectMapper()
+    envId = UUID.randomUUID()
+    applied = Collections.synchronizedList([])
+    threads = Collections.synchronizedList([])
+    started = new CountDownLatch(1)
+    release = new CountDownLatch(1)
+
+    repo.getJsonObjectMapper() >> mapper
+    // an ack holds up the thread applying the events, so the ones after it build up
+    retryer.convertSSEState(SSEResultState.ACK, _ as String, repo, envId) >> {
+      started.countDown()
+      release.await(5, TimeUnit.SECONDS)
+    }
+    retryer.convertSSEState({ it != SSEResultState.ACK } as SSEResultState, _ as String, repo, envId) >> { args ->
+      threads.add(Thread.currentThread().name)
+      applied.add("${args[0]}:${args[1]}".toString())
+    }
+    repo.updateFeature(_, 'streaming') >> { args -> applied.add("update:${args[0].key}:${args[0].version}".toString()) }
+    repo.deleteFeature(_, 'streaming') >> { args -> applied.add("delete:${args[0].key}:${args[0].version}".toString()) }
+  }
+
+  def cleanup() {
+    queue?.close()
+  }
+
+  String feature(String key, long version) {
+    return mapper.writeValueAsString(new FeatureState().id(UUID.randomUUID()).key(key).version(version)
+      .type(FeatureValueType.BOOLEAN).value(true))
+  }
+
+  def "with a size of 0 each event is applied on the thread that offers it"() {
+    given:
+      queue = new EdgeEventQueue(retryer, repo, 0)
+    when:
+      def done = queue.offer(SSEResultState.FEATURES, "[]", envId)
+    then:
+      done.isDone()
+      applied == ['features:[]']
+      threads == [Thread.currentThread().name]
+  }
+
+  def "events are applied in order off the thread that offers them"() {
+    given:
+      queue = new EdgeEventQueue(retryer, repo, 10)
+    when:
+      queue.offer(SSEResultState.FEATURES, "[]", envId)
+      def last = queue.offer(SSEResultState.BYE, "bye", envId)
+      last.get(5, TimeUnit.SECONDS)
+    then:
+      applied == ['features:[]', 'bye:bye']
+      threads.every { it == 'featurehub-sse-events' }
+  }
+
+  def "a burst of feature events only applies the last one for each key"() {
+    given:
+      queue = new EdgeEventQueue(retryer, repo, 10)
+      queue.offer(SSEResultState.ACK, "ack", envId)
+      started.await(5, TimeUnit.SECONDS)
+    when:
+      queue.offer(SSEResultState.FEATURE, feature('a', 1), envId)
+      queue.offer(SSEResultState.FEATURE, feature('b', 1), envId)
+      queue.offer(SSEResultState.FEATURE, feature('a', 2), envId)
+      queue.offer(SSEResultState.DELETE_FEATURE, feature('b', 2), envId)
+      def last = queue.offer(SSEResultState.FEATURE, feature('a', 3), envId)
+      release.countDown()
+      last.get(5, TimeUnit.SECONDS)
+    then:
+      applied == ['update:a:3', 'delete:b:2']
+  }
+
+  def "a features event makes the feature events before it pointless, but not the ones after"() {
+    given:
+      queue = new EdgeEventQueue(retryer, repo, 10)
+      queue.offer(SSEResultState.ACK, "ack", envId)
+      started.await(5, TimeUnit.SECONDS)
+    when:
+      def first = queue.offer(SSEResultState.FEATURE, feature('a', 1), envId)
+      queue.offer(SSEResultState.FEATURES, "[1]", envId)
+      queue.offer(SSEResultState.FEATURES, "[2]", envId)
+      def after = feature('a', 2)
+      def last = queue.offer(SSEResultState.FEATURE, after, envId)
+      release.countDown()
+      last.get(5, TimeUnit.SECONDS)
+    then:
+      first.isDone()
+      applied == ['features:[2]', "feature:${after}".toString()]
+  }
+
+  def "flush waits for what has been offered to be applied"() {
+    given:
+      queue = new EdgeEventQueue(retryer, repo, 10)
+      queue.offer(SSEResultState.ACK, "ack", envId)
+      started.await(5, TimeUnit.SECONDS)
+      def last = queue.offer(SSEResultState.FEATURES, "[]", envId)
+    when:
+      Thread.start { Thread.sleep(100); release.countDown() }
+      queue.flush()
+    then:
+      last.isDone()
+      applied == ['features:[]']
+  }
+}
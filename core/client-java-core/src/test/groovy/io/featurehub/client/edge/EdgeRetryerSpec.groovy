@@ -1,7 +1,15 @@
 package io.featurehub.client.edge
 
+import io.featurehub.client.InternalFeatureRepository
+import io.featurehub.javascript.Jackson2ObjectMapper
+import io.featurehub.sse.model.FeatureEnvironmentCollection
+import io.featurehub.sse.model.FeatureState
+import io.featurehub.sse.model.FeatureValueType
+import io.featurehub.sse.model.SSEResultState
 import spock.lang.Specification
 
+import java.nio.ByteBuffer
+import java.nio.charset.StandardCharsets
 import java.util.concurrent.ExecutorService
 
 class EdgeRetryerSpec extends Specification {
@@ -103,4 +111,50 @@ class EdgeRetryerSpec extends Specification {
       0 * reconnector.reconnect()
 
   }
+
+  def "features sent as bytes are decoded straight from them, the same as from a string"() {
+    given:
+      def repo = Mock(InternalFeatureRepository)
+      def mapper = new Jackson2ObjectMapper()
+      repo.getJsonObjectMapper() >> mapper
+      def envId = UUID.randomUUID()
+      def json = mapper.writeValueAsString([new FeatureState().id(UUID.randomUUID()).key('caf\u00e9').version(1)
+                                              .type(FeatureValueType.STRING).value('cr\u00e8me')])
+    when:
+      retryer.convertSSEState(SSEResultState.FEATURES, json.getBytes(StandardCharsets.UTF_8), repo, envId)
+    then:
+      1 * repo.replaceFeatures({ List<FeatureState> f ->
+        f.size() == 1 && f[0].key == 'caf\u00e9' && f[0].value == 'cr\u00e8me' && f[0].environmentId == envId
+      }, 'streaming')
+  }
+
+  def "a single feature sent as bytes is decoded"() {
+    given:
+      def repo = Mock(InternalFeatureRepository)
+      def mapper = new Jackson2ObjectMapper()
+      repo.getJsonObjectMapper() >> mapper
+      def json = mapper.writeValueAsString(new FeatureState().id(UUID.randomUUID()).key('fred').version(2))
+    when:
+      retryer.convertSSEState(SSEResultState.DELETE_FEATURE, json.getBytes(StandardCharsets.UTF_8), repo, null)
+    then:
+      1 * repo.deleteFeature({ FeatureState fs -> fs.key == 'fred' && fs.version == 2 }, 'streaming')
+  }
+
+  def "the mapper reads feature collections from a stream and from the remaining bytes of a buffer"() {
+    given:
+      def mapper = new Jackson2ObjectMapper()
+      def bytes = ('xx' + mapper.writeValueAsString([new FeatureEnvironmentCollection()
+                                                      .id(UUID.randomUUID()).features([new FeatureState().key('k')])]))
+        .getBytes(StandardCharsets.UTF_8)
+      def buffer = ByteBuffer.wrap(bytes).position(2)
+      def direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip().position(2)
+    when:
+      def fromStream = mapper.readFeatureCollection(new ByteArrayInputStream(bytes, 2, bytes.length - 2))
+      def fromBuffer = mapper.readFeatureCollection(buffer)
+      def fromDirect = mapper.readFeatureCollection(direct)
+    then:
+      [fromStream, fromBuffer, fromDirect].every { it.size() == 1 && it[0].features[0].key == 'k' }
+      buffer.position() == 2
+      direct.position() == 2
+  }
 }
@@ -0,0 +1,62 @@
+package io.featurehub.client.usage
+
+import io.featurehub.client.EvaluatedFeature
+import io.featurehub.sse.model.FeatureState
+import io.featurehub.sse.model.FeatureValueType
+import spock.lang.Specification
+
+class ExposureFilterSpec extends Specification {
+  long now = 0
+  ExposureFilter filter = new ExposureFilter(100, 1000, { now })
+  FeatureState fs = new FeatureState().id(UUID.randomUUID()).key("banana").type(FeatureValueType.STRING).value("yellow")
+
+  def "only the first time a user gets a value of a feature is an exposure"() {
+    expect:
+      filter.firstExposure("fred", EvaluatedFeature.from(fs, "yellow", null))
+      !filter.firstExposure("fred", EvaluatedFeature.from(fs, "yellow", null))
+      !filter.firstExposure("fred", EvaluatedFeature.from(fs, "yellow", null))
+  }
+
+  def "a different user, value or strategy is a new exposure"() {
+    given:
+      filter.firstExposure("fred", EvaluatedFeature.from(fs, "yellow", null))
+    expect:
+      filter.firstExposure("mary", EvaluatedFeature.from(fs, "yellow", null))
+      filter.firstExposure("fred", EvaluatedFeature.from(fs, "green", null))
+      filter.firstExposure("fred", EvaluatedFeature.from(fs, "yellow", "strategy1"))
+      filter.firstExposure("fred", EvaluatedFeature.from(
+        new FeatureState().id(UUID.randomUUID()).key("peach").type(FeatureValueType.STRING), "yellow", null))
+  }
+
+  def "an exposure is forgotten once it hasn't happened for two windows"() {
+    given:
+      filter.firstExposure("fred", EvaluatedFeature.from(fs, "yellow", null))
+    when: "one window later"
+      now = 150
+    then: "it is still remembered"
+      !filter.firstExposure("fred", EvaluatedFeature.from(fs, "yellow", null))
+    when: "another window later it is still remembered, as it happened in the last one"
+      now = 260
+    then:
+      !filter.firstExposure("fred", EvaluatedFeature.from(fs, "yellow", null))
+    when: "two windows pass without it"
+      now = 500
+    then:
+      filter.firstExposure("fred", EvaluatedFeature.from(fs, "yellow", null))
+  }
+
+  def "values that aren't from a known feature always count"() {
+    expect:
+      filter.firstExposure("fred", EvaluatedFeature.from("phantom"))
+      filter.firstExposure("fred", EvaluatedFeature.from("phantom"))
+  }
+
+  def "with the expected number of users, few first exposures are missed"() {
+    given:
+      def big = new ExposureFilter(100, 10000, { now })
+    when:
+      def missed = (1..10000).count { !big.firstExposure("user${it}", EvaluatedFeature.from(fs, "yellow", null)) }
+    then:
+      missed < 300
+  }
+}
@@ -0,0 +1,169 @@
+package io.featurehub.client.usage
+
+import io.featurehub.client.InternalFeatureRepository
+import io.featurehub.client.RepositoryEventHandler
+import spock.lang.Specification
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.function.Consumer
+
+class UsageAdapterSpec extends Specification {
+  InternalFeatureRepository repo
+  RepositoryEventHandler sub
+  Consumer<UsageEvent> stream
+
+  def setup() {
+    repo = Mock(InternalFeatureRepository)
+    sub = Mock(RepositoryEventHandler)
+    repo.registerUsageStream(_) >> { args -> stream = args[0]; sub }
+  }
+
+  static class RecordingPlugin extends UsagePlugin {
+    final boolean async
+    final List<UsageEvent> sent = new CopyOnWriteArrayList<>()
+    final List<Integer> batches = new CopyOnWriteArrayList<>()
+    final List<String> threads = new CopyOnWriteArrayList<>()
+
+    RecordingPlugin(boolean async) {
+      this.async = async
+    }
+
+    @Override
+    boolean shouldRunAsync() {
+      return async
+    }
+
+    @Override
+    void send(UsageEvent event) {
+      sent.add(event)
+      threads.add(Thread.currentThread().name)
+    }
+
+    @Override
+    void sendBatch(List<UsageEvent> events) {
+      batches.add(events.size())
+      super.sendBatch(events)
+    }
+  }
+
+  def "plugins that don't run async are sent each event on the thread that caused it"() {
+    given:
+      def adapter = new UsageAdapter(repo, 16, 4, 60_000, 0)
+      def plugin = new RecordingPlugin(false)
+      adapter.registerPlugin(plugin)
+      def event = new DefaultUsageEvent("fred")
+    when:
+      stream.accept(event)
+    then:
+      plugin.sent == [event]
+      plugin.threads == [Thread.currentThread().name]
+      plugin.batches.isEmpty()
+  }
+
+  def "async plugins get the events in order in batches once enough are waiting"() {
+    given:
+      def adapter = new UsageAdapter(repo, 16, 4, 60_000, 0)
+      def plugin = new RecordingPlugin(true)
+      adapter.registerPlugin(plugin)
+      def events = (1..8).collect { new DefaultUsageEvent("user${it}") }
+    when:
+      events.each { stream.accept(it) }
+      def deadline = System.currentTimeMillis() + 5000
+      while (plugin.sent.size() < 4 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10)
+      }
+      def sentBeforeInterval = plugin.sent.size()
+      adapter.close() // whatever is left over from the last full batch waits for the interval, or closing
+    then:
+      sentBeforeInterval >= 4
+      plugin.sent == events
+      plugin.batches.every { it <= 4 }
+      plugin.threads.every { it == 'featurehub-usage' }
+  }
+
+  def "events waiting for an async plugin are sent on the flush interval"() {
+    given:
+      def adapter = new UsageAdapter(repo, 16, 100, 20, 0)
+      def latch = new CountDownLatch(1)
+      def plugin = new RecordingPlugin(true) {
+        @Override
+        void sendBatch(List<UsageEvent> events) {
+          super.sendBatch(events)
+          latch.countDown()
+        }
+      }
+      adapter.registerPlugin(plugin)
+    when:
+      stream.accept(new DefaultUsageEvent("fred"))
+    then:
+      latch.await(5, TimeUnit.SECONDS)
+      plugin.sent.size() == 1
+    cleanup:
+      adapter.close()
+  }
+
+  def "when the buffer is full new events are dropped rather than queued, and close sends what is left"() {
+    given: "nothing is sent until close"
+      def adapter = new UsageAdapter(repo, 4, 100, 60_000, 0)
+      def plugin = new RecordingPlugin(true)
+      adapter.registerPlugin(plugin)
+      def events = (1..10).collect { new DefaultUsageEvent("user${it}") }
+    when:
+      events.each { stream.accept(it) }
+      adapter.close()
+    then:
+      plugin.sent == events.take(4)
+      1 * sub.cancel()
+  }
+
+  def "when sampling, only some events are kept once the buffer is half full"() {
+    given:
+      def adapter = new UsageAdapter(repo, 16, 100, 60_000, 4)
+      def plugin = new RecordingPlugin(true)
+      adapter.registerPlugin(plugin)
+    when:
+      (1..40).each { stream.accept(new DefaultUsageEvent("user${it}")) }
+      adapter.close()
+    then: "the first 9 get in untouched, then one in 4 until it fills up"
+      plugin.sent.size() == 16
+      plugin.sent.take(9)*.userKey == (1..9).collect { "user${it}" }
+      plugin.sent[9].userKey == 'user13'
+  }
+
+  def "a plugin that fails doesn't stop the others getting the batch"() {
+    given:
+      def adapter = new UsageAdapter(repo, 16, 100, 60_000, 0)
+      def failing = new RecordingPlugin(true) {
+        @Override
+        void sendBatch(List<UsageEvent> events) {
+          throw new RuntimeException("no")
+        }
+      }
+      def plugin = new RecordingPlugin(true)
+      adapter.registerPlugin(failing)
+      adapter.registerPlugin(plugin)
+    when:
+      stream.accept(new DefaultUsageEvent("fred"))
+      adapter.close()
+    then:
+      plugin.sent.size() == 1
+  }
+
+  def "the ring buffer refuses events when full and hands them back in order"() {
+    given:
+      def buffer = new UsageRingBuffer(3)
+      def events = (1..5).collect { new DefaultUsageEvent("user${it}") }
+      def out = []
+    expect:
+      buffer.capacity() == 4
+      events.collect { buffer.offer(it) } == [true, true, true, true, false]
+      buffer.size() == 4
+      buffer.drain(out, 3) == 3
+      buffer.offer(events[4])
+      buffer.drain(out, 10) == 2
+      out == events
+      buffer.size() == 0
+  }
+}
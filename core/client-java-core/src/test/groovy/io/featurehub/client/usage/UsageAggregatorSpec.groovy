@@ -0,0 +1,100 @@
+package io.featurehub.client.usage
+
+import io.featurehub.client.EvaluatedFeature
+import io.featurehub.sse.model.FeatureState
+import io.featurehub.sse.model.FeatureValueType
+import spock.lang.Specification
+
+class UsageAggregatorSpec extends Specification {
+  def provider = new UsageProvider.DefaultUsageProvider()
+  def envId = UUID.randomUUID()
+
+  FeatureState feature(String key, long version, Object value) {
+    return new FeatureState().id(UUID.randomUUID()).key(key).version(version).value(value)
+      .type(FeatureValueType.BOOLEAN).environmentId(envId)
+  }
+
+  def "usage is counted per value and strategy and sent as one summary"() {
+    given:
+      def aggregator = new UsageAggregator(null, 100)
+      def fs = feature("banana", 1, true)
+    when:
+      5.times { aggregator.record(EvaluatedFeature.from(fs, true, null), null) }
+      3.times { aggregator.record(EvaluatedFeature.from(fs, false, "strategy1"), null) }
+      def summary = aggregator.summarise(provider)
+      def counts = summary.counts.collectEntries { [(it.feature.value + '/' + it.feature.strategyId): it.count] }
+    then:
+      summary instanceof UsageEventName
+      summary.eventName == 'feature-summary'
+      summary.windowEnd >= summary.windowStart
+      counts == ['on/null': 5L, 'off/strategy1': 3L]
+      summary.counts.every { it.feature.key == 'banana' && it.feature.environmentId == envId }
+  }
+
+  def "each window only has what was counted during it, and nothing means no summary"() {
+    given:
+      def aggregator = new UsageAggregator(null, 100)
+      def fs = feature("banana", 1, true)
+    when:
+      2.times { aggregator.record(EvaluatedFeature.from(fs, true, null), null) }
+      def first = aggregator.summarise(provider)
+      def second = aggregator.summarise(provider)
+      aggregator.record(EvaluatedFeature.from(fs, true, null), null)
+      def third = aggregator.summarise(provider)
+    then:
+      first.counts*.count == [2L]
+      second == null
+      third.counts*.count == [1L]
+  }
+
+  def "different versions of a feature are counted separately"() {
+    given:
+      def aggregator = new UsageAggregator(null, 100)
+      def v1 = feature("banana", 1, true)
+      def v2 = feature("banana", 2, true)
+    when:
+      aggregator.record(EvaluatedFeature.from(v1, true, null), null)
+      aggregator.record(EvaluatedFeature.from(v2, true, null), null)
+      aggregator.record(EvaluatedFeature.from(v2, true, null), null)
+    then:
+      aggregator.summarise(provider).counts*.count.sort() == [1L, 2L]
+  }
+
+  def "counts can be split by a context attribute"() {
+    given:
+      def aggregator = new UsageAggregator("country", 100)
+      def fs = feature("banana", 1, true)
+    when:
+      aggregator.record(EvaluatedFeature.from(fs, true, null), [country: ['nz']])
+      aggregator.record(EvaluatedFeature.from(fs, true, null), [country: ['nz']])
+      aggregator.record(EvaluatedFeature.from(fs, true, null), [country: ['au']])
+      aggregator.record(EvaluatedFeature.from(fs, true, null), [:])
+      def summary = aggregator.summarise(provider)
+      def map = summary.toMap()
+    then:
+      summary.attributeName == 'country'
+      summary.counts.collectEntries { [(it.attributeValue): it.count] } == [nz: 2L, au: 1L, (null): 1L]
+      map.counts.find { it.country == 'nz' }.count == 2L
+      map.counts.every { it.feature == 'banana' && it.value == 'on' }
+  }
+
+  def "once there are too many counters, usage needing a new one is not counted"() {
+    given:
+      def aggregator = new UsageAggregator("user", 2)
+      def fs = feature("banana", 1, true)
+    when:
+      ['a', 'b', 'c', 'a'].each { aggregator.record(EvaluatedFeature.from(fs, true, null), [user: [it]]) }
+    then:
+      aggregator.summarise(provider).counts.collectEntries { [(it.attributeValue): it.count] } == [a: 2L, b: 1L]
+  }
+
+  def "features a usage event could not be made for are ignored"() {
+    given:
+      def aggregator = new UsageAggregator(null, 100)
+    when:
+      aggregator.record(EvaluatedFeature.from(new FeatureState().key("x").type(FeatureValueType.BOOLEAN), true), null)
+      aggregator.record(EvaluatedFeature.from("phantom"), null)
+    then:
+      aggregator.summarise(provider) == null
+  }
+}
@@ -0,0 +1,58 @@
+package io.featurehub.strategies.matchers
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class CIDRTrieSpec extends Specification {
+  @Unroll
+  def "#address in #ranges is #result and agrees with cidrMatch"() {
+    given:
+      def trie = new CIDRTrie()
+      ranges.each { trie.add(it) }
+    expect:
+      trie.matches(address) == result
+      ranges.any { CIDRMatch.cidrMatch(it, CIDRMatch.suppliedAddress(address)) } == result
+    where:
+      ranges                                    | address                    || result
+      ['192.168.0.0/16']                        | '192.168.45.3'             || true
+      ['192.168.0.0/16']                        | '192.169.0.1'              || false
+      ['10.0.0.0/8', '172.16.0.0/12']           | '172.31.255.255'           || true
+      ['10.0.0.0/8', '172.16.0.0/12']           | '172.32.0.0'               || false
+      ['10.1.2.3']                              | '10.1.2.3'                 || true
+      ['10.1.2.3']                              | '10.1.2.4'                 || false
+      ['10.1.2.0/23']                           | '10.1.3.200'               || true
+      ['0.0.0.0/0']                             | '8.8.8.8'                  || true
+      ['0.0.0.0/0']                             | '::1'                      || false
+      ['10.0.0.0/33']                           | '10.0.0.0'                 || false
+      ['2001:db8::/32']                         | '2001:db8:ffff::1'         || true
+      ['2001:db8::/32']                         | '2001:db9::1'              || false
+      ['::1']                                   | '0:0:0:0:0:0:0:1'          || true
+      ['fe80::/10']                             | 'fe80::1%1'                || true
+      ['1:2:3:4:5:6:7:8']                       | '1:2:3:4:5:6:7:8'          || true
+      ['1::8']                                  | '1:0:0:0:0:0:0:8'          || true
+      ['10.0.0.0/8']                            | '::ffff:10.9.8.7'          || true
+      ['::ffff:10.0.0.0/8']                     | '10.9.8.7'                 || true
+      ['64:ff9b::/96']                          | '64:ff9b::192.0.2.33'      || true
+  }
+
+  @Unroll
+  def "#address is not an IP literal"() {
+    given:
+      def trie = new CIDRTrie()
+      trie.add('0.0.0.0/0')
+      trie.add('::/0')
+    expect:
+      !trie.matches(address)
+      !trie.excludes(address)
+    where:
+      address << [null, '', 'localhost', '1.2.3', '1.2.3.256', '1.2.3.4.', '1:2:3:4:5:6:7', '1::2::3', ':1::', '1:2:3:4:5:6:7:8:9',
+                  '12345::', '::g', '1.2.3.4:5']
+  }
+
+  def "ranges that are not literals are rejected"() {
+    when:
+      new CIDRTrie().add('example.com')
+    then:
+      thrown(IllegalArgumentException)
+  }
+}
@@ -0,0 +1,71 @@
+package io.featurehub.strategies.matchers
+
+import io.featurehub.sse.model.FeatureRolloutStrategyAttribute
+import io.featurehub.sse.model.RolloutStrategyAttributeConditional
+import io.featurehub.sse.model.RolloutStrategyFieldType
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class MatcherRegistrySpec extends Specification {
+  MatcherRegistry registry = new MatcherRegistry()
+
+  @Unroll
+  def "prepared #type #conditional #values matches #supplied the same as the matcher"() {
+    given:
+      def attr = new FeatureRolloutStrategyAttribute().type(type).conditional(conditional).values(values).fieldName('f')
+    when:
+      def expected = registry.findMatcher(attr).match(supplied, attr)
+    then:
+      registry.prepare(attr).match(supplied) == expected
+      expected == result
+    where:
+      type                                      | conditional                                   | values                                 | supplied                     || result
+      RolloutStrategyFieldType.STRING           | RolloutStrategyAttributeConditional.EQUALS    | ['a', 'b']                             | 'b'                          || true
+      RolloutStrategyFieldType.STRING           | RolloutStrategyAttributeConditional.NOT_EQUALS | ['a', 'b']                            | 'a'                          || true
+      RolloutStrategyFieldType.STRING           | RolloutStrategyAttributeConditional.NOT_EQUALS | ['a']                                 | 'a'                          || false
+      RolloutStrategyFieldType.STRING           | RolloutStrategyAttributeConditional.EXCLUDES  | ['xx', 'yy']                           | 'ayyb'                       || false
+      RolloutStrategyFieldType.STRING           | RolloutStrategyAttributeConditional.REGEX     | ['^c.*', 'b+']                         | 'bbb'                        || true
+      RolloutStrategyFieldType.STRING           | RolloutStrategyAttributeConditional.GREATER   | ['m', 'z']                             | 'p'                          || true
+      RolloutStrategyFieldType.NUMBER           | RolloutStrategyAttributeConditional.EQUALS    | [7, 12.5d]                             | '12.5'                       || true
+      RolloutStrategyFieldType.NUMBER           | RolloutStrategyAttributeConditional.EQUALS    | [7]                                    | '7.0'                        || false
+      RolloutStrategyFieldType.NUMBER           | RolloutStrategyAttributeConditional.GREATER   | [40, 20]                               | '27'                         || true
+      RolloutStrategyFieldType.NUMBER           | RolloutStrategyAttributeConditional.LESS_EQUALS | [10, 20]                             | '20'                         || true
+      RolloutStrategyFieldType.NUMBER           | RolloutStrategyAttributeConditional.LESS      | [10, 20]                               | '21'                         || false
+      RolloutStrategyFieldType.NUMBER           | RolloutStrategyAttributeConditional.GREATER   | [10]                                   | 'fred'                       || false
+      RolloutStrategyFieldType.NUMBER           | RolloutStrategyAttributeConditional.EXCLUDES  | []                                     | 'fred'                       || true
+      RolloutStrategyFieldType.NUMBER           | RolloutStrategyAttributeConditional.REGEX     | [123, 456]                             | '4.*'                        || true
+      RolloutStrategyFieldType.DATE             | RolloutStrategyAttributeConditional.GREATER_EQUALS | ['2021-01-01', '2023-01-01']      | '2022-03-04'                 || true
+      RolloutStrategyFieldType.DATE             | RolloutStrategyAttributeConditional.LESS      | ['2021-01-01']                         | '2022-03-04'                 || false
+      RolloutStrategyFieldType.DATE             | RolloutStrategyAttributeConditional.EQUALS    | ['not-a-date', '2021-01-01']           | '2021-01-01'                 || false
+      RolloutStrategyFieldType.DATE             | RolloutStrategyAttributeConditional.STARTS_WITH | ['2021', '2022']                     | '2022-03-04'                 || true
+      RolloutStrategyFieldType.DATETIME         | RolloutStrategyAttributeConditional.EQUALS    | ['2021-01-01T10:00:00Z']               | '2021-01-01T10:00:00Z'       || true
+      RolloutStrategyFieldType.DATETIME         | RolloutStrategyAttributeConditional.LESS      | ['2021-01-01T10:00:00Z']               | '2021-01-01T09:00:00Z'       || true
+      RolloutStrategyFieldType.DATETIME         | RolloutStrategyAttributeConditional.GREATER   | ['2021-01-01T10:00:00Z']               | '2021-01-01T09:00:00'        || false
+      RolloutStrategyFieldType.SEMANTIC_VERSION | RolloutStrategyAttributeConditional.GREATER_EQUALS | ['2.0.0', '1.5.1']                | '1.7.0'                      || true
+      RolloutStrategyFieldType.SEMANTIC_VERSION | RolloutStrategyAttributeConditional.EQUALS    | ['1.0.0', '2.0.0']                     | '2.0.0'                      || true
+      RolloutStrategyFieldType.SEMANTIC_VERSION | RolloutStrategyAttributeConditional.EXCLUDES  | ['1.0.0', '2.0.0']                     | '2.0.0'                      || false
+      RolloutStrategyFieldType.BOOLEAN          | RolloutStrategyAttributeConditional.EQUALS    | [true]                                 | 'true'                       || true
+      RolloutStrategyFieldType.BOOLEAN          | RolloutStrategyAttributeConditional.NOT_EQUALS | [true]                                | 'true'                       || false
+      RolloutStrategyFieldType.IP_ADDRESS       | RolloutStrategyAttributeConditional.INCLUDES  | ['10.0.0.0/8', '192.168.1.1']          | '10.4.5.6'                   || true
+      RolloutStrategyFieldType.IP_ADDRESS       | RolloutStrategyAttributeConditional.INCLUDES  | ['10.0.0.0/8', '192.168.1.1']          | '192.168.1.2'                || false
+      RolloutStrategyFieldType.IP_ADDRESS       | RolloutStrategyAttributeConditional.EXCLUDES  | ['10.0.0.0/8']                         | '11.0.0.1'                   || true
+      RolloutStrategyFieldType.IP_ADDRESS       | RolloutStrategyAttributeConditional.EQUALS    | ['2001:db8::/32']                      | '2001:db8:1::5'              || true
+  }
+
+  def "attributes that can't be prepared still match the same way"() {
+    given: "an invalid regex"
+      def attr = new FeatureRolloutStrategyAttribute().type(RolloutStrategyFieldType.STRING)
+        .conditional(RolloutStrategyAttributeConditional.REGEX).values(['fred', '[']).fieldName('f')
+    when:
+      def prepared = registry.prepare(attr)
+    then:
+      prepared.match('fred')
+  }
+
+  def "matchers are shared"() {
+    given:
+      def attr = new FeatureRolloutStrategyAttribute().type(RolloutStrategyFieldType.NUMBER)
+    expect:
+      registry.findMatcher(attr).is(registry.findMatcher(attr))
+  }
+}
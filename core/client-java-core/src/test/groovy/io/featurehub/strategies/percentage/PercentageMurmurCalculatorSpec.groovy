@@ -2,6 +2,8 @@ package io.featurehub.strategies.percentage
 
 import spock.lang.Specification
 
+import java.nio.charset.StandardCharsets
+
 class PercentageMurmurCalculatorSpec extends Specification {
   def "each instance of the calculator generates consistent values"() {
     when: "i have a base value"
@@ -19,4 +21,30 @@ class PercentageMurmurCalculatorSpec extends Specification {
       calc.determineClientPercentage("irina", "one") != calc.determineClientPercentage("irina", "two")
       calc.determineClientPercentage("seb", "one") != calc.determineClientPercentage("irina", "one")
   }
+
+  def "the streamed hash and integer bucket are identical to hashing the concatenated key"() {
+    given: "the original calculation"
+      def hash = new Murmur3_32HashFunction(-1532782654)
+      def original = { String userKey, String id ->
+        int hashCode = hash.hashString((userKey + id), StandardCharsets.UTF_8)
+        double ratio = (double) (hashCode & 0xFFFFFFFFL) / Math.pow(2, 32)
+        return (int) Math.floor(PercentageMumurCalculator.MAX_PERCENTAGE * ratio)
+      }
+    and:
+      def calc = new PercentageMumurCalculator()
+      def random = new Random(42)
+      def alphabet = ('a'..'z') + ('0'..'9') + ['\u00e9', '\u0416', '\u4e2d', '\ud83d\ude00', '\ud83d', '-']
+      def randomString = { int len -> (0..<len).collect { alphabet[random.nextInt(alphabet.size())] }.join('') }
+    expect:
+      (0..<2000).every {
+        def userKey = randomString(random.nextInt(20))
+        def id = random.nextBoolean() ? UUID.randomUUID().toString() : randomString(random.nextInt(10))
+        calc.determineClientPercentage(userKey, id) == original(userKey, id)
+      }
+      calc.determineClientPercentage(null, 'id') == original(null, 'id')
+      calc.determineClientPercentage('\ud83d', '\ude00') == original('\ud83d', '\ude00')
+      [0, 1, -1, Integer.MIN_VALUE, Integer.MAX_VALUE, 0x7ffffff0, -16].every {
+        PercentageMumurCalculator.bucket(it) == (int) Math.floor(PercentageMumurCalculator.MAX_PERCENTAGE * ((double) (it & 0xFFFFFFFFL) / Math.pow(2, 32)))
+      }
+  }
 }
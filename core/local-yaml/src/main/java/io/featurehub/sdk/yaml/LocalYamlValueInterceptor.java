@@ -21,6 +21,7 @@ import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
 import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class LocalYamlValueInterceptor implements ExtendedFeatureValueInterceptor {
@@ -116,9 +117,10 @@ public class LocalYamlValueInterceptor implements ExtendedFeatureValueIntercepto
 
   @Override
   public ValueMatch getValue(String key, InternalFeatureRepository repository, @Nullable FeatureState rawFeature) {
-    Object value = flagValues.get().get(key);
+    final Map<String, Object> values = flagValues.get();
+    Object value = values.get(key);
 
-    if (value == null && !flagValues.get().containsKey(key)) {
+    if (value == null && !values.containsKey(key)) {
       return null;
     }
 
@@ -126,6 +128,12 @@ public class LocalYamlValueInterceptor implements ExtendedFeatureValueIntercepto
     return new ValueMatch(true, Conversion.toTypedValue(type, value, key, this.repository));
   }
 
+  // only the keys in the file can ever match, so the repository skips us for everything else
+  @Override
+  public @NotNull Set<String> keys() {
+    return flagValues.get().keySet();
+  }
+
 
 
   @Override
@@ -31,6 +31,15 @@ class LocalYamlValueInterceptorSpec extends YamlSpecBase {
       match(interceptor(testYaml()), 'nonexistent') == null
   }
 
+  def "declares the keys in the file so it isn't asked about any others"() {
+    given:
+      def f = tempDir.resolve('keys.yaml').toFile()
+      f.text = "flagValues:\n  a: true\n  b: hello\n"
+    expect:
+      interceptor(f.absolutePath).keys() == ['a', 'b'] as Set
+      interceptor('/no/such/file.yaml').keys().isEmpty()
+  }
+
   def "returns null when the yaml file does not exist"() {
     expect:
       match(interceptor('/no/such/file.yaml'), 'boolTrue') == null
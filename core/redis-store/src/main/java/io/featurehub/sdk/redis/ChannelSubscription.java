@@ -0,0 +1,29 @@
+package io.featurehub.sdk.redis;
+
+import org.jetbrains.annotations.NotNull;
+import redis.clients.jedis.JedisPubSub;
+
+import java.util.function.Consumer;
+
+/**
+ * The {@link JedisPubSub} both adapters subscribe with, passing the messages on to {@link RedisSessionStore}.
+ */
+class ChannelSubscription extends JedisPubSub {
+  private final Consumer<String> onMessage;
+  private final Consumer<Runnable> onSubscribed;
+
+  ChannelSubscription(@NotNull Consumer<String> onMessage, @NotNull Consumer<Runnable> onSubscribed) {
+    this.onMessage = onMessage;
+    this.onSubscribed = onSubscribed;
+  }
+
+  @Override
+  public void onSubscribe(String channel, int subscribedChannels) {
+    onSubscribed.accept(() -> unsubscribe());
+  }
+
+  @Override
+  public void onMessage(String channel, String message) {
+    onMessage.accept(message);
+  }
+}
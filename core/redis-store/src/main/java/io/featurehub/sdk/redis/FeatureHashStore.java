@@ -0,0 +1,264 @@
+package io.featurehub.sdk.redis;
+
+import io.featurehub.javascript.JavascriptObjectMapper;
+import io.featurehub.sse.model.FeatureState;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link RedisSessionStoreOptions.Layout#FEATURE_HASH} layout, where every feature is read and written on its
+ * own so the cost of an update is the size of the update rather than the size of the environment.
+ *
+ * <h2>Redis key layout</h2>
+ * <pre>
+ *   {@code {<prefix>_<environmentId>}_features}          — hash of feature id to FeatureState JSON, plus a
+ *                                                        "version" field bumped by every write that changes one
+ *   {@code {<prefix>_<environmentId>}_feature_versions}  — hash of feature id to the feature's version
+ * </pre>
+ * The braces are a hash tag so both keys live on the same node of a Redis cluster, as the update script needs.
+ *
+ * <p>Updates are a Lua script, which Redis runs atomically, so there is no WATCH and nothing to retry. A whole
+ * batch of features goes in one call, and a feature is only written if its version is newer than the one held.
+ * Checking for changes is one field read, and when there are some only the features that changed are fetched.
+ */
+class FeatureHashStore {
+  private static final Logger log = LoggerFactory.getLogger(FeatureHashStore.class);
+
+  static final String VERSION_FIELD = "version";
+
+  // ARGV is (id, version, state) for each feature, an empty state deletes it
+  static final String UPDATE_SCRIPT =
+    "local changed = false\n" +
+    "for i = 1, #ARGV, 3 do\n" +
+    "  local id = ARGV[i]\n" +
+    "  local current = tonumber(redis.call('HGET', KEYS[2], id))\n" +
+    "  if ARGV[i + 2] == '' then\n" +
+    "    if current then\n" +
+    "      redis.call('HDEL', KEYS[1], id)\n" +
+    "      redis.call('HDEL', KEYS[2], id)\n" +
+    "      changed = true\n" +
+    "    end\n" +
+    "  elseif current == nil or tonumber(ARGV[i + 1]) > current then\n" +
+    "    redis.call('HSET', KEYS[1], id, ARGV[i + 2])\n" +
+    "    redis.call('HSET', KEYS[2], id, ARGV[i + 1])\n" +
+    "    changed = true\n" +
+    "  end\n" +
+    "end\n" +
+    "if changed then\n" +
+    "  return redis.call('HINCRBY', KEYS[1], '" + VERSION_FIELD + "', 1)\n" +
+    "end\n" +
+    "return false\n";
+
+  private final RedisStoreAdapter adapter;
+  private final String featuresKey;
+  private final String versionsKey;
+  // the latest version of each feature we know Redis holds, so we neither write nor fetch one it already has and
+  // can say what went when one is deleted
+  private final Map<String, FeatureState> known = new ConcurrentHashMap<>();
+  // the features hash's version when we last read it or made the only change to it
+  private volatile long version;
+
+  FeatureHashStore(@NotNull RedisStoreAdapter adapter, @NotNull String prefix, @NotNull String environmentId) {
+    this.adapter = adapter;
+    final String tag = "{" + prefix + "_" + environmentId + "}";
+    this.featuresKey = tag + "_features";
+    this.versionsKey = tag + "_feature_versions";
+  }
+
+  String getFeaturesKey() {
+    return featuresKey;
+  }
+
+  String getVersionsKey() {
+    return versionsKey;
+  }
+
+  /**
+   * @return every feature held in Redis
+   */
+  @NotNull List<FeatureState> load(@NotNull JavascriptObjectMapper mapper) {
+    final Map<String, String> all = adapter.hgetAll(featuresKey);
+    final long loaded = parseVersion(all.get(VERSION_FIELD));
+    final List<FeatureState> features = new ArrayList<>(all.size());
+
+    for (Map.Entry<String, String> entry : all.entrySet()) {
+      if (VERSION_FIELD.equals(entry.getKey())) continue;
+
+      final FeatureState fs = parseFeature(entry.getValue(), mapper);
+      if (fs != null) {
+        features.add(fs);
+        known.merge(entry.getKey(), fs, FeatureHashStore::newer);
+      }
+    }
+
+    version = loaded;
+    return features;
+  }
+
+  /**
+   * What has changed in Redis since we last looked.
+   */
+  static class Changes {
+    static final Changes NONE = new Changes(List.of(), List.of());
+
+    // features that are new or have a newer version
+    @NotNull final List<FeatureState> updated;
+    // the last version we knew of each feature that has since been deleted
+    @NotNull final List<FeatureState> deleted;
+
+    Changes(@NotNull List<FeatureState> updated, @NotNull List<FeatureState> deleted) {
+      this.updated = updated;
+      this.deleted = deleted;
+    }
+
+    boolean isEmpty() {
+      return updated.isEmpty() && deleted.isEmpty();
+    }
+  }
+
+  /**
+   * @return the features that have changed or been deleted in Redis since we last looked
+   */
+  @NotNull Changes changes(@NotNull JavascriptObjectMapper mapper) {
+    final long current = parseVersion(adapter.hget(featuresKey, VERSION_FIELD));
+    if (current == version) {
+      return Changes.NONE;
+    }
+
+    final Map<String, String> versions = adapter.hgetAll(versionsKey);
+    final List<String> changed = new ArrayList<>();
+
+    for (Map.Entry<String, String> entry : versions.entrySet()) {
+      if (parseVersion(entry.getValue()) > knownVersion(entry.getKey())) {
+        changed.add(entry.getKey());
+      }
+    }
+
+    // gone from Redis, if it comes back it is new to us
+    final List<FeatureState> deleted = new ArrayList<>();
+    known.entrySet().removeIf(entry -> {
+      if (versions.containsKey(entry.getKey())) return false;
+      deleted.add(entry.getValue());
+      return true;
+    });
+
+    final List<FeatureState> features = new ArrayList<>(changed.size());
+
+    if (!changed.isEmpty()) {
+      for (String state : adapter.hmget(featuresKey, changed)) {
+        final FeatureState fs = parseFeature(state, mapper);
+        if (fs != null) {
+          features.add(fs);
+          known.merge(fs.getId().toString(), fs, FeatureHashStore::newer);
+        }
+      }
+    }
+
+    version = current;
+    return new Changes(features, deleted);
+  }
+
+  /**
+   * Writes any of the features that are newer than the ones Redis holds.
+   *
+   * @return the features hash's new version, null if nothing in it changed
+   */
+  @Nullable Long store(@NotNull Collection<FeatureState> features, @NotNull JavascriptObjectMapper mapper) {
+    final List<String> args = new ArrayList<>();
+    final List<FeatureState> sent = new ArrayList<>();
+
+    for (FeatureState fs : features) {
+      final String id = fs.getId().toString();
+      if (versionOf(fs) <= knownVersion(id)) continue;
+
+      final String state = mapper.writeValueAsString(fs);
+      if (state == null || state.isEmpty()) {
+        log.warn("Failed to serialize feature {} for Redis", fs.getKey());
+        continue;
+      }
+
+      args.add(id);
+      args.add(Long.toString(versionOf(fs)));
+      args.add(state);
+      sent.add(fs);
+    }
+
+    if (args.isEmpty()) {
+      return null;
+    }
+
+    final Long written = wrote(adapter.eval(UPDATE_SCRIPT, Arrays.asList(featuresKey, versionsKey), args));
+    sent.forEach(fs -> known.merge(fs.getId().toString(), fs, FeatureHashStore::newer));
+    return written;
+  }
+
+  /**
+   * @return the features hash's new version, null if the feature wasn't there
+   */
+  @Nullable Long delete(@NotNull FeatureState feature) {
+    final String id = feature.getId().toString();
+
+    final Long written = wrote(adapter.eval(UPDATE_SCRIPT, Arrays.asList(featuresKey, versionsKey),
+      Arrays.asList(id, Long.toString(versionOf(feature)), "")));
+    known.remove(id);
+    return written;
+  }
+
+  @Nullable
+  private Long wrote(@Nullable Object result) {
+    if (!(result instanceof Number)) {
+      return null;
+    }
+
+    final long written = ((Number) result).longValue();
+
+    // if ours was the only change since we last looked, there is nothing for the refresh to pick up
+    if (written == version + 1) {
+      version = written;
+    }
+
+    return written;
+  }
+
+  private static long parseVersion(@Nullable String value) {
+    if (value == null) return 0L;
+    try {
+      return Long.parseLong(value);
+    } catch (NumberFormatException e) {
+      return 0L;
+    }
+  }
+
+  private static long versionOf(FeatureState fs) {
+    return fs.getVersion() == null ? 0L : fs.getVersion();
+  }
+
+  private long knownVersion(@NotNull String id) {
+    final FeatureState fs = known.get(id);
+    return fs == null ? -1L : versionOf(fs);
+  }
+
+  private static FeatureState newer(FeatureState held, FeatureState arrived) {
+    return versionOf(arrived) > versionOf(held) ? arrived : held;
+  }
+
+  @Nullable
+  private static FeatureState parseFeature(@Nullable String json, @NotNull JavascriptObjectMapper mapper) {
+    if (json == null || json.isEmpty()) return null;
+    try {
+      return mapper.readValue(json, FeatureState.class);
+    } catch (Exception e) {
+      log.warn("Failed to parse feature JSON from Redis", e);
+      return null;
+    }
+  }
+}
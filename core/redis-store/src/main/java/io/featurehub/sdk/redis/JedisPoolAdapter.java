@@ -7,6 +7,8 @@ import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.Transaction;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
@@ -63,4 +65,50 @@ class JedisPoolAdapter implements RedisStoreAdapter {
       return result != null;
     }
   }
+
+  @Override
+  public @Nullable String hget(@NotNull String key, @NotNull String field) {
+    try (Jedis jedis = pool.getResource()) {
+      return jedis.hget(key, field);
+    }
+  }
+
+  @Override
+  public @NotNull Map<String, String> hgetAll(@NotNull String key) {
+    try (Jedis jedis = pool.getResource()) {
+      return jedis.hgetAll(key);
+    }
+  }
+
+  @Override
+  public @NotNull List<String> hmget(@NotNull String key, @NotNull List<String> fields) {
+    try (Jedis jedis = pool.getResource()) {
+      return jedis.hmget(key, fields.toArray(new String[0]));
+    }
+  }
+
+  @Override
+  public @Nullable Object eval(@NotNull String script, @NotNull List<String> keys, @NotNull List<String> args) {
+    try (Jedis jedis = pool.getResource()) {
+      return jedis.eval(script, keys, args);
+    }
+  }
+
+  @Override
+  public void publish(@NotNull String channel, @NotNull String message) {
+    try (Jedis jedis = pool.getResource()) {
+      jedis.publish(channel, message);
+    }
+  }
+
+  /**
+   * Holds on to a connection from the pool for as long as the subscription lasts.
+   */
+  @Override
+  public void subscribe(@NotNull String channel, @NotNull Consumer<String> onMessage,
+                        @NotNull Consumer<Runnable> onSubscribed) {
+    try (Jedis jedis = pool.getResource()) {
+      jedis.subscribe(new ChannelSubscription(onMessage, onSubscribed), channel);
+    }
+  }
 }
@@ -16,9 +16,12 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -35,11 +38,17 @@ import java.util.concurrent.TimeUnit;
  * full feature list from Redis and pushes it into the repository, allowing multiple SDK instances
  * sharing the same Redis keys to stay in sync.
  *
+ * <p>With {@code options.pushInvalidation} on, every write is also published on the
+ * {@code <prefix>_<environmentId>_changes} channel, and a subscriber thread reloads what changed as soon as
+ * another instance publishes, so the poll is only a safety net for a message lost while reconnecting.
+ *
  * <h2>Redis key layout</h2>
  * <pre>
  *   {@code <prefix>_<environmentId>}      — JSON array of FeatureState objects
  *   {@code <prefix>_<environmentId>_sha}  — SHA-256 of the sorted "id:version" pairs
  * </pre>
+ * That is the default {@link RedisSessionStoreOptions.Layout#JSON_ARRAY} layout, see {@link FeatureHashStore} for
+ * the {@link RedisSessionStoreOptions.Layout#FEATURE_HASH} one, which suits environments with a lot of features.
  *
  * <h2>Atomicity</h2>
  * Updates use WATCH/MULTI/EXEC (via {@link JedisPoolAdapter}) or an optimistic check-then-write
@@ -57,7 +66,14 @@ public class RedisSessionStore implements RawUpdateFeatureListener {
   private final String dataKey;
   private final String shaKey;
   private volatile String currentSha;
+  // only if the features are laid out as a hash
+  @Nullable private final FeatureHashStore featureHash;
+  private final String changesChannel;
   private final ScheduledExecutorService scheduler;
+  // only if changes are pushed
+  @Nullable private final Thread subscriber;
+  @Nullable private volatile Runnable unsubscribe;
+  private volatile boolean closed;
 
   // --- public constructors ---
 
@@ -100,6 +116,10 @@ public class RedisSessionStore implements RawUpdateFeatureListener {
     UUID environmentId = config.getEnvironmentId();
     this.dataKey = options.getPrefix() + "_" + environmentId;
     this.shaKey = options.getPrefix() + "_" + environmentId + "_sha";
+    this.featureHash = options.getLayout() == RedisSessionStoreOptions.Layout.FEATURE_HASH
+      ? new FeatureHashStore(adapter, options.getPrefix(), environmentId.toString())
+      : null;
+    this.changesChannel = options.getPrefix() + "_" + environmentId + "_changes";
 
     // we have to have a repo otherwise it makes no sense
     repo.execute(this::loadFromRedis);
@@ -112,6 +132,14 @@ public class RedisSessionStore implements RawUpdateFeatureListener {
       options.getRefreshTimeoutSeconds(),
       options.getRefreshTimeoutSeconds(),
       TimeUnit.SECONDS);
+
+    if (options.isPushInvalidation()) {
+      this.subscriber = new Thread(this::listenForChanges, "redis-store-changes");
+      this.subscriber.setDaemon(true);
+      this.subscriber.start();
+    } else {
+      this.subscriber = null;
+    }
   }
 
   // visible for testing
@@ -127,6 +155,11 @@ public class RedisSessionStore implements RawUpdateFeatureListener {
   // --- startup load ---
 
   private void loadFromRedis() {
+    if (featureHash != null) {
+      loadFromHash();
+      return;
+    }
+
     String json = adapter.get(dataKey);
     if (json == null || json.isEmpty()) {
       return;
@@ -147,10 +180,30 @@ public class RedisSessionStore implements RawUpdateFeatureListener {
     repo.updateFeatures(features, SOURCE);
   }
 
+  private void loadFromHash() {
+    InternalFeatureRepository repo = config.getInternalRepository();
+    if (repo == null) {
+      return;
+    }
+
+    List<FeatureState> features = featureHash.load(repo.getJsonObjectMapper());
+    if (features.isEmpty()) {
+      return;
+    }
+
+    log.debug("Loaded {} feature(s) from Redis key '{}'", features.size(), featureHash.getFeaturesKey());
+    repo.updateFeatures(features, SOURCE);
+  }
+
   // --- periodic refresh ---
 
   void refreshIfChanged() {
     try {
+      if (featureHash != null) {
+        refreshChangedFeatures();
+        return;
+      }
+
       String redisSha = adapter.get(shaKey);
       if (redisSha == null || redisSha.equals(currentSha)) {
         return;
@@ -179,31 +232,144 @@ public class RedisSessionStore implements RawUpdateFeatureListener {
     }
   }
 
+  private void refreshChangedFeatures() {
+    InternalFeatureRepository repo = config.getInternalRepository();
+    if (repo == null) {
+      return;
+    }
+
+    FeatureHashStore.Changes changes = featureHash.changes(repo.getJsonObjectMapper());
+    if (changes.isEmpty()) {
+      return;
+    }
+
+    log.debug("{} feature(s) changed and {} deleted in Redis, reloading them", changes.updated.size(),
+      changes.deleted.size());
+
+    if (!changes.updated.isEmpty()) {
+      repo.updateFeatures(changes.updated, SOURCE);
+    }
+
+    for (FeatureState deleted : changes.deleted) {
+      repo.deleteFeature(deleted, SOURCE);
+    }
+  }
+
+  // --- push invalidation ---
+
+  private void listenForChanges() {
+    boolean resubscribing = false;
+
+    while (!closed) {
+      final boolean catchUp = resubscribing;
+
+      try {
+        adapter.subscribe(changesChannel, message -> refreshSoon(), cancel -> {
+          unsubscribe = cancel;
+          if (closed) {
+            cancel.run();
+          } else if (catchUp) {
+            // anything published while we weren't listening is lost
+            refreshSoon();
+          }
+        });
+      } catch (Exception e) {
+        if (closed) return;
+        log.warn("Lost the Redis change subscription, resubscribing", e);
+      }
+
+      resubscribing = true;
+
+      try {
+        Thread.sleep(options.getBackoffTimeoutMs());
+      } catch (InterruptedException e) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Runs the refresh on the scheduler's thread, so it never runs at the same time as the poll.
+   */
+  private void refreshSoon() {
+    try {
+      scheduler.execute(this::refreshIfChanged);
+    } catch (RejectedExecutionException e) {
+      log.debug("Redis refresh scheduler has shut down, ignoring change");
+    }
+  }
+
+  private void publishChange(@NotNull String change) {
+    if (!options.isPushInvalidation()) return;
+
+    try {
+      adapter.publish(changesChannel, change);
+    } catch (Exception e) {
+      log.warn("Failed to publish the change to Redis, other instances will pick it up when they next refresh", e);
+    }
+  }
+
   // --- RawUpdateFeatureListener ---
 
   @Override
   public void updateFeatures(@NotNull List<FeatureState> features, @NotNull String source) {
     if (SOURCE.equals(source)) return;
+    if (featureHash != null) {
+      storeInHash(features);
+      return;
+    }
     storeWithRetry(new BulkUpdateMerger(features));
   }
 
   @Override
   public void updateFeature(@NotNull FeatureState feature, @NotNull String source) {
     if (SOURCE.equals(source)) return;
+    if (featureHash != null) {
+      storeInHash(List.of(feature));
+      return;
+    }
     storeWithRetry(new SingleUpdateMerger(feature));
   }
 
   @Override
   public void deleteFeature(@NotNull FeatureState feature, @NotNull String source) {
     if (SOURCE.equals(source)) return;
+    if (featureHash != null) {
+      Long written = featureHash.delete(feature);
+      if (written != null) publishChange(written.toString());
+      return;
+    }
     storeWithRetry(new DeleteMerger(feature));
   }
 
   @Override
   public void close() {
+    closed = true;
+
+    Runnable cancel = unsubscribe;
+    if (cancel != null) {
+      try {
+        cancel.run();
+      } catch (Exception e) {
+        log.debug("Failed to unsubscribe from Redis changes", e);
+      }
+    }
+
+    if (subscriber != null) {
+      subscriber.interrupt();
+    }
+
     scheduler.shutdownNow();
   }
 
+  private void storeInHash(List<FeatureState> features) {
+    InternalFeatureRepository repo = config.getInternalRepository();
+    if (repo == null) return;
+
+    Long written = featureHash.store(features, repo.getJsonObjectMapper());
+    if (written != null) publishChange(written.toString());
+  }
+
   // --- retry loop ---
 
   private void storeWithRetry(Merger merger) {
@@ -236,7 +402,10 @@ public class RedisSessionStore implements RawUpdateFeatureListener {
       if (success) {
         // update our local SHA so the refresh loop doesn't immediately reload
         String sha = adapter.get(shaKey);
-        if (sha != null) currentSha = sha;
+        if (sha != null) {
+          currentSha = sha;
+          publishChange(sha);
+        }
         return;
       }
 
@@ -278,9 +447,16 @@ public class RedisSessionStore implements RawUpdateFeatureListener {
       List<FeatureState> result = new ArrayList<>(existing);
       boolean anyChange = false;
 
+      // index the existing features once rather than searching the list for each incoming one
+      Map<UUID, Integer> index = new HashMap<>();
+      for (int i = 0; i < result.size(); i++) {
+        index.put(result.get(i).getId(), i);
+      }
+
       for (FeatureState fs : incoming) {
-        int idx = findById(result, fs.getId());
-        if (idx < 0) {
+        Integer idx = index.get(fs.getId());
+        if (idx == null) {
+          index.put(fs.getId(), result.size());
           result.add(fs);
           anyChange = true;
         } else {
@@ -4,16 +4,33 @@ package io.featurehub.sdk.redis;
  * Configuration options for {@link RedisSessionStore}.
  */
 public class RedisSessionStoreOptions {
+  /**
+   * How the features are laid out in Redis.
+   */
+  public enum Layout {
+    /** One key holding a JSON array of every feature, rewritten on every update. */
+    JSON_ARRAY,
+    /**
+     * A hash of feature id to feature, written and read a feature at a time. It is not compatible with JSON_ARRAY,
+     * every SDK instance sharing the prefix must use the same layout.
+     */
+    FEATURE_HASH
+  }
+
   private final String prefix;
   private final long backoffTimeoutMs;
   private final int retryUpdateCount;
   private final int refreshTimeoutSeconds;
+  private final Layout layout;
+  private final boolean pushInvalidation;
 
   private RedisSessionStoreOptions(Builder builder) {
     this.prefix = builder.prefix;
     this.backoffTimeoutMs = builder.backoffTimeoutMs;
     this.retryUpdateCount = builder.retryUpdateCount;
     this.refreshTimeoutSeconds = builder.refreshTimeoutSeconds;
+    this.layout = builder.layout;
+    this.pushInvalidation = builder.pushInvalidation;
   }
 
   public String getPrefix() {
@@ -35,6 +52,19 @@ public class RedisSessionStoreOptions {
     return refreshTimeoutSeconds;
   }
 
+  /** How the features are laid out in Redis, JSON_ARRAY unless set. */
+  public Layout getLayout() {
+    return layout;
+  }
+
+  /**
+   * Whether writers publish each change and every instance subscribes to them, so changes are picked up as they
+   * happen rather than at the next refresh. Every instance sharing the prefix should turn it on.
+   */
+  public boolean isPushInvalidation() {
+    return pushInvalidation;
+  }
+
   public static Builder builder() {
     return new Builder();
   }
@@ -48,6 +78,8 @@ public class RedisSessionStoreOptions {
     private long backoffTimeoutMs = 500;
     private int retryUpdateCount = 10;
     private int refreshTimeoutSeconds = 300;
+    private Layout layout = Layout.JSON_ARRAY;
+    private boolean pushInvalidation = false;
 
     public Builder prefix(String prefix) {
       this.prefix = prefix;
@@ -69,6 +101,16 @@ public class RedisSessionStoreOptions {
       return this;
     }
 
+    public Builder layout(Layout layout) {
+      this.layout = layout;
+      return this;
+    }
+
+    public Builder pushInvalidation(boolean pushInvalidation) {
+      this.pushInvalidation = pushInvalidation;
+      return this;
+    }
+
     public RedisSessionStoreOptions build() {
       return new RedisSessionStoreOptions(this);
     }
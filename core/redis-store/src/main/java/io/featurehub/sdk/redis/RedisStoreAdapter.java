@@ -3,6 +3,9 @@ package io.featurehub.sdk.redis;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
@@ -46,4 +49,40 @@ interface RedisStoreAdapter {
       @NotNull String dataKey,
       @NotNull String shaKey,
       @NotNull Function<String[], String[]> computeNew);
+
+  /**
+   * Reads one field of the hash at {@code key}, or {@code null} if either does not exist.
+   */
+  @Nullable String hget(@NotNull String key, @NotNull String field);
+
+  /**
+   * Reads every field of the hash at {@code key}, an empty map if it does not exist.
+   */
+  @NotNull Map<String, String> hgetAll(@NotNull String key);
+
+  /**
+   * Reads the given fields of the hash at {@code key} in one go, {@code null} for each that does not exist.
+   */
+  @NotNull List<String> hmget(@NotNull String key, @NotNull List<String> fields);
+
+  /**
+   * Runs a Lua script on the server, which Redis runs atomically.
+   *
+   * @return the script's reply, {@code null} if it returned nothing (or false)
+   */
+  @Nullable Object eval(@NotNull String script, @NotNull List<String> keys, @NotNull List<String> args);
+
+  /**
+   * Publishes {@code message} to everyone subscribed to {@code channel}.
+   */
+  void publish(@NotNull String channel, @NotNull String message);
+
+  /**
+   * Subscribes to {@code channel} and blocks, passing each message to {@code onMessage}, until the subscription
+   * is cancelled or the connection fails (when it throws).
+   *
+   * @param onSubscribed - called once the subscription is in place, with what cancels it
+   */
+  void subscribe(@NotNull String channel, @NotNull Consumer<String> onMessage,
+                 @NotNull Consumer<Runnable> onSubscribed);
 }
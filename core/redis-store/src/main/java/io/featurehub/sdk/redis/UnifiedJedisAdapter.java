@@ -4,6 +4,9 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import redis.clients.jedis.UnifiedJedis;
 
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
@@ -55,4 +58,35 @@ class UnifiedJedisAdapter implements RedisStoreAdapter {
     jedis.set(shaKey, newValues[1]);
     return true;
   }
+
+  @Override
+  public @Nullable String hget(@NotNull String key, @NotNull String field) {
+    return jedis.hget(key, field);
+  }
+
+  @Override
+  public @NotNull Map<String, String> hgetAll(@NotNull String key) {
+    return jedis.hgetAll(key);
+  }
+
+  @Override
+  public @NotNull List<String> hmget(@NotNull String key, @NotNull List<String> fields) {
+    return jedis.hmget(key, fields.toArray(new String[0]));
+  }
+
+  @Override
+  public @Nullable Object eval(@NotNull String script, @NotNull List<String> keys, @NotNull List<String> args) {
+    return jedis.eval(script, keys, args);
+  }
+
+  @Override
+  public void publish(@NotNull String channel, @NotNull String message) {
+    jedis.publish(channel, message);
+  }
+
+  @Override
+  public void subscribe(@NotNull String channel, @NotNull Consumer<String> onMessage,
+                        @NotNull Consumer<Runnable> onSubscribed) {
+    jedis.subscribe(new ChannelSubscription(onMessage, onSubscribed), channel);
+  }
 }
@@ -0,0 +1,143 @@
+package io.featurehub.sdk.redis
+
+import io.featurehub.javascript.JavascriptObjectMapper
+import io.featurehub.sse.model.FeatureState
+import io.featurehub.sse.model.FeatureValueType
+import spock.lang.Specification
+
+class FeatureHashStoreSpec extends Specification {
+
+  JavascriptObjectMapper mapper = InMemoryRedis.MAPPER
+  InMemoryRedis redis = new InMemoryRedis()
+  String envId = UUID.randomUUID().toString()
+
+  private FeatureHashStore store() {
+    return new FeatureHashStore(redis, 'featurehub', envId)
+  }
+
+  private static List<FeatureState> features(int count, long version = 1) {
+    return (0..<count).collect {
+      new FeatureState().id(new UUID(0, it)).key("f${it}".toString()).version(version).type(FeatureValueType.BOOLEAN)
+    }
+  }
+
+  def "both keys share a hash tag so the script can use them on a cluster"() {
+    when:
+      def store = store()
+    then:
+      store.featuresKey == "{featurehub_${envId}}_features".toString()
+      store.versionsKey == "{featurehub_${envId}}_feature_versions".toString()
+  }
+
+  def "a batch is written in one call and only features newer than Redis holds are sent again"() {
+    given:
+      def store = store()
+      def first = features(100)
+    when:
+      store.store(first, mapper)
+    then:
+      redis.evals == 1
+      redis.hashes[store.versionsKey].size() == 100
+    when: "the same batch comes again"
+      store.store(first, mapper)
+    then: "there's nothing to send"
+      redis.evals == 1
+    when: "one of them moves on"
+      def next = features(100)
+      next[7].version(2)
+      store.store(next, mapper)
+    then:
+      redis.evals == 2
+      redis.hashes[store.versionsKey][next[7].id.toString()] == '2'
+  }
+
+  def "another instance loads everything that was written, but not the version"() {
+    given:
+      store().store(features(50), mapper)
+    when:
+      def loaded = store().load(mapper)
+    then:
+      loaded.size() == 50
+      loaded*.key.toSet() == (0..<50).collect { "f${it}".toString() }.toSet()
+  }
+
+  def "checking for changes is one field read until something changes, and then only what changed is fetched"() {
+    given:
+      def writer = store()
+      def reader = store()
+      writer.store(features(3000), mapper)
+      reader.load(mapper)
+    when:
+      def none = reader.changes(mapper)
+    then:
+      none.isEmpty()
+      redis.fetched.isEmpty()
+    when:
+      def next = features(3000)
+      next[42].version(2)
+      writer.store(next, mapper)
+      def changed = reader.changes(mapper)
+    then:
+      changed.updated*.key == ['f42']
+      changed.deleted.isEmpty()
+      redis.fetched == [[next[42].id.toString()]]
+    when: "we look again"
+      def again = reader.changes(mapper)
+    then:
+      again.isEmpty()
+  }
+
+  def "our own writes aren't picked up as changes, but someone else's in between are"() {
+    given:
+      def us = store()
+      def them = store()
+      us.store(features(10), mapper)
+    expect:
+      us.changes(mapper).isEmpty()
+    when:
+      def theirs = features(10)
+      theirs[1].version(2)
+      them.store(theirs, mapper)
+      def ours = features(10)
+      ours[2].version(2)
+      us.store(ours, mapper)
+    then:
+      us.changes(mapper).updated*.key == ['f1']
+  }
+
+  def "a deleted feature is removed and can be written again"() {
+    given:
+      def store = store()
+      def all = features(5)
+      store.store(all, mapper)
+    when:
+      store.delete(all[3])
+    then:
+      !redis.hashes[store.featuresKey].containsKey(all[3].id.toString())
+      !redis.hashes[store.versionsKey].containsKey(all[3].id.toString())
+    when:
+      store.store([all[3]], mapper)
+    then:
+      redis.hashes[store.versionsKey].containsKey(all[3].id.toString())
+  }
+
+  def "a feature someone else deletes is reported as deleted, once"() {
+    given:
+      def us = store()
+      def them = store()
+      def all = features(5)
+      us.store(all, mapper)
+      them.load(mapper)
+    when:
+      them.delete(all[3])
+      def changes = us.changes(mapper)
+    then:
+      changes.updated.isEmpty()
+      changes.deleted*.key == ['f3']
+      changes.deleted*.id == [all[3].id]
+    when: "we look again"
+      def again = us.changes(mapper)
+    then:
+      again.isEmpty()
+  }
+}
@@ -0,0 +1,123 @@
+package io.featurehub.sdk.redis
+
+import io.featurehub.javascript.JavascriptObjectMapper
+import io.featurehub.sse.model.FeatureState
+import io.featurehub.sse.model.FeatureValueType
+import org.jetbrains.annotations.NotNull
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.function.Consumer
+import java.util.function.Function
+
+/**
+ * An embedded stand-in for Redis: holds everything in memory, does in Groovy what the feature hash update script
+ * does in Redis, and delivers published messages to subscribers.
+ */
+class InMemoryRedis implements RedisStoreAdapter {
+  // just enough of a mapper for a feature to survive the round trip through the hash
+  static final JavascriptObjectMapper MAPPER = [
+    writeValueAsString: { Object fs -> "${fs.id}|${fs.version}|${fs.key}".toString() },
+    readValue: { String json, Class type ->
+      def (id, version, key) = json.split('\\|')
+      new FeatureState().id(UUID.fromString(id)).version(version as long).key(key).type(FeatureValueType.BOOLEAN)
+    }
+  ] as JavascriptObjectMapper
+
+  Map<String, String> strings = new ConcurrentHashMap<>()
+  Map<String, Map<String, String>> hashes = new ConcurrentHashMap<String, Map<String, String>>().withDefault { [:] }
+  int evals = 0
+  List<List<String>> fetched = new CopyOnWriteArrayList<>()
+
+  private static class Subscriber {
+    String channel
+    Consumer<String> onMessage
+    CountDownLatch done = new CountDownLatch(1)
+    boolean dropped
+  }
+
+  private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>()
+
+  @Override String get(@NotNull String key) { return strings[key] }
+  @Override void set(@NotNull String key, @NotNull String value) { strings[key] = value }
+
+  @Override
+  synchronized boolean watchedUpdate(@NotNull String dataKey, @NotNull String shaKey,
+                                     @NotNull Function<String[], String[]> computeNew) {
+    String[] values = computeNew.apply([strings[dataKey], strings[shaKey]] as String[])
+    if (values == null) return false
+    strings[dataKey] = values[0]
+    strings[shaKey] = values[1]
+    return true
+  }
+
+  @Override synchronized String hget(@NotNull String key, @NotNull String field) { return hashes[key][field] }
+  @Override synchronized Map<String, String> hgetAll(@NotNull String key) { return new HashMap<>(hashes[key]) }
+
+  @Override
+  synchronized List<String> hmget(@NotNull String key, @NotNull List<String> fields) {
+    fetched.add(fields)
+    return fields.collect { hashes[key][it] }
+  }
+
+  @Override
+  synchronized Object eval(@NotNull String script, @NotNull List<String> keys, @NotNull List<String> args) {
+    assert script == FeatureHashStore.UPDATE_SCRIPT
+    evals++
+    def (features, versions) = [hashes[keys[0]], hashes[keys[1]]]
+    boolean changed = false
+    args.collate(3).each { id, version, state ->
+      def current = versions[id]
+      if (state == '') {
+        if (current != null) {
+          features.remove(id)
+          versions.remove(id)
+          changed = true
+        }
+      } else if (current == null || (version as long) > (current as long)) {
+        features[id] = state
+        versions[id] = version
+        changed = true
+      }
+    }
+    if (!changed) return null
+    features[FeatureHashStore.VERSION_FIELD] = ((features[FeatureHashStore.VERSION_FIELD] ?: '0') as long) + 1 as String
+    return features[FeatureHashStore.VERSION_FIELD] as long
+  }
+
+  @Override
+  void publish(@NotNull String channel, @NotNull String message) {
+    subscribers.findAll { it.channel == channel }.each { it.onMessage.accept(message) }
+  }
+
+  @Override
+  void subscribe(@NotNull String channel, @NotNull Consumer<String> onMessage,
+                 @NotNull Consumer<Runnable> onSubscribed) {
+    def subscriber = new Subscriber(channel: channel, onMessage: onMessage)
+    subscribers.add(subscriber)
+    try {
+      onSubscribed.accept({ subscriber.done.countDown() } as Runnable)
+      subscriber.done.await()
+      if (subscriber.dropped) {
+        throw new IllegalStateException('connection dropped')
+      }
+    } finally {
+      subscribers.remove(subscriber)
+    }
+  }
+
+  int subscriberCount(String channel) {
+    return subscribers.count { it.channel == channel }
+  }
+
+  /**
+   * As if the connections the subscribers are on had gone away.
+   */
+  void dropSubscribers() {
+    subscribers.each {
+      it.dropped = true
+      it.done.countDown()
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package io.featurehub.sdk.redis
+
+import io.featurehub.client.FeatureHubConfig
+import io.featurehub.client.InternalFeatureRepository
+import io.featurehub.sse.model.FeatureState
+import io.featurehub.sse.model.FeatureValueType
+import spock.lang.Specification
+
+import java.util.concurrent.BlockingQueue
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.TimeUnit
+
+class PushInvalidationSpec extends Specification {
+  InMemoryRedis redis = new InMemoryRedis()
+  UUID envId = UUID.randomUUID()
+  String channel
+  List<RedisSessionStore> stores = []
+
+  def setup() {
+    channel = "featurehub_${envId}_changes".toString()
+  }
+
+  def cleanup() {
+    stores*.close()
+  }
+
+  /**
+   * An instance of the store with its own repository, which puts what the store pushes into it on the queue.
+   */
+  private RedisSessionStore instance(BlockingQueue<List<FeatureState>> received,
+                                     BlockingQueue<FeatureState> deleted = new LinkedBlockingQueue<>()) {
+    def repo = Mock(InternalFeatureRepository)
+    repo.execute(_) >> { Runnable cmd -> cmd.run() }
+    repo.getJsonObjectMapper() >> InMemoryRedis.MAPPER
+    repo.updateFeatures(_, RedisSessionStore.SOURCE) >> { List<FeatureState> features, String source ->
+      received.add(features)
+    }
+    repo.deleteFeature(_, RedisSessionStore.SOURCE) >> { FeatureState feature, String source ->
+      deleted.add(feature)
+    }
+    def config = Mock(FeatureHubConfig)
+    config.getEnvironmentId() >> envId
+    config.getInternalRepository() >> repo
+
+    // the poll is far enough away not to be what picks the change up
+    def store = new RedisSessionStore(redis, config, RedisSessionStoreOptions.builder()
+      .layout(RedisSessionStoreOptions.Layout.FEATURE_HASH).pushInvalidation(true).refreshTimeoutSeconds(3600).backoffTimeoutMs(50).build())
+    stores.add(store)
+    return store
+  }
+
+  private void waitForSubscribers(int count) {
+    def until = System.currentTimeMillis() + 5000
+    while (redis.subscriberCount(channel) != count && System.currentTimeMillis() < until) {
+      Thread.sleep(10)
+    }
+    assert redis.subscriberCount(channel) == count
+  }
+
+  private static List<FeatureState> features(int count, long version = 1) {
+    return (0..<count).collect {
+      new FeatureState().id(new UUID(0, it)).key("f${it}".toString()).version(version).type(FeatureValueType.BOOLEAN)
+    }
+  }
+
+  def "a change one instance writes reaches the others straight away, and only what changed is fetched"() {
+    given:
+      def writer = instance(new LinkedBlockingQueue<>())
+      BlockingQueue<List<FeatureState>> received = new LinkedBlockingQueue<>()
+      instance(received)
+      waitForSubscribers(2)
+      writer.updateFeatures(features(500), 'edge')
+      received.poll(5, TimeUnit.SECONDS)
+      redis.fetched.clear()
+    when:
+      def next = features(500)
+      next[9].version(2)
+      writer.updateFeatures(next, 'edge')
+      def changed = received.poll(5, TimeUnit.SECONDS)
+    then:
+      changed*.key == ['f9']
+      redis.fetched == [[next[9].id.toString()]]
+  }
+
+  def "a feature one instance deletes is deleted from the others"() {
+    given:
+      def writer = instance(new LinkedBlockingQueue<>())
+      BlockingQueue<List<FeatureState>> received = new LinkedBlockingQueue<>()
+      BlockingQueue<FeatureState> deleted = new LinkedBlockingQueue<>()
+      instance(received, deleted)
+      waitForSubscribers(2)
+      def all = features(5)
+      writer.updateFeatures(all, 'edge')
+      received.poll(5, TimeUnit.SECONDS)
+    when:
+      writer.deleteFeature(all[2], 'edge')
+      def gone = deleted.poll(5, TimeUnit.SECONDS)
+    then:
+      gone.key == 'f2'
+      received.poll(200, TimeUnit.MILLISECONDS) == null
+  }
+
+  def "an instance isn't told about its own writes"() {
+    given:
+      BlockingQueue<List<FeatureState>> received = new LinkedBlockingQueue<>()
+      def store = instance(received)
+      waitForSubscribers(1)
+    when:
+      store.updateFeatures(features(5), 'edge')
+    then:
+      received.poll(200, TimeUnit.MILLISECONDS) == null
+  }
+
+  def "after losing its subscription an instance resubscribes and catches up on what it missed"() {
+    given:
+      def writer = instance(new LinkedBlockingQueue<>())
+      BlockingQueue<List<FeatureState>> received = new LinkedBlockingQueue<>()
+      instance(received)
+      waitForSubscribers(2)
+    when: "the change is published while nobody is listening"
+      redis.dropSubscribers()
+      writer.updateFeatures(features(3), 'edge')
+    then:
+      received.poll(5, TimeUnit.SECONDS)*.key.toSet() == ['f0', 'f1', 'f2'].toSet()
+      waitForSubscribers(2)
+  }
+
+  def "closing an instance ends its subscription"() {
+    given:
+      def store = instance(new LinkedBlockingQueue<>())
+      waitForSubscribers(1)
+    when:
+      store.close()
+    then:
+      waitForSubscribers(0)
+  }
+}
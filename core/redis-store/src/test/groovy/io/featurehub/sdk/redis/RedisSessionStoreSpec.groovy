@@ -173,6 +173,60 @@ class RedisSessionStoreSpec extends Specification {
       }
   }
 
+  def "with push invalidation on, the new sha is published once the update is written"() {
+    given:
+      def store = buildStore(RedisSessionStoreOptions.builder().pushInvalidation(true).build())
+      mapper.readFeatureStates(_) >> []
+      mapper.writeValueAsString(_) >> '[]'
+    when:
+      store.updateFeatures([feature('flag1', UUID.randomUUID(), 1L)], 'edge')
+    then:
+      1 * adapter.watchedUpdate(dataKey, shaKey, _) >> true
+      1 * adapter.get(shaKey) >> 'newsha'
+      1 * adapter.publish("featurehub_${envId}_changes".toString(), 'newsha')
+    cleanup:
+      store.close()
+  }
+
+  def "without push invalidation nothing is published"() {
+    given:
+      def store = buildStore()
+    when:
+      store.updateFeatures([feature('flag1', UUID.randomUUID(), 1L)], 'edge')
+    then:
+      1 * adapter.watchedUpdate(dataKey, shaKey, _) >> true
+      1 * adapter.get(shaKey) >> 'newsha'
+      0 * adapter.publish(_, _)
+      0 * adapter.subscribe(_, _, _)
+  }
+
+  def "with the feature hash layout, updates go through the update script rather than a watched rewrite"() {
+    given:
+      def store = buildStore(RedisSessionStoreOptions.builder().layout(RedisSessionStoreOptions.Layout.FEATURE_HASH).build())
+      def incoming = feature('flag1', UUID.randomUUID(), 2L)
+      mapper.writeValueAsString(incoming) >> '{"key":"flag1"}'
+    when:
+      store.updateFeatures([incoming], 'edge')
+    then:
+      1 * adapter.eval(FeatureHashStore.UPDATE_SCRIPT,
+        ["{featurehub_${envId}}_features".toString(), "{featurehub_${envId}}_feature_versions".toString()],
+        [incoming.id.toString(), '2', '{"key":"flag1"}']) >> 1L
+      0 * adapter.watchedUpdate(_, _, _)
+  }
+
+  def "with the feature hash layout, the features are loaded from the hash on startup"() {
+    given:
+      def fs = feature('flag1', UUID.randomUUID(), 1L)
+      adapter.hgetAll("{featurehub_${envId}}_features".toString()) >> [(fs.id.toString()): 'flag1', version: '3']
+      mapper.readValue('flag1', FeatureState) >> fs
+    when:
+      buildStore(RedisSessionStoreOptions.builder().layout(RedisSessionStoreOptions.Layout.FEATURE_HASH).build())
+    then:
+      1 * repo.execute { Runnable cmd -> cmd.run() }
+      1 * repo.updateFeatures([fs], RedisSessionStore.SOURCE)
+      0 * adapter.get(_)
+  }
+
   // --- updateFeature (single) ---
 
   def "updateFeature ignores updates from redis-store source"() {
@@ -0,0 +1,62 @@
+package io.featurehub.client;
+
+import io.featurehub.sse.model.FeatureRolloutStrategy;
+import io.featurehub.strategies.matchers.MatcherRegistry;
+import io.featurehub.strategies.percentage.PercentageMumurCalculator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Strategy evaluation on its own, for each of the strategy mixes in BenchmarkFeatures. `compiled` is the
+ * path a repository takes, `uncompiled` is what a caller passing the raw model strategies pays.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApplyFeatureBenchmark {
+  @Param({"percentage", "attributes", "mixed"})
+  public BenchmarkFeatures.StrategyMix mix;
+
+  private ApplyFeature applyFeature;
+  private List<FeatureRolloutStrategy> strategies;
+  private CompiledStrategies compiled;
+  private ClientContext context;
+  private final String featureValueId = BenchmarkFeatures.ENVIRONMENT_ID.toString();
+
+  @Setup
+  public void setup() {
+    applyFeature = new ApplyFeature(new PercentageMumurCalculator(), new MatcherRegistry());
+    strategies = BenchmarkFeatures.strategies(mix, Boolean.TRUE);
+    compiled = applyFeature.compile(strategies);
+    context = BenchmarkFeatures.user(new ClientEvalFeatureContext(null, null, null), 12345);
+  }
+
+  @Benchmark
+  public Applied compiled() {
+    return applyFeature.applyFeature(compiled, "feature", featureValueId, context);
+  }
+
+  @Benchmark
+  public Applied uncompiled() {
+    return applyFeature.applyFeature(strategies, "feature", featureValueId, context);
+  }
+
+  @Benchmark
+  public CompiledStrategies compile() {
+    return applyFeature.compile(strategies);
+  }
+}
@@ -0,0 +1,138 @@
+package io.featurehub.client;
+
+import io.featurehub.sse.model.FeatureRolloutStrategy;
+import io.featurehub.sse.model.FeatureRolloutStrategyAttribute;
+import io.featurehub.sse.model.FeatureState;
+import io.featurehub.sse.model.FeatureValueType;
+import io.featurehub.sse.model.RolloutStrategyAttributeConditional;
+import io.featurehub.sse.model.RolloutStrategyFieldType;
+import io.featurehub.sse.model.StrategyAttributeCountryName;
+import io.featurehub.sse.model.StrategyAttributePlatformName;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Generates repeatable sets of features for the benchmarks. The mix is roughly what we see in real
+ * environments: mostly flags, a few strings, numbers and json blobs, and about one in five features carrying
+ * rollout strategies.
+ */
+public final class BenchmarkFeatures {
+  public static final UUID ENVIRONMENT_ID = UUID.fromString("5d0b6bca-8a1c-4a55-9c2e-9fb5e6e0f0a3");
+
+  private BenchmarkFeatures() {}
+
+  public static String key(int index) {
+    return "feature_" + index;
+  }
+
+  /**
+   * @param count - the number of features
+   * @param version - the version every feature is given, bump it to make an update look like a change
+   */
+  public static @NotNull List<FeatureState> features(int count, long version) {
+    final Random random = new Random(count);
+    final List<FeatureState> features = new ArrayList<>(count);
+
+    for (int i = 0; i < count; i++) {
+      final FeatureState fs = new FeatureState()
+        .id(new UUID(count, i))
+        .key(key(i))
+        .environmentId(ENVIRONMENT_ID)
+        .version(version)
+        .l(false);
+
+      switch (i % 10) {
+        case 7:
+          fs.type(FeatureValueType.STRING).value("value-" + i);
+          break;
+        case 8:
+          fs.type(FeatureValueType.NUMBER).value(new BigDecimal(i));
+          break;
+        case 9:
+          fs.type(FeatureValueType.JSON).value("{\"feature\": " + i + ", \"colours\": [\"red\", \"green\"]}");
+          break;
+        default:
+          fs.type(FeatureValueType.BOOLEAN).value(random.nextBoolean());
+      }
+
+      if (i % 5 == 0) {
+        fs.strategies(strategies(StrategyMix.values()[(i / 5) % StrategyMix.values().length], fs.getValue()));
+      }
+
+      features.add(fs);
+    }
+
+    return features;
+  }
+
+  public enum StrategyMix {
+    /** a 20/30 percentage split, the rest fall through to the default */
+    percentage,
+    /** country and platform targeting */
+    attributes,
+    /** percentage within targeted users, percentage attributes, a semantic version and an ip range */
+    mixed
+  }
+
+  public static @NotNull List<FeatureRolloutStrategy> strategies(@NotNull StrategyMix mix, Object value) {
+    switch (mix) {
+      case percentage:
+        return Arrays.asList(
+          new FeatureRolloutStrategy().id("p1").percentage(200000).value(value),
+          new FeatureRolloutStrategy().id("p2").percentage(300000).value(value));
+      case attributes:
+        return Arrays.asList(
+          new FeatureRolloutStrategy().id("a1").value(value)
+            .attributes(Collections.singletonList(attr(RolloutStrategyFieldType.STRING,
+              RolloutStrategyAttributeConditional.EQUALS, "country",
+              StrategyAttributeCountryName.NEW_ZEALAND.getValue(), StrategyAttributeCountryName.AUSTRALIA.getValue()))),
+          new FeatureRolloutStrategy().id("a2").value(value)
+            .attributes(Arrays.asList(
+              attr(RolloutStrategyFieldType.STRING, RolloutStrategyAttributeConditional.EQUALS, "platform",
+                StrategyAttributePlatformName.ANDROID.getValue()),
+              attr(RolloutStrategyFieldType.STRING, RolloutStrategyAttributeConditional.INCLUDES, "email",
+                "@example.com"))));
+      default:
+        return Arrays.asList(
+          new FeatureRolloutStrategy().id("m1").percentage(250000).value(value)
+            .attributes(Collections.singletonList(attr(RolloutStrategyFieldType.STRING,
+              RolloutStrategyAttributeConditional.EQUALS, "country", StrategyAttributeCountryName.GERMANY.getValue()))),
+          new FeatureRolloutStrategy().id("m2").percentage(100000).value(value)
+            .percentageAttributes(Collections.singletonList("company")),
+          new FeatureRolloutStrategy().id("m3").value(value)
+            .attributes(Collections.singletonList(attr(RolloutStrategyFieldType.SEMANTIC_VERSION,
+              RolloutStrategyAttributeConditional.GREATER_EQUALS, "version", "2.3.0"))),
+          new FeatureRolloutStrategy().id("m4").value(value)
+            .attributes(Collections.singletonList(attr(RolloutStrategyFieldType.IP_ADDRESS,
+              RolloutStrategyAttributeConditional.INCLUDES, "ip", "10.0.0.0/8", "192.168.0.0/16"))));
+    }
+  }
+
+  private static FeatureRolloutStrategyAttribute attr(RolloutStrategyFieldType type,
+                                                      RolloutStrategyAttributeConditional conditional,
+                                                      String fieldName, Object... values) {
+    return new FeatureRolloutStrategyAttribute().type(type).conditional(conditional).fieldName(fieldName)
+      .values(Arrays.asList(values));
+  }
+
+  /**
+   * Fills in the attributes a typical server side context would have, the user is chosen by `user` so
+   * percentage rollouts spread across buckets.
+   */
+  public static @NotNull ClientContext user(@NotNull ClientContext context, int user) {
+    return context
+      .userKey("user-" + user + "@example.com")
+      .country(StrategyAttributeCountryName.NEW_ZEALAND)
+      .platform(StrategyAttributePlatformName.ANDROID)
+      .version("2.4.1")
+      .attr("email", "user-" + user + "@example.com")
+      .attr("company", "company-" + (user % 17))
+      .attr("ip", "10.1.2." + (user % 250));
+  }
+}
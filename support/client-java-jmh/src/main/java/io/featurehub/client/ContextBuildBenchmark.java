@@ -0,0 +1,129 @@
+package io.featurehub.client;
+
+import java.util.ServiceLoader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Server evaluated contexts being built by many threads at once, the way a web application builds one per
+ * request. The fake Edge takes edgeLatencyMs to answer and waits for it on the repository's executor, as the
+ * polling clients do, so this measures how many context changes the executor lets wait at the same time.
+ * "platform" is the default pool, "virtual" needs the virtual-threads profile and Java 21.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Threads(64)
+@Fork(1)
+public class ContextBuildBenchmark {
+  @Param({"platform"})
+  public String executor;
+
+  @Param({"5"})
+  public int edgeLatencyMs;
+
+  private ClientFeatureRepository repository;
+  private EdgeService edge;
+
+  @State(Scope.Thread)
+  public static class Caller {
+    private ServerEvalFeatureContext context;
+    private int user;
+
+    @Setup
+    public void setup(ContextBuildBenchmark benchmark) {
+      context = new ServerEvalFeatureContext(benchmark.repository, benchmark.edge);
+    }
+  }
+
+  @Setup
+  public void setup() {
+    repository = new ClientFeatureRepository(makeExecutor());
+    repository.updateFeatures(BenchmarkFeatures.features(100, 1), "benchmark");
+    edge = new SlowEdge();
+  }
+
+  private ExecutorService makeExecutor() {
+    if ("virtual".equals(executor)) {
+      return ServiceLoader.load(FeatureHubExecutorProviderService.class).findFirst()
+        .orElseThrow(() -> new IllegalStateException("build with -P virtual-threads to include them"))
+        .get(10);
+    }
+
+    return ClientFeatureRepository.defaultExecutor(10);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    repository.close(); // shuts down the executor
+  }
+
+  @Benchmark
+  public ClientContext build(Caller caller) throws Exception {
+    return caller.context.userKey("user-" + caller.user++).build().get();
+  }
+
+  private class SlowEdge implements EdgeService {
+    @Override
+    public @NotNull Future<Readiness> contextChange(@Nullable String newHeader, String contextSha) {
+      return CompletableFuture.supplyAsync(() -> {
+        try {
+          Thread.sleep(edgeLatencyMs);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+
+        return Readiness.Ready;
+      }, repository.getExecutor());
+    }
+
+    @Override
+    public boolean isClientEvaluation() {
+      return false;
+    }
+
+    @Override
+    public boolean isStopped() {
+      return false;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public @NotNull FeatureHubConfig getConfig() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Future<Readiness> poll() {
+      return CompletableFuture.completedFuture(Readiness.Ready);
+    }
+
+    @Override
+    public long currentInterval() {
+      return 0;
+    }
+  }
+}
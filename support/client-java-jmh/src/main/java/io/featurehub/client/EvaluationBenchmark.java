@@ -0,0 +1,98 @@
+package io.featurehub.client;
+
+import io.featurehub.sse.model.FeatureValueType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Evaluation of features through a client evaluated context, the path every isEnabled/getString call in an
+ * application takes. Feature 1 has no strategies, features 0, 5 and 10 carry the percentage, attribute and
+ * mixed strategy sets from BenchmarkFeatures, feature 7 is a string.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluationBenchmark {
+  private ExecutorService executor;
+  private ClientFeatureRepository repository;
+  private ClientContext context;
+
+  private FeatureStateBase<?> plain;
+  private FeatureStateBase<?> percentage;
+  private FeatureStateBase<?> attributes;
+  private FeatureStateBase<?> mixed;
+
+  private final String plainKey = BenchmarkFeatures.key(1);
+  private final String mixedKey = BenchmarkFeatures.key(10);
+  private final String stringKey = BenchmarkFeatures.key(7);
+
+  @Setup
+  public void setup() {
+    executor = Executors.newSingleThreadExecutor();
+    repository = new ClientFeatureRepository(executor);
+    repository.updateFeatures(BenchmarkFeatures.features(100, 1), "benchmark");
+
+    context = BenchmarkFeatures.user(new ClientEvalFeatureContext(null, repository, null), 12345);
+
+    plain = repository.getFeat(plainKey).withContext((InternalContext) context);
+    percentage = repository.getFeat(BenchmarkFeatures.key(0)).withContext((InternalContext) context);
+    attributes = repository.getFeat(BenchmarkFeatures.key(5)).withContext((InternalContext) context);
+    mixed = repository.getFeat(mixedKey).withContext((InternalContext) context);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    repository.close(); // shuts down the executor
+  }
+
+  @Benchmark
+  public EvaluatedFeature internalGetValueNoStrategies() {
+    return plain.internalGetValue(FeatureValueType.BOOLEAN, false);
+  }
+
+  @Benchmark
+  public EvaluatedFeature internalGetValuePercentage() {
+    return percentage.internalGetValue(FeatureValueType.BOOLEAN, false);
+  }
+
+  @Benchmark
+  public EvaluatedFeature internalGetValueAttributes() {
+    return attributes.internalGetValue(FeatureValueType.BOOLEAN, false);
+  }
+
+  @Benchmark
+  public EvaluatedFeature internalGetValueMixed() {
+    return mixed.internalGetValue(FeatureValueType.BOOLEAN, false);
+  }
+
+  @Benchmark
+  public boolean isEnabledNoStrategies() {
+    return context.isEnabled(plainKey);
+  }
+
+  @Benchmark
+  public boolean isEnabledMixed() {
+    return context.isEnabled(mixedKey);
+  }
+
+  @Benchmark
+  public String getString() {
+    return context.getString(stringKey, null);
+  }
+}
@@ -0,0 +1,91 @@
+package io.featurehub.client;
+
+import io.featurehub.sse.model.FeatureState;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Applying a full set of features to a repository, as happens on every poll and every SSE "features" event.
+ * <ul>
+ *   <li>initial - an empty repository receiving its first set of features</li>
+ *   <li>unchanged - the same versions again, which is what most polls deliver</li>
+ *   <li>changed - every feature at a new version</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UpdateFeaturesBenchmark {
+  @Param({"1000", "10000"})
+  public int features;
+
+  private ExecutorService executor;
+  private List<FeatureState> states;
+  private List<FeatureState> nextStates;
+  private ClientFeatureRepository loaded;
+
+  /**
+   * A fresh repository for each call to initial, kept apart so the other benchmarks don't pay to create one.
+   */
+  @State(Scope.Thread)
+  public static class Empty {
+    ClientFeatureRepository repository;
+
+    @Setup(Level.Invocation)
+    public void setup(UpdateFeaturesBenchmark benchmark) {
+      repository = new ClientFeatureRepository(benchmark.executor);
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    executor = Executors.newSingleThreadExecutor();
+    states = BenchmarkFeatures.features(features, 1);
+    nextStates = BenchmarkFeatures.features(features, 2);
+
+    loaded = new ClientFeatureRepository(executor);
+    loaded.updateFeatures(states, "benchmark");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Benchmark
+  public ClientFeatureRepository initial(Empty empty) {
+    empty.repository.updateFeatures(states, "benchmark");
+    return empty.repository;
+  }
+
+  @Benchmark
+  public ClientFeatureRepository unchanged() {
+    loaded.updateFeatures(states, "benchmark");
+    return loaded;
+  }
+
+  @Benchmark
+  public ClientFeatureRepository changed() {
+    // force, so each invocation is treated as a new version without having to keep generating them
+    loaded.updateFeatures(nextStates, true, "benchmark");
+    return loaded;
+  }
+}
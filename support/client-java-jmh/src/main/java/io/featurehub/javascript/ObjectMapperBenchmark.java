@@ -0,0 +1,78 @@
+package io.featurehub.javascript;
+
+import io.featurehub.client.BenchmarkFeatures;
+import io.featurehub.sse.model.FeatureEnvironmentCollection;
+import io.featurehub.sse.model.FeatureState;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decoding of the payloads Edge sends: the features array of an SSE "features" event and the environment
+ * collection returned by polling. The mapper is a JavascriptObjectMapper class name, Jackson3 needs the
+ * jackson3 profile and a Java 17+ JVM (-p mapper=io.featurehub.javascript.Jackson3ObjectMapper).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectMapperBenchmark {
+  @Param({"io.featurehub.javascript.Jackson2ObjectMapper"})
+  public String mapper;
+
+  @Param({"100", "1000"})
+  public int features;
+
+  private JavascriptObjectMapper objectMapper;
+  private String featureStates;
+  private String featureCollection;
+  private byte[] featureCollectionBytes;
+
+  @Setup
+  public void setup() throws ReflectiveOperationException {
+    objectMapper = (JavascriptObjectMapper) Class.forName(mapper).getDeclaredConstructor().newInstance();
+
+    final List<FeatureState> states = BenchmarkFeatures.features(features, 1);
+    featureStates = objectMapper.writeValueAsString(states);
+    featureCollection = objectMapper.writeValueAsString(Collections.singletonList(
+      new FeatureEnvironmentCollection().id(BenchmarkFeatures.ENVIRONMENT_ID).features(states)));
+    featureCollectionBytes = featureCollection.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public List<FeatureState> readFeatureStates() throws IOException {
+    return objectMapper.readFeatureStates(featureStates);
+  }
+
+  @Benchmark
+  public List<FeatureEnvironmentCollection> readFeatureCollection() throws IOException {
+    return objectMapper.readFeatureCollection(featureCollection);
+  }
+
+  // what a REST client used to do with the response body
+  @Benchmark
+  public List<FeatureEnvironmentCollection> readFeatureCollectionViaString() throws IOException {
+    return objectMapper.readFeatureCollection(new String(featureCollectionBytes, StandardCharsets.UTF_8));
+  }
+
+  @Benchmark
+  public List<FeatureEnvironmentCollection> readFeatureCollectionStream() throws IOException {
+    return objectMapper.readFeatureCollection(new ByteArrayInputStream(featureCollectionBytes));
+  }
+}
@@ -0,0 +1,89 @@
+package io.featurehub.strategies.matchers;
+
+import io.featurehub.sse.model.FeatureRolloutStrategyAttribute;
+import io.featurehub.sse.model.RolloutStrategyAttributeConditional;
+import io.featurehub.sse.model.RolloutStrategyFieldType;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Each matcher type against a realistic set of strategy values. `perCall` finds the matcher and parses the
+ * strategy values on every match (the original behaviour), `prepared` uses the matcher prepared once per
+ * feature version.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatcherBenchmark {
+  @Param({"STRING", "NUMBER", "DATE", "DATETIME", "SEMANTIC_VERSION", "BOOLEAN", "IP_ADDRESS"})
+  public RolloutStrategyFieldType type;
+
+  @Param({"EQUALS", "GREATER_EQUALS", "INCLUDES"})
+  public RolloutStrategyAttributeConditional conditional;
+
+  private final MatcherRegistry registry = new MatcherRegistry();
+  private FeatureRolloutStrategyAttribute attr;
+  private PreparedMatcher prepared;
+  private String supplied;
+
+  @Setup
+  public void setup() {
+    attr = new FeatureRolloutStrategyAttribute().type(type).conditional(conditional).fieldName("field");
+
+    switch (type) {
+      case STRING:
+        attr.values(Arrays.asList("nz", "au", "de", "fr", "gb", "us", "ca", "ie"));
+        supplied = "ie";
+        break;
+      case NUMBER:
+        attr.values(Arrays.asList(10, 20.5, 30, 45, 100));
+        supplied = "45";
+        break;
+      case DATE:
+        attr.values(Arrays.asList("2021-01-01", "2022-06-30", "2023-12-31"));
+        supplied = "2022-06-30";
+        break;
+      case DATETIME:
+        attr.values(Arrays.asList("2021-01-01T10:00:00Z", "2022-06-30T12:30:00Z"));
+        supplied = "2022-06-30T12:30:00Z";
+        break;
+      case SEMANTIC_VERSION:
+        attr.values(Arrays.asList("1.0.0", "2.3.0", "2.4.0-beta.1"));
+        supplied = "2.4.1";
+        break;
+      case BOOLEAN:
+        attr.values(Arrays.asList(true));
+        supplied = "true";
+        break;
+      default:
+        attr.values(Arrays.asList("10.0.0.0/8", "172.16.0.0/12", "192.168.0.0/16", "2001:db8::/32", "8.8.8.8"));
+        supplied = "192.168.45.3";
+    }
+
+    prepared = registry.prepare(attr);
+  }
+
+  @Benchmark
+  public boolean perCall() {
+    return registry.findMatcher(attr).match(supplied, attr);
+  }
+
+  @Benchmark
+  public boolean prepared() {
+    return prepared.match(supplied);
+  }
+}
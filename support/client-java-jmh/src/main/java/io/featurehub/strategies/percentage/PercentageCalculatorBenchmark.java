@@ -0,0 +1,55 @@
+package io.featurehub.strategies.percentage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the streamed, integer only percentage calculation with the original one, which concatenated the
+ * key and id and used floating point. This lives in the calculator's package so it can reach the hash function.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PercentageCalculatorBenchmark {
+  @Param({"user@example.com", "5d0b6bca-8a1c-4a55-9c2e-9fb5e6e0f0a3", "Jörg Müller"})
+  public String userKey;
+
+  private String featureValueId;
+  private Murmur3_32HashFunction hashFunction;
+  private PercentageMumurCalculator calculator;
+
+  @Setup
+  public void setup() {
+    featureValueId = UUID.randomUUID().toString();
+    hashFunction = new Murmur3_32HashFunction(-1532782654);
+    calculator = new PercentageMumurCalculator();
+  }
+
+  @Benchmark
+  public int concatenated() {
+    int hashCode = hashFunction.hashString((userKey + featureValueId), StandardCharsets.UTF_8);
+
+    double ratio = (double) (hashCode & 0xFFFFFFFFL) / Math.pow(2, 32);
+    return (int) Math.floor(PercentageMumurCalculator.MAX_PERCENTAGE * ratio);
+  }
+
+  @Benchmark
+  public int streamed() {
+    return calculator.determineClientPercentage(userKey, featureValueId);
+  }
+}
@@ -0,0 +1,251 @@
+package io.featurehub.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.featurehub.javascript.JavascriptObjectMapper;
+import io.featurehub.javascript.JavascriptServiceLoader;
+import io.featurehub.sse.model.FeatureEnvironmentCollection;
+import io.featurehub.sse.model.FeatureState;
+import io.featurehub.sse.model.FeatureValueType;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An in-process stand in for the Edge server. It serves one client evaluated environment over both
+ * GET /features (polling, honouring if-none-match) and GET /features/{apiKey} (SSE), with an artificial
+ * latency added to every response and event.
+ * <p>
+ * Every feature is a string whose value is the System.nanoTime() at which that version was published, so
+ * an SDK in the same JVM can work out exactly how long an update took to reach it.
+ */
+public class FakeEdge implements AutoCloseable {
+  private static final Logger log = LoggerFactory.getLogger(FakeEdge.class);
+  private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.UTF_8);
+
+  private final UUID environmentId = UUID.randomUUID();
+  private final JavascriptObjectMapper mapper = JavascriptServiceLoader.load();
+  private final FeatureState[] features;
+  private final long latencyMs;
+  private final int pollIntervalSeconds;
+
+  private final Set<OutputStream> streams = ConcurrentHashMap.newKeySet();
+  private final ScheduledExecutorService scheduler =
+    Executors.newSingleThreadScheduledExecutor(daemon("fake-edge-events"));
+  private final ExecutorService requestPool = Executors.newCachedThreadPool(daemon("fake-edge"));
+  private final HttpServer server;
+
+  private long generation = 0;
+  private int nextFeature = 0;
+  private long cachedGeneration = -1;
+  private byte[] cachedCollection;
+
+  public FakeEdge(int featureCount, long latencyMs, int pollIntervalSeconds) throws IOException {
+    this.latencyMs = latencyMs;
+    this.pollIntervalSeconds = pollIntervalSeconds;
+
+    features = new FeatureState[featureCount];
+    final long now = System.nanoTime();
+    for (int i = 0; i < featureCount; i++) {
+      features[i] = new FeatureState()
+        .id(UUID.randomUUID())
+        .key("load_" + i)
+        .l(false)
+        .version(1L)
+        .type(FeatureValueType.STRING)
+        .value(String.valueOf(now));
+    }
+
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1000);
+    server.setExecutor(requestPool);
+    server.createContext("/features", this::handle);
+    server.start();
+
+    scheduler.scheduleAtFixedRate(this::heartbeat, 5, 5, TimeUnit.SECONDS);
+  }
+
+  public @NotNull String url() {
+    return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+  }
+
+  /**
+   * A client evaluated key for the one environment we serve, the key itself is never checked.
+   */
+  public @NotNull String apiKey() {
+    return environmentId + "/loadtest*loadtest";
+  }
+
+  public int streamingConnections() {
+    return streams.size();
+  }
+
+  /**
+   * Publishes a new version of the next feature (round robin), stamped with the current time. Pollers
+   * see it on their next request, streams are sent it after the configured latency.
+   */
+  public void publish() {
+    synchronized (this) {
+      final FeatureState current = features[nextFeature];
+      final FeatureState fs = current.copy().version(current.getVersion() + 1).value(String.valueOf(System.nanoTime()));
+      features[nextFeature] = fs;
+      nextFeature = (nextFeature + 1) % features.length;
+      generation++;
+
+      // scheduled while holding the lock so events reach streams in the same order as new streams get snapshots
+      final byte[] event = event("feature", mapper.writeValueAsString(fs));
+      scheduler.schedule(() -> streams.forEach(s -> write(s, event)), latencyMs, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try {
+      final String path = exchange.getRequestURI().getPath();
+
+      if (!"GET".equals(exchange.getRequestMethod())) {
+        exchange.sendResponseHeaders(405, -1);
+        exchange.close();
+      } else if (path.equals("/features") || path.equals("/features/")) {
+        poll(exchange);
+      } else {
+        stream(exchange);
+      }
+    } catch (IOException e) {
+      exchange.close();
+      throw e;
+    }
+  }
+
+  private void poll(HttpExchange exchange) throws IOException {
+    delay();
+
+    final String etag;
+    final byte[] body;
+    synchronized (this) {
+      etag = "\"" + generation + "\"";
+
+      if (cachedGeneration != generation) {
+        cachedCollection = mapper.writeValueAsString(Collections.singletonList(
+          new FeatureEnvironmentCollection().id(environmentId).features(snapshot())))
+          .getBytes(StandardCharsets.UTF_8);
+        cachedGeneration = generation;
+      }
+
+      body = cachedCollection;
+    }
+
+    exchange.getResponseHeaders().add("etag", etag);
+    exchange.getResponseHeaders().add("cache-control", "max-age=" + pollIntervalSeconds);
+
+    if (etag.equals(exchange.getRequestHeaders().getFirst("if-none-match"))) {
+      exchange.sendResponseHeaders(304, -1);
+    } else {
+      exchange.getResponseHeaders().add("content-type", "application/json");
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream os = exchange.getResponseBody()) {
+        os.write(body);
+      }
+    }
+
+    exchange.close();
+  }
+
+  private void stream(HttpExchange exchange) throws IOException {
+    exchange.getResponseHeaders().add("content-type", "text/event-stream");
+    exchange.getResponseHeaders().add("cache-control", "no-cache");
+    exchange.sendResponseHeaders(200, 0);
+
+    final OutputStream os = exchange.getResponseBody();
+
+    // the exchange stays open after we return, the scheduler writes all further events to it
+    synchronized (this) {
+      final byte[] initial = event("features", mapper.writeValueAsString(snapshot()));
+
+      scheduler.schedule(() -> {
+        if (write(os, event("ack", "{}")) && write(os, initial)) {
+          streams.add(os);
+        }
+      }, latencyMs, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private List<FeatureState> snapshot() {
+    return new ArrayList<>(Arrays.asList(features));
+  }
+
+  private void heartbeat() {
+    // a comment line, which keeps the client's read timeout from firing between updates
+    streams.forEach(s -> write(s, HEARTBEAT));
+  }
+
+  private boolean write(OutputStream os, byte[] data) {
+    try {
+      synchronized (os) {
+        os.write(data);
+        os.flush();
+      }
+      return true;
+    } catch (IOException e) {
+      log.debug("stream closed", e);
+      streams.remove(os);
+      try {
+        os.close();
+      } catch (IOException ignored) {
+      }
+      return false;
+    }
+  }
+
+  private void delay() {
+    if (latencyMs > 0) {
+      try {
+        Thread.sleep(latencyMs);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private static ThreadFactory daemon(String name) {
+    return r -> {
+      final Thread t = new Thread(r, name);
+      t.setDaemon(true);
+      return t;
+    };
+  }
+
+  private static byte[] event(String type, String data) {
+    return ("event: " + type + "\ndata: " + data + "\n\n").getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+    streams.forEach(s -> {
+      try {
+        s.close();
+      } catch (IOException ignored) {
+      }
+    });
+    streams.clear();
+    server.stop(0);
+    requestPool.shutdownNow();
+  }
+}
@@ -0,0 +1,68 @@
+package io.featurehub.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Collects propagation latencies (in nanoseconds) from every simulated SDK. A load test run produces at most
+ * a few million samples, so we simply keep them all and sort once at the end.
+ */
+class LatencyRecorder {
+  private long[] samples = new long[4096];
+  private int count = 0;
+
+  synchronized void record(long nanos) {
+    if (count == samples.length) {
+      samples = Arrays.copyOf(samples, samples.length * 2);
+    }
+
+    samples[count++] = nanos;
+  }
+
+  synchronized int count() {
+    return count;
+  }
+
+  synchronized Summary summary() {
+    final long[] sorted = Arrays.copyOf(samples, count);
+    Arrays.sort(sorted);
+    return new Summary(sorted);
+  }
+
+  static class Summary {
+    private final long[] sorted;
+
+    Summary(long[] sorted) {
+      this.sorted = sorted;
+    }
+
+    int count() {
+      return sorted.length;
+    }
+
+    /**
+     * @param percentile - 0 to 100
+     * @return the latency in milliseconds at that percentile, nearest rank
+     */
+    double percentileMs(double percentile) {
+      if (sorted.length == 0) {
+        return 0;
+      }
+
+      final int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+      return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))] / 1_000_000.0;
+    }
+
+    double meanMs() {
+      if (sorted.length == 0) {
+        return 0;
+      }
+
+      double total = 0;
+      for (long sample : sorted) {
+        total += sample;
+      }
+
+      return total / sorted.length / 1_000_000.0;
+    }
+  }
+}
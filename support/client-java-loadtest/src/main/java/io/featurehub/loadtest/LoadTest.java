@@ -1,252 +1,133 @@
 package io.featurehub.loadtest;
 
-import cd.connect.app.config.ConfigKey;
-import cd.connect.app.config.DeclaredConfigResolver;
-import com.fasterxml.jackson.annotation.JsonInclude;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import io.featurehub.client.AbstractFeatureRepository;
-import io.featurehub.client.AnalyticsCollector;
-import io.featurehub.client.Applied;
-import io.featurehub.client.ClientContext;
-import io.featurehub.client.EdgeFeatureHubConfig;
-import io.featurehub.client.Feature;
 import io.featurehub.client.FeatureHubConfig;
-import io.featurehub.client.FeatureRepository;
-import io.featurehub.client.FeatureState;
-import io.featurehub.client.FeatureStore;
-import io.featurehub.client.FeatureValueInterceptor;
-import io.featurehub.client.FeatureValueInterceptorHolder;
-import io.featurehub.client.Readyness;
-import io.featurehub.client.ReadynessListener;
-import io.featurehub.client.jersey.JerseyClient;
-import io.featurehub.sse.model.RolloutStrategy;
-import io.featurehub.sse.model.SSEResultState;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
-class FeatureVersionHolder {
-  private static final Logger log = LoggerFactory.getLogger(FeatureVersionHolder.class);
-  private int counter = 0;
-  private long start = System.currentTimeMillis();
-
-
-  synchronized int inc() {
-    counter ++;
-    return counter;
-  }
-
-  void finished(Long version) {
-    log.info("version {} updated in {}ms", version, System.currentTimeMillis() - start);
-  }
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Starts a FakeEdge and N independent SDK instances against it, publishes feature updates at a fixed rate
+ * and reports how long they took to reach every SDK, along with what each SDK instance costs in heap and
+ * threads.
+ * <p>
+ * Everything is configured through system properties or environment variables (see README.adoc).
+ */
+public class LoadTest {
+  private static final Logger log = LoggerFactory.getLogger(LoadTest.class);
 
-  @Override
-  public String toString() {
-    return "FeatureVersionHolder{" +
-      "counter=" + counter +
-      '}';
-  }
-}
+  private final int instances = intConfig("loadtest.instances", 100);
+  private final int featureCount = intConfig("loadtest.features", 100);
+  private final int updatesPerSecond = intConfig("loadtest.updates-per-second", 10);
+  private final int edgeLatencyMs = intConfig("loadtest.edge-latency-ms", 0);
+  private final boolean streaming = !"polling".equalsIgnoreCase(FeatureHubConfig.getConfig("loadtest.mode", "streaming"));
+  private final int pollIntervalSeconds = intConfig("loadtest.poll-interval-seconds", 5);
+  private final int durationSeconds = intConfig("loadtest.duration-seconds", 30);
+  private final int rampUpMs = intConfig("loadtest.ramp-up-ms", 0);
 
-class InternetFeatureTrackerRepository extends AbstractFeatureRepository implements FeatureStore {
-  private static final Logger log = LoggerFactory.getLogger(InternetFeatureTrackerRepository.class);
-  public static int fullDataCount = 0;
-  Map<Long, FeatureVersionHolder> versionMap = new ConcurrentHashMap<>();
-  static ObjectMapper mapper;
-  private final int maxConnections;
-
-  static {
-    mapper = new ObjectMapper();
-    mapper.registerModule(new JavaTimeModule());
-    mapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
-    mapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
-    mapper.setSerializationInclusion(JsonInclude.Include.NON_EMPTY);
+  private static int intConfig(String name, int defaultVal) {
+    return Integer.parseInt(FeatureHubConfig.getConfig(name, Integer.toString(defaultVal)));
   }
 
-  synchronized void fdInc() {
-    fullDataCount ++;
-  }
+  public void run() throws Exception {
+    log.info("{} SDK instances {}, {} features, {} updates/sec, {}ms edge latency, {}s run", instances,
+      streaming ? "streaming" : ("polling every " + pollIntervalSeconds + "s"), featureCount, updatesPerSecond,
+      edgeLatencyMs, durationSeconds);
 
-  InternetFeatureTrackerRepository(int maxConnections) {
-    this.maxConnections = maxConnections;
-  }
+    final LatencyRecorder recorder = new LatencyRecorder();
+    final CountDownLatch ready = new CountDownLatch(instances);
+    final List<SimulatedSdk> sdks = new ArrayList<>(instances);
 
-  @Override
-  public void notify(SSEResultState state, String data) {
-    if (state == SSEResultState.FEATURES) {
-      if (fullDataCount < maxConnections) {
-        fdInc();
-        if (fullDataCount == maxConnections) {
-          log.info("All servers have their data");
-        }
-      }
-    } else if (state == SSEResultState.FEATURE) {
-      final io.featurehub.sse.model.FeatureState featureState;
+    try (FakeEdge edge = new FakeEdge(featureCount, edgeLatencyMs, pollIntervalSeconds)) {
       try {
-        featureState = mapper.readValue(data, io.featurehub.sse.model.FeatureState.class);
-      } catch (JsonProcessingException e) {
-        return;
-      }
-      versionMap.putIfAbsent(featureState.getVersion(), new FeatureVersionHolder());
-      final FeatureVersionHolder fvh = versionMap.get(featureState.getVersion());
-      int val = fvh.inc();
-      log.debug("version: {} -> {}", featureState.getVersion(), val);
-      if (val == maxConnections) {
-        fvh.finished(featureState.getVersion());
+        run(edge, recorder, ready, sdks);
+      } finally {
+        // before the edge goes away, otherwise every SDK sees a disconnect and tries to reconnect
+        sdks.forEach(SimulatedSdk::close);
       }
     }
   }
 
-  @Override
-  public void notify(List<io.featurehub.sse.model.FeatureState> states) {
-  }
-
-  @Override
-  public void notify(List<io.featurehub.sse.model.FeatureState> states, boolean force) {
-  }
-
-  @Override
-  public List<FeatureValueInterceptorHolder> getFeatureValueInterceptors() {
-    return null;
-  }
-
-  @Override
-  public Applied applyFeature(List<RolloutStrategy> strategies, String key, String featureValueId, ClientContext cac) {
-    return null;
-  }
-
-  @Override
-  public void execute(Runnable command) {
-
-  }
-
-  @Override
-  public ObjectMapper getJsonObjectMapper() {
-    return null;
-  }
-
-  @Override
-  public void setServerEvaluation(boolean val) {
-
-  }
-
-  @Override
-  public void notReady() {
-
-  }
-
-  @Override
-  public FeatureRepository addReadynessListener(ReadynessListener readynessListener) {
-    return null;
-  }
-
-  @Override
-  public FeatureState getFeatureState(String key) {
-    return null;
-  }
-
-  @Override
-  public FeatureState getFeatureState(Feature feature) {
-    return null;
-  }
+  private void run(FakeEdge edge, LatencyRecorder recorder, CountDownLatch ready, List<SimulatedSdk> sdks)
+      throws InterruptedException {
+    final long heapBefore = usedHeap();
+    final int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+    final long connectStart = System.nanoTime();
 
-  @Override
-  public FeatureRepository addAnalyticCollector(AnalyticsCollector collector) {
-    return null;
-  }
+    for (int i = 0; i < instances; i++) {
+      final SimulatedSdk sdk = new SimulatedSdk(edge, streaming, pollIntervalSeconds, recorder, ready);
+      sdks.add(sdk);
+      sdk.start();
 
-  @Override
-  public FeatureRepository registerValueInterceptor(boolean allowLockOverride, FeatureValueInterceptor interceptor) {
-    return null;
-  }
-
-  @Override
-  public Readyness getReadyness() {
-    return null;
-  }
+      if (rampUpMs > 0) {
+        Thread.sleep(rampUpMs);
+      }
+    }
 
-  @Override
-  public void setJsonConfigObjectMapper(ObjectMapper jsonConfigObjectMapper) {
-  }
+    if (!ready.await(Math.max(60, instances / 10), TimeUnit.SECONDS)) {
+      log.warn("only {} of {} SDK instances became ready", instances - ready.getCount(), instances);
+    }
 
-  @Override
-  public boolean exists(String key) {
-    return false;
-  }
+    final long connectMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - connectStart);
+    final long heapPerInstance = (usedHeap() - heapBefore) / instances;
+    final int threadsPerInstance = (ManagementFactory.getThreadMXBean().getThreadCount() - threadsBefore) / instances;
 
-  @Override
-  public boolean isServerEvaluation() {
-    return false;
-  }
+    final ScheduledExecutorService publisher = Executors.newSingleThreadScheduledExecutor();
+    final AtomicLong published = new AtomicLong();
+    publisher.scheduleAtFixedRate(() -> {
+      edge.publish();
+      published.incrementAndGet();
+    }, 0, 1_000_000L / updatesPerSecond, TimeUnit.MICROSECONDS);
 
-  @Override
-  public boolean isEnabled(String name) {
-    return false;
-  }
+    Thread.sleep(TimeUnit.SECONDS.toMillis(durationSeconds));
+    publisher.shutdown();
+    publisher.awaitTermination(5, TimeUnit.SECONDS);
 
-  @Override
-  public FeatureRepository logAnalyticsEvent(String action, Map<String, String> other, ClientContext ctx) {
-    return this;
-  }
+    // give the last updates time to arrive
+    Thread.sleep(edgeLatencyMs + (streaming ? 2000L : TimeUnit.SECONDS.toMillis(pollIntervalSeconds + 2)));
 
-  @Override
-  public void close() {
+    report(recorder.summary(), published.get(), connectMs, heapPerInstance, threadsPerInstance,
+      streaming ? edge.streamingConnections() : instances);
   }
-}
 
-class ClientHolder {
-  JerseyClient client;
+  private void report(LatencyRecorder.Summary latency, long published, long connectMs, long heapPerInstance,
+                      int threadsPerInstance, int connected) {
+    final long expected = published * instances;
 
-  public ClientHolder(FeatureHubConfig url, FeatureStore repo) {
-    client = new JerseyClient(url, true, repo, null);
+    log.info("--- load test results ---");
+    log.info("instances ready in {}ms, {} connected at the end", connectMs, connected);
+    log.info("per SDK instance: {} KiB heap (including its fake edge connection), {} threads",
+      heapPerInstance / 1024, threadsPerInstance);
+    log.info("updates published {}, deliveries seen {} of {} ({} coalesced or missed)", published, latency.count(),
+      expected, Math.max(0, expected - latency.count()));
+    log.info("propagation latency ms: mean {} p50 {} p90 {} p99 {} p99.9 {} max {}",
+      format(latency.meanMs()), format(latency.percentileMs(50)), format(latency.percentileMs(90)),
+      format(latency.percentileMs(99)), format(latency.percentileMs(99.9)), format(latency.percentileMs(100)));
   }
-}
 
-public class LoadTest {
-  private static final Logger log = LoggerFactory.getLogger(LoadTest.class);
-  @ConfigKey("max-connections")
-  Integer maxConnections = 10;
-  @ConfigKey("ramp-up-seconds")
-  Integer rampUpSeconds = 5;
-  @ConfigKey("start-connections")
-  Integer startConnections = 5;
-  @ConfigKey("server.base-url")
-  String baseurl;
-  @ConfigKey("server.sdk-key")
-  String sdkKey;
-  private final InternetFeatureTrackerRepository repo = new InternetFeatureTrackerRepository(maxConnections);
-  private List<ClientHolder> holders = new ArrayList<>();
-
-  public LoadTest() {
-    DeclaredConfigResolver.resolve(this);
+  private static String format(double ms) {
+    return String.format("%.2f", ms);
   }
 
-  public void run() throws InterruptedException {
-    log.info("Connecting to {} : {}", baseurl, sdkKey);
-
-    final EdgeFeatureHubConfig url = new EdgeFeatureHubConfig(this.baseurl, sdkKey);
-
-    for(int count = 0; count < maxConnections; count ++) {
-      log.info("kicking off connection {}", count);
-      holders.add(new ClientHolder(url, repo));
-//      try {
-//        Thread.sleep(100);
-//      } catch (InterruptedException e) {
-//      }
+  private static long usedHeap() throws InterruptedException {
+    // a few collections and a pause, so what we read is live data rather than garbage
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+      Thread.sleep(200);
     }
 
-    // now waiting
-    Thread.currentThread().join();
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
   }
 
-  public static void main(String[] args) throws InterruptedException {
+  public static void main(String[] args) throws Exception {
     new LoadTest().run();
+    System.exit(0);
   }
 }
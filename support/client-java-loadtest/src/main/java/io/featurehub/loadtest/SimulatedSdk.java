@@ -0,0 +1,54 @@
+package io.featurehub.loadtest;
+
+import io.featurehub.client.EdgeFeatureHubConfig;
+import io.featurehub.client.FeatureHubConfig;
+import io.featurehub.client.InternalFeatureRepository;
+import io.featurehub.client.Readiness;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One application's worth of SDK: its own config, repository and edge connection, exactly as an
+ * application would create them. Every feature update it sees is timed against the publish time the
+ * FakeEdge stamped into the value.
+ */
+class SimulatedSdk implements AutoCloseable {
+  private final FeatureHubConfig config;
+  private final AtomicBoolean wasReady = new AtomicBoolean();
+
+  SimulatedSdk(@NotNull FakeEdge edge, boolean streaming, int pollIntervalSeconds,
+               @NotNull LatencyRecorder recorder, @NotNull CountDownLatch ready) {
+    config = new EdgeFeatureHubConfig(edge.url(), edge.apiKey());
+
+    if (!streaming) {
+      config.restActive(pollIntervalSeconds);
+    }
+
+    final InternalFeatureRepository repository = config.getInternalRepository();
+
+    repository.addReadinessListener(readiness -> {
+      // only the first time, it can become ready again after a reconnect
+      if (readiness == Readiness.Ready && wasReady.compareAndSet(false, true)) {
+        ready.countDown();
+      }
+    });
+
+    repository.registerFeatureUpdateAvailable(fs -> {
+      final String published = fs.getString();
+      if (published != null) {
+        recorder.record(System.nanoTime() - Long.parseLong(published));
+      }
+    });
+  }
+
+  void start() {
+    config.init();
+  }
+
+  @Override
+  public void close() {
+    config.close();
+  }
+}
@@ -7,6 +7,9 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
@@ -22,6 +25,45 @@ public interface JavascriptObjectMapper {
   @NotNull List<FeatureState> readFeatureStates(@NotNull String data) throws IOException;
   @NotNull List<FeatureEnvironmentCollection> readFeatureCollection(@NotNull String data) throws IOException;
 
+  /*
+   * The same again, but decoding straight from the bytes Edge sent (JSON is always UTF-8) rather than from a copy of
+   * them as a String. These defaults make that copy, so a mapper that can decode bytes itself should override them.
+   * A ByteBuffer is read from its position to its limit without moving either.
+   */
+  @NotNull default <T> T readValue(@NotNull byte[] data, @NotNull Class<T> type) throws IOException {
+    return readValue(new String(data, StandardCharsets.UTF_8), type);
+  }
+
+  @NotNull default List<FeatureState> readFeatureStates(@NotNull byte[] data) throws IOException {
+    return readFeatureStates(new String(data, StandardCharsets.UTF_8));
+  }
+
+  @NotNull default List<FeatureState> readFeatureStates(@NotNull InputStream data) throws IOException {
+    return readFeatureStates(data.readAllBytes());
+  }
+
+  @NotNull default List<FeatureState> readFeatureStates(@NotNull ByteBuffer data) throws IOException {
+    return readFeatureStates(bytes(data));
+  }
+
+  @NotNull default List<FeatureEnvironmentCollection> readFeatureCollection(@NotNull byte[] data) throws IOException {
+    return readFeatureCollection(new String(data, StandardCharsets.UTF_8));
+  }
+
+  @NotNull default List<FeatureEnvironmentCollection> readFeatureCollection(@NotNull InputStream data) throws IOException {
+    return readFeatureCollection(data.readAllBytes());
+  }
+
+  @NotNull default List<FeatureEnvironmentCollection> readFeatureCollection(@NotNull ByteBuffer data) throws IOException {
+    return readFeatureCollection(bytes(data));
+  }
+
+  private static byte[] bytes(@NotNull ByteBuffer data) {
+    final byte[] bytes = new byte[data.remaining()];
+    data.duplicate().get(bytes);
+    return bytes;
+  }
+
   @NotNull String featureStateUpdateToString(FeatureStateUpdate data) throws IOException;
   @Nullable String writeValueAsString(@Nullable Object data);
 }
@@ -15,6 +15,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
 
@@ -67,6 +69,45 @@ public class Jackson2ObjectMapper implements JavascriptObjectMapper {
     return mapper.readValue(data, FEATURE_COLLECTION_TYPEREF);
   }
 
+  @Override
+  public <T> T readValue(@NotNull byte[] data, @NotNull Class<T> type) throws IOException {
+    return mapper.readValue(data, type);
+  }
+
+  @Override
+  public @NotNull List<FeatureState> readFeatureStates(@NotNull byte[] data) throws IOException {
+    return mapper.readValue(data, FEATURE_LIST_TYPEDEF);
+  }
+
+  @Override
+  public @NotNull List<FeatureState> readFeatureStates(@NotNull InputStream data) throws IOException {
+    return mapper.readValue(data, FEATURE_LIST_TYPEDEF);
+  }
+
+  @Override
+  public @NotNull List<FeatureState> readFeatureStates(@NotNull ByteBuffer data) throws IOException {
+    return data.hasArray()
+      ? mapper.readValue(data.array(), data.arrayOffset() + data.position(), data.remaining(), FEATURE_LIST_TYPEDEF)
+      : JavascriptObjectMapper.super.readFeatureStates(data);
+  }
+
+  @Override
+  public @NotNull List<FeatureEnvironmentCollection> readFeatureCollection(@NotNull byte[] data) throws IOException {
+    return mapper.readValue(data, FEATURE_COLLECTION_TYPEREF);
+  }
+
+  @Override
+  public @NotNull List<FeatureEnvironmentCollection> readFeatureCollection(@NotNull InputStream data) throws IOException {
+    return mapper.readValue(data, FEATURE_COLLECTION_TYPEREF);
+  }
+
+  @Override
+  public @NotNull List<FeatureEnvironmentCollection> readFeatureCollection(@NotNull ByteBuffer data) throws IOException {
+    return data.hasArray()
+      ? mapper.readValue(data.array(), data.arrayOffset() + data.position(), data.remaining(), FEATURE_COLLECTION_TYPEREF)
+      : JavascriptObjectMapper.super.readFeatureCollection(data);
+  }
+
   @Override
   public @NotNull String featureStateUpdateToString(FeatureStateUpdate data) throws IOException {
     return mapper.writeValueAsString(data);
@@ -74,16 +74,16 @@ public class OpenTelemetryFeatureInterceptor implements ExtendedFeatureValueInte
                              @Nullable FeatureState rawFeature) {
     String fhub = Baggage.current().getEntryValue(BAGGAGE_KEY);
     if (fhub == null || fhub.isEmpty()) {
-      return new ValueMatch(false, null);
+      return ValueMatch.NO_MATCH;
     }
 
     TreeMap<String, String> parsed = FhubBaggage.parse(fhub);
     if (!parsed.containsKey(key)) {
-      return new ValueMatch(false, null);
+      return ValueMatch.NO_MATCH;
     }
 
     if (!allowLockedOverride && rawFeature != null && Boolean.TRUE.equals(rawFeature.getL())) {
-      return new ValueMatch(false, null);
+      return ValueMatch.NO_MATCH;
     }
 
     String decodedValue = FhubBaggage.decode(parsed.get(key));
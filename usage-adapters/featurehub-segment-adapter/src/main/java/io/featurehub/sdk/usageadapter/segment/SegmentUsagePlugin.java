@@ -3,6 +3,7 @@ package io.featurehub.sdk.usageadapter.segment;
 import com.segment.analytics.Analytics;
 import com.segment.analytics.MessageTransformer;
 import com.segment.analytics.messages.TrackMessage;
+import io.featurehub.client.FeatureHubConfig;
 import io.featurehub.client.usage.UsageEvent;
 import io.featurehub.client.usage.UsageEventName;
 import io.featurehub.client.usage.UsagePlugin;
@@ -20,6 +21,7 @@ import java.util.List;
 public class SegmentUsagePlugin extends UsagePlugin implements SegmentAnalyticsSource {
   final Analytics analytics;
   private static final Logger log = LoggerFactory.getLogger(SegmentUsagePlugin.class);
+  private boolean runAsync = Boolean.parseBoolean(FeatureHubConfig.getConfig("featurehub.usage.segment-async", "false"));
 
   public SegmentUsagePlugin(String segmentKey) {
     analytics = Analytics.builder(segmentKey).build();
@@ -88,6 +90,22 @@ public class SegmentUsagePlugin extends UsagePlugin implements SegmentAnalyticsS
     return segmentKey;
   }
 
+  /**
+   * Segment batches and sends on its own threads anyway, so its messages can be built off the evaluating thread
+   * as well. That means events can be dropped when the usage buffer is full, and any MessageTransformer runs on
+   * the usage thread, so it is off unless asked for here or with featurehub.usage.segment-async. It must be set
+   * before the plugin is registered.
+   */
+  public SegmentUsagePlugin runAsync(boolean runAsync) {
+    this.runAsync = runAsync;
+    return this;
+  }
+
+  @Override
+  public boolean shouldRunAsync() {
+    return runAsync;
+  }
+
   @Override
   public void send(UsageEvent event) {
     if (event instanceof UsageEventName) {
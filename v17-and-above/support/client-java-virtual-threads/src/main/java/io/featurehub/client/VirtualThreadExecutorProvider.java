@@ -0,0 +1,16 @@
+package io.featurehub.client;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Gives every task the repository runs a virtual thread of its own, so listeners, readiness and context changes
+ * that are waiting on Edge no longer queue up behind the few threads of the default pool. The pool size asked
+ * for doesn't matter.
+ */
+public class VirtualThreadExecutorProvider implements FeatureHubExecutorProviderService {
+  @Override
+  public ExecutorService get(int threadPoolSize) {
+    return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("featurehub-virtual-", 0).factory());
+  }
+}
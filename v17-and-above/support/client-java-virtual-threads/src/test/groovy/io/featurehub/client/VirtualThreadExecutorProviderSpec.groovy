@@ -0,0 +1,65 @@
+package io.featurehub.client
+
+import io.featurehub.sse.model.FeatureState
+import io.featurehub.sse.model.FeatureValueType
+import spock.lang.Specification
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.TimeUnit
+
+class VirtualThreadExecutorProviderSpec extends Specification {
+  ClientFeatureRepository repo
+
+  def cleanup() {
+    repo?.close()
+  }
+
+  def "the provider is found with the service loader"() {
+    when:
+      def providers = ServiceLoader.load(FeatureHubExecutorProviderService).collect()
+    then:
+      providers*.class == [VirtualThreadExecutorProvider]
+  }
+
+  def "a repository runs its work on virtual threads"() {
+    given: "a repository with the default executor"
+      repo = new ClientFeatureRepository()
+      def ran = new CompletableFuture<Thread>()
+    when:
+      repo.execute { ran.complete(Thread.currentThread()) }
+      def thread = ran.get(5, TimeUnit.SECONDS)
+    then:
+      thread.isVirtual()
+      thread.name.startsWith('featurehub-virtual-')
+  }
+
+  def "listeners are told about changes on virtual threads"() {
+    given: "a repository with a listener on a feature"
+      repo = new ClientFeatureRepository()
+      def told = new CompletableFuture<Thread>()
+      repo.getFeat('banana').addListener { told.complete(Thread.currentThread()) }
+    when: "the feature arrives"
+      repo.updateFeatures([new FeatureState().id(UUID.randomUUID()).environmentId(UUID.randomUUID())
+                             .key('banana').version(1).value(true).type(FeatureValueType.BOOLEAN)])
+    then:
+      told.get(5, TimeUnit.SECONDS).isVirtual()
+  }
+
+  def "many tasks that block wait at the same time rather than queueing"() {
+    given: "a repository with the default executor"
+      repo = new ClientFeatureRepository()
+    when: "more tasks block than the default pool has threads"
+      def start = System.nanoTime()
+      def tasks = (1..200).collect {
+        def done = new CompletableFuture<Void>()
+        repo.execute {
+          Thread.sleep(100)
+          done.complete(null)
+        }
+        done
+      }
+      CompletableFuture.allOf(tasks as CompletableFuture[]).get(10, TimeUnit.SECONDS)
+    then: "they all slept at once, 3 threads would take over 6 seconds"
+      TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000
+  }
+}